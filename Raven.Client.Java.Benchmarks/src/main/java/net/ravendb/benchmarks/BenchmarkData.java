@@ -0,0 +1,58 @@
+package net.ravendb.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import net.ravendb.abstractions.json.linq.RavenJArray;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.benchmarks.entities.Address;
+import net.ravendb.benchmarks.entities.Order;
+import net.ravendb.benchmarks.entities.OrderLine;
+
+/**
+ * Deterministic documents shared by the benchmarks, so results are comparable between runs.
+ */
+public final class BenchmarkData {
+
+  private BenchmarkData() {
+    // utility class
+  }
+
+  public static Order createOrder(int index, int numberOfLines) {
+    Order order = new Order();
+    order.setId("orders/" + index);
+    order.setCompany("companies/" + (index % 91));
+    order.setEmployee("employees/" + (index % 9));
+    order.setOrderedAt(new Date(1420070400000L + index * 3600000L));
+    order.setShippedAt(new Date(1420070400000L + index * 3600000L + 86400000L));
+    order.setShipTo(new Address("Street " + index, "City " + (index % 50), "0" + (10000 + index % 9000), "Poland"));
+    order.setShipVia("shippers/" + (index % 3));
+    order.setFreight(index * 0.75);
+
+    List<OrderLine> lines = new ArrayList<>(numberOfLines);
+    for (int i = 0; i < numberOfLines; i++) {
+      lines.add(new OrderLine("products/" + i, "Product #" + i, 10.5 + i, 1 + i % 7, (i % 4) * 0.05));
+    }
+    order.setLines(lines);
+    return order;
+  }
+
+  public static RavenJObject createOrderJson(int index, int numberOfLines) {
+    return RavenJObject.fromObject(createOrder(index, numberOfLines));
+  }
+
+  /**
+   * Creates a query-like result: { "Results": [ order, order, ... ] }
+   */
+  public static RavenJObject createQueryResultJson(int numberOfDocuments, int numberOfLines) {
+    RavenJArray results = new RavenJArray();
+    for (int i = 0; i < numberOfDocuments; i++) {
+      results.add(createOrderJson(i, numberOfLines));
+    }
+    RavenJObject result = new RavenJObject();
+    result.add("Results", results);
+    return result;
+  }
+
+}
@@ -0,0 +1,109 @@
+package net.ravendb.benchmarks;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.client.connection.CachedRequest;
+import net.ravendb.client.connection.profiling.ConcurrentLruSet;
+import net.ravendb.client.util.SimpleCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * HTTP cache access under contention - every GET request goes through {@link SimpleCache}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheBenchmark {
+
+  @Param({"256", "2048"})
+  public int cacheSize;
+
+  private SimpleCache cache;
+  private ConcurrentLruSet<String> lruSet;
+  private String[] urls;
+  private CachedRequest cachedRequest;
+
+  @Setup
+  public void setup() {
+    cache = new SimpleCache(cacheSize);
+    lruSet = new ConcurrentLruSet<>(cacheSize, null);
+
+    // twice as many keys as cache entries, so some of the lookups miss and evict
+    urls = new String[cacheSize * 2];
+    for (int i = 0; i < urls.length; i++) {
+      urls[i] = "http://localhost:8080/databases/Bench/docs?id=orders%2F" + i;
+    }
+
+    HashMap<String, String> headers = new HashMap<>();
+    headers.put("ETag", "01000000-0000-0001-0000-000000000001");
+    cachedRequest = new CachedRequest(BenchmarkData.createOrderJson(1, 3), new Date(), headers, "Bench", false);
+
+    for (int i = 0; i < cacheSize; i++) {
+      cache.set(urls[i], cachedRequest);
+      lruSet.push(urls[i]);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    cache.close();
+  }
+
+  private String randomUrl() {
+    return urls[ThreadLocalRandom.current().nextInt(urls.length)];
+  }
+
+  @Benchmark
+  @Threads(4)
+  public CachedRequest simpleCacheGet() {
+    return cache.get(randomUrl());
+  }
+
+  @Benchmark
+  @Group("simpleCacheMixed")
+  @GroupThreads(3)
+  public CachedRequest simpleCacheMixedGet() {
+    return cache.get(randomUrl());
+  }
+
+  @Benchmark
+  @Group("simpleCacheMixed")
+  @GroupThreads(1)
+  public void simpleCacheMixedSet() {
+    cache.set(randomUrl(), cachedRequest);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void lruSetPush() {
+    lruSet.push(randomUrl());
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void lruSetPushUncontended() {
+    lruSet.push(randomUrl());
+  }
+
+}
@@ -0,0 +1,95 @@
+package net.ravendb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.json.linq.DictionaryWithParentSnapshot;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.abstractions.json.linq.RavenJValue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Property access through chains of snapshots, as created by cached {@link net.ravendb.client.document.EntityToJson}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DictionaryWithParentSnapshotBenchmark {
+
+  @Param({"16", "128"})
+  public int numberOfProperties;
+
+  @Param({"1", "8"})
+  public int snapshotDepth;
+
+  private String[] keys;
+  private DictionaryWithParentSnapshot flat;
+  private DictionaryWithParentSnapshot chained;
+
+  @Setup
+  public void setup() {
+    keys = new String[numberOfProperties];
+    flat = new DictionaryWithParentSnapshot(String.CASE_INSENSITIVE_ORDER);
+    for (int i = 0; i < numberOfProperties; i++) {
+      keys[i] = "Property" + i;
+      flat.put(keys[i], new RavenJValue(i));
+    }
+
+    chained = flat;
+    for (int depth = 0; depth < snapshotDepth; depth++) {
+      chained.ensureSnapshot();
+      chained = chained.createSnapshot();
+      // modify one property on each level, like a session would do
+      chained.put(keys[depth % numberOfProperties], new RavenJValue(depth));
+    }
+    chained.ensureSnapshot();
+  }
+
+  @Benchmark
+  public void getAllFlat(Blackhole blackhole) {
+    for (String key : keys) {
+      blackhole.consume(flat.get(key));
+    }
+  }
+
+  @Benchmark
+  public void getAllChained(Blackhole blackhole) {
+    for (String key : keys) {
+      blackhole.consume(chained.get(key));
+    }
+  }
+
+  @Benchmark
+  public void containsKeyChained(Blackhole blackhole) {
+    for (String key : keys) {
+      blackhole.consume(chained.containsKey(key));
+    }
+  }
+
+  @Benchmark
+  public int sizeChained() {
+    return chained.size();
+  }
+
+  @Benchmark
+  public DictionaryWithParentSnapshot createSnapshotAndModify() {
+    DictionaryWithParentSnapshot snapshot = chained.createSnapshot();
+    snapshot.put("NewProperty", RavenJToken.fromObject("value"));
+    return snapshot;
+  }
+
+}
@@ -0,0 +1,72 @@
+package net.ravendb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.benchmarks.entities.Order;
+import net.ravendb.benchmarks.server.InMemoryRavenServer;
+import net.ravendb.client.IDocumentSession;
+import net.ravendb.client.document.DocumentStore;
+import net.ravendb.client.document.FailoverBehavior;
+import net.ravendb.client.document.FailoverBehaviorSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Many threads loading the same (popular) document over network with latency, with and without
+ * coalescing of concurrent identical GET requests.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HotDocumentBenchmark {
+
+  @Param({"false", "true"})
+  public boolean coalesceRequests;
+
+  private InMemoryRavenServer server;
+  private DocumentStore store;
+
+  @Setup
+  public void setup() {
+    server = new InMemoryRavenServer();
+    store = new DocumentStore(server.getUrl());
+    store.getConventions().setFailoverBehavior(new FailoverBehaviorSet(FailoverBehavior.FAIL_IMMEDIATELY));
+    store.getConventions().setCoalesceConcurrentGetRequests(coalesceRequests);
+    store.initialize();
+
+    try (IDocumentSession session = store.openSession()) {
+      session.store(BenchmarkData.createOrder(1, 5), "orders/1");
+      session.saveChanges();
+    }
+    server.getNetworkConditions().setLatencyMillis(2);
+  }
+
+  @TearDown
+  public void tearDown() {
+    store.close();
+    server.close();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public Order loadHotDocument() {
+    try (IDocumentSession session = store.openSession()) {
+      return session.load(Order.class, "orders/1");
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package net.ravendb.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.benchmarks.server.InMemoryRavenServer;
+import net.ravendb.client.connection.IDatabaseCommands;
+import net.ravendb.client.document.DocumentStore;
+import net.ravendb.client.document.FailoverBehavior;
+import net.ravendb.client.document.FailoverBehaviorSet;
+import net.ravendb.client.indexes.AbstractIndexCreationTask;
+import net.ravendb.client.indexes.IndexCreation;
+import net.ravendb.client.indexes.IndexDeploymentReport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Startup index deployment to many databases which already have all indexes (application restart):
+ * unconditional PUT of all definitions and per index replication request, database after database,
+ * compared with diff-based concurrent {@link IndexCreation#deployIndexes}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexDeploymentBenchmark {
+
+  public static class GeneratedIndex extends AbstractIndexCreationTask {
+    private final String indexName;
+
+    public GeneratedIndex(int number) {
+      indexName = "Orders/ByField" + number;
+      map = "from order in docs.Orders select new { order.Field" + number + ", order.Company }";
+    }
+
+    @Override
+    public String getIndexName() {
+      return indexName;
+    }
+  }
+
+  @Param({"40"})
+  public int databases;
+
+  @Param({"60"})
+  public int indexesPerDatabase;
+
+  @Param({"1"})
+  public long latencyMillis;
+
+  private InMemoryRavenServer server;
+  private DocumentStore store;
+  private List<String> databaseNames;
+  private List<AbstractIndexCreationTask> indexes;
+
+  @Setup
+  public void setup() {
+    server = new InMemoryRavenServer();
+    store = new DocumentStore(server.getUrl());
+    store.getConventions().setFailoverBehavior(new FailoverBehaviorSet(FailoverBehavior.FAIL_IMMEDIATELY));
+    store.initialize();
+
+    databaseNames = new ArrayList<>();
+    for (int i = 0; i < databases; i++) {
+      databaseNames.add("Tenant" + i);
+    }
+    indexes = new ArrayList<>();
+    for (int i = 0; i < indexesPerDatabase; i++) {
+      indexes.add(new GeneratedIndex(i));
+    }
+    IndexCreation.deployIndexes(store, databaseNames, indexes, null, 8);
+    server.getNetworkConditions().setLatencyMillis(latencyMillis);
+  }
+
+  @TearDown
+  public void tearDown() {
+    store.close();
+    server.close();
+  }
+
+  @Benchmark
+  public void putAllSequentially() {
+    for (String databaseName : databaseNames) {
+      IDatabaseCommands commands = store.getDatabaseCommands().forDatabase(databaseName);
+      commands.putIndexes(IndexCreation.createIndexesToAdd(indexes, store.getConventions()));
+      for (AbstractIndexCreationTask index : indexes) {
+        index.afterExecute(commands, store.getConventions());
+      }
+    }
+  }
+
+  @Benchmark
+  public Object deployChanged() {
+    Map<String, IndexDeploymentReport> reports = IndexCreation.deployIndexes(store, databaseNames, indexes, null, 8);
+    for (IndexDeploymentReport report : reports.values()) {
+      if (report.hasErrors() || !report.getPutIndexes().isEmpty()) {
+        throw new IllegalStateException("Unexpected deployment result: " + report);
+      }
+    }
+    return reports;
+  }
+}
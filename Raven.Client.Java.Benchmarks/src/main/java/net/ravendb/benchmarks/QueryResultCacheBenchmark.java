@@ -0,0 +1,78 @@
+package net.ravendb.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.benchmarks.entities.Order;
+import net.ravendb.benchmarks.server.InMemoryRavenServer;
+import net.ravendb.client.IDocumentSession;
+import net.ravendb.client.document.BulkInsertOperation;
+import net.ravendb.client.document.DocumentStore;
+import net.ravendb.client.document.FailoverBehavior;
+import net.ravendb.client.document.FailoverBehaviorSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Repeated paging query (dashboard) against index which doesn't change: HTTP cache (304 round trip)
+ * compared to query result cache. Server has 2 ms latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryResultCacheBenchmark {
+
+  @Param({"0", "1024"})
+  public int queryResultCacheSize;
+
+  private InMemoryRavenServer server;
+  private DocumentStore store;
+
+  @Setup
+  public void setup() throws InterruptedException {
+    server = new InMemoryRavenServer();
+    store = new DocumentStore(server.getUrl(), "Benchmarks");
+    store.getConventions().setFailoverBehavior(new FailoverBehaviorSet(FailoverBehavior.FAIL_IMMEDIATELY));
+    store.getConventions().setQueryResultCacheSize(queryResultCacheSize);
+    store.initialize();
+
+    try (BulkInsertOperation bulkInsert = store.bulkInsert()) {
+      for (int i = 0; i < 1000; i++) {
+        bulkInsert.store(BenchmarkData.createOrder(i, 5), "orders/" + i);
+      }
+    }
+    server.getNetworkConditions().setLatencyMillis(2);
+  }
+
+  @TearDown
+  public void tearDown() {
+    store.close();
+    server.close();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public List<Order> queryPage() {
+    try (IDocumentSession session = store.openSession()) {
+      return session.advanced().documentQuery(Order.class)
+        .whereGreaterThan("Freight", 500.0)
+        .take(25)
+        .toList();
+    }
+  }
+}
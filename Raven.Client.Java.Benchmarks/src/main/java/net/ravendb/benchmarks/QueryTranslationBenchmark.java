@@ -0,0 +1,105 @@
+package net.ravendb.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.data.IndexQuery;
+import net.ravendb.benchmarks.entities.Order;
+import net.ravendb.benchmarks.server.InMemoryRavenServer;
+import net.ravendb.client.IDocumentSession;
+import net.ravendb.client.document.DocumentStore;
+import net.ravendb.client.document.FailoverBehavior;
+import net.ravendb.client.document.FailoverBehaviorSet;
+import net.ravendb.client.linq.CompiledQuery;
+import net.ravendb.client.linq.IRavenQueryable;
+import net.ravendb.client.linq.RavenQueryInspector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mysema.query.types.expr.Param;
+import com.mysema.query.types.path.PathBuilder;
+
+/**
+ * Client side cost of turning QueryDSL query into {@link IndexQuery}: translating expression on every execution
+ * compared to binding parameters of compiled query. No request is sent to server.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryTranslationBenchmark {
+
+  private static final PathBuilder<Order> ORDER = new PathBuilder<>(Order.class, "order");
+  private static final Param<String> COMPANY = new Param<>(String.class, "company");
+  private static final Param<Double> FREIGHT = new Param<>(Double.class, "freight");
+  private static final Param<Date> ORDERED_AT = new Param<>(Date.class, "orderedAt");
+
+  private InMemoryRavenServer server;
+  private DocumentStore store;
+  private CompiledQuery<Order> compiledQuery;
+  private final Date orderedAt = new Date();
+
+  @Setup
+  public void setup() {
+    server = new InMemoryRavenServer();
+    store = new DocumentStore(server.getUrl());
+    store.getConventions().setFailoverBehavior(new FailoverBehaviorSet(FailoverBehavior.FAIL_IMMEDIATELY));
+    store.initialize();
+
+    try (IDocumentSession session = store.openSession()) {
+      compiledQuery = session.query(Order.class)
+        .where(ORDER.getString("company").eq(COMPANY)
+          .and(ORDER.getNumber("freight", Double.class).gt(FREIGHT))
+          .and(ORDER.getDate("orderedAt", Date.class).loe(ORDERED_AT)))
+        .orderBy(ORDER.getDate("orderedAt", Date.class).desc())
+        .compile();
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    store.close();
+    server.close();
+  }
+
+  @SuppressWarnings("boxing")
+  @Benchmark
+  @Threads(4)
+  public IndexQuery translateExpression() {
+    try (IDocumentSession session = store.openSession()) {
+      IRavenQueryable<Order> query = session.query(Order.class)
+        .where(ORDER.getString("company").eq("companies/1")
+          .and(ORDER.getNumber("freight", Double.class).gt(500.0))
+          .and(ORDER.getDate("orderedAt", Date.class).loe(orderedAt)))
+        .orderBy(ORDER.getDate("orderedAt", Date.class).desc());
+      return ((RavenQueryInspector<Order>) query).getIndexQuery();
+    }
+  }
+
+  @SuppressWarnings("boxing")
+  @Benchmark
+  @Threads(4)
+  public IndexQuery bindCompiledQuery() {
+    try (IDocumentSession session = store.openSession()) {
+      return compiledQuery.bind(session)
+        .set(COMPANY, "companies/1")
+        .set(FREIGHT, 500.0)
+        .set(ORDERED_AT, orderedAt)
+        .toDocumentQuery()
+        .getIndexQuery();
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package net.ravendb.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing, cloning and comparing of json documents - used on every load, query and saveChanges.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RavenJTokenBenchmark {
+
+  @Param({"1", "25"})
+  public int numberOfLines;
+
+  private String json;
+  private byte[] jsonBytes;
+  private RavenJObject document;
+  private RavenJObject equalDocument;
+  private RavenJObject changedDocument;
+
+  @Setup
+  public void setup() {
+    document = BenchmarkData.createOrderJson(1, numberOfLines);
+    json = document.toString();
+    jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+    equalDocument = RavenJObject.parse(json);
+    changedDocument = RavenJObject.parse(json);
+    changedDocument.add("Freight", 42.0);
+  }
+
+  @Benchmark
+  public RavenJToken parse() {
+    return RavenJToken.parse(json);
+  }
+
+  @Benchmark
+  public RavenJToken tryLoad() {
+    return RavenJToken.tryLoad(new ByteArrayInputStream(jsonBytes));
+  }
+
+  @Benchmark
+  public RavenJObject cloneToken() {
+    return document.cloneToken();
+  }
+
+  @Benchmark
+  public boolean deepEqualsSame() {
+    return RavenJToken.deepEquals(document, equalDocument);
+  }
+
+  @Benchmark
+  public boolean deepEqualsChanged() {
+    return RavenJToken.deepEquals(document, changedDocument);
+  }
+
+  @Benchmark
+  public String writeToString() {
+    return document.toString();
+  }
+
+}
@@ -0,0 +1,87 @@
+package net.ravendb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.benchmarks.entities.Order;
+import net.ravendb.client.document.DocumentSessionListeners;
+import net.ravendb.client.document.DocumentStore;
+import net.ravendb.client.document.EntityToJson;
+import net.ravendb.client.document.JsonSerializer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Entity to json conversion (store / saveChanges) and json to entity conversion (load / query).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+  @Param({"1", "25"})
+  public int numberOfLines;
+
+  private DocumentStore store;
+  private EntityToJson entityToJson;
+  private JsonSerializer serializer;
+  private Order order;
+  private RavenJObject orderJson;
+  private String orderJsonString;
+
+  @Setup
+  public void setup() {
+    // conversion does not talk to the server, so store doesn't need to be initialized
+    store = new DocumentStore("http://localhost:8080");
+    entityToJson = new EntityToJson(store, new DocumentSessionListeners());
+    serializer = store.getConventions().createSerializer();
+    order = BenchmarkData.createOrder(1, numberOfLines);
+    orderJson = RavenJObject.fromObject(order);
+    orderJsonString = orderJson.toString();
+  }
+
+  @TearDown
+  public void tearDown() {
+    store.close();
+  }
+
+  @Benchmark
+  public RavenJObject convertEntityToJson() {
+    return entityToJson.convertEntityToJson(order.getId(), order, new RavenJObject());
+  }
+
+  @Benchmark
+  public RavenJObject convertEntityToJsonWithinCachingScope() {
+    try (CleanCloseable scope = entityToJson.entitiesToJsonCachingScope()) {
+      // saveChanges converts each entity a few times: the second conversion is served as a snapshot
+      entityToJson.convertEntityToJson(order.getId(), order, new RavenJObject());
+      return entityToJson.convertEntityToJson(order.getId(), order, new RavenJObject());
+    }
+  }
+
+  @Benchmark
+  public Order deserializeFromToken() {
+    return serializer.deserialize(orderJson, Order.class);
+  }
+
+  @Benchmark
+  public Order deserializeFromString() {
+    return serializer.deserialize(orderJsonString, Order.class);
+  }
+
+}
@@ -0,0 +1,121 @@
+package net.ravendb.benchmarks;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.abstractions.basic.Lazy;
+import net.ravendb.abstractions.data.StreamResult;
+import net.ravendb.benchmarks.entities.Order;
+import net.ravendb.benchmarks.server.InMemoryRavenServer;
+import net.ravendb.client.IDocumentSession;
+import net.ravendb.client.document.BulkInsertOperation;
+import net.ravendb.client.document.DocumentStore;
+import net.ravendb.client.document.FailoverBehavior;
+import net.ravendb.client.document.FailoverBehaviorSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Query, multi get, streaming and bulk insert round trips against {@link InMemoryRavenServer}.
+ * latencyMillis adds simulated network latency to each request, which shows how well client amortizes round trips.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServerProtocolBenchmark {
+
+  private static final int DOCUMENTS_COUNT = 1000;
+
+  @Param({"0", "2"})
+  public int latencyMillis;
+
+  private InMemoryRavenServer server;
+  private DocumentStore store;
+  private final AtomicInteger nextId = new AtomicInteger();
+
+  @Setup
+  public void setup() throws InterruptedException {
+    server = new InMemoryRavenServer();
+    store = new DocumentStore(server.getUrl(), "Benchmarks");
+    store.getConventions().setFailoverBehavior(new FailoverBehaviorSet(FailoverBehavior.FAIL_IMMEDIATELY));
+    store.initialize();
+
+    try (BulkInsertOperation bulkInsert = store.bulkInsert()) {
+      for (int i = 0; i < DOCUMENTS_COUNT; i++) {
+        bulkInsert.store(BenchmarkData.createOrder(i, 5), "orders/" + i);
+      }
+    }
+    server.getNetworkConditions().setLatencyMillis(latencyMillis);
+  }
+
+  @TearDown
+  public void tearDown() {
+    store.close();
+    server.close();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public List<Order> queryPage() {
+    try (IDocumentSession session = store.openSession()) {
+      return session.advanced().documentQuery(Order.class)
+        .whereGreaterThan("Freight", 500.0)
+        .take(25)
+        .toList();
+    }
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Order[] lazyLoads() {
+    try (IDocumentSession session = store.openSession()) {
+      Lazy<Order> first = session.advanced().lazily().load(Order.class, "orders/1");
+      Lazy<Order> second = session.advanced().lazily().load(Order.class, "orders/2");
+      Lazy<Order> third = session.advanced().lazily().load(Order.class, "orders/3");
+      return new Order[] { first.getValue(), second.getValue(), third.getValue() };
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public int streamAllDocuments() {
+    int count = 0;
+    try (IDocumentSession session = store.openSession()) {
+      Iterator<StreamResult<Order>> results = session.advanced().stream(session.query(Order.class));
+      while (results.hasNext()) {
+        results.next();
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void bulkInsert100() throws InterruptedException {
+    try (BulkInsertOperation bulkInsert = store.bulkInsert()) {
+      for (int i = 0; i < 100; i++) {
+        int id = nextId.incrementAndGet();
+        bulkInsert.store(BenchmarkData.createOrder(id, 5), "bulk/" + id);
+      }
+    }
+  }
+
+}
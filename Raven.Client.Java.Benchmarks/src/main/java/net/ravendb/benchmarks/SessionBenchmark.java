@@ -0,0 +1,112 @@
+package net.ravendb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.benchmarks.entities.Order;
+import net.ravendb.benchmarks.server.InMemoryRavenServer;
+import net.ravendb.client.IDocumentSession;
+import net.ravendb.client.document.DocumentStore;
+import net.ravendb.client.document.FailoverBehavior;
+import net.ravendb.client.document.FailoverBehaviorSet;
+import net.ravendb.client.document.OpenSessionOptions;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full session round trips against {@link InMemoryRavenServer}: measures the client overhead of
+ * open session / store / saveChanges / load including the HTTP stack.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionBenchmark {
+
+  @Param({"1", "32"})
+  public int documentsPerSession;
+
+  private InMemoryRavenServer server;
+  private DocumentStore store;
+  private final AtomicInteger nextId = new AtomicInteger();
+
+  @Setup
+  public void setup() {
+    server = new InMemoryRavenServer();
+    store = new DocumentStore(server.getUrl());
+    store.getConventions().setFailoverBehavior(new FailoverBehaviorSet(FailoverBehavior.FAIL_IMMEDIATELY));
+    store.initialize();
+
+    try (IDocumentSession session = store.openSession()) {
+      session.store(BenchmarkData.createOrder(0, 5), "orders/0");
+      session.saveChanges();
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    store.close();
+    server.close();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void storeAndSaveChanges() {
+    try (IDocumentSession session = store.openSession()) {
+      for (int i = 0; i < documentsPerSession; i++) {
+        int id = nextId.incrementAndGet();
+        session.store(BenchmarkData.createOrder(id, 5), "orders/" + id);
+      }
+      session.saveChanges();
+    }
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Order loadExisting() {
+    try (IDocumentSession session = store.openSession()) {
+      return session.load(Order.class, "orders/0");
+    }
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Order loadExistingReadOnly() {
+    OpenSessionOptions options = new OpenSessionOptions();
+    options.setReadOnly(true);
+    try (IDocumentSession session = store.openSession(options)) {
+      return session.load(Order.class, "orders/0");
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void openSession() {
+    try (IDocumentSession session = store.openSession()) {
+      session.advanced().getNumberOfRequests();
+    }
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void openSessionForDatabase() {
+    try (IDocumentSession session = store.openSession("Benchmarks")) {
+      session.advanced().getNumberOfRequests();
+    }
+  }
+
+}
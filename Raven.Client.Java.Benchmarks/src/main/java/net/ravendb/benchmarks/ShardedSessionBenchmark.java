@@ -0,0 +1,136 @@
+package net.ravendb.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.benchmarks.entities.Order;
+import net.ravendb.benchmarks.server.InMemoryRavenServer;
+import net.ravendb.client.IDocumentSession;
+import net.ravendb.client.IDocumentStore;
+import net.ravendb.client.document.DocumentStore;
+import net.ravendb.client.document.FailoverBehavior;
+import net.ravendb.client.document.FailoverBehaviorSet;
+import net.ravendb.client.shard.IShardResolutionStrategy;
+import net.ravendb.client.shard.ShardRequestData;
+import net.ravendb.client.shard.ShardStrategy;
+import net.ravendb.client.shard.ShardedDocumentStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cross-shard saveChanges and multi load, each shard has 5 ms latency. With concurrent fan-out
+ * time of operation shouldn't grow with number of shards.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShardedSessionBenchmark {
+
+  private static final int DOCUMENTS_PER_SHARD = 2;
+
+  @Param({"1", "4"})
+  public int shards;
+
+  private final List<InMemoryRavenServer> servers = new ArrayList<>();
+  private ShardedDocumentStore store;
+  private final AtomicInteger nextId = new AtomicInteger();
+  private String[] existingIds;
+
+  @Setup
+  public void setup() {
+    Map<String, IDocumentStore> stores = new LinkedHashMap<>();
+    for (int i = 0; i < shards; i++) {
+      InMemoryRavenServer server = new InMemoryRavenServer();
+      servers.add(server);
+      DocumentStore shard = new DocumentStore(server.getUrl());
+      shard.getConventions().setFailoverBehavior(new FailoverBehaviorSet(FailoverBehavior.FAIL_IMMEDIATELY));
+      stores.put("shard" + i, shard);
+    }
+    ShardStrategy shardStrategy = new ShardStrategy(stores);
+    shardStrategy.setShardResolutionStrategy(new IShardResolutionStrategy() {
+      @Override
+      public String generateShardIdFor(Object entity, Object owner) {
+        String id = ((Order) entity).getId();
+        return "shard" + Integer.parseInt(id.substring(id.lastIndexOf('/') + 1)) % shards;
+      }
+
+      @Override
+      public String metadataShardIdFor(Object entity) {
+        return "shard0";
+      }
+
+      @Override
+      public List<String> potentialShardsFor(ShardRequestData requestData) {
+        if (requestData.getKeys() == null || requestData.getKeys().isEmpty()) {
+          return null;
+        }
+        Set<String> shardIds = new LinkedHashSet<>();
+        for (String key : requestData.getKeys()) {
+          shardIds.add(key.substring(0, key.indexOf('/')));
+        }
+        return new ArrayList<>(shardIds);
+      }
+    });
+    store = new ShardedDocumentStore(shardStrategy);
+    store.initialize();
+
+    existingIds = new String[shards * DOCUMENTS_PER_SHARD];
+    try (IDocumentSession session = store.openSession()) {
+      for (int i = 0; i < existingIds.length; i++) {
+        Order order = BenchmarkData.createOrder(i, 5);
+        session.store(order);
+        existingIds[i] = order.getId();
+      }
+      session.saveChanges();
+    }
+    nextId.set(existingIds.length);
+    for (InMemoryRavenServer server : servers) {
+      server.getNetworkConditions().setLatencyMillis(5);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    store.close();
+    for (InMemoryRavenServer server : servers) {
+      server.close();
+    }
+  }
+
+  @Benchmark
+  public void saveChangesOnAllShards() {
+    try (IDocumentSession session = store.openSession()) {
+      for (int i = 0; i < shards * DOCUMENTS_PER_SHARD; i++) {
+        session.store(BenchmarkData.createOrder(nextId.incrementAndGet(), 5));
+      }
+      session.saveChanges();
+    }
+  }
+
+  @Benchmark
+  public Order[] loadFromAllShards() {
+    try (IDocumentSession session = store.openSession()) {
+      return session.load(Order.class, existingIds);
+    }
+  }
+}
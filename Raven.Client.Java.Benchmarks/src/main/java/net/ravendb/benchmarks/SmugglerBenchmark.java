@@ -0,0 +1,118 @@
+package net.ravendb.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.smuggler.OperationState;
+import net.ravendb.benchmarks.server.InMemoryRavenServer;
+import net.ravendb.client.document.BulkInsertOperation;
+import net.ravendb.client.document.DocumentStore;
+import net.ravendb.client.document.FailoverBehavior;
+import net.ravendb.client.document.FailoverBehaviorSet;
+import net.ravendb.client.smuggler.DatabaseSmuggler;
+import net.ravendb.client.smuggler.SmugglerOptions;
+import net.ravendb.client.smuggler.SmugglerStatistics;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Export of whole database (documents are copied from stream without materializing them),
+ * incremental export when nothing changed and import with given number of parallel bulk inserts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SmugglerBenchmark {
+
+  private static final int DOCUMENTS = 5000;
+
+  @Param({"1", "4"})
+  public int importParallelism;
+
+  private InMemoryRavenServer sourceServer;
+  private InMemoryRavenServer targetServer;
+  private DocumentStore source;
+  private DocumentStore target;
+  private SmugglerOptions options;
+  private OperationState incrementalState;
+  private byte[] dump;
+
+  @Setup
+  public void setup() throws IOException, InterruptedException {
+    sourceServer = new InMemoryRavenServer();
+    targetServer = new InMemoryRavenServer();
+    source = createStore(sourceServer);
+    target = createStore(targetServer);
+
+    try (BulkInsertOperation bulkInsert = source.bulkInsert()) {
+      for (int i = 0; i < DOCUMENTS; i++) {
+        bulkInsert.store(BenchmarkData.createOrder(i, 5));
+      }
+    }
+
+    options = new SmugglerOptions();
+    options.setImportParallelism(importParallelism);
+
+    incrementalState = new OperationState();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    SmugglerStatistics statistics = new DatabaseSmuggler(source).exportDatabase(output, options, incrementalState);
+    if (statistics.getDocuments() != DOCUMENTS) {
+      throw new IllegalStateException("Exported " + statistics);
+    }
+    dump = output.toByteArray();
+  }
+
+  private static DocumentStore createStore(InMemoryRavenServer server) {
+    DocumentStore store = new DocumentStore(server.getUrl());
+    store.getConventions().setFailoverBehavior(new FailoverBehaviorSet(FailoverBehavior.FAIL_IMMEDIATELY));
+    store.initialize();
+    return store;
+  }
+
+  @TearDown
+  public void tearDown() {
+    // only import benchmark fills target database
+    int imported = targetServer.getDatabase().getCount();
+    if (imported != 0 && imported != DOCUMENTS) {
+      throw new IllegalStateException("Imported " + imported + " documents");
+    }
+    source.close();
+    target.close();
+    sourceServer.close();
+    targetServer.close();
+  }
+
+  @Benchmark
+  public SmugglerStatistics export() throws IOException {
+    return new DatabaseSmuggler(source).exportDatabase(new NullOutputStream(), options, null);
+  }
+
+  @Benchmark
+  public SmugglerStatistics incrementalExportWithoutChanges() throws IOException {
+    OperationState state = new OperationState();
+    state.setLastDocsEtag(incrementalState.getLastDocsEtag());
+    return new DatabaseSmuggler(source).exportDatabase(new NullOutputStream(), options, state);
+  }
+
+  @Benchmark
+  public SmugglerStatistics importDump() throws IOException, InterruptedException {
+    return new DatabaseSmuggler(target).importDatabase(new ByteArrayInputStream(dump), options);
+  }
+}
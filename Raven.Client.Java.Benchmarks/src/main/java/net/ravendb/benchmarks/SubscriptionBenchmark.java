@@ -0,0 +1,148 @@
+package net.ravendb.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.closure.Function1;
+import net.ravendb.abstractions.data.SubscriptionConnectionOptions;
+import net.ravendb.abstractions.data.SubscriptionCriteria;
+import net.ravendb.benchmarks.entities.Order;
+import net.ravendb.benchmarks.server.InMemoryRavenServer;
+import net.ravendb.client.changes.IBatchObserver;
+import net.ravendb.client.changes.ObserverAdapter;
+import net.ravendb.client.document.BulkInsertOperation;
+import net.ravendb.client.document.DocumentStore;
+import net.ravendb.client.document.FailoverBehavior;
+import net.ravendb.client.document.FailoverBehaviorSet;
+import net.ravendb.client.document.Subscription;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Subscription over all orders with subscriber which spends 20 ms (i.e. on I/O) with each document.
+ * Documents of a batch are processed by given number of concurrent workers, partitioned by company,
+ * or by batch subscriber which spends 20 ms with whole batch (bulk write).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubscriptionBenchmark {
+
+  private static final int DOCUMENTS = 100;
+  private static final long PROCESSING_MILLIS = 20;
+
+  @Param({"1", "8"})
+  public int maxDegreeOfParallelism;
+
+  private InMemoryRavenServer server;
+  private DocumentStore store;
+
+  @Setup
+  public void setup() throws InterruptedException {
+    server = new InMemoryRavenServer();
+    store = new DocumentStore(server.getUrl());
+    store.getConventions().setFailoverBehavior(new FailoverBehaviorSet(FailoverBehavior.FAIL_IMMEDIATELY));
+    store.initialize();
+
+    try (BulkInsertOperation bulkInsert = store.bulkInsert()) {
+      for (int i = 0; i < DOCUMENTS; i++) {
+        bulkInsert.store(BenchmarkData.createOrder(i, 1));
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    store.close();
+    server.close();
+  }
+
+  @Benchmark
+  public void processAllDocuments() throws InterruptedException {
+    SubscriptionCriteria criteria = new SubscriptionCriteria();
+    criteria.setKeyStartsWith("orders/");
+    long id = store.subscriptions().create(criteria);
+
+    SubscriptionConnectionOptions options = new SubscriptionConnectionOptions();
+    options.setMaxDegreeOfParallelism(maxDegreeOfParallelism);
+    final CountDownLatch processed = new CountDownLatch(DOCUMENTS);
+    try (Subscription<Order> subscription = store.subscriptions().open(Order.class, id, options)) {
+      subscription.setPartitionKeySelector(new Function1<Order, String>() {
+        @Override
+        public String apply(Order order) {
+          return order.getCompany();
+        }
+      });
+      subscription.subscribe(new ObserverAdapter<Order>() {
+        @Override
+        public void onNext(Order value) {
+          try {
+            Thread.sleep(PROCESSING_MILLIS);
+          } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+          processed.countDown();
+        }
+      });
+      if (!processed.await(1, TimeUnit.MINUTES)) {
+        throw new IllegalStateException("Processed " + (DOCUMENTS - processed.getCount()) + " documents");
+      }
+    }
+    store.subscriptions().delete(id);
+  }
+
+  @Benchmark
+  public void processAllDocumentsInBatches() throws InterruptedException {
+    SubscriptionCriteria criteria = new SubscriptionCriteria();
+    criteria.setKeyStartsWith("orders/");
+    long id = store.subscriptions().create(criteria);
+
+    final CountDownLatch processed = new CountDownLatch(DOCUMENTS);
+    try (Subscription<Order> subscription = store.subscriptions().open(Order.class, id, new SubscriptionConnectionOptions())) {
+      subscription.subscribe(new IBatchObserver<Order>() {
+        @Override
+        public Future<?> onNext(List<Order> batch) {
+          try {
+            Thread.sleep(PROCESSING_MILLIS);
+          } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+          for (int i = 0; i < batch.size(); i++) {
+            processed.countDown();
+          }
+          return null;
+        }
+
+        @Override
+        public void onError(Exception error) {
+          // failures are reported by timeout below
+        }
+
+        @Override
+        public void onCompleted() {
+          // nothing to flush
+        }
+      });
+      if (!processed.await(1, TimeUnit.MINUTES)) {
+        throw new IllegalStateException("Processed " + (DOCUMENTS - processed.getCount()) + " documents");
+      }
+    }
+    store.subscriptions().delete(id);
+  }
+}
@@ -0,0 +1,65 @@
+package net.ravendb.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.UuidType;
+import net.ravendb.abstractions.util.NetISO8601Utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Etags and dates are parsed and formatted for every document and every cached request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValueFormattingBenchmark {
+
+  private Etag etag;
+  private String etagString;
+  private Date date;
+  private String dateString;
+
+  @Setup
+  public void setup() {
+    etag = new Etag(UuidType.DOCUMENTS, 1, 123456789L);
+    etagString = etag.toString();
+    date = new Date(1420070400123L);
+    dateString = NetISO8601Utils.format(date, true);
+  }
+
+  @Benchmark
+  public Etag etagParse() {
+    return Etag.parse(etagString);
+  }
+
+  @Benchmark
+  public String etagToString() {
+    return etag.toString();
+  }
+
+  @Benchmark
+  public Date dateParse() {
+    return NetISO8601Utils.parse(dateString);
+  }
+
+  @Benchmark
+  public String dateFormat() {
+    return NetISO8601Utils.format(date, true);
+  }
+
+}
@@ -0,0 +1,45 @@
+package net.ravendb.benchmarks.entities;
+
+public class Address {
+  private String line1;
+  private String city;
+  private String postalCode;
+  private String country;
+
+  public Address() {
+    super();
+  }
+
+  public Address(String line1, String city, String postalCode, String country) {
+    super();
+    this.line1 = line1;
+    this.city = city;
+    this.postalCode = postalCode;
+    this.country = country;
+  }
+
+  public String getLine1() {
+    return line1;
+  }
+  public void setLine1(String line1) {
+    this.line1 = line1;
+  }
+  public String getCity() {
+    return city;
+  }
+  public void setCity(String city) {
+    this.city = city;
+  }
+  public String getPostalCode() {
+    return postalCode;
+  }
+  public void setPostalCode(String postalCode) {
+    this.postalCode = postalCode;
+  }
+  public String getCountry() {
+    return country;
+  }
+  public void setCountry(String country) {
+    this.country = country;
+  }
+}
@@ -0,0 +1,71 @@
+package net.ravendb.benchmarks.entities;
+
+import java.util.Date;
+import java.util.List;
+
+public class Order {
+  private String id;
+  private String company;
+  private String employee;
+  private Date orderedAt;
+  private Date shippedAt;
+  private Address shipTo;
+  private String shipVia;
+  private double freight;
+  private List<OrderLine> lines;
+
+  public String getId() {
+    return id;
+  }
+  public void setId(String id) {
+    this.id = id;
+  }
+  public String getCompany() {
+    return company;
+  }
+  public void setCompany(String company) {
+    this.company = company;
+  }
+  public String getEmployee() {
+    return employee;
+  }
+  public void setEmployee(String employee) {
+    this.employee = employee;
+  }
+  public Date getOrderedAt() {
+    return orderedAt;
+  }
+  public void setOrderedAt(Date orderedAt) {
+    this.orderedAt = orderedAt;
+  }
+  public Date getShippedAt() {
+    return shippedAt;
+  }
+  public void setShippedAt(Date shippedAt) {
+    this.shippedAt = shippedAt;
+  }
+  public Address getShipTo() {
+    return shipTo;
+  }
+  public void setShipTo(Address shipTo) {
+    this.shipTo = shipTo;
+  }
+  public String getShipVia() {
+    return shipVia;
+  }
+  public void setShipVia(String shipVia) {
+    this.shipVia = shipVia;
+  }
+  public double getFreight() {
+    return freight;
+  }
+  public void setFreight(double freight) {
+    this.freight = freight;
+  }
+  public List<OrderLine> getLines() {
+    return lines;
+  }
+  public void setLines(List<OrderLine> lines) {
+    this.lines = lines;
+  }
+}
@@ -0,0 +1,53 @@
+package net.ravendb.benchmarks.entities;
+
+public class OrderLine {
+  private String product;
+  private String productName;
+  private double pricePerUnit;
+  private int quantity;
+  private double discount;
+
+  public OrderLine() {
+    super();
+  }
+
+  public OrderLine(String product, String productName, double pricePerUnit, int quantity, double discount) {
+    super();
+    this.product = product;
+    this.productName = productName;
+    this.pricePerUnit = pricePerUnit;
+    this.quantity = quantity;
+    this.discount = discount;
+  }
+
+  public String getProduct() {
+    return product;
+  }
+  public void setProduct(String product) {
+    this.product = product;
+  }
+  public String getProductName() {
+    return productName;
+  }
+  public void setProductName(String productName) {
+    this.productName = productName;
+  }
+  public double getPricePerUnit() {
+    return pricePerUnit;
+  }
+  public void setPricePerUnit(double pricePerUnit) {
+    this.pricePerUnit = pricePerUnit;
+  }
+  public int getQuantity() {
+    return quantity;
+  }
+  public void setQuantity(int quantity) {
+    this.quantity = quantity;
+  }
+  public double getDiscount() {
+    return discount;
+  }
+  public void setDiscount(double discount) {
+    this.discount = discount;
+  }
+}
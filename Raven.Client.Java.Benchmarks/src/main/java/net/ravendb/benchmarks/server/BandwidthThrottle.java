@@ -0,0 +1,104 @@
+package net.ravendb.benchmarks.server;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares bandwidth defined in {@link NetworkConditions} between all streams created by given throttle.
+ * Each transferred chunk reserves its time slot on the link and waits until the slot is reached.
+ */
+class BandwidthThrottle {
+
+  private static final int MAX_CHUNK = 8 * 1024;
+
+  private final NetworkConditions conditions;
+  private long nextFreeNanos;
+
+  public BandwidthThrottle(NetworkConditions conditions) {
+    this.conditions = conditions;
+  }
+
+  public InputStream throttle(InputStream inputStream) {
+    return new ThrottledInputStream(inputStream);
+  }
+
+  public OutputStream throttle(OutputStream outputStream) {
+    return new ThrottledOutputStream(outputStream);
+  }
+
+  void acquire(int bytes) throws InterruptedIOException {
+    long bandwidth = conditions.getBandwidthBytesPerSecond();
+    if (bandwidth <= 0 || bytes <= 0) {
+      return;
+    }
+    long cost = TimeUnit.SECONDS.toNanos(bytes) / bandwidth;
+    long slotEnd;
+    synchronized (this) {
+      long now = System.nanoTime();
+      slotEnd = Math.max(now, nextFreeNanos) + cost;
+      nextFreeNanos = slotEnd;
+    }
+    long waitNanos = slotEnd - System.nanoTime();
+    if (waitNanos > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+      } catch (InterruptedException e) {
+        throw new InterruptedIOException("Interrupted while waiting for bandwidth");
+      }
+    }
+  }
+
+  private class ThrottledInputStream extends FilterInputStream {
+
+    public ThrottledInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int result = super.read();
+      if (result != -1) {
+        acquire(1);
+      }
+      return result;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int read = super.read(b, off, Math.min(len, MAX_CHUNK));
+      acquire(read);
+      return read;
+    }
+  }
+
+  private class ThrottledOutputStream extends FilterOutputStream {
+
+    public ThrottledOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      acquire(1);
+      out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      int position = off;
+      int remaining = len;
+      while (remaining > 0) {
+        int chunk = Math.min(remaining, MAX_CHUNK);
+        acquire(chunk);
+        out.write(b, position, chunk);
+        position += chunk;
+        remaining -= chunk;
+      }
+    }
+  }
+}
@@ -0,0 +1,167 @@
+package net.ravendb.benchmarks.server;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.data.DocumentChangeTypes;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJValue;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Server side state of single /changes/events connection: what client watches and notifications waiting to be sent.
+ */
+class ChangesConnection {
+
+  private final String id;
+  private final BlockingQueue<String> pendingEvents = new LinkedBlockingQueue<>();
+
+  private volatile boolean watchAllDocuments;
+  private volatile boolean watchAllBulkInserts;
+  private final Set<String> watchedDocuments = newConcurrentSet();
+  private final Set<String> watchedPrefixes = newConcurrentSet();
+  private final Set<String> watchedCollections = newConcurrentSet();
+  private final Set<String> watchedTypes = newConcurrentSet();
+  private final Set<String> watchedBulkInserts = newConcurrentSet();
+  private volatile boolean disconnected;
+
+  private static Set<String> newConcurrentSet() {
+    return Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+  }
+
+  public ChangesConnection(String id) {
+    this.id = id;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public boolean isDisconnected() {
+    return disconnected;
+  }
+
+  public void disconnect() {
+    disconnected = true;
+  }
+
+  /**
+   * Applies command sent by client to /changes/config.
+   */
+  public void handleCommand(String command, String value) {
+    switch (command) {
+      case "watch-docs":
+        watchAllDocuments = true;
+        break;
+      case "unwatch-docs":
+        watchAllDocuments = false;
+        break;
+      case "watch-doc":
+        watchedDocuments.add(value.toLowerCase());
+        break;
+      case "unwatch-doc":
+        watchedDocuments.remove(value.toLowerCase());
+        break;
+      case "watch-prefix":
+        watchedPrefixes.add(value.toLowerCase());
+        break;
+      case "unwatch-prefix":
+        watchedPrefixes.remove(value.toLowerCase());
+        break;
+      case "watch-collection":
+        watchedCollections.add(value.toLowerCase());
+        break;
+      case "unwatch-collection":
+        watchedCollections.remove(value.toLowerCase());
+        break;
+      case "watch-type":
+        watchedTypes.add(value);
+        break;
+      case "unwatch-type":
+        watchedTypes.remove(value);
+        break;
+      case "watch-bulk-operation":
+        if (StringUtils.isEmpty(value)) {
+          watchAllBulkInserts = true;
+        } else {
+          watchedBulkInserts.add(value.toLowerCase());
+        }
+        break;
+      case "unwatch-bulk-operation":
+        if (StringUtils.isEmpty(value)) {
+          watchAllBulkInserts = false;
+        } else {
+          watchedBulkInserts.remove(value.toLowerCase());
+        }
+        break;
+      case "disconnect":
+        disconnect();
+        break;
+      default:
+        // indexes, transformers, replication conflicts and data subscriptions are accepted but never raised
+        break;
+    }
+  }
+
+  public void onDocumentChange(DocumentChangeTypes type, StoredDocument document) {
+    String lowerKey = document.getKey().toLowerCase();
+    String collection = document.getCollection();
+    String javaClass = document.getJavaClass();
+    if (!watchAllDocuments
+      && !watchedDocuments.contains(lowerKey)
+      && !matchesPrefix(lowerKey)
+      && (collection == null || !watchedCollections.contains(collection.toLowerCase()))
+      && (javaClass == null || !watchedTypes.contains(javaClass))) {
+      return;
+    }
+
+    RavenJObject value = new RavenJObject();
+    value.add("Type", new RavenJValue(type == DocumentChangeTypes.PUT ? "Put" : "Delete"));
+    value.add("Id", new RavenJValue(document.getKey()));
+    value.add("CollectionName", new RavenJValue(collection));
+    value.add("TypeName", new RavenJValue(javaClass));
+    value.add("Etag", new RavenJValue(document.getEtag().toString()));
+    enqueue("DocumentChangeNotification", value);
+  }
+
+  public void onBulkInsertChange(String operationId, String type) {
+    if (!watchAllBulkInserts && !watchedBulkInserts.contains(operationId.toLowerCase())) {
+      return;
+    }
+    RavenJObject value = new RavenJObject();
+    value.add("Type", new RavenJValue(type));
+    value.add("OperationId", new RavenJValue(operationId));
+    enqueue("BulkInsertChangeNotification", value);
+  }
+
+  public void enqueue(String type, RavenJObject value) {
+    RavenJObject notification = new RavenJObject();
+    notification.add("Type", new RavenJValue(type));
+    notification.add("Value", value);
+    pendingEvents.add(notification.toString());
+  }
+
+  /**
+   * @return Next notification or null if nothing arrived within given time.
+   */
+  public String poll(long timeout, TimeUnit unit) throws InterruptedException {
+    return pendingEvents.poll(timeout, unit);
+  }
+
+  private boolean matchesPrefix(String lowerKey) {
+    if (watchedPrefixes.isEmpty()) {
+      return false;
+    }
+    for (String prefix : watchedPrefixes) {
+      if (lowerKey.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,267 @@
+package net.ravendb.benchmarks.server;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.DocumentChangeTypes;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.exceptions.ConcurrencyException;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+
+/**
+ * Documents, subscriptions, long running operations and changes connections of the stand-in server.
+ *
+ * Single instance can be shared by several {@link InMemoryRavenServer}s, which gives instant replication
+ * between nodes of {@link InMemoryRavenCluster}.
+ */
+public class InMemoryDatabase {
+
+  private final ConcurrentMap<String, StoredDocument> documentsByKey = new ConcurrentHashMap<>();
+  private final ConcurrentNavigableMap<Long, StoredDocument> documentsByEtag = new ConcurrentSkipListMap<>();
+  private final AtomicLong lastEtag = new AtomicLong();
+
+  private final ConcurrentMap<String, ChangesConnection> changesConnections = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<Long, SubscriptionState> subscriptions = new ConcurrentHashMap<>();
+  private final AtomicLong lastSubscriptionId = new AtomicLong();
+
+  private final ConcurrentMap<Long, Boolean> operations = new ConcurrentHashMap<>();
+  private final AtomicLong lastOperationId = new AtomicLong();
+
+  private final ConcurrentMap<String, AtomicLong> identities = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, ConcurrentNavigableMap<String, RavenJObject>> indexDefinitions = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, ConcurrentNavigableMap<String, RavenJObject>> transformerDefinitions = new ConcurrentHashMap<>();
+
+  public StoredDocument get(String key) {
+    return documentsByKey.get(key.toLowerCase());
+  }
+
+  /**
+   * Stores document. If expectedEtag is not null it must match etag of the current version.
+   */
+  public StoredDocument put(String key, Etag expectedEtag, RavenJObject data, RavenJObject metadata) {
+    if (key.endsWith("/")) {
+      key += nextIdentity(key.substring(0, key.length() - 1));
+    }
+    String lowerKey = key.toLowerCase();
+    RavenJObject documentMetadata = metadata != null ? metadata : new RavenJObject();
+    documentMetadata.remove(Constants.METADATA_ETAG_FIELD);
+    documentMetadata.remove("@etag");
+    documentMetadata.remove("@id");
+
+    StoredDocument newDocument;
+    while (true) {
+      StoredDocument existing = documentsByKey.get(lowerKey);
+      assertEtag(key, expectedEtag, existing);
+      newDocument = new StoredDocument(key, data, documentMetadata, lastEtag.incrementAndGet(), new Date());
+      if (existing == null ? documentsByKey.putIfAbsent(lowerKey, newDocument) == null
+        : documentsByKey.replace(lowerKey, existing, newDocument)) {
+        if (existing != null) {
+          documentsByEtag.remove(existing.getEtagNumber());
+        }
+        documentsByEtag.put(newDocument.getEtagNumber(), newDocument);
+        break;
+      }
+    }
+    raiseDocumentChange(DocumentChangeTypes.PUT, newDocument);
+    return newDocument;
+  }
+
+  /**
+   * @return true if document existed
+   */
+  public boolean delete(String key, Etag expectedEtag) {
+    String lowerKey = key.toLowerCase();
+    while (true) {
+      StoredDocument existing = documentsByKey.get(lowerKey);
+      if (existing == null) {
+        return false;
+      }
+      assertEtag(key, expectedEtag, existing);
+      if (documentsByKey.remove(lowerKey, existing)) {
+        documentsByEtag.remove(existing.getEtagNumber());
+        raiseDocumentChange(DocumentChangeTypes.DELETE, existing);
+        return true;
+      }
+    }
+  }
+
+  private static void assertEtag(String key, Etag expectedEtag, StoredDocument existing) {
+    if (expectedEtag == null) {
+      return;
+    }
+    Etag actualEtag = existing != null ? existing.getEtag() : Etag.empty();
+    if (!expectedEtag.equals(actualEtag)) {
+      throw new ConcurrencyException(expectedEtag, actualEtag, "Operation attempted on document '" + key
+        + "' using a non current etag", null);
+    }
+  }
+
+  public int getCount() {
+    return documentsByKey.size();
+  }
+
+  public Etag getLastEtag() {
+    return StoredDocument.toEtag(lastEtag.get());
+  }
+
+  long getLastEtagNumber() {
+    return lastEtag.get();
+  }
+
+  /**
+   * @return All documents ordered by etag.
+   */
+  public Collection<StoredDocument> getDocuments() {
+    return documentsByEtag.values();
+  }
+
+  /**
+   * @return All documents, most recently modified first.
+   */
+  public Collection<StoredDocument> getDocumentsNewestFirst() {
+    return documentsByEtag.descendingMap().values();
+  }
+
+  /**
+   * @return Documents modified after given etag (ordered by etag).
+   */
+  public Collection<StoredDocument> getDocumentsAfter(long etagNumber) {
+    return documentsByEtag.tailMap(etagNumber, false).values();
+  }
+
+  public long nextIdentity(String name) {
+    AtomicLong identity = identities.get(name.toLowerCase());
+    if (identity == null) {
+      AtomicLong newIdentity = new AtomicLong();
+      identity = identities.putIfAbsent(name.toLowerCase(), newIdentity);
+      if (identity == null) {
+        identity = newIdentity;
+      }
+    }
+    return identity.incrementAndGet();
+  }
+
+  /**
+   * Index definitions (with "Priority" property added) of given database. Unlike documents, definitions
+   * are kept per database name, so deployment to many databases can be simulated by single server.
+   */
+  public ConcurrentNavigableMap<String, RavenJObject> getIndexDefinitions(String databaseName) {
+    return getDefinitions(indexDefinitions, databaseName);
+  }
+
+  /**
+   * Transformer definitions of given database.
+   */
+  public ConcurrentNavigableMap<String, RavenJObject> getTransformerDefinitions(String databaseName) {
+    return getDefinitions(transformerDefinitions, databaseName);
+  }
+
+  private static ConcurrentNavigableMap<String, RavenJObject> getDefinitions(
+    ConcurrentMap<String, ConcurrentNavigableMap<String, RavenJObject>> definitions, String databaseName) {
+    String key = databaseName != null ? databaseName.toLowerCase() : "";
+    ConcurrentNavigableMap<String, RavenJObject> result = definitions.get(key);
+    if (result == null) {
+      ConcurrentNavigableMap<String, RavenJObject> newResult = new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+      result = definitions.putIfAbsent(key, newResult);
+      if (result == null) {
+        result = newResult;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Removes all documents, subscriptions, operations and index definitions. Open changes connections are kept.
+   */
+  public void clear() {
+    documentsByKey.clear();
+    documentsByEtag.clear();
+    subscriptions.clear();
+    operations.clear();
+    identities.clear();
+    indexDefinitions.clear();
+    transformerDefinitions.clear();
+  }
+
+  ChangesConnection getOrAddChangesConnection(String id) {
+    ChangesConnection connection = changesConnections.get(id);
+    if (connection == null) {
+      ChangesConnection newConnection = new ChangesConnection(id);
+      connection = changesConnections.putIfAbsent(id, newConnection);
+      if (connection == null) {
+        connection = newConnection;
+      }
+    }
+    return connection;
+  }
+
+  void removeChangesConnection(ChangesConnection connection) {
+    changesConnections.remove(connection.getId(), connection);
+  }
+
+  public int getChangesConnectionsCount() {
+    return changesConnections.size();
+  }
+
+  private void raiseDocumentChange(DocumentChangeTypes type, StoredDocument document) {
+    if (changesConnections.isEmpty()) {
+      return;
+    }
+    for (ChangesConnection connection : changesConnections.values()) {
+      connection.onDocumentChange(type, document);
+    }
+  }
+
+  void raiseBulkInsertChange(UUID operationId, String type) {
+    for (ChangesConnection connection : changesConnections.values()) {
+      connection.onBulkInsertChange(operationId.toString(), type);
+    }
+  }
+
+  long createSubscription(RavenJObject criteria) {
+    long id = lastSubscriptionId.incrementAndGet();
+    Etag startEtag = criteria.value(Etag.class, "StartEtag");
+    subscriptions.put(id, new SubscriptionState(id, criteria, startEtag != null ? startEtag.getChanges() : 0));
+    return id;
+  }
+
+  SubscriptionState getSubscription(long id) {
+    return subscriptions.get(id);
+  }
+
+  boolean deleteSubscription(long id) {
+    return subscriptions.remove(id) != null;
+  }
+
+  List<SubscriptionState> getSubscriptions() {
+    return new ArrayList<>(subscriptions.values());
+  }
+
+  long startOperation() {
+    long id = lastOperationId.incrementAndGet();
+    operations.put(id, Boolean.FALSE);
+    return id;
+  }
+
+  void completeOperation(long id) {
+    operations.put(id, Boolean.TRUE);
+  }
+
+  /**
+   * @return null if operation is not known
+   */
+  Boolean isOperationCompleted(long id) {
+    return operations.get(id);
+  }
+}
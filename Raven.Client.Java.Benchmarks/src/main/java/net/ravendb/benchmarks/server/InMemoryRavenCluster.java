@@ -0,0 +1,64 @@
+package net.ravendb.benchmarks.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+
+/**
+ * Several {@link InMemoryRavenServer} nodes replicating to each other. Nodes share single {@link InMemoryDatabase},
+ * so replication is instant, but each node has own {@link NetworkConditions} - this way failover can be
+ * exercised by taking primary node down.
+ */
+public class InMemoryRavenCluster implements CleanCloseable {
+
+  private final InMemoryDatabase database = new InMemoryDatabase();
+  private final List<InMemoryRavenServer> nodes;
+
+  public InMemoryRavenCluster(int nodesCount) {
+    if (nodesCount < 1) {
+      throw new IllegalArgumentException("Cluster must contain at least one node");
+    }
+    List<InMemoryRavenServer> servers = new ArrayList<>(nodesCount);
+    for (int i = 0; i < nodesCount; i++) {
+      servers.add(new InMemoryRavenServer(database, new NetworkConditions()));
+    }
+    for (InMemoryRavenServer node : servers) {
+      List<String> destinations = new ArrayList<>();
+      for (InMemoryRavenServer other : servers) {
+        if (other != node) {
+          destinations.add(other.getUrl());
+        }
+      }
+      node.setReplicationDestinations(destinations);
+    }
+    nodes = Collections.unmodifiableList(servers);
+  }
+
+  public List<InMemoryRavenServer> getNodes() {
+    return nodes;
+  }
+
+  public InMemoryRavenServer getNode(int index) {
+    return nodes.get(index);
+  }
+
+  /**
+   * @return Node client should be pointed at. Other nodes are returned as its replication destinations.
+   */
+  public InMemoryRavenServer getPrimary() {
+    return nodes.get(0);
+  }
+
+  public InMemoryDatabase getDatabase() {
+    return database;
+  }
+
+  @Override
+  public void close() {
+    for (InMemoryRavenServer node : nodes) {
+      node.close();
+    }
+  }
+}
@@ -0,0 +1,326 @@
+package net.ravendb.benchmarks.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+
+import org.apache.http.ConnectionClosedException;
+import org.apache.http.Header;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentProducer;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.EntityTemplate;
+import org.apache.http.impl.DefaultBHttpServerConnection;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpProcessorBuilder;
+import org.apache.http.protocol.HttpRequestHandler;
+import org.apache.http.protocol.HttpService;
+import org.apache.http.protocol.ResponseConnControl;
+import org.apache.http.protocol.ResponseContent;
+import org.apache.http.protocol.ResponseDate;
+import org.apache.http.protocol.UriHttpRequestHandlerMapper;
+
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * In-process stand-in for RavenDB 3.x server. Speaks enough of the REST protocol for documents, queries,
+ * multi get, streams, changes, subscriptions and bulk insert (see {@link RavenEndpoints}), so load tests
+ * can run against it without external server. Network behavior (latency, bandwidth, failures, node down)
+ * is controlled by {@link NetworkConditions} and can be changed while server is running.
+ *
+ * Built on top of HttpCore (instead of com.sun.net.httpserver) as client relies on exact
+ * header names (ex. ETag) and com.sun.net.httpserver normalizes them.
+ */
+public class InMemoryRavenServer implements CleanCloseable {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+  private static final String SOCKET_ATTRIBUTE = "raven.socket";
+
+  private final InMemoryDatabase database;
+  private final NetworkConditions networkConditions;
+  private final BandwidthThrottle throttle;
+  private final RavenEndpoints endpoints;
+  private final ServerSocket serverSocket;
+  private final ExecutorService executor;
+  private final HttpService httpService;
+  private final Set<Socket> openSockets = Collections.newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
+  private final AtomicLong requestsCount = new AtomicLong();
+  private volatile List<String> replicationDestinations = Collections.emptyList();
+  private volatile boolean disposed;
+
+  public InMemoryRavenServer() {
+    this(new InMemoryDatabase(), new NetworkConditions());
+  }
+
+  public InMemoryRavenServer(InMemoryDatabase database, NetworkConditions networkConditions) {
+    this.database = database;
+    this.networkConditions = networkConditions;
+    this.throttle = new BandwidthThrottle(networkConditions);
+    this.endpoints = new RavenEndpoints(this, database);
+    try {
+      serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to start in memory server", e);
+    }
+
+    UriHttpRequestHandlerMapper handlerMapper = new UriHttpRequestHandlerMapper();
+    handlerMapper.register("*", new RootHandler());
+    httpService = new HttpService(HttpProcessorBuilder.create()
+      .add(new ResponseDate())
+      .add(new ResponseContent())
+      .add(new ResponseConnControl())
+      .build(), handlerMapper);
+
+    executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+      .setDaemon(true)
+      .setNameFormat("in-memory-raven-" + serverSocket.getLocalPort() + "-%d")
+      .build());
+    executor.execute(new AcceptLoop());
+  }
+
+  public String getUrl() {
+    return "http://" + serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort();
+  }
+
+  public InMemoryDatabase getDatabase() {
+    return database;
+  }
+
+  public NetworkConditions getNetworkConditions() {
+    return networkConditions;
+  }
+
+  /**
+   * @return Number of requests handled so far (including failed ones).
+   */
+  public long getRequestsCount() {
+    return requestsCount.get();
+  }
+
+  public List<String> getReplicationDestinations() {
+    return replicationDestinations;
+  }
+
+  /**
+   * Urls returned from /replication/topology. Empty list (default) means replication is not configured.
+   */
+  public void setReplicationDestinations(List<String> replicationDestinations) {
+    this.replicationDestinations = Collections.unmodifiableList(replicationDestinations);
+  }
+
+  public boolean isClosed() {
+    return disposed;
+  }
+
+  @Override
+  public void close() {
+    disposed = true;
+    try {
+      serverSocket.close();
+    } catch (IOException e) {
+      // ignore
+    }
+    for (Socket socket : openSockets) {
+      closeQuietly(socket);
+    }
+    executor.shutdownNow();
+  }
+
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // ignore
+    }
+  }
+
+  /**
+   * Simulates crashed node: RST is sent instead of regular FIN.
+   */
+  private static void resetConnection(HttpContext context) throws ConnectionClosedException {
+    Socket socket = (Socket) context.getAttribute(SOCKET_ATTRIBUTE);
+    try {
+      socket.setSoLinger(true, 0);
+    } catch (SocketException e) {
+      // socket is already closed
+    }
+    closeQuietly(socket);
+    throw new ConnectionClosedException("Connection reset by in memory server");
+  }
+
+  private class AcceptLoop implements Runnable {
+    @SuppressWarnings("synthetic-access")
+    @Override
+    public void run() {
+      while (!disposed) {
+        try {
+          Socket socket = serverSocket.accept();
+          if (networkConditions.isDown()) {
+            socket.setSoLinger(true, 0);
+            closeQuietly(socket);
+            continue;
+          }
+          socket.setTcpNoDelay(true);
+          openSockets.add(socket);
+          DefaultBHttpServerConnection connection = new DefaultBHttpServerConnection(8 * 1024);
+          connection.bind(socket);
+          executor.execute(new ConnectionWorker(socket, connection));
+        } catch (IOException e) {
+          // server socket was closed
+        }
+      }
+    }
+  }
+
+  private class ConnectionWorker implements Runnable {
+    private final Socket socket;
+    private final DefaultBHttpServerConnection connection;
+
+    public ConnectionWorker(Socket socket, DefaultBHttpServerConnection connection) {
+      this.socket = socket;
+      this.connection = connection;
+    }
+
+    @SuppressWarnings("synthetic-access")
+    @Override
+    public void run() {
+      HttpContext context = new BasicHttpContext();
+      context.setAttribute(SOCKET_ATTRIBUTE, socket);
+      try {
+        while (!disposed && !Thread.interrupted() && connection.isOpen()) {
+          httpService.handleRequest(connection, context);
+        }
+      } catch (SocketException | ConnectionClosedException e) {
+        // client closed connection
+      } catch (IOException | HttpException e) {
+        // broken connection - nothing we can do here
+      } finally {
+        openSockets.remove(socket);
+        Closeables.closeQuietly(connection);
+      }
+    }
+  }
+
+  private class RootHandler implements HttpRequestHandler {
+
+    @SuppressWarnings("synthetic-access")
+    @Override
+    public void handle(HttpRequest request, HttpResponse response, HttpContext context) throws IOException {
+      requestsCount.incrementAndGet();
+      if (networkConditions.isDown()) {
+        resetConnection(context);
+      }
+
+      long latency = networkConditions.nextLatencyMillis();
+      if (latency > 0) {
+        try {
+          Thread.sleep(latency);
+        } catch (InterruptedException e) {
+          throw new ConnectionClosedException("Server is shutting down");
+        }
+      }
+
+      if (networkConditions.shouldFail()) {
+        if (networkConditions.getFailureMode() == NetworkConditions.FailureMode.CONNECTION_RESET) {
+          resetConnection(context);
+        }
+        send(response, ServerResponse.error(HttpStatus.SC_SERVICE_UNAVAILABLE, "Failure injected by in memory server"));
+        return;
+      }
+
+      ServerResponse serverResponse;
+      try {
+        serverResponse = endpoints.handle(toServerRequest(request));
+      } catch (IOException | RuntimeException e) {
+        serverResponse = ServerResponse.error(HttpStatus.SC_INTERNAL_SERVER_ERROR, e.toString());
+      }
+      send(response, serverResponse);
+    }
+
+    @SuppressWarnings("synthetic-access")
+    private ServerRequest toServerRequest(HttpRequest request) throws IOException {
+      Map<String, String> headers = new HashMap<>();
+      for (Header header : request.getAllHeaders()) {
+        if (!headers.containsKey(header.getName())) {
+          headers.put(header.getName(), header.getValue());
+        }
+      }
+      InputStream body = null;
+      if (request instanceof HttpEntityEnclosingRequest && ((HttpEntityEnclosingRequest) request).getEntity() != null) {
+        body = throttle.throttle(((HttpEntityEnclosingRequest) request).getEntity().getContent());
+        Header contentEncoding = request.getFirstHeader("Content-Encoding");
+        if (contentEncoding != null && "gzip".equalsIgnoreCase(contentEncoding.getValue())) {
+          // client sends Content-Encoding: gzip also on requests without body
+          PushbackInputStream pushbackBody = new PushbackInputStream(body);
+          int firstByte = pushbackBody.read();
+          if (firstByte >= 0) {
+            pushbackBody.unread(firstByte);
+            body = new GZIPInputStream(pushbackBody);
+          } else {
+            body = null;
+          }
+        }
+      }
+      return new ServerRequest(request.getRequestLine().getMethod(), request.getRequestLine().getUri(), headers, body);
+    }
+
+    @SuppressWarnings("synthetic-access")
+    private void send(HttpResponse response, final ServerResponse serverResponse) {
+      response.setStatusCode(serverResponse.getStatus());
+      for (Map.Entry<String, String> header : serverResponse.getHeaders().entrySet()) {
+        response.addHeader(header.getKey(), header.getValue());
+      }
+      if (serverResponse.isStreamed()) {
+        EntityTemplate entity = new EntityTemplate(new ContentProducer() {
+          @Override
+          public void writeTo(OutputStream outputStream) throws IOException {
+            serverResponse.getBodyWriter().writeTo(throttle.throttle(outputStream));
+          }
+        });
+        entity.setContentType(ContentType.APPLICATION_JSON.toString());
+        entity.setChunked(true);
+        response.setEntity(entity);
+      } else if (serverResponse.getBody() != null) {
+        response.setEntity(new ThrottledEntity(serverResponse.getBody().toString().getBytes(UTF8)));
+      }
+    }
+  }
+
+  private class ThrottledEntity extends ByteArrayEntity {
+    public ThrottledEntity(byte[] content) {
+      super(content, ContentType.APPLICATION_JSON);
+    }
+
+    @SuppressWarnings("synthetic-access")
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+      super.writeTo(throttle.throttle(outputStream));
+    }
+  }
+
+}
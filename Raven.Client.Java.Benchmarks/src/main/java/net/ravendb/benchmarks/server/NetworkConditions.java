@@ -0,0 +1,105 @@
+package net.ravendb.benchmarks.server;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Network conditions simulated by {@link InMemoryRavenServer}. All values can be changed while server is running,
+ * so single benchmark can (for example) take a node down in the middle of the measurement.
+ */
+public class NetworkConditions {
+
+  public enum FailureMode {
+    /**
+     * Server answers with 503 (Service Unavailable) - client sees error response.
+     */
+    ERROR_RESPONSE,
+    /**
+     * Server resets the connection - client sees server as down and fails over.
+     */
+    CONNECTION_RESET
+  }
+
+  private volatile long latencyMillis;
+  private volatile long latencyJitterMillis;
+  private volatile long bandwidthBytesPerSecond;
+  private volatile double failureRate;
+  private volatile FailureMode failureMode = FailureMode.ERROR_RESPONSE;
+  private volatile boolean down;
+
+  /**
+   * @return Fixed latency added to each request before it is handled.
+   */
+  public long getLatencyMillis() {
+    return latencyMillis;
+  }
+
+  public void setLatencyMillis(long latencyMillis) {
+    this.latencyMillis = latencyMillis;
+  }
+
+  /**
+   * @return Maximum random latency added on top of {@link #getLatencyMillis()}.
+   */
+  public long getLatencyJitterMillis() {
+    return latencyJitterMillis;
+  }
+
+  public void setLatencyJitterMillis(long latencyJitterMillis) {
+    this.latencyJitterMillis = latencyJitterMillis;
+  }
+
+  /**
+   * @return Bandwidth shared by all connections of given server (in each direction). Zero means unlimited.
+   */
+  public long getBandwidthBytesPerSecond() {
+    return bandwidthBytesPerSecond;
+  }
+
+  public void setBandwidthBytesPerSecond(long bandwidthBytesPerSecond) {
+    this.bandwidthBytesPerSecond = bandwidthBytesPerSecond;
+  }
+
+  /**
+   * @return Probability (0..1) that request fails according to {@link #getFailureMode()}.
+   */
+  public double getFailureRate() {
+    return failureRate;
+  }
+
+  public void setFailureRate(double failureRate) {
+    if (failureRate < 0 || failureRate > 1) {
+      throw new IllegalArgumentException("Failure rate must be between 0 and 1");
+    }
+    this.failureRate = failureRate;
+  }
+
+  public FailureMode getFailureMode() {
+    return failureMode;
+  }
+
+  public void setFailureMode(FailureMode failureMode) {
+    this.failureMode = failureMode;
+  }
+
+  /**
+   * @return If true, every connection is reset right after it was accepted.
+   */
+  public boolean isDown() {
+    return down;
+  }
+
+  public void setDown(boolean down) {
+    this.down = down;
+  }
+
+  long nextLatencyMillis() {
+    long jitter = latencyJitterMillis;
+    return latencyMillis + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0);
+  }
+
+  boolean shouldFail() {
+    double rate = failureRate;
+    return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+  }
+
+}
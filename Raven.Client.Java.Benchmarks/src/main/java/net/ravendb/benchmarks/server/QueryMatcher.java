@@ -0,0 +1,506 @@
+package net.ravendb.benchmarks.server;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.json.linq.JTokenType;
+import net.ravendb.abstractions.json.linq.RavenJArray;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.abstractions.json.linq.RavenJValue;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Evaluates subset of lucene syntax sent by the client against stored documents: terms, phrases, prefix wildcards,
+ * ranges (with Ix/Lx/Dx/Fx numeric prefixes), @in&lt;Field&gt;:(a,b), AND / OR / NOT / - and parentheses.
+ * As in lucene, terms without explicit operator are joined using OR. Values are compared case insensitive.
+ */
+class QueryMatcher {
+
+  private static final QueryMatcher MATCH_ALL = new QueryMatcher(null);
+
+  private final Clause root;
+
+  private QueryMatcher(Clause root) {
+    this.root = root;
+  }
+
+  public static QueryMatcher parse(String query) {
+    if (StringUtils.isBlank(query)) {
+      return MATCH_ALL;
+    }
+    Parser parser = new Parser(query);
+    Clause clause = parser.parseOr();
+    return new QueryMatcher(clause);
+  }
+
+  public boolean matches(StoredDocument document) {
+    return root == null || root.matches(document);
+  }
+
+  private interface Clause {
+    boolean matches(StoredDocument document);
+  }
+
+  private static class OrClause implements Clause {
+    private final List<Clause> clauses;
+
+    public OrClause(List<Clause> clauses) {
+      this.clauses = clauses;
+    }
+
+    @Override
+    public boolean matches(StoredDocument document) {
+      for (Clause clause : clauses) {
+        if (clause.matches(document)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static class AndClause implements Clause {
+    private final List<Clause> clauses;
+
+    public AndClause(List<Clause> clauses) {
+      this.clauses = clauses;
+    }
+
+    @Override
+    public boolean matches(StoredDocument document) {
+      for (Clause clause : clauses) {
+        if (!clause.matches(document)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static class NotClause implements Clause {
+    private final Clause inner;
+
+    public NotClause(Clause inner) {
+      this.inner = inner;
+    }
+
+    @Override
+    public boolean matches(StoredDocument document) {
+      return !inner.matches(document);
+    }
+  }
+
+  private static abstract class FieldClause implements Clause {
+    protected final String field;
+
+    public FieldClause(String field) {
+      this.field = field;
+    }
+
+    @Override
+    public boolean matches(StoredDocument document) {
+      for (RavenJToken value : fieldValues(document, field)) {
+        if (matchesValue(value)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    protected abstract boolean matchesValue(RavenJToken value);
+  }
+
+  private static class TermClause extends FieldClause {
+    private final String term;
+    private final boolean prefix;
+
+    public TermClause(String field, String term, boolean prefix) {
+      super(field);
+      this.term = term;
+      this.prefix = prefix;
+    }
+
+    @Override
+    public boolean matches(StoredDocument document) {
+      if ("*".equals(term)) {
+        return !fieldValues(document, field).isEmpty();
+      }
+      return super.matches(document);
+    }
+
+    @Override
+    protected boolean matchesValue(RavenJToken value) {
+      String text = asText(value);
+      if (Constants.NULL_VALUE_NOT_ANALYZED.equals(term) || Constants.NULL_VALUE.equals(term)) {
+        return text == null;
+      }
+      if (text == null) {
+        return false;
+      }
+      if (Constants.EMPTY_STRING_NOT_ANALYZED.equals(term) || Constants.EMPTY_STRING.equals(term)) {
+        return text.isEmpty();
+      }
+      if (prefix) {
+        return text.toLowerCase().startsWith(term.toLowerCase());
+      }
+      if (term.equalsIgnoreCase(text)) {
+        return true;
+      }
+      Double number = asNumber(term);
+      return number != null && value.getType() != JTokenType.STRING && number.equals(asNumber(text));
+    }
+  }
+
+  private static class RangeClause extends FieldClause {
+    private final String from;
+    private final String to;
+    private final boolean inclusive;
+
+    public RangeClause(String field, String from, String to, boolean inclusive) {
+      super(field.endsWith("_Range") ? field.substring(0, field.length() - "_Range".length()) : field);
+      this.from = from;
+      this.to = to;
+      this.inclusive = inclusive;
+    }
+
+    @Override
+    protected boolean matchesValue(RavenJToken value) {
+      String text = asText(value);
+      if (text == null) {
+        return false;
+      }
+      return checkBound(text, from, true) && checkBound(text, to, false);
+    }
+
+    private boolean checkBound(String text, String bound, boolean lower) {
+      if (bound == null || "*".equals(bound) || "NULL".equals(bound)) {
+        return true;
+      }
+      int compare;
+      Double boundNumber = asNumber(stripNumericPrefix(bound));
+      Double valueNumber = asNumber(text);
+      if (boundNumber != null && valueNumber != null) {
+        compare = valueNumber.compareTo(boundNumber);
+      } else {
+        compare = text.compareToIgnoreCase(bound);
+      }
+      if (compare == 0) {
+        return inclusive;
+      }
+      return lower ? compare > 0 : compare < 0;
+    }
+
+    private static String stripNumericPrefix(String bound) {
+      if (bound.length() > 2 && bound.charAt(1) == 'x' && "ILDF".indexOf(bound.charAt(0)) >= 0) {
+        return bound.substring(2);
+      }
+      return bound;
+    }
+  }
+
+  private static class InClause extends FieldClause {
+    private final List<String> values;
+
+    public InClause(String field, List<String> values) {
+      super(field);
+      this.values = values;
+    }
+
+    @Override
+    protected boolean matchesValue(RavenJToken value) {
+      String text = asText(value);
+      for (String candidate : values) {
+        if (candidate.equalsIgnoreCase(text)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Resolves field path (dots for nested objects, commas for collections) to all matching values.
+   */
+  static List<RavenJToken> fieldValues(StoredDocument document, String field) {
+    List<RavenJToken> result = new ArrayList<>();
+    if ("Tag".equals(field)) {
+      if (document.getCollection() != null) {
+        result.add(new RavenJValue(document.getCollection()));
+      }
+      return result;
+    }
+    if (Constants.DOCUMENT_ID_FIELD_NAME.equals(field)) {
+      result.add(new RavenJValue(document.getKey()));
+      return result;
+    }
+    collectValues(document.getData(), field.replace(',', '.').split("\\."), 0, result);
+    return result;
+  }
+
+  private static void collectValues(RavenJToken token, String[] path, int index, List<RavenJToken> result) {
+    if (token == null) {
+      return;
+    }
+    if (token instanceof RavenJArray) {
+      for (RavenJToken item : (RavenJArray) token) {
+        collectValues(item, path, index, result);
+      }
+      return;
+    }
+    if (index == path.length) {
+      result.add(token);
+      return;
+    }
+    if (token instanceof RavenJObject) {
+      collectValues(((RavenJObject) token).get(path[index]), path, index + 1, result);
+    }
+  }
+
+  static String asText(RavenJToken token) {
+    if (token == null || token.getType() == JTokenType.NULL) {
+      return null;
+    }
+    if (token instanceof RavenJValue) {
+      Object value = ((RavenJValue) token).getValue();
+      return value != null ? value.toString() : null;
+    }
+    return token.toString();
+  }
+
+  static Double asNumber(String text) {
+    if (text == null || text.isEmpty()) {
+      return null;
+    }
+    char first = text.charAt(0);
+    if (!Character.isDigit(first) && first != '-' && first != '.') {
+      return null;
+    }
+    try {
+      return Double.valueOf(text);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static class Parser {
+    private final String query;
+    private int position;
+
+    public Parser(String query) {
+      this.query = query;
+    }
+
+    public Clause parseOr() {
+      List<Clause> clauses = new ArrayList<>();
+      clauses.add(parseAnd());
+      while (true) {
+        skipWhitespace();
+        if (isEnd() || peek() == ')') {
+          break;
+        }
+        // explicit OR or lucene default operator
+        if (!tryKeyword("OR")) {
+          tryKeyword("||");
+        }
+        clauses.add(parseAnd());
+      }
+      return clauses.size() == 1 ? clauses.get(0) : new OrClause(clauses);
+    }
+
+    private Clause parseAnd() {
+      List<Clause> clauses = new ArrayList<>();
+      clauses.add(parseUnary());
+      while (true) {
+        skipWhitespace();
+        if (tryKeyword("AND") || tryKeyword("&&")) {
+          clauses.add(parseUnary());
+        } else {
+          break;
+        }
+      }
+      return clauses.size() == 1 ? clauses.get(0) : new AndClause(clauses);
+    }
+
+    private Clause parseUnary() {
+      skipWhitespace();
+      if (tryKeyword("NOT")) {
+        return new NotClause(parseUnary());
+      }
+      if (!isEnd() && peek() == '-') {
+        position++;
+        return new NotClause(parseUnary());
+      }
+      if (!isEnd() && peek() == '+') {
+        position++;
+      }
+      return parsePrimary();
+    }
+
+    private Clause parsePrimary() {
+      skipWhitespace();
+      if (isEnd()) {
+        throw new IllegalArgumentException("Unexpected end of query: " + query);
+      }
+      if (peek() == '(') {
+        position++;
+        Clause inner = parseOr();
+        expect(')');
+        return inner;
+      }
+      String field = readField();
+      expect(':');
+      skipWhitespace();
+      if (field.startsWith("@in<") && field.endsWith(">")) {
+        return new InClause(field.substring(4, field.length() - 1), readList());
+      }
+      if (!isEnd() && (peek() == '[' || peek() == '{')) {
+        return readRange(field);
+      }
+      if (!isEnd() && peek() == '(') {
+        List<Clause> alternatives = new ArrayList<>();
+        for (String value : readList()) {
+          alternatives.add(new TermClause(field, value, false));
+        }
+        return new OrClause(alternatives);
+      }
+      if (!isEnd() && peek() == '"') {
+        return new TermClause(field, readQuoted(), false);
+      }
+      String value = readBare();
+      boolean prefixMatch = value.length() > 1 && value.endsWith("*") && !value.endsWith("\\*");
+      return new TermClause(field, unescape(prefixMatch ? value.substring(0, value.length() - 1) : value), prefixMatch);
+    }
+
+    private Clause readRange(String field) {
+      boolean inclusive = query.charAt(position) == '[';
+      position++;
+      skipWhitespace();
+      String from = unescape(readBare());
+      skipWhitespace();
+      if (!tryKeyword("TO")) {
+        throw new IllegalArgumentException("Expected TO in range: " + query);
+      }
+      skipWhitespace();
+      String to = unescape(readBareUntil(inclusive ? ']' : '}'));
+      position++;
+      return new RangeClause(field, from, to, inclusive);
+    }
+
+    private List<String> readList() {
+      expect('(');
+      List<String> values = new ArrayList<>();
+      while (true) {
+        skipWhitespace();
+        if (isEnd()) {
+          throw new IllegalArgumentException("Unterminated list in query: " + query);
+        }
+        if (peek() == ')') {
+          position++;
+          return values;
+        }
+        if (peek() == ',') {
+          position++;
+          continue;
+        }
+        values.add(peek() == '"' ? readQuoted() : unescape(readBareUntil(',')));
+      }
+    }
+
+    private String readField() {
+      int start = position;
+      while (!isEnd() && peek() != ':') {
+        if (peek() == '\\') {
+          position++;
+        }
+        position++;
+      }
+      return unescape(query.substring(start, position).trim());
+    }
+
+    private String readQuoted() {
+      expect('"');
+      StringBuilder sb = new StringBuilder();
+      while (!isEnd() && peek() != '"') {
+        if (peek() == '\\' && position + 1 < query.length()) {
+          position++;
+        }
+        sb.append(query.charAt(position++));
+      }
+      expect('"');
+      return sb.toString();
+    }
+
+    private String readBare() {
+      return readBareUntil((char) 0);
+    }
+
+    private String readBareUntil(char terminator) {
+      int start = position;
+      while (!isEnd()) {
+        char c = peek();
+        if (c == '\\') {
+          position += 2;
+          continue;
+        }
+        if (Character.isWhitespace(c) || c == ')' || c == terminator
+          || (terminator == 0 && (c == ']' || c == '}'))) {
+          break;
+        }
+        position++;
+      }
+      return query.substring(start, Math.min(position, query.length()));
+    }
+
+    private static String unescape(String value) {
+      if (value.indexOf('\\') < 0) {
+        return value;
+      }
+      StringBuilder sb = new StringBuilder(value.length());
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c == '\\' && i + 1 < value.length()) {
+          c = value.charAt(++i);
+        }
+        sb.append(c);
+      }
+      return sb.toString();
+    }
+
+    private boolean tryKeyword(String keyword) {
+      if (!query.startsWith(keyword, position)) {
+        return false;
+      }
+      int end = position + keyword.length();
+      if (end < query.length() && !Character.isWhitespace(query.charAt(end)) && query.charAt(end) != '(') {
+        return false;
+      }
+      position = end;
+      return true;
+    }
+
+    private void expect(char c) {
+      skipWhitespace();
+      if (isEnd() || peek() != c) {
+        throw new IllegalArgumentException("Expected '" + c + "' at position " + position + " in query: " + query);
+      }
+      position++;
+    }
+
+    private void skipWhitespace() {
+      while (!isEnd() && Character.isWhitespace(peek())) {
+        position++;
+      }
+    }
+
+    private char peek() {
+      return query.charAt(position);
+    }
+
+    private boolean isEnd() {
+      return position >= query.length();
+    }
+  }
+}
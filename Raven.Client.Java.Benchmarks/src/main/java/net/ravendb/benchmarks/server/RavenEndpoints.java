@@ -0,0 +1,846 @@
+package net.ravendb.benchmarks.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.UuidType;
+import net.ravendb.abstractions.exceptions.ConcurrencyException;
+import net.ravendb.abstractions.extensions.MetadataExtensions;
+import net.ravendb.abstractions.json.linq.JTokenType;
+import net.ravendb.abstractions.json.linq.RavenJArray;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.abstractions.json.linq.RavenJValue;
+import net.ravendb.abstractions.util.NetDateFormat;
+import net.ravendb.client.utils.UrlUtils;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.HttpStatus;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+
+import com.google.common.io.ByteStreams;
+
+import de.undercouch.bson4jackson.BsonFactory;
+
+/**
+ * Implements subset of RavenDB 3.x REST protocol used by the client on top of {@link InMemoryDatabase}.
+ */
+class RavenEndpoints {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+  private static final int DEFAULT_PAGE_SIZE = 128;
+  private static final long CHANGES_HEARTBEAT_MILLIS = 10 * 1000;
+
+  private final InMemoryRavenServer server;
+  private final InMemoryDatabase database;
+  private final JsonFactory jsonFactory = new JsonFactory();
+  private final BsonFactory bsonFactory = new BsonFactory();
+
+  public RavenEndpoints(InMemoryRavenServer server, InMemoryDatabase database) {
+    this.server = server;
+    this.database = database;
+  }
+
+  public ServerResponse handle(ServerRequest request) throws IOException {
+    try {
+      return route(request);
+    } catch (ConcurrencyException e) {
+      RavenJObject error = new RavenJObject();
+      error.add("Error", new RavenJValue(e.getMessage()));
+      error.add("ExpectedETag", new RavenJValue(e.getExpectedEtag().toString()));
+      error.add("ActualETag", new RavenJValue(e.getActualEtag().toString()));
+      return new ServerResponse(HttpStatus.SC_CONFLICT, error);
+    }
+  }
+
+  private ServerResponse route(ServerRequest request) throws IOException {
+    String path = request.getPath();
+    String method = request.getMethod();
+
+    if ("/docs".equals(path) || "/docs/".equals(path)) {
+      return request.hasParameter("id") ? getDocument(request, request.getParameter("id")) : getDocuments(request);
+    }
+    if (path.startsWith("/docs/")) {
+      String key = UrlUtils.unescapeDataString(path.substring("/docs/".length()));
+      switch (method) {
+        case "GET":
+        case "HEAD":
+          return getDocument(request, key);
+        case "PUT":
+          return putDocument(request, key);
+        case "DELETE":
+          database.delete(key, etagFromHeader(request.getHeader("If-None-Match")));
+          return ServerResponse.empty(HttpStatus.SC_NO_CONTENT);
+        default:
+          return ServerResponse.empty(HttpStatus.SC_METHOD_NOT_ALLOWED);
+      }
+    }
+    if ("/queries".equals(path) || "/queries/".equals(path)) {
+      return multiLoad(request);
+    }
+    if ("/bulk_docs".equals(path) && "POST".equals(method)) {
+      return batch(request);
+    }
+    if ("/multi_get".equals(path) && "POST".equals(method)) {
+      return multiGet(request);
+    }
+    if ("/indexes".equals(path) || "/indexes/".equals(path)) {
+      return "PUT".equals(method) ? putIndexes(request) : listDefinitions(request, database.getIndexDefinitions(request.getDatabase()));
+    }
+    if (path.startsWith("/indexes/set-priority/")) {
+      String indexName = UrlUtils.unescapeDataString(path.substring("/indexes/set-priority/".length()));
+      RavenJObject definition = database.getIndexDefinitions(request.getDatabase()).get(indexName);
+      if (definition == null) {
+        return ServerResponse.empty(HttpStatus.SC_NOT_FOUND);
+      }
+      definition.add("Priority", new RavenJValue(request.getParameter("priority")));
+      return ServerResponse.empty(HttpStatus.SC_OK);
+    }
+    if (path.startsWith("/indexes/")) {
+      String indexName = UrlUtils.unescapeDataString(path.substring("/indexes/".length()));
+      if ("PUT".equals(method)) {
+        putDefinition(database.getIndexDefinitions(request.getDatabase()), indexName, (RavenJObject) request.readBodyAsJson(), new RavenJValue("Normal"));
+        RavenJObject result = new RavenJObject();
+        result.add("Index", new RavenJValue(indexName));
+        return new ServerResponse(HttpStatus.SC_CREATED, result);
+      }
+      if ("GET".equals(method) && !request.hasParameter("definition")) {
+        return query(request, indexName);
+      }
+      return ServerResponse.empty("DELETE".equals(method) ? HttpStatus.SC_NO_CONTENT : HttpStatus.SC_NOT_FOUND);
+    }
+    if ("/transformers".equals(path) || "/transformers/".equals(path)) {
+      return listDefinitions(request, database.getTransformerDefinitions(request.getDatabase()));
+    }
+    if (path.startsWith("/transformers/") && "PUT".equals(method)) {
+      String transformerName = UrlUtils.unescapeDataString(path.substring("/transformers/".length()));
+      putDefinition(database.getTransformerDefinitions(request.getDatabase()), transformerName, (RavenJObject) request.readBodyAsJson(), null);
+      RavenJObject result = new RavenJObject();
+      result.add("Transformer", new RavenJValue(transformerName));
+      return ServerResponse.ok(result);
+    }
+    if (path.startsWith("/replication/replicate-") && "POST".equals(method)) {
+      return ServerResponse.empty(HttpStatus.SC_OK);
+    }
+    if ("/streams/docs".equals(path)) {
+      return streamDocuments(request);
+    }
+    if (path.startsWith("/streams/query/")) {
+      return streamQuery(request, UrlUtils.unescapeDataString(path.substring("/streams/query/".length())));
+    }
+    if ("/changes/events".equals(path)) {
+      return changesEvents(request);
+    }
+    if ("/changes/config".equals(path)) {
+      database.getOrAddChangesConnection(request.getParameter("id"))
+        .handleCommand(request.getParameter("command"), request.getParameter("value"));
+      return ServerResponse.empty(HttpStatus.SC_OK);
+    }
+    if (path.startsWith("/subscriptions")) {
+      return subscriptions(request);
+    }
+    if ("/bulkInsert".equals(path) && "POST".equals(method)) {
+      return bulkInsert(request);
+    }
+    if ("/singleAuthToken".equals(path)) {
+      RavenJObject token = new RavenJObject();
+      token.add("Token", new RavenJValue("in-memory-server-token"));
+      return ServerResponse.ok(token);
+    }
+    if ("/operation/status".equals(path)) {
+      Boolean completed = database.isOperationCompleted(Long.parseLong(request.getParameter("id")));
+      if (completed == null) {
+        return ServerResponse.error(HttpStatus.SC_NOT_FOUND, "Operation does not exist");
+      }
+      RavenJObject status = new RavenJObject();
+      status.add("Completed", new RavenJValue(completed.booleanValue()));
+      status.add("Faulted", new RavenJValue(false));
+      return ServerResponse.ok(status);
+    }
+    if ("/replication/topology".equals(path)) {
+      return replicationTopology(request);
+    }
+    if ("/identity/next".equals(path)) {
+      RavenJObject result = new RavenJObject();
+      result.add("Value", new RavenJValue(database.nextIdentity(request.getParameter("name"))));
+      return ServerResponse.ok(result);
+    }
+    if ("/stats".equals(path)) {
+      RavenJObject stats = new RavenJObject();
+      stats.add("CountOfDocuments", new RavenJValue(database.getCount()));
+      stats.add("LastDocEtag", new RavenJValue(database.getLastEtag().toString()));
+      Collection<RavenJObject> definitions = database.getIndexDefinitions(request.getDatabase()).values();
+      RavenJArray indexes = new RavenJArray();
+      for (RavenJObject definition : definitions) {
+        RavenJObject indexStats = new RavenJObject();
+        indexStats.add("Name", definition.get("Name"));
+        indexStats.add("Priority", definition.get("Priority"));
+        indexes.add(indexStats);
+      }
+      stats.add("CountOfIndexes", new RavenJValue(indexes.size()));
+      stats.add("StaleIndexes", new RavenJArray());
+      stats.add("Indexes", indexes);
+      return ServerResponse.ok(stats);
+    }
+    return ServerResponse.empty(HttpStatus.SC_NOT_FOUND);
+  }
+
+  private ServerResponse putIndexes(ServerRequest request) throws IOException {
+    ConcurrentNavigableMap<String, RavenJObject> definitions = database.getIndexDefinitions(request.getDatabase());
+    RavenJArray names = new RavenJArray();
+    for (RavenJToken token : (RavenJArray) request.readBodyAsJson()) {
+      RavenJObject indexToAdd = (RavenJObject) token;
+      String name = indexToAdd.value(String.class, "Name");
+      RavenJToken priority = indexToAdd.get("Priority");
+      putDefinition(definitions, name, indexToAdd.value(RavenJObject.class, "Definition"), priority != null ? priority : new RavenJValue("Normal"));
+      names.add(new RavenJValue(name));
+    }
+    RavenJObject result = new RavenJObject();
+    result.add("Indexes", names);
+    return new ServerResponse(HttpStatus.SC_CREATED, result);
+  }
+
+  private static void putDefinition(ConcurrentNavigableMap<String, RavenJObject> definitions, String name, RavenJObject definition,
+    RavenJToken priority) {
+    definition.add("Name", new RavenJValue(name));
+    if (priority != null) {
+      definition.add("Priority", priority);
+    }
+    definitions.put(name, definition);
+  }
+
+  private static ServerResponse listDefinitions(ServerRequest request, ConcurrentNavigableMap<String, RavenJObject> definitions) {
+    int start = request.getIntParameter("start", 0);
+    int pageSize = request.getIntParameter("pageSize", DEFAULT_PAGE_SIZE);
+    RavenJArray result = new RavenJArray();
+    int skipped = 0;
+    for (Map.Entry<String, RavenJObject> definition : definitions.entrySet()) {
+      if (skipped++ < start) {
+        continue;
+      }
+      if (result.size() >= pageSize) {
+        break;
+      }
+      RavenJObject item = new RavenJObject();
+      item.add("name", new RavenJValue(definition.getKey()));
+      item.add("definition", definition.getValue());
+      result.add(item);
+    }
+    return ServerResponse.ok(result);
+  }
+
+  private ServerResponse getDocument(ServerRequest request, String key) {
+    StoredDocument document = database.get(key);
+    if (document == null) {
+      return ServerResponse.empty(HttpStatus.SC_NOT_FOUND);
+    }
+    String etagHeader = quote(document.getEtag());
+    if (etagHeader.equals(quote(etagFromHeader(request.getHeader("If-None-Match"))))) {
+      return ServerResponse.empty(HttpStatus.SC_NOT_MODIFIED).withHeader(Constants.METADATA_ETAG_FIELD, etagHeader);
+    }
+    ServerResponse response = ServerResponse.ok("HEAD".equals(request.getMethod()) ? null : document.getData());
+    for (Map.Entry<String, RavenJToken> metadata : document.getMetadata()) {
+      response.withHeader(metadata.getKey(), toHeaderValue(metadata.getValue()));
+    }
+    return response
+      .withHeader(Constants.DOCUMENT_ID_FIELD_NAME, UrlUtils.escapeDataString(document.getKey()))
+      .withHeader(Constants.METADATA_ETAG_FIELD, etagHeader)
+      .withHeader(Constants.RAVEN_LAST_MODIFIED, document.getLastModifiedHeader());
+  }
+
+  private ServerResponse getDocuments(ServerRequest request) {
+    String startsWith = StringUtils.lowerCase(request.getParameter("startsWith"));
+    int start = request.getIntParameter("start", 0);
+    int pageSize = request.getIntParameter("pageSize", DEFAULT_PAGE_SIZE);
+    Collection<StoredDocument> source = request.hasParameter("etag")
+      ? database.getDocumentsAfter(Etag.parse(request.getParameter("etag")).getChanges()) : database.getDocuments();
+
+    RavenJArray results = new RavenJArray();
+    int skipped = 0;
+    for (StoredDocument document : source) {
+      if (startsWith != null && !document.getKey().toLowerCase().startsWith(startsWith)) {
+        continue;
+      }
+      if (skipped++ < start) {
+        continue;
+      }
+      if (results.size() >= pageSize) {
+        break;
+      }
+      results.add(document.toJson());
+    }
+    return ServerResponse.ok(results);
+  }
+
+  private ServerResponse putDocument(ServerRequest request, String key) throws IOException {
+    RavenJObject data = (RavenJObject) request.readBodyAsJson();
+    RavenJObject metadata = MetadataExtensions.filterHeadersToObject(request.getHeaders());
+    Etag expectedEtag = etagFromHeader(request.getHeader("If-None-Match"));
+    StoredDocument document = database.put(key, expectedEtag, data, metadata);
+    RavenJObject result = new RavenJObject();
+    result.add("Key", new RavenJValue(document.getKey()));
+    result.add("ETag", new RavenJValue(document.getEtag().toString()));
+    return new ServerResponse(HttpStatus.SC_CREATED, result);
+  }
+
+  private ServerResponse multiLoad(ServerRequest request) throws IOException {
+    List<String> ids = new ArrayList<>(request.getParameters("id"));
+    if ("POST".equals(request.getMethod())) {
+      for (RavenJToken id : (RavenJArray) request.readBodyAsJson()) {
+        ids.add(id.value(String.class));
+      }
+    }
+
+    List<StoredDocument> documents = new ArrayList<>(ids.size());
+    long etagSum = 0;
+    for (String id : ids) {
+      StoredDocument document = database.get(id);
+      documents.add(document);
+      etagSum = etagSum * 31 + (document != null ? document.getEtagNumber() : 0);
+    }
+
+    String etagHeader = quote(new Etag(UuidType.DOCUMENTS, Math.abs(ids.hashCode()), Math.abs(etagSum)));
+    if (etagHeader.equals(quote(etagFromHeader(request.getHeader("If-None-Match"))))) {
+      return ServerResponse.empty(HttpStatus.SC_NOT_MODIFIED).withHeader(Constants.METADATA_ETAG_FIELD, etagHeader);
+    }
+
+    RavenJArray results = new RavenJArray();
+    for (StoredDocument document : documents) {
+      results.add(document != null ? document.toJson() : RavenJValue.getNull());
+    }
+    RavenJObject result = new RavenJObject();
+    result.add("Results", results);
+    result.add("Includes", includes(request.getParameters("include"), documents));
+    return ServerResponse.ok(result).withHeader(Constants.METADATA_ETAG_FIELD, etagHeader);
+  }
+
+  private RavenJArray includes(List<String> includePaths, List<StoredDocument> documents) {
+    RavenJArray includes = new RavenJArray();
+    if (includePaths.isEmpty()) {
+      return includes;
+    }
+    Map<String, Boolean> loaded = new HashMap<>();
+    for (StoredDocument document : documents) {
+      if (document != null) {
+        loaded.put(document.getKey().toLowerCase(), Boolean.TRUE);
+      }
+    }
+    for (StoredDocument document : documents) {
+      if (document == null) {
+        continue;
+      }
+      for (String includePath : includePaths) {
+        for (RavenJToken value : QueryMatcher.fieldValues(document, includePath)) {
+          String includedKey = QueryMatcher.asText(value);
+          if (includedKey == null || loaded.containsKey(includedKey.toLowerCase())) {
+            continue;
+          }
+          loaded.put(includedKey.toLowerCase(), Boolean.TRUE);
+          StoredDocument included = database.get(includedKey);
+          if (included != null) {
+            includes.add(included.toJson());
+          }
+        }
+      }
+    }
+    return includes;
+  }
+
+  private ServerResponse batch(ServerRequest request) throws IOException {
+    RavenJArray commands = (RavenJArray) request.readBodyAsJson();
+    RavenJArray results = new RavenJArray();
+    for (RavenJToken token : commands) {
+      RavenJObject command = (RavenJObject) token;
+      String commandMethod = command.value(String.class, "Method");
+      String key = command.value(String.class, "Key");
+      Etag expectedEtag = command.value(Etag.class, "Etag");
+
+      RavenJObject result = new RavenJObject();
+      result.add("Method", new RavenJValue(commandMethod));
+      if ("PUT".equals(commandMethod)) {
+        StoredDocument document = database.put(key, expectedEtag, command.value(RavenJObject.class, "Document"),
+          command.value(RavenJObject.class, "Metadata"));
+        result.add("Key", new RavenJValue(document.getKey()));
+        result.add("Etag", new RavenJValue(document.getEtag().toString()));
+        result.add("Metadata", document.getMetadata().cloneToken());
+      } else if ("DELETE".equals(commandMethod)) {
+        result.add("Key", new RavenJValue(key));
+        result.add("Deleted", new RavenJValue(database.delete(key, expectedEtag)));
+      } else {
+        return ServerResponse.error(HttpStatus.SC_BAD_REQUEST, "Command " + commandMethod + " is not supported by in memory server");
+      }
+      results.add(result);
+    }
+    return ServerResponse.ok(results);
+  }
+
+  private ServerResponse multiGet(ServerRequest request) throws IOException {
+    RavenJArray requests = (RavenJArray) request.readBodyAsJson();
+    String databasePrefix = request.getDatabase() != null ? "/databases/" + request.getDatabase() : "";
+    RavenJArray responses = new RavenJArray();
+    for (RavenJToken token : requests) {
+      if (token == null || token.getType() == JTokenType.NULL) {
+        responses.add(RavenJValue.getNull());
+        continue;
+      }
+      RavenJObject getRequest = (RavenJObject) token;
+      String query = StringUtils.defaultString(getRequest.value(String.class, "Query"));
+      String uri = databasePrefix + getRequest.value(String.class, "Url")
+        + (query.isEmpty() || query.startsWith("?") ? query : "?" + query);
+
+      Map<String, String> headers = new HashMap<>();
+      RavenJObject requestHeaders = getRequest.value(RavenJObject.class, "Headers");
+      if (requestHeaders != null) {
+        for (Map.Entry<String, RavenJToken> header : requestHeaders) {
+          headers.put(header.getKey(), QueryMatcher.asText(header.getValue()));
+        }
+      }
+      String content = getRequest.value(String.class, "Content");
+      String method = StringUtils.defaultIfEmpty(getRequest.value(String.class, "Method"), "GET");
+      ServerRequest innerRequest = new ServerRequest(method, uri, headers,
+        content != null ? new ByteArrayInputStream(content.getBytes(UTF8)) : null);
+
+      ServerResponse innerResponse = handle(innerRequest);
+      if (innerResponse.isStreamed()) {
+        innerResponse = ServerResponse.error(HttpStatus.SC_BAD_REQUEST, "Streaming is not supported in multi get");
+      }
+      RavenJObject responseHeaders = new RavenJObject();
+      for (Map.Entry<String, String> header : innerResponse.getHeaders().entrySet()) {
+        responseHeaders.add(header.getKey(), new RavenJValue(header.getValue()));
+      }
+      RavenJObject response = new RavenJObject();
+      response.add("Result", innerResponse.getBody() != null ? innerResponse.getBody() : RavenJValue.getNull());
+      response.add("Headers", responseHeaders);
+      response.add("Status", new RavenJValue(innerResponse.getStatus()));
+      responses.add(response);
+    }
+    return ServerResponse.ok(responses);
+  }
+
+  private List<StoredDocument> runQuery(ServerRequest request, String indexName) {
+    QueryMatcher matcher = QueryMatcher.parse(request.getParameter("query"));
+    String collection = indexName.startsWith("dynamic/") ? indexName.substring("dynamic/".length()) : null;
+    List<StoredDocument> matches = new ArrayList<>();
+    for (StoredDocument document : database.getDocuments()) {
+      if (collection != null && !collection.equalsIgnoreCase(document.getCollection())) {
+        continue;
+      }
+      if (matcher.matches(document)) {
+        matches.add(document);
+      }
+    }
+    String sort = request.getParameter("sort");
+    if (StringUtils.isNotEmpty(sort)) {
+      Collections.sort(matches, new FieldComparator(sort));
+    }
+    return matches;
+  }
+
+  private Etag queryResultEtag(ServerRequest request) {
+    return new Etag(UuidType.DOCUMENTS, Math.abs((long) (request.getPath() + request.getQueryString()).hashCode()),
+      database.getLastEtagNumber());
+  }
+
+  private ServerResponse query(ServerRequest request, String indexName) {
+    Etag resultEtag = queryResultEtag(request);
+    String etagHeader = quote(resultEtag);
+    if (etagHeader.equals(quote(etagFromHeader(request.getHeader("If-None-Match"))))) {
+      return ServerResponse.empty(HttpStatus.SC_NOT_MODIFIED).withHeader(Constants.METADATA_ETAG_FIELD, etagHeader);
+    }
+
+    List<StoredDocument> matches = runQuery(request, indexName);
+    int start = request.getIntParameter("start", 0);
+    int pageSize = request.getIntParameter("pageSize", DEFAULT_PAGE_SIZE);
+    List<StoredDocument> page = matches.subList(Math.min(start, matches.size()), Math.min(start + pageSize, matches.size()));
+
+    RavenJArray results = new RavenJArray();
+    for (StoredDocument document : page) {
+      results.add(document.toJson());
+    }
+    Date now = new Date();
+    RavenJObject result = new RavenJObject();
+    result.add("Results", results);
+    result.add("Includes", includes(request.getParameters("include"), page));
+    result.add("IsStale", new RavenJValue(false));
+    result.add("IndexTimestamp", new RavenJValue(now));
+    result.add("TotalResults", new RavenJValue(matches.size()));
+    result.add("SkippedResults", new RavenJValue(0));
+    result.add("IndexName", new RavenJValue(indexName));
+    result.add("IndexEtag", new RavenJValue(database.getLastEtag().toString()));
+    result.add("ResultEtag", new RavenJValue(resultEtag.toString()));
+    result.add("LastQueryTime", new RavenJValue(now));
+    result.add("Highlightings", new RavenJObject());
+    result.add("TimingsInMilliseconds", new RavenJObject());
+    return ServerResponse.ok(result).withHeader(Constants.METADATA_ETAG_FIELD, etagHeader);
+  }
+
+  private ServerResponse streamDocuments(ServerRequest request) {
+    final String startsWith = StringUtils.lowerCase(request.getParameter("startsWith"));
+    final int start = request.getIntParameter("start", 0);
+    final int pageSize = request.getIntParameter("pageSize", Integer.MAX_VALUE);
+    final Collection<StoredDocument> source;
+    if (request.hasParameter("etag")) {
+      source = database.getDocumentsAfter(Etag.parse(request.getParameter("etag")).getChanges());
+    } else if (startsWith != null) {
+      source = database.getDocuments();
+    } else {
+      // as RavenDB does, stream without etag returns most recently modified documents first
+      source = database.getDocumentsNewestFirst();
+    }
+
+    return new ServerResponse(HttpStatus.SC_OK, new ServerResponse.BodyWriter() {
+      @Override
+      public void writeTo(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = startResults(outputStream);
+        int skipped = 0;
+        int written = 0;
+        for (StoredDocument document : source) {
+          if (startsWith != null && !document.getKey().toLowerCase().startsWith(startsWith)) {
+            continue;
+          }
+          if (skipped++ < start) {
+            continue;
+          }
+          if (written++ >= pageSize) {
+            break;
+          }
+          document.toJson().writeTo(generator);
+        }
+        endResults(generator, null);
+      }
+    });
+  }
+
+  private ServerResponse streamQuery(ServerRequest request, String indexName) {
+    final List<StoredDocument> matches = runQuery(request, indexName);
+    final int start = request.getIntParameter("start", 0);
+    final int pageSize = request.getIntParameter("pageSize", Integer.MAX_VALUE);
+    NetDateFormat dateFormat = new NetDateFormat();
+    return new ServerResponse(HttpStatus.SC_OK, new ServerResponse.BodyWriter() {
+      @Override
+      public void writeTo(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = startResults(outputStream);
+        for (int i = start; i < matches.size() && i - start < pageSize; i++) {
+          matches.get(i).toJson().writeTo(generator);
+        }
+        endResults(generator, null);
+      }
+    })
+      .withHeader("Raven-Index", indexName)
+      .withHeader("Raven-Index-Timestamp", dateFormat.format(new Date()))
+      .withHeader("Raven-Index-Etag", database.getLastEtag().toString())
+      .withHeader("Raven-Result-Etag", queryResultEtag(request).toString())
+      .withHeader("Raven-Is-Stale", "false")
+      .withHeader("Raven-Total-Results", String.valueOf(matches.size()));
+  }
+
+  private JsonGenerator startResults(OutputStream outputStream) throws IOException {
+    JsonGenerator generator = jsonFactory.createJsonGenerator(outputStream, JsonEncoding.UTF8);
+    generator.writeStartObject();
+    generator.writeFieldName("Results");
+    generator.writeStartArray();
+    return generator;
+  }
+
+  private static void endResults(JsonGenerator generator, Map<String, String> additionalProperties) throws IOException {
+    generator.writeEndArray();
+    if (additionalProperties != null) {
+      for (Map.Entry<String, String> property : additionalProperties.entrySet()) {
+        generator.writeStringField(property.getKey(), property.getValue());
+      }
+    }
+    generator.writeEndObject();
+    generator.flush();
+  }
+
+  private ServerResponse changesEvents(ServerRequest request) {
+    final ChangesConnection connection = database.getOrAddChangesConnection(request.getParameter("id"));
+    return new ServerResponse(HttpStatus.SC_OK, new ServerResponse.BodyWriter() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public void writeTo(OutputStream outputStream) throws IOException {
+        try {
+          writeEvent(outputStream, "{\"Type\":\"Initialized\",\"Value\":{}}");
+          long lastWrite = System.currentTimeMillis();
+          while (!connection.isDisconnected() && !server.isClosed()) {
+            String event = connection.poll(1, TimeUnit.SECONDS);
+            if (event != null) {
+              writeEvent(outputStream, event);
+              lastWrite = System.currentTimeMillis();
+            } else if (System.currentTimeMillis() - lastWrite >= CHANGES_HEARTBEAT_MILLIS) {
+              writeEvent(outputStream, "{\"Type\":\"Heartbeat\",\"Value\":{}}");
+              lastWrite = System.currentTimeMillis();
+            }
+          }
+        } catch (InterruptedException e) {
+          throw new InterruptedIOException("Server is shutting down");
+        } finally {
+          database.removeChangesConnection(connection);
+        }
+      }
+    });
+  }
+
+  private static void writeEvent(OutputStream outputStream, String event) throws IOException {
+    outputStream.write(("data:" + event + "\r\n\r\n").getBytes(UTF8));
+    outputStream.flush();
+  }
+
+  private ServerResponse subscriptions(ServerRequest request) throws IOException {
+    String path = request.getPath();
+    String method = request.getMethod();
+    if ("/subscriptions/create".equals(path)) {
+      RavenJObject result = new RavenJObject();
+      result.add("Id", new RavenJValue(database.createSubscription((RavenJObject) request.readBodyAsJson())));
+      return new ServerResponse(HttpStatus.SC_CREATED, result);
+    }
+    if ("/subscriptions".equals(path)) {
+      if ("DELETE".equals(method)) {
+        database.deleteSubscription(Long.parseLong(request.getParameter("id")));
+        return ServerResponse.empty(HttpStatus.SC_NO_CONTENT);
+      }
+      RavenJArray result = new RavenJArray();
+      for (SubscriptionState subscription : database.getSubscriptions()) {
+        result.add(subscription.toJson());
+      }
+      return ServerResponse.ok(result);
+    }
+
+    long id = Long.parseLong(request.getParameter("id"));
+    String connection = request.getParameter("connection");
+    SubscriptionState subscription = database.getSubscription(id);
+    if (subscription == null) {
+      return ServerResponse.error(HttpStatus.SC_NOT_FOUND, "There is no subscription configuration for specified identifier (id: " + id + ")");
+    }
+
+    switch (path) {
+      case "/subscriptions/open":
+        synchronized (subscription) {
+          String currentConnection = subscription.getConnectionId();
+          if (currentConnection != null && !currentConnection.equals(connection)) {
+            return ServerResponse.error(HttpStatus.SC_GONE, "Subscription " + id + " is already in use");
+          }
+          RavenJObject options = (RavenJObject) request.readBodyAsJson();
+          RavenJObject batchOptions = options.value(RavenJObject.class, "BatchOptions");
+          Integer maxDocCount = batchOptions != null ? batchOptions.value(Integer.class, "MaxDocCount") : null;
+          subscription.open(connection, maxDocCount != null ? maxDocCount.intValue() : subscription.getMaxDocCount());
+        }
+        return ServerResponse.empty(HttpStatus.SC_OK);
+      case "/subscriptions/pull":
+        if (!StringUtils.equals(subscription.getConnectionId(), connection)) {
+          return ServerResponse.error(SUBSCRIPTION_CLOSED_STATUS, "Subscription " + id + " is not opened by connection " + connection);
+        }
+        return pullSubscription(subscription);
+      case "/subscriptions/acknowledgeBatch":
+        subscription.setAckEtag(Etag.parse(request.getParameter("lastEtag")).getChanges());
+        subscription.markClientActivity();
+        return ServerResponse.empty(HttpStatus.SC_OK);
+      case "/subscriptions/client-alive":
+        subscription.markClientActivity();
+        return ServerResponse.empty(HttpStatus.SC_OK);
+      case "/subscriptions/close":
+        synchronized (subscription) {
+          if (request.getBooleanParameter("force") || StringUtils.equals(subscription.getConnectionId(), connection)) {
+            subscription.close();
+          }
+        }
+        return ServerResponse.empty(HttpStatus.SC_OK);
+      default:
+        return ServerResponse.empty(HttpStatus.SC_NOT_FOUND);
+    }
+  }
+
+  private static final int SUBSCRIPTION_CLOSED_STATUS = 306;
+
+  private ServerResponse pullSubscription(final SubscriptionState subscription) {
+    final List<StoredDocument> batch = new ArrayList<>();
+    long lastProcessed = subscription.getAckEtag();
+    for (StoredDocument document : database.getDocumentsAfter(subscription.getAckEtag())) {
+      if (batch.size() >= subscription.getMaxDocCount()) {
+        break;
+      }
+      lastProcessed = document.getEtagNumber();
+      if (subscription.matches(document)) {
+        batch.add(document);
+      }
+    }
+    subscription.markBatchSent();
+    final Map<String, String> lastProcessedEtag = new LinkedHashMap<>();
+    lastProcessedEtag.put("LastProcessedEtag", StoredDocument.toEtag(lastProcessed).toString());
+    return new ServerResponse(HttpStatus.SC_OK, new ServerResponse.BodyWriter() {
+      @Override
+      public void writeTo(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = startResults(outputStream);
+        for (StoredDocument document : batch) {
+          document.toJson().writeTo(generator);
+        }
+        endResults(generator, lastProcessedEtag);
+      }
+    });
+  }
+
+  private ServerResponse bulkInsert(ServerRequest request) throws IOException {
+    UUID operationId = UUID.fromString(request.getParameter("operationId"));
+    boolean overwriteExisting = request.getBooleanParameter("overwriteExisting");
+    long id = database.startOperation();
+    database.raiseBulkInsertChange(operationId, "BulkInsertStarted");
+    try {
+      InputStream body = request.getBody();
+      byte[] sizeBuffer = new byte[4];
+      while (readFullyOrEof(body, sizeBuffer)) {
+        byte[] batch = new byte[readInt32(sizeBuffer, 0)];
+        ByteStreams.readFully(body, batch);
+        insertBatch(new GZIPInputStream(new ByteArrayInputStream(batch)), overwriteExisting);
+      }
+    } catch (IOException | RuntimeException e) {
+      database.completeOperation(id);
+      database.raiseBulkInsertChange(operationId, "BulkInsertError");
+      return ServerResponse.error(HttpStatus.SC_INTERNAL_SERVER_ERROR, e.toString());
+    }
+    database.completeOperation(id);
+    database.raiseBulkInsertChange(operationId, "BulkInsertEnded");
+    RavenJObject result = new RavenJObject();
+    result.add("OperationId", new RavenJValue(id));
+    return ServerResponse.ok(result);
+  }
+
+  private void insertBatch(InputStream batch, boolean overwriteExisting) throws IOException {
+    byte[] sizeBuffer = new byte[4];
+    ByteStreams.readFully(batch, sizeBuffer);
+    int count = readInt32(sizeBuffer, 0);
+    for (int i = 0; i < count; i++) {
+      ByteStreams.readFully(batch, sizeBuffer);
+      byte[] bson = new byte[readInt32(sizeBuffer, 0)];
+      System.arraycopy(sizeBuffer, 0, bson, 0, 4);
+      ByteStreams.readFully(batch, bson, 4, bson.length - 4);
+
+      RavenJObject document = RavenJObject.load(bsonFactory.createJsonParser(new ByteArrayInputStream(bson)));
+      RavenJObject metadata = document.value(RavenJObject.class, Constants.METADATA);
+      document.remove(Constants.METADATA);
+      String key = metadata.value(String.class, "@id");
+      if (!overwriteExisting && database.get(key) != null) {
+        throw new IllegalStateException("Cannot insert document " + key + " because it already exists");
+      }
+      database.put(key, null, document, metadata);
+    }
+  }
+
+  private static boolean readFullyOrEof(InputStream inputStream, byte[] buffer) throws IOException {
+    int read = 0;
+    while (read < buffer.length) {
+      int count = inputStream.read(buffer, read, buffer.length - read);
+      if (count < 0) {
+        if (read == 0) {
+          return false;
+        }
+        throw new EOFException("Unexpected end of bulk insert stream");
+      }
+      read += count;
+    }
+    return true;
+  }
+
+  private static int readInt32(byte[] buffer, int offset) {
+    return (buffer[offset] & 0xff) | (buffer[offset + 1] & 0xff) << 8 | (buffer[offset + 2] & 0xff) << 16
+      | (buffer[offset + 3] & 0xff) << 24;
+  }
+
+  private ServerResponse replicationTopology(ServerRequest request) {
+    List<String> destinations = server.getReplicationDestinations();
+    if (destinations.isEmpty()) {
+      return ServerResponse.empty(HttpStatus.SC_NOT_FOUND);
+    }
+    RavenJArray destinationsJson = new RavenJArray();
+    for (String url : destinations) {
+      RavenJObject destination = new RavenJObject();
+      destination.add("Url", new RavenJValue(url));
+      destination.add("Database", new RavenJValue(request.getDatabase()));
+      destination.add("Disabled", new RavenJValue(false));
+      destination.add("IgnoredClient", new RavenJValue(false));
+      destinationsJson.add(destination);
+    }
+    RavenJObject topology = new RavenJObject();
+    topology.add("Id", new RavenJValue("Raven/Replication/Destinations"));
+    topology.add("Source", new RavenJValue(server.getUrl()));
+    topology.add("Destinations", destinationsJson);
+    return ServerResponse.ok(topology);
+  }
+
+  private static Etag etagFromHeader(String header) {
+    if (StringUtils.isEmpty(header)) {
+      return null;
+    }
+    return Etag.parse(header.startsWith("\"") ? header.substring(1, header.length() - 1) : header);
+  }
+
+  private static String quote(Etag etag) {
+    return etag != null ? "\"" + etag + "\"" : "";
+  }
+
+  private static String toHeaderValue(RavenJToken value) {
+    if (value instanceof RavenJValue) {
+      Object rawValue = ((RavenJValue) value).getValue();
+      if (rawValue instanceof Date) {
+        return new NetDateFormat().format((Date) rawValue);
+      }
+      return rawValue instanceof String ? UrlUtils.escapeDataString((String) rawValue) : String.valueOf(rawValue);
+    }
+    return value.toString();
+  }
+
+  private static class FieldComparator implements Comparator<StoredDocument> {
+    private final String field;
+    private final boolean descending;
+
+    public FieldComparator(String sort) {
+      descending = sort.startsWith("-");
+      String name = descending ? sort.substring(1) : sort;
+      field = name.endsWith("_Range") ? name.substring(0, name.length() - "_Range".length()) : name;
+    }
+
+    @Override
+    public int compare(StoredDocument first, StoredDocument second) {
+      int result = compareValues(firstValue(first), firstValue(second));
+      return descending ? -result : result;
+    }
+
+    private String firstValue(StoredDocument document) {
+      List<RavenJToken> values = QueryMatcher.fieldValues(document, field);
+      return values.isEmpty() ? null : QueryMatcher.asText(values.get(0));
+    }
+
+    private static int compareValues(String first, String second) {
+      if (first == null || second == null) {
+        return first == null ? (second == null ? 0 : -1) : 1;
+      }
+      Double firstNumber = QueryMatcher.asNumber(first);
+      Double secondNumber = QueryMatcher.asNumber(second);
+      if (firstNumber != null && secondNumber != null) {
+        return firstNumber.compareTo(secondNumber);
+      }
+      return first.compareToIgnoreCase(second);
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package net.ravendb.benchmarks.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.client.utils.UrlUtils;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Request routed to {@link RavenEndpoints}. Path is relative to the database root,
+ * so /databases/Northwind/docs and /docs both end up as /docs.
+ */
+class ServerRequest {
+
+  private static final String DATABASES_PREFIX = "/databases/";
+
+  private final String method;
+  private final String path;
+  private final String database;
+  private final String queryString;
+  private final Map<String, List<String>> parameters;
+  private final Map<String, String> headers;
+  private final InputStream body;
+
+  public ServerRequest(String method, String uri, Map<String, String> headers, InputStream body) {
+    this.method = method;
+    this.headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    this.headers.putAll(headers);
+    this.body = body != null ? body : new ByteArrayInputStream(new byte[0]);
+
+    int queryStart = uri.indexOf('?');
+    String fullPath = queryStart >= 0 ? uri.substring(0, queryStart) : uri;
+    queryString = queryStart >= 0 ? uri.substring(queryStart + 1) : "";
+    parameters = parseQueryString(queryString);
+
+    if (fullPath.startsWith(DATABASES_PREFIX)) {
+      int databaseEnd = fullPath.indexOf('/', DATABASES_PREFIX.length());
+      if (databaseEnd < 0) {
+        databaseEnd = fullPath.length();
+      }
+      database = UrlUtils.unescapeDataString(fullPath.substring(DATABASES_PREFIX.length(), databaseEnd));
+      fullPath = fullPath.substring(databaseEnd);
+    } else {
+      database = null;
+    }
+    path = StringUtils.isEmpty(fullPath) ? "/" : fullPath;
+  }
+
+  private static Map<String, List<String>> parseQueryString(String queryString) {
+    if (StringUtils.isEmpty(queryString)) {
+      return Collections.emptyMap();
+    }
+    Map<String, List<String>> result = new HashMap<>();
+    for (String pair : queryString.split("&")) {
+      if (pair.isEmpty()) {
+        continue;
+      }
+      int separator = pair.indexOf('=');
+      String name = UrlUtils.unescapeDataString(separator >= 0 ? pair.substring(0, separator) : pair);
+      String value = separator >= 0 ? UrlUtils.unescapeDataString(pair.substring(separator + 1)) : "";
+      List<String> values = result.get(name);
+      if (values == null) {
+        values = new ArrayList<>();
+        result.put(name, values);
+      }
+      values.add(value);
+    }
+    return result;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * @return Database name taken from url or null if request was sent to the default database.
+   */
+  public String getDatabase() {
+    return database;
+  }
+
+  public String getQueryString() {
+    return queryString;
+  }
+
+  public Map<String, String> getHeaders() {
+    return headers;
+  }
+
+  public String getHeader(String name) {
+    return headers.get(name);
+  }
+
+  public boolean hasParameter(String name) {
+    return parameters.containsKey(name);
+  }
+
+  public String getParameter(String name) {
+    List<String> values = parameters.get(name);
+    return values != null && !values.isEmpty() ? values.get(0) : null;
+  }
+
+  public List<String> getParameters(String name) {
+    List<String> values = parameters.get(name);
+    return values != null ? values : Collections.<String> emptyList();
+  }
+
+  public int getIntParameter(String name, int defaultValue) {
+    String value = getParameter(name);
+    return StringUtils.isNotEmpty(value) ? Integer.parseInt(value) : defaultValue;
+  }
+
+  public boolean getBooleanParameter(String name) {
+    return Boolean.parseBoolean(getParameter(name));
+  }
+
+  public InputStream getBody() {
+    return body;
+  }
+
+  public String readBody() throws IOException {
+    return IOUtils.toString(body, "UTF-8");
+  }
+
+  public RavenJToken readBodyAsJson() throws IOException {
+    return RavenJToken.parse(readBody());
+  }
+}
@@ -0,0 +1,81 @@
+package net.ravendb.benchmarks.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.abstractions.json.linq.RavenJValue;
+
+import org.apache.http.HttpStatus;
+
+/**
+ * Response produced by {@link RavenEndpoints}. Body is either json token or {@link BodyWriter} for streamed responses.
+ */
+class ServerResponse {
+
+  /**
+   * Writes body of streamed response (streams, changes). Output is flushed to the client after each write.
+   */
+  public interface BodyWriter {
+    void writeTo(OutputStream outputStream) throws IOException;
+  }
+
+  private final int status;
+  private final Map<String, String> headers = new LinkedHashMap<>();
+  private final RavenJToken body;
+  private final BodyWriter bodyWriter;
+
+  public ServerResponse(int status, RavenJToken body) {
+    this.status = status;
+    this.body = body;
+    this.bodyWriter = null;
+  }
+
+  public ServerResponse(int status, BodyWriter bodyWriter) {
+    this.status = status;
+    this.body = null;
+    this.bodyWriter = bodyWriter;
+  }
+
+  public static ServerResponse ok(RavenJToken body) {
+    return new ServerResponse(HttpStatus.SC_OK, body);
+  }
+
+  public static ServerResponse empty(int status) {
+    return new ServerResponse(status, (RavenJToken) null);
+  }
+
+  public static ServerResponse error(int status, String message) {
+    RavenJObject error = new RavenJObject();
+    error.add("Error", new RavenJValue(message));
+    return new ServerResponse(status, error);
+  }
+
+  public ServerResponse withHeader(String name, String value) {
+    headers.put(name, value);
+    return this;
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  public Map<String, String> getHeaders() {
+    return headers;
+  }
+
+  public RavenJToken getBody() {
+    return body;
+  }
+
+  public BodyWriter getBodyWriter() {
+    return bodyWriter;
+  }
+
+  public boolean isStreamed() {
+    return bodyWriter != null;
+  }
+}
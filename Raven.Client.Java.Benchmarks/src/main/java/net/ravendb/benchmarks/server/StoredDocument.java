@@ -0,0 +1,95 @@
+package net.ravendb.benchmarks.server;
+
+import java.util.Date;
+
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.UuidType;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJValue;
+import net.ravendb.abstractions.util.NetDateFormat;
+import net.ravendb.abstractions.util.NetISO8601Utils;
+
+/**
+ * Immutable document version kept by {@link InMemoryDatabase}.
+ */
+class StoredDocument {
+
+  private final String key;
+  private final RavenJObject data;
+  private final RavenJObject metadata;
+  private final long etagNumber;
+  private final Etag etag;
+  private final Date lastModified;
+  private final RavenJObject json;
+
+  public StoredDocument(String key, RavenJObject data, RavenJObject metadata, long etagNumber, Date lastModified) {
+    this.key = key;
+    this.data = data;
+    this.metadata = metadata != null ? metadata : new RavenJObject();
+    this.etagNumber = etagNumber;
+    this.etag = toEtag(etagNumber);
+    this.lastModified = lastModified;
+    this.json = buildJson();
+  }
+
+  public static Etag toEtag(long etagNumber) {
+    return new Etag(UuidType.DOCUMENTS, 1, etagNumber);
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public RavenJObject getData() {
+    return data;
+  }
+
+  public RavenJObject getMetadata() {
+    return metadata;
+  }
+
+  public long getEtagNumber() {
+    return etagNumber;
+  }
+
+  public Etag getEtag() {
+    return etag;
+  }
+
+  public Date getLastModified() {
+    return lastModified;
+  }
+
+  public String getCollection() {
+    return metadata.value(String.class, Constants.RAVEN_ENTITY_NAME);
+  }
+
+  public String getJavaClass() {
+    return metadata.value(String.class, Constants.RAVEN_JAVA_CLASS);
+  }
+
+  public String getLastModifiedHeader() {
+    return new NetDateFormat().format(lastModified);
+  }
+
+  /**
+   * @return Document with embedded @metadata - format used by queries, multi loads and streams.
+   * Returned object is shared between requests, so it must not be modified.
+   */
+  public RavenJObject toJson() {
+    return json;
+  }
+
+  private RavenJObject buildJson() {
+    RavenJObject result = data.cloneToken();
+    RavenJObject jsonMetadata = metadata.cloneToken();
+    jsonMetadata.set("@id", new RavenJValue(key));
+    jsonMetadata.set("@etag", new RavenJValue(etag.toString()));
+    String lastModifiedValue = NetISO8601Utils.format(lastModified, true);
+    jsonMetadata.set(Constants.LAST_MODIFIED, new RavenJValue(lastModifiedValue));
+    jsonMetadata.set(Constants.RAVEN_LAST_MODIFIED, new RavenJValue(lastModifiedValue));
+    result.set(Constants.METADATA, jsonMetadata);
+    return result;
+  }
+}
@@ -0,0 +1,111 @@
+package net.ravendb.benchmarks.server;
+
+import java.util.Date;
+
+import net.ravendb.abstractions.json.linq.RavenJArray;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.abstractions.json.linq.RavenJValue;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Data subscription kept by {@link InMemoryDatabase}. Criteria support key prefix, collections and start etag.
+ */
+class SubscriptionState {
+
+  private final long id;
+  private final RavenJObject criteria;
+  private final String keyStartsWith;
+  private final String[] collections;
+  private volatile long ackEtag;
+  private volatile String connectionId;
+  private volatile int maxDocCount = 4096;
+  private volatile Date timeOfLastClientActivity;
+  private volatile Date timeOfSendingLastBatch;
+
+  public SubscriptionState(long id, RavenJObject criteria, long startEtag) {
+    this.id = id;
+    this.criteria = criteria;
+    this.keyStartsWith = StringUtils.lowerCase(criteria.value(String.class, "KeyStartsWith"));
+    RavenJArray belongsToAnyCollection = criteria.value(RavenJArray.class, "BelongsToAnyCollection");
+    if (belongsToAnyCollection != null) {
+      collections = new String[belongsToAnyCollection.size()];
+      for (int i = 0; i < collections.length; i++) {
+        collections[i] = belongsToAnyCollection.get(i).value(String.class);
+      }
+    } else {
+      collections = null;
+    }
+    this.ackEtag = startEtag;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public long getAckEtag() {
+    return ackEtag;
+  }
+
+  public void setAckEtag(long ackEtag) {
+    this.ackEtag = ackEtag;
+  }
+
+  public String getConnectionId() {
+    return connectionId;
+  }
+
+  public void open(String connectionId, int maxDocCount) {
+    this.connectionId = connectionId;
+    this.maxDocCount = maxDocCount;
+    timeOfLastClientActivity = new Date();
+  }
+
+  public void close() {
+    connectionId = null;
+  }
+
+  public int getMaxDocCount() {
+    return maxDocCount;
+  }
+
+  public void markClientActivity() {
+    timeOfLastClientActivity = new Date();
+  }
+
+  public void markBatchSent() {
+    timeOfSendingLastBatch = new Date();
+    timeOfLastClientActivity = timeOfSendingLastBatch;
+  }
+
+  public boolean matches(StoredDocument document) {
+    if (keyStartsWith != null && !document.getKey().toLowerCase().startsWith(keyStartsWith)) {
+      return false;
+    }
+    if (collections != null && collections.length > 0) {
+      String collection = document.getCollection();
+      for (String candidate : collections) {
+        if (candidate.equalsIgnoreCase(collection)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    return true;
+  }
+
+  public RavenJObject toJson() {
+    RavenJObject json = new RavenJObject();
+    json.add("SubscriptionId", new RavenJValue(id));
+    json.add("Criteria", criteria);
+    json.add("AckEtag", new RavenJValue(StoredDocument.toEtag(ackEtag).toString()));
+    json.add("TimeOfSendingLastBatch", dateToken(timeOfSendingLastBatch));
+    json.add("TimeOfLastClientActivity", dateToken(timeOfLastClientActivity));
+    return json;
+  }
+
+  private static RavenJToken dateToken(Date date) {
+    return date != null ? new RavenJValue(date) : RavenJValue.getNull();
+  }
+}
@@ -8,12 +8,14 @@ public class BulkInsertOptions {
   private boolean checkReferencesInIndexes;
   private int batchSize;
   private int writeTimeoutMiliseconds;
+  private long maxBytesInFlight;
   private boolean skipOverwriteIfUnchanged;
   private ChunkedBulkInsertOptions chunkedBulkInsertOptions;
 
   public BulkInsertOptions() {
     batchSize = 512;
     writeTimeoutMiliseconds = 15 * 1000;
+    maxBytesInFlight = 16 * 1024 * 1024;
     chunkedBulkInsertOptions = new ChunkedBulkInsertOptions();
     chunkedBulkInsertOptions.setMaxDocumentsPerChunk(batchSize * 4);
     chunkedBulkInsertOptions.setMaxChunkVolumeInBytes(8 * 1024 * 1024);
@@ -83,7 +85,8 @@ public class BulkInsertOptions {
   }
 
   /**
-   * Number of documents to send in each bulk insert batch.
+   * Maximum number of documents to send in each bulk insert batch. Batches are made smaller when server accepts
+   * documents slowly.
    * Value:
    * 512 by default
    * {@value 512 by default}
@@ -93,7 +96,8 @@ public class BulkInsertOptions {
   }
 
   /**
-   * Number of documents to send in each bulk insert batch.
+   * Maximum number of documents to send in each bulk insert batch. Batches are made smaller when server accepts
+   * documents slowly.
    * Value:
    * 512 by default
    * {@value 512 by default}
@@ -104,7 +108,8 @@ public class BulkInsertOptions {
   }
 
   /**
-   * Maximum timeout in milliseconds to wait for document write. Exception will be thrown when timeout is elapsed.
+   * Maximum timeout in milliseconds to wait for document write while server doesn't accept any batch.
+   * Exception will be thrown when timeout is elapsed.
    * Value:
    * 15000 milliseconds by default
    * {@value 15000 milliseconds by default}
@@ -114,7 +119,8 @@ public class BulkInsertOptions {
   }
 
   /**
-   * Maximum timeout in milliseconds to wait for document write. Exception will be thrown when timeout is elapsed.
+   * Maximum timeout in milliseconds to wait for document write while server doesn't accept any batch.
+   * Exception will be thrown when timeout is elapsed.
    * Value:
    * 15000 milliseconds by default
    * {@value 15000 milliseconds by default}
@@ -124,4 +130,27 @@ public class BulkInsertOptions {
     this.writeTimeoutMiliseconds = writeTimeoutMiliseconds;
   }
 
+  /**
+   * Maximum (roughly estimated) size of documents which were passed to bulk insert, but weren't sent to server yet.
+   * Writing document blocks while the window is full.
+   * Value:
+   * 16 MB by default
+   * {@value 16 MB by default}
+   */
+  public long getMaxBytesInFlight() {
+    return maxBytesInFlight;
+  }
+
+  /**
+   * Maximum (roughly estimated) size of documents which were passed to bulk insert, but weren't sent to server yet.
+   * Writing document blocks while the window is full.
+   * Value:
+   * 16 MB by default
+   * {@value 16 MB by default}
+   * @param maxBytesInFlight
+   */
+  public void setMaxBytesInFlight(long maxBytesInFlight) {
+    this.maxBytesInFlight = maxBytesInFlight;
+  }
+
 }
@@ -663,33 +663,60 @@ public class IndexQuery {
 
       IndexQuery clone = new IndexQuery();
 
+      clone.pageSize = pageSize;
       clone.pageSizeSet = pageSizeSet;
+      clone.distinct = distinct;
       clone.query = query;
       clone.totalSize = totalSize;
-      clone.transformerParameters = new HashMap<>();
-      for (String key: transformerParameters.keySet()) {
-        clone.transformerParameters.put(key, transformerParameters.get(key).cloneToken());
+      if (sortHints != null) {
+        clone.sortHints = new HashMap<>(sortHints);
+      }
+      if (transformerParameters != null) {
+        clone.transformerParameters = new HashMap<>();
+        for (Entry<String, RavenJToken> parameter : transformerParameters.entrySet()) {
+          clone.transformerParameters.put(parameter.getKey(), parameter.getValue().cloneToken());
+        }
       }
       clone.start = start;
-      clone.fieldsToFetch = fieldsToFetch.clone();
-      clone.sortedFields = new SortedField[sortedFields.length];
-      for (int i = 0 ; i <  sortedFields.length; i++) {
-        clone.sortedFields[i] = sortedFields[i].clone();
+      if (fieldsToFetch != null) {
+        clone.fieldsToFetch = fieldsToFetch.clone();
+      }
+      if (sortedFields != null) {
+        clone.sortedFields = new SortedField[sortedFields.length];
+        for (int i = 0 ; i <  sortedFields.length; i++) {
+          clone.sortedFields[i] = sortedFields[i].clone();
+        }
+      }
+      if (cutoff != null) {
+        clone.cutoff = (Date) cutoff.clone();
       }
-      clone.cutoff = cutoff;
-      clone.cutoffEtag = cutoffEtag.clone();
+      if (cutoffEtag != null) {
+        clone.cutoffEtag = cutoffEtag.clone();
+      }
+      clone.waitForNonStaleResultsAsOfNow = waitForNonStaleResultsAsOfNow;
+      clone.waitForNonStaleResults = waitForNonStaleResults;
       clone.defaultField = defaultField;
       clone.defaultOperator = defaultOperator;
+      clone.allowMultipleIndexEntriesForSameDocumentToResultTransformer = allowMultipleIndexEntriesForSameDocumentToResultTransformer;
       clone.skippedResults = new Reference<>(skippedResults.value);
       clone.debugOptionGetIndexEntires = debugOptionGetIndexEntires;
-      clone.highlightedFields = new HighlightedField[highlightedFields.length];
-      for (int i = 0; i < highlightedFields.length; i++) {
-        clone.highlightedFields[i] = highlightedFields[i].clone();
+      if (highlightedFields != null) {
+        clone.highlightedFields = new HighlightedField[highlightedFields.length];
+        for (int i = 0; i < highlightedFields.length; i++) {
+          clone.highlightedFields[i] = highlightedFields[i].clone();
+        }
+      }
+      if (highlighterPreTags != null) {
+        clone.highlighterPreTags = highlighterPreTags.clone();
+      }
+      if (highlighterPostTags != null) {
+        clone.highlighterPostTags = highlighterPostTags.clone();
       }
-      clone.highlighterPreTags = highlighterPreTags.clone();
-      clone.highlighterPostTags = highlighterPostTags.clone();
+      clone.highlighterKeyName = highlighterKeyName;
       clone.resultsTransformer = resultsTransformer;
       clone.disableCaching = disableCaching;
+      clone.explainScores = explainScores;
+      clone.showTimings = showTimings;
 
       return clone;
     } catch (CloneNotSupportedException e) {
@@ -19,6 +19,7 @@ public class SubscriptionConnectionOptions {
     timeToWaitBeforeConnectionRetry = 15 * 1000;
     strategy = SubscriptionOpeningStrategy.OPEN_IF_FREE;
     pullingRequestTimeout = 5 * 60 * 1000L;
+    maxDegreeOfParallelism = 1;
   }
 
   public SubscriptionConnectionOptions(SubscriptionBatchOptions batchOptions) {
@@ -40,6 +41,10 @@ public class SubscriptionConnectionOptions {
 
   private SubscriptionOpeningStrategy strategy;
 
+  private int maxDegreeOfParallelism;
+
+  private int maxDocumentRetries;
+
   public Integer getTimeToWaitBeforeConnectionRetry() {
     return timeToWaitBeforeConnectionRetry;
   }
@@ -96,6 +101,43 @@ public class SubscriptionConnectionOptions {
     this.pullingRequestTimeout = pullingRequestTimeout;
   }
 
+  /**
+   * Number of documents from a batch which are passed to subscribers concurrently (default 1 - documents are processed one by one).
+   */
+  public int getMaxDegreeOfParallelism() {
+    return maxDegreeOfParallelism;
+  }
+
+  /**
+   * Number of documents from a batch which are passed to subscribers concurrently (default 1 - documents are processed one by one).
+   * Documents with the same partition key (see {@link net.ravendb.client.document.Subscription#setPartitionKeySelector})
+   * are still processed in etag order.
+   */
+  public void setMaxDegreeOfParallelism(int maxDegreeOfParallelism) {
+    if (maxDegreeOfParallelism < 1) {
+      throw new IllegalArgumentException("MaxDegreeOfParallelism must be positive");
+    }
+    this.maxDegreeOfParallelism = maxDegreeOfParallelism;
+  }
+
+  /**
+   * How many times document (or batch) is passed again to subscriber which threw an exception, before the failure is handled.
+   */
+  public int getMaxDocumentRetries() {
+    return maxDocumentRetries;
+  }
+
+  /**
+   * How many times document (or batch) is passed again to subscriber which threw an exception, before the failure is handled
+   * (according to {@link #isIgnoreSubscribersErrors()}). Default 0 - no retries.
+   */
+  public void setMaxDocumentRetries(int maxDocumentRetries) {
+    if (maxDocumentRetries < 0) {
+      throw new IllegalArgumentException("MaxDocumentRetries can't be negative");
+    }
+    this.maxDocumentRetries = maxDocumentRetries;
+  }
+
   @SuppressWarnings("boxing")
   public RavenJObject toRavenObject() {
     RavenJObject result = new RavenJObject();
@@ -1,6 +1,7 @@
 package net.ravendb.abstractions.indexing;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -481,6 +482,122 @@ public class IndexDefinition {
   }
 
 
+  /**
+   * Compares definitions the way server does when index is PUT: index id, name, lock mode and field options
+   * set to their default values are ignored.
+   * @param other definition to compare with
+   * @param ignoreFormatting when true, maps and reduce are compared with all whitespace runs collapsed
+   */
+  public boolean equals(IndexDefinition other, boolean ignoreFormatting) {
+    if (other == null) {
+      return false;
+    }
+    if (ignoreFormatting) {
+      if (!normalizeFormatting(maps).equals(normalizeFormatting(other.maps))
+        || !StringUtils.equals(normalizeFormatting(reduce), normalizeFormatting(other.reduce))) {
+        return false;
+      }
+    } else if (!nullToEmpty(maps).equals(nullToEmpty(other.maps)) || !StringUtils.equals(reduce, other.reduce)) {
+      return false;
+    }
+    return withoutValue(indexes, FieldIndexing.DEFAULT).equals(withoutValue(other.indexes, FieldIndexing.DEFAULT))
+      && withoutValue(stores, FieldStorage.NO).equals(withoutValue(other.stores, FieldStorage.NO))
+      && withoutValue(sortOptions, SortOptions.NONE).equals(withoutValue(other.sortOptions, SortOptions.NONE))
+      && withoutValue(termVectors, FieldTermVector.NO).equals(withoutValue(other.termVectors, FieldTermVector.NO))
+      && withoutValue(analyzers, "").equals(withoutValue(other.analyzers, ""))
+      && withoutSuggestionsOff(suggestions).equals(withoutSuggestionsOff(other.suggestions))
+      && nullToEmpty(spatialIndexes).equals(nullToEmpty(other.spatialIndexes))
+      && (maxIndexOutputsPerDocument == null ? other.maxIndexOutputsPerDocument == null : maxIndexOutputsPerDocument.equals(other.maxIndexOutputsPerDocument))
+      && disableInMemoryIndexing == other.disableInMemoryIndexing;
+  }
+
+  private static Set<String> normalizeFormatting(Set<String> maps) {
+    Set<String> result = new HashSet<>();
+    if (maps != null) {
+      for (String map : maps) {
+        result.add(normalizeFormatting(map));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Trims text and collapses whitespace outside of string and char literals (including C# verbatim strings),
+   * so only changes of formatting are ignored.
+   */
+  private static String normalizeFormatting(String text) {
+    if (StringUtils.isBlank(text)) {
+      return null;
+    }
+    String trimmed = text.trim();
+    StringBuilder result = new StringBuilder(trimmed.length());
+    char quote = 0;
+    boolean verbatim = false;
+    boolean whitespace = false;
+    for (int i = 0; i < trimmed.length(); i++) {
+      char c = trimmed.charAt(i);
+      if (quote != 0) {
+        result.append(c);
+        if (c == '\\' && !verbatim && i + 1 < trimmed.length()) {
+          result.append(trimmed.charAt(++i));
+        } else if (c == quote) {
+          if (verbatim && i + 1 < trimmed.length() && trimmed.charAt(i + 1) == '"') {
+            result.append(trimmed.charAt(++i));
+          } else {
+            quote = 0;
+          }
+        }
+        continue;
+      }
+      if (Character.isWhitespace(c)) {
+        whitespace = true;
+        continue;
+      }
+      if (whitespace) {
+        result.append(' ');
+        whitespace = false;
+      }
+      if (c == '"' || c == '\'') {
+        quote = c;
+        verbatim = c == '"' && i > 0 && trimmed.charAt(i - 1) == '@';
+      }
+      result.append(c);
+    }
+    return result.toString();
+  }
+
+  private static <T> Set<T> nullToEmpty(Set<T> set) {
+    return set != null ? set : Collections.<T> emptySet();
+  }
+
+  private static <T> Map<String, T> nullToEmpty(Map<String, T> map) {
+    return map != null ? map : Collections.<String, T> emptyMap();
+  }
+
+  private static <T> Map<String, T> withoutValue(Map<String, T> map, T defaultValue) {
+    Map<String, T> result = new HashMap<>();
+    if (map != null) {
+      for (Entry<String, T> entry : map.entrySet()) {
+        if (entry.getValue() != null && !entry.getValue().equals(defaultValue)) {
+          result.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    return result;
+  }
+
+  private static Map<String, SuggestionOptions> withoutSuggestionsOff(Map<String, SuggestionOptions> suggestions) {
+    Map<String, SuggestionOptions> result = new HashMap<>();
+    if (suggestions != null) {
+      for (Entry<String, SuggestionOptions> entry : suggestions.entrySet()) {
+        if (entry.getValue() != null && entry.getValue().getDistance() != StringDistanceTypes.NONE) {
+          result.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    return result;
+  }
+
   /**
    * Provide a cached version of the index hash code, which is used when generating
    * the index etag.
@@ -1,33 +1,52 @@
 package net.ravendb.abstractions.json.linq;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
 
 import net.ravendb.abstractions.basic.Reference;
 
-
+/**
+ * Copy-on-write property map. Local changes of small objects are kept in arrays, larger ones in hash map
+ * (ordinal or case insensitive, depending on comparer), lookups walk parent chain iteratively. Chains longer than {@link #MAX_PARENT_DEPTH} are flattened when snapshot
+ * is created, so lookups cost at most MAX_PARENT_DEPTH + 1 hash lookups.
+ */
 public class DictionaryWithParentSnapshot implements Map<String, RavenJToken>, Iterable<Map.Entry<String, RavenJToken>> {
 
+  static final int MAX_PARENT_DEPTH = 8;
+
+  /**
+   * Local changes up to this size are stored in arrays.
+   */
+  static final int MAX_COMPACT_SIZE = 8;
+
   private final Comparator<String> comparer;
 
   private static final RavenJToken DELETED_MARKER = new RavenJValue("*DeletedMarker*", JTokenType.NULL);
 
   private final DictionaryWithParentSnapshot parentSnapshot;
+  private final int depth;
   private int count;
   private Map<String, RavenJToken> localChanges;
   private String snapshotMsg;
   private boolean snapshot;
+  private volatile DictionaryWithParentSnapshot flattened;
 
   public Map<String, RavenJToken> getLocalChanges() {
     if (localChanges == null) {
-      localChanges = new TreeMap<> (comparer);
+      localChanges = createLocalChanges(comparer);
     }
     return localChanges;
   }
@@ -35,14 +54,112 @@ public class DictionaryWithParentSnapshot implements Map<String, RavenJToken>, I
   public DictionaryWithParentSnapshot(Comparator<String> comparer) {
     this.comparer = comparer;
     this.parentSnapshot = null;
+    this.depth = 0;
   }
 
 
   public DictionaryWithParentSnapshot(DictionaryWithParentSnapshot previous) {
-    this.parentSnapshot = previous;
+    DictionaryWithParentSnapshot parent = previous;
+    // snapshot without local changes is equivalent to its parent
+    while (parent.isSnapshot() && parent.parentSnapshot != null && parent.hasNoLocalChanges()) {
+      parent = parent.parentSnapshot;
+    }
+    if (parent.isSnapshot() && parent.depth >= MAX_PARENT_DEPTH) {
+      parent = parent.flatten();
+    }
+    this.parentSnapshot = parent;
+    this.depth = parent.depth + 1;
+    this.count = parent.count;
     this.comparer = previous.comparer;
   }
 
+  private static Map<String, RavenJToken> createLocalChanges(Comparator<String> comparer) {
+    if (comparer == null || comparer == String.CASE_INSENSITIVE_ORDER) {
+      return new CompactMap(comparer != null);
+    }
+    return new TreeMap<>(comparer);
+  }
+
+  private static Map<String, RavenJToken> createHashedLocalChanges(Comparator<String> comparer) {
+    if (comparer == null) {
+      return new LinkedHashMap<>();
+    }
+    if (comparer == String.CASE_INSENSITIVE_ORDER) {
+      return new CaseInsensitiveMap();
+    }
+    return new TreeMap<>(comparer);
+  }
+
+  /**
+   * Puts value into local changes, switching from compact to hashed storage when needed.
+   */
+  private void putLocal(String key, RavenJToken value) {
+    Map<String, RavenJToken> changes = getLocalChanges();
+    if (changes instanceof CompactMap) {
+      CompactMap compactMap = (CompactMap) changes;
+      if (compactMap.size() >= MAX_COMPACT_SIZE && compactMap.indexOf(key) < 0) {
+        changes = createHashedLocalChanges(comparer);
+        changes.putAll(compactMap);
+        localChanges = changes;
+      }
+    }
+    changes.put(key, value);
+  }
+
+  private boolean hasNoLocalChanges() {
+    return localChanges == null || localChanges.isEmpty();
+  }
+
+  /**
+   * Returns root snapshot containing all entries visible in this snapshot.
+   */
+  private DictionaryWithParentSnapshot flatten() {
+    DictionaryWithParentSnapshot result = flattened;
+    if (result == null) {
+      result = new DictionaryWithParentSnapshot(comparer);
+      for (Map.Entry<String, RavenJToken> entry : this) {
+        result.putLocal(entry.getKey(), entry.getValue());
+      }
+      result.count = count;
+      result.ensureSnapshot(snapshotMsg);
+      flattened = result;
+    }
+    return result;
+  }
+
+  /**
+   * Returns value visible in this dictionary or DELETED_MARKER if key is missing or was removed.
+   */
+  private RavenJToken find(String key) {
+    CaseInsensitiveKey caseInsensitiveKey = null;
+    DictionaryWithParentSnapshot dictionary = this;
+    do {
+      Map<String, RavenJToken> changes = dictionary.localChanges;
+      if (changes instanceof CompactMap) {
+        CompactMap compactMap = (CompactMap) changes;
+        int index = compactMap.indexOf(key);
+        if (index >= 0) {
+          return compactMap.valueAt(index);
+        }
+      } else if (changes instanceof CaseInsensitiveMap) {
+        if (caseInsensitiveKey == null) {
+          caseInsensitiveKey = new CaseInsensitiveKey(key);
+        }
+        Map.Entry<String, RavenJToken> entry = ((CaseInsensitiveMap) changes).getEntry(caseInsensitiveKey);
+        if (entry != null) {
+          return entry.getValue();
+        }
+      } else if (changes != null) {
+        RavenJToken value = changes.get(key);
+        if (value != null || changes.containsKey(key)) {
+          return value;
+        }
+      }
+      dictionary = dictionary.parentSnapshot;
+    } while (dictionary != null);
+    return DELETED_MARKER;
+  }
+
   /* (non-Javadoc)
    * @see java.util.HashMap#put(java.lang.Object, java.lang.Object)
    */
@@ -52,10 +169,10 @@ public class DictionaryWithParentSnapshot implements Map<String, RavenJToken>, I
       throw new IllegalStateException(snapshotMsg != null ? snapshotMsg
         : "Cannot modify a snapshot, this is probably a bug");
     }
-    if (!containsKey(key)) {
+    if (find(key) == DELETED_MARKER) {
       count++;
     }
-    getLocalChanges().put(key, value);
+    putLocal(key, value);
     return value;
   }
 
@@ -64,16 +181,7 @@ public class DictionaryWithParentSnapshot implements Map<String, RavenJToken>, I
    */
   @Override
   public boolean containsKey(Object keyObject) {
-    String key = (String) keyObject;
-    RavenJToken token;
-    if (getLocalChanges().containsKey(key)) {
-      token = getLocalChanges().get(key);
-      if (token == DELETED_MARKER) {
-        return false;
-      }
-      return true;
-    }
-    return (parentSnapshot != null && parentSnapshot.containsKey(key) && parentSnapshot.get(key) != DELETED_MARKER);
+    return find((String) keyObject) != DELETED_MARKER;
   }
 
   /* (non-Javadoc)
@@ -81,27 +189,19 @@ public class DictionaryWithParentSnapshot implements Map<String, RavenJToken>, I
    */
   @Override
   public Set<String> keySet() {
-    if (getLocalChanges().isEmpty()) {
-      if (parentSnapshot != null) {
-        return parentSnapshot.keySet();
-      }
-      return new HashSet<>();
-    }
-
-    Set<String> ret = new HashSet<>();
-    if (parentSnapshot != null) {
-      for (String key : parentSnapshot.keySet()) {
-        if (!getLocalChanges().containsKey(key)) {
-          ret.add(key);
+    Set<String> ret = new LinkedHashSet<>();
+    if (parentSnapshot == null && localChanges instanceof CompactMap) {
+      CompactMap compactMap = (CompactMap) localChanges;
+      for (int i = 0; i < compactMap.size(); i++) {
+        if (compactMap.valueAt(i) != DELETED_MARKER) {
+          ret.add(compactMap.keyAt(i));
         }
       }
+      return ret;
     }
-    for (String key : getLocalChanges().keySet()) {
-      if (getLocalChanges().containsKey(key) && getLocalChanges().get(key) != DELETED_MARKER) {
-        ret.add(key);
-      }
+    for (Map.Entry<String, RavenJToken> entry : this) {
+      ret.add(entry.getKey());
     }
-
     return ret;
   }
 
@@ -114,30 +214,23 @@ public class DictionaryWithParentSnapshot implements Map<String, RavenJToken>, I
     if (isSnapshot()) {
       throw new IllegalStateException("Cannot modify a snapshot, this is probably a bug");
     }
-    boolean parentHasIt = false;
-    RavenJToken parentToken = null;
-
-    if (parentSnapshot != null) {
-      parentToken = parentSnapshot.get(key);
-      if (parentToken != null) {
-        parentHasIt = true;
-      }
-    }
 
-    if (!getLocalChanges().containsKey(key)) {
-      if (parentHasIt && parentToken != DELETED_MARKER) {
-        getLocalChanges().put(key, DELETED_MARKER);
+    Map<String, RavenJToken> changes = getLocalChanges();
+    if (!changes.containsKey(key)) {
+      RavenJToken parentToken = parentSnapshot != null ? parentSnapshot.find(key) : DELETED_MARKER;
+      if (parentToken != null && parentToken != DELETED_MARKER) {
+        putLocal(key, DELETED_MARKER);
         count--;
         return parentToken;
       }
       return null;
     }
-    RavenJToken token = getLocalChanges().get(key);
+    RavenJToken token = changes.get(key);
     if (token == DELETED_MARKER) {
       return null;
     }
     count--;
-    getLocalChanges().put(key, DELETED_MARKER);
+    changes.put(key, DELETED_MARKER);
     return token;
   }
 
@@ -147,33 +240,37 @@ public class DictionaryWithParentSnapshot implements Map<String, RavenJToken>, I
   @Override
   public RavenJToken get(Object keyObject) {
     String key = (String) keyObject;
-    if (getLocalChanges().containsKey(key)) {
-      RavenJToken unsafeVal = getLocalChanges().get(key);
-      if (unsafeVal == DELETED_MARKER) {
-        return null;
-      }
-      return unsafeVal;
-    }
-    if (parentSnapshot == null || !parentSnapshot.containsKey(key) || parentSnapshot.get(key) == DELETED_MARKER) {
+    RavenJToken unsafeVal = find(key);
+    if (unsafeVal == DELETED_MARKER) {
       return null;
     }
-    RavenJToken unsafeVal = parentSnapshot.get(key);
-    if (!isSnapshot() && unsafeVal != null) {
-      if (!unsafeVal.isSnapshot() && unsafeVal.getType() != JTokenType.OBJECT) {
-        unsafeVal.ensureCannotBeChangeAndEnableShapshotting();
-      }
+    if (needsProtection(unsafeVal) && (localChanges == null || !localChanges.containsKey(key))) {
+      unsafeVal.ensureCannotBeChangeAndEnableShapshotting();
     }
     return unsafeVal;
   }
 
+  /**
+   * Values inherited from parent snapshot are shared, so they can't be modified through this dictionary.
+   */
+  private boolean needsProtection(RavenJToken unsafeVal) {
+    return !isSnapshot() && parentSnapshot != null && unsafeVal != null
+      && !unsafeVal.isSnapshot() && unsafeVal.getType() != JTokenType.OBJECT;
+  }
+
   /* (non-Javadoc)
    * @see java.util.Map#values()
    */
   @Override
   public Collection<RavenJToken> values() {
-    Collection<RavenJToken> tokens = new ArrayList<>();
-    for (String key : keySet()) {
-      tokens.add(get(key));
+    Collection<RavenJToken> tokens = new ArrayList<>(count);
+    DictionaryInterator iterator = new DictionaryInterator();
+    while (iterator.hasNext()) {
+      RavenJToken value = iterator.next().getValue();
+      if (iterator.isInherited() && needsProtection(value)) {
+        value.ensureCannotBeChangeAndEnableShapshotting();
+      }
+      tokens.add(value);
     }
     return tokens;
   }
@@ -212,8 +309,8 @@ public class DictionaryWithParentSnapshot implements Map<String, RavenJToken>, I
    */
   @Override
   public void putAll(Map<? extends String, ? extends RavenJToken> m) {
-    for (String key : m.keySet()) {
-      put(key, m.get(key));
+    for (Map.Entry<? extends String, ? extends RavenJToken> entry : m.entrySet()) {
+      put(entry.getKey(), entry.getValue());
     }
   }
 
@@ -230,7 +327,7 @@ public class DictionaryWithParentSnapshot implements Map<String, RavenJToken>, I
    */
   @Override
   public Set<Entry<String, RavenJToken>> entrySet() {
-    Set<Entry<String, RavenJToken>> entries = new HashSet<>();
+    Set<Entry<String, RavenJToken>> entries = new LinkedHashSet<>();
     Iterator<java.util.Map.Entry<String, RavenJToken>> iterator = iterator();
     while (iterator.hasNext()) {
       entries.add(iterator.next());
@@ -243,9 +340,6 @@ public class DictionaryWithParentSnapshot implements Map<String, RavenJToken>, I
    */
   @Override
   public int size() {
-    if (parentSnapshot != null) {
-      return count + parentSnapshot.size();
-    }
     return count;
   }
 
@@ -264,81 +358,387 @@ public class DictionaryWithParentSnapshot implements Map<String, RavenJToken>, I
   }
 
   public boolean tryGetValue(String key, Reference<RavenJToken> value) {
-    value.value = null;
-    Reference<RavenJToken> unsafeVal = new Reference<>();
-    if (getLocalChanges() != null && getLocalChanges().containsKey(key)) {
-      unsafeVal.value = getLocalChanges().get(key);
-      if (DELETED_MARKER.equals(unsafeVal.value)) return false;
+    value.value = get(key);
+    return value.value != null || containsKey(key);
+  }
+
+  /**
+   * Iterates over entries of parent snapshots (from the root) and then local changes, skipping entries
+   * which were overridden or removed by descendant.
+   */
+  class DictionaryInterator implements Iterator<java.util.Map.Entry<String, RavenJToken>> {
+
+    private final DictionaryWithParentSnapshot[] levels;
+    private int levelIndex = -1;
+    private Iterator<java.util.Map.Entry<String, RavenJToken>> levelIterator = Collections.emptyIterator();
+    private java.util.Map.Entry<String, RavenJToken> next;
+    private int nextLevelIndex;
+    private int currentLevelIndex;
+
+    @SuppressWarnings("synthetic-access")
+    public DictionaryInterator() {
+      levels = new DictionaryWithParentSnapshot[depth + 1];
+      DictionaryWithParentSnapshot dictionary = DictionaryWithParentSnapshot.this;
+      for (int i = depth; i >= 0; i--) {
+        levels[i] = dictionary;
+        dictionary = dictionary.parentSnapshot;
+      }
+      advance();
+    }
+
+    @SuppressWarnings("synthetic-access")
+    private void advance() {
+      next = null;
+      while (true) {
+        while (levelIterator.hasNext()) {
+          java.util.Map.Entry<String, RavenJToken> entry = levelIterator.next();
+          if (entry.getValue() != DELETED_MARKER && !isOverridden(entry.getKey())) {
+            next = entry;
+            nextLevelIndex = levelIndex;
+            return;
+          }
+        }
+        levelIndex++;
+        if (levelIndex >= levels.length) {
+          return;
+        }
+        Map<String, RavenJToken> changes = levels[levelIndex].localChanges;
+        levelIterator = changes != null ? changes.entrySet().iterator() : Collections.<java.util.Map.Entry<String, RavenJToken>>emptyIterator();
+      }
+    }
+
+    @SuppressWarnings("synthetic-access")
+    private boolean isOverridden(String key) {
+      for (int i = levelIndex + 1; i < levels.length; i++) {
+        Map<String, RavenJToken> changes = levels[i].localChanges;
+        if (changes != null && changes.containsKey(key)) {
+          return true;
+        }
+      }
+      return false;
+    }
 
-      value.value = unsafeVal.value;
-      return true;
+    /**
+     * @return true if last returned entry comes from parent snapshot
+     */
+    public boolean isInherited() {
+      return currentLevelIndex < levels.length - 1;
     }
 
-    if (parentSnapshot == null ||
-      !parentSnapshot.tryGetValue(key, unsafeVal) ||
-      DELETED_MARKER.equals(unsafeVal.value)) return false;
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
 
-    if (!isSnapshot() && unsafeVal.value != null) {
-      if (unsafeVal.value.isSnapshot() && JTokenType.OBJECT.equals(unsafeVal.value.getType()))
-        unsafeVal.value.ensureCannotBeChangeAndEnableShapshotting();
+    @Override
+    public java.util.Map.Entry<String, RavenJToken> next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      java.util.Map.Entry<String, RavenJToken> result = next;
+      currentLevelIndex = nextLevelIndex;
+      advance();
+      return result;
     }
 
-    value.value = unsafeVal.value;
+    @Override
+    public void remove() {
+      throw new IllegalStateException("Deleting elements in iterator is not implemneted!");
+    }
 
-    return true;
   }
 
-  class DictionaryInterator implements Iterator<java.util.Map.Entry<String, RavenJToken>> {
+  /**
+   * Array based map for objects with few properties: keys are compared with linear scan, which for
+   * interned property names is mostly reference comparison. Preserves insertion order.
+   */
+  static class CompactMap extends AbstractMap<String, RavenJToken> {
 
-    private boolean parentProcessed = false;
-    private Iterator<java.util.Map.Entry<String, RavenJToken>> parentIterator;
-    private Iterator<java.util.Map.Entry<String, RavenJToken>> localIterator;
+    private final boolean ignoreCase;
+    private String[] keys = new String[4];
+    private RavenJToken[] values = new RavenJToken[4];
+    private int size;
 
-    @SuppressWarnings("synthetic-access")
-    private Iterator<java.util.Map.Entry<String, RavenJToken>> getCurrentIterator() {
-      if (!parentProcessed) {
-        if (parentSnapshot != null) {
-          if (parentIterator == null) {
-            parentIterator = parentSnapshot.iterator();
-          }
-          if (parentIterator.hasNext()) {
-            return parentIterator;
-          } else {
-            //no more elements in parent iterator
-            parentProcessed = true;
-          }
-        } else {
-          parentProcessed = true;
+    private final Set<Map.Entry<String, RavenJToken>> entrySet = new AbstractSet<Map.Entry<String, RavenJToken>>() {
+      @Override
+      public Iterator<Map.Entry<String, RavenJToken>> iterator() {
+        return new CompactMapIterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+
+    public CompactMap(boolean ignoreCase) {
+      this.ignoreCase = ignoreCase;
+    }
+
+    int indexOf(Object key) {
+      for (int i = 0; i < size; i++) {
+        String candidate = keys[i];
+        if (candidate == key) {
+          return i;
         }
       }
-      if (localIterator == null) {
-        Map<String, RavenJToken> entrySetMap = new HashMap<>();
-        for (Map.Entry<String, RavenJToken> entry: getLocalChanges().entrySet()) {
-          if (entry.getValue() != DELETED_MARKER) {
-            entrySetMap.put(entry.getKey(), entry.getValue());
-          }
+      if (key == null) {
+        return -1;
+      }
+      for (int i = 0; i < size; i++) {
+        String candidate = keys[i];
+        if (candidate != null && (ignoreCase ? candidate.equalsIgnoreCase((String) key) : candidate.equals(key))) {
+          return i;
         }
-        localIterator = entrySetMap.entrySet().iterator();
+      }
+      return -1;
+    }
+
+    String keyAt(int index) {
+      return keys[index];
+    }
 
+    RavenJToken valueAt(int index) {
+      return values[index];
+    }
+
+    @Override
+    public RavenJToken get(Object key) {
+      int index = indexOf(key);
+      return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return indexOf(key) >= 0;
+    }
+
+    @Override
+    public RavenJToken put(String key, RavenJToken value) {
+      int index = indexOf(key);
+      if (index >= 0) {
+        RavenJToken oldValue = values[index];
+        values[index] = value;
+        return oldValue;
       }
-      return localIterator;
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+      }
+      keys[size] = key;
+      values[size] = value;
+      size++;
+      return null;
     }
 
     @Override
-    public boolean hasNext() {
-      return getCurrentIterator().hasNext();
+    public RavenJToken remove(Object key) {
+      int index = indexOf(key);
+      if (index < 0) {
+        return null;
+      }
+      RavenJToken oldValue = values[index];
+      removeAt(index);
+      return oldValue;
+    }
+
+    void removeAt(int index) {
+      int moved = size - index - 1;
+      System.arraycopy(keys, index + 1, keys, index, moved);
+      System.arraycopy(values, index + 1, values, index, moved);
+      size--;
+      keys[size] = null;
+      values[size] = null;
     }
 
     @Override
-    public java.util.Map.Entry<String, RavenJToken> next() {
-      return getCurrentIterator().next();
+    public int size() {
+      return size;
     }
 
     @Override
-    public void remove() {
-      throw new IllegalStateException("Deleting elements in iterator is not implemneted!");
+    public void clear() {
+      Arrays.fill(keys, 0, size, null);
+      Arrays.fill(values, 0, size, null);
+      size = 0;
+    }
+
+    @Override
+    public Set<Map.Entry<String, RavenJToken>> entrySet() {
+      return entrySet;
     }
 
+    class CompactMapIterator implements Iterator<Map.Entry<String, RavenJToken>> {
+      private int nextIndex;
+      private int lastIndex = -1;
+
+      @Override
+      public boolean hasNext() {
+        return nextIndex < size;
+      }
+
+      @Override
+      public Map.Entry<String, RavenJToken> next() {
+        if (nextIndex >= size) {
+          throw new NoSuchElementException();
+        }
+        lastIndex = nextIndex++;
+        return new CompactMapEntry(lastIndex);
+      }
+
+      @Override
+      public void remove() {
+        if (lastIndex < 0) {
+          throw new IllegalStateException();
+        }
+        removeAt(lastIndex);
+        nextIndex = lastIndex;
+        lastIndex = -1;
+      }
+    }
+
+    class CompactMapEntry implements Map.Entry<String, RavenJToken> {
+      private final int index;
+
+      public CompactMapEntry(int index) {
+        this.index = index;
+      }
+
+      @Override
+      public String getKey() {
+        return keys[index];
+      }
+
+      @Override
+      public RavenJToken getValue() {
+        return values[index];
+      }
+
+      @Override
+      public RavenJToken setValue(RavenJToken value) {
+        RavenJToken oldValue = values[index];
+        values[index] = value;
+        return oldValue;
+      }
+
+      @Override
+      public int hashCode() {
+        return (getKey() == null ? 0 : getKey().hashCode()) ^ (getValue() == null ? 0 : getValue().hashCode());
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+        if (!(obj instanceof Map.Entry)) {
+          return false;
+        }
+        Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+        return Objects.equals(getKey(), other.getKey()) && Objects.equals(getValue(), other.getValue());
+      }
+
+      @Override
+      public String toString() {
+        return getKey() + "=" + getValue();
+      }
+    }
+  }
+
+  /**
+   * Hash map with case insensitive keys (same equality as {@link String#CASE_INSENSITIVE_ORDER}),
+   * which preserves original key casing and insertion order.
+   */
+  static class CaseInsensitiveMap extends AbstractMap<String, RavenJToken> {
+
+    private final Map<CaseInsensitiveKey, Map.Entry<String, RavenJToken>> entries = new LinkedHashMap<>();
+
+    private final Set<Map.Entry<String, RavenJToken>> entrySet = new AbstractSet<Map.Entry<String, RavenJToken>>() {
+      @Override
+      public Iterator<Map.Entry<String, RavenJToken>> iterator() {
+        return entries.values().iterator();
+      }
+
+      @Override
+      public int size() {
+        return entries.size();
+      }
+    };
+
+    Map.Entry<String, RavenJToken> getEntry(CaseInsensitiveKey key) {
+      return entries.get(key);
+    }
+
+    @Override
+    public RavenJToken get(Object key) {
+      Map.Entry<String, RavenJToken> entry = entries.get(new CaseInsensitiveKey((String) key));
+      return entry != null ? entry.getValue() : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return entries.containsKey(new CaseInsensitiveKey((String) key));
+    }
+
+    @Override
+    public RavenJToken put(String key, RavenJToken value) {
+      CaseInsensitiveKey lookupKey = new CaseInsensitiveKey(key);
+      Map.Entry<String, RavenJToken> entry = entries.get(lookupKey);
+      if (entry != null) {
+        return entry.setValue(value);
+      }
+      entries.put(lookupKey, new AbstractMap.SimpleEntry<>(key, value));
+      return null;
+    }
+
+    @Override
+    public RavenJToken remove(Object key) {
+      Map.Entry<String, RavenJToken> entry = entries.remove(new CaseInsensitiveKey((String) key));
+      return entry != null ? entry.getValue() : null;
+    }
+
+    @Override
+    public int size() {
+      return entries.size();
+    }
+
+    @Override
+    public void clear() {
+      entries.clear();
+    }
+
+    @Override
+    public Set<Map.Entry<String, RavenJToken>> entrySet() {
+      return entrySet;
+    }
+  }
+
+  static class CaseInsensitiveKey {
+    private final String key;
+    private final int hash;
+
+    public CaseInsensitiveKey(String key) {
+      this.key = key;
+      int h = 0;
+      for (int i = 0; i < key.length(); i++) {
+        h = 31 * h + Character.toLowerCase(Character.toUpperCase(key.charAt(i)));
+      }
+      this.hash = h;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof CaseInsensitiveKey)) {
+        return false;
+      }
+      CaseInsensitiveKey other = (CaseInsensitiveKey) obj;
+      return hash == other.hash && key.equalsIgnoreCase(other.key);
+    }
   }
 
 }
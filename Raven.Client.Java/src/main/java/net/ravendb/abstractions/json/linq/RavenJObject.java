@@ -267,9 +267,9 @@ public class RavenJObject extends RavenJToken implements Iterable<Entry<String,
       writer.writeStartObject();
 
       if (properties != null) {
-        for (String key : properties.keySet()) {
-          writer.writeFieldName(key);
-          RavenJToken value = properties.get(key);
+        for (Map.Entry<String, RavenJToken> property : properties) {
+          writer.writeFieldName(property.getKey());
+          RavenJToken value = property.getValue();
           if (value == null) {
             writer.writeNull();
           } else {
@@ -8,6 +8,8 @@ import net.ravendb.abstractions.data.Etag;
 import net.ravendb.abstractions.data.FailoverServers;
 import net.ravendb.abstractions.data.IndexStats;
 import net.ravendb.abstractions.data.IndexToAdd;
+import net.ravendb.client.connection.profiling.ClientMetrics;
+import net.ravendb.client.linq.CompiledQueryCache;
 import net.ravendb.client.connection.profiling.ProfilingContext;
 import net.ravendb.client.connection.profiling.ProfilingInformation;
 import net.ravendb.client.document.*;
@@ -16,12 +18,15 @@ import net.ravendb.client.document.dtc.VolatileOnlyTransactionRecoveryStorage;
 import net.ravendb.client.indexes.AbstractIndexCreationTask;
 import net.ravendb.client.indexes.AbstractTransformerCreationTask;
 import net.ravendb.client.indexes.IndexCreation;
+import net.ravendb.client.indexes.IndexDeployment;
+import net.ravendb.client.indexes.IndexDeploymentReport;
 import net.ravendb.client.listeners.*;
 import net.ravendb.client.util.GlobalLastEtagHolder;
 import net.ravendb.client.util.ILastEtagHolder;
 import net.ravendb.client.utils.encryptors.Encryptor;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 
 /**
@@ -43,11 +48,24 @@ public abstract class DocumentStoreBase implements IDocumentStore {
   protected IReliableSubscriptions subscriptions;
   private DocumentSessionListeners listeners = new DocumentSessionListeners();
   protected ProfilingContext profilingContext = new ProfilingContext();
+  private final ClientMetrics metrics = new ClientMetrics();
+  private final CompiledQueryCache compiledQueryCache = new CompiledQueryCache(1024);
   private ILastEtagHolder lastEtagHolder;
   private ITransactionRecoveryStorage transactionRecoveryStorage;
   private List<Action1<InMemoryDocumentSessionOperations>> sessionCreatedInternal = new ArrayList<>();
   protected FailoverServers failoverServers;
 
+  /**
+   * Generates random (version 4) session id. Session ids are used only to correlate profiling information,
+   * so {@link ThreadLocalRandom} is used instead of contended {@link java.security.SecureRandom} behind {@link UUID#randomUUID()}.
+   */
+  protected static UUID newSessionId() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+    long leastSigBits = (random.nextLong() & ~(0xC000000000000000L)) | 0x8000000000000000L;
+    return new UUID(mostSigBits, leastSigBits);
+  }
+
   @Override
   public DocumentSessionListeners getListeners() {
     return listeners;
@@ -66,6 +84,20 @@ public abstract class DocumentStoreBase implements IDocumentStore {
     this.failoverServers = failoverServers;
   }
 
+  /**
+   * Request latencies, cache and failover statistics of this store
+   */
+  public ClientMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Compiled queries shared by sessions of this store
+   */
+  public CompiledQueryCache getCompiledQueryCache() {
+    return compiledQueryCache;
+  }
+
   public void addSessionCreatedInternal(Action1<InMemoryDocumentSessionOperations> action) {
     sessionCreatedInternal.add(action);
   }
@@ -103,13 +135,20 @@ public abstract class DocumentStoreBase implements IDocumentStore {
     indexCreationTask.execute(getDatabaseCommands(), getConventions());
   }
 
+  /**
+   * Executes indexes creation. Only indexes missing on server or with changed definition are sent
+   * (in single batch), replication requests are sent concurrently.
+   */
+  @Override
   public void executeIndexes(List<AbstractIndexCreationTask> indexCreationTasks) {
-    IndexToAdd[] indexesToAdd = IndexCreation.createIndexesToAdd(indexCreationTasks, conventions);
-
-    getDatabaseCommands().putIndexes(indexesToAdd);
-
-    for (AbstractIndexCreationTask creationTask : indexCreationTasks) {
-      creationTask.afterExecute(getDatabaseCommands(), getConventions());
+    IndexDeployment deployment = new IndexDeployment(indexCreationTasks, null, getConventions(), getConventions().getIndexDeploymentParallelism());
+    IndexDeploymentReport report = deployment.deploy(null, getDatabaseCommands());
+    if (report.hasErrors()) {
+      Exception error = report.getErrors().values().iterator().next();
+      if (error instanceof RuntimeException) {
+        throw (RuntimeException) error;
+      }
+      throw new IllegalStateException("Unable to deploy indexes", error);
     }
   }
 
@@ -274,6 +313,7 @@ public abstract class DocumentStoreBase implements IDocumentStore {
   }
 
   protected void afterSessionCreated(InMemoryDocumentSessionOperations session) {
+    metrics.onSessionOpened();
     EventHelper.invoke(sessionCreatedInternal, session);
   }
 
@@ -81,6 +81,12 @@ public interface IAdvancedDocumentSessionOperations {
    */
   public void markReadOnly(Object entity);
 
+  /**
+   * Gets a value indicating whether session was opened in read only mode (see {@link net.ravendb.client.document.OpenSessionOptions#setReadOnly(boolean)}).
+   * Such session doesn't track loaded entities and doesn't allow to store or delete them.
+   */
+  public boolean isReadOnly();
+
   /**
    * Gets a value indicating whether non authoritative information is allowed.
    * Non authoritative information is document that has been modified by a transaction that hasn't been committed.
@@ -125,6 +131,33 @@ public interface IAdvancedDocumentSessionOperations {
    */
   public void setMaxNumberOfRequestsPerSession(int value);
 
+  /**
+   * Gets the max number of entities and included documents held by session (0 - unbounded).
+   */
+  public int getMaxNumberOfEntitiesInUnitOfWork();
+
+  /**
+   * Sets the max number of entities and included documents held by session (0 - unbounded).
+   * When it is exceeded, least recently used unmodified entities and unused included documents are evicted
+   * before the next request to server. New, modified and deleted entities are never evicted.
+   * Evicted entity is released only once it isn't referenced by caller. Entity which caller still holds is tracked
+   * again when it is loaded, stored or deleted, or when it was modified before changes are saved, so changes made to it
+   * after eviction are not lost (unlike after {@link #evict(Object)}). Entities held by caller are therefore not released
+   * and are checked for changes on each save.
+   * @param value
+   */
+  public void setMaxNumberOfEntitiesInUnitOfWork(int value);
+
+  /**
+   * Gets the number of unmodified entities evicted from session, because it exceeded max number of entities.
+   */
+  public int getNumberOfEvictedEntities();
+
+  /**
+   * Gets the number of unused included documents evicted from session, because it exceeded max number of entities.
+   */
+  public int getNumberOfEvictedIncludedDocuments();
+
   /**
    * Gets the number of requests for this session
    * If the {@link NumberOfRequests} rise above {@link MaxNumberOfRequestsPerSession}, an exception will be thrown.
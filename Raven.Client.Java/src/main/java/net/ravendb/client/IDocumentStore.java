@@ -41,6 +41,16 @@ public interface IDocumentStore extends IDisposalNotification {
    */
   CleanCloseable aggressivelyCacheFor(long cacheDurationInMilis);
 
+  /**
+   * Setup the context for aggressive caching with stale-while-revalidate policy.
+   *
+   * Within cache duration responses are served from the local cache without touching the server.
+   * After that, cached response is still served for up to maxStalenessInMilis while it is refreshed in background.
+   * @param cacheDurationInMilis
+   * @param maxStalenessInMilis
+   */
+  CleanCloseable aggressivelyCacheFor(long cacheDurationInMilis, long maxStalenessInMilis);
+
   /**
    * Setup the context for aggressive caching.
    *
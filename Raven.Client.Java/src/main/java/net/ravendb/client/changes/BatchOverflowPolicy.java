@@ -0,0 +1,20 @@
+package net.ravendb.client.changes;
+
+/**
+ * What {@link BatchingObserver} with bounded buffer does when batch observer is slower than producer and buffer is full.
+ */
+public enum BatchOverflowPolicy {
+
+  /**
+   * Producer waits until there is space in buffer, no item is lost.
+   * Don't use it for Changes API notifications: single reader thread is shared by all subscriptions of connection,
+   * so they would all wait for the slowest observer.
+   */
+  BLOCK,
+
+  /**
+   * Items which don't fit into buffer are dropped and their number is reported to {@link IBatchObserver#onError(Exception)}.
+   * Observer has to be able to resync itself (i.e. on cache invalidation) when items are lost.
+   */
+  DROP
+}
@@ -0,0 +1,235 @@
+package net.ravendb.client.changes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.logging.ILog;
+import net.ravendb.abstractions.logging.LogManager;
+
+/**
+ * Groups items into batches of at most maxBatchSize items, collected for at most maxDelayMillis since the first item,
+ * and passes them to {@link IBatchObserver} on separate thread.
+ *
+ * By default items waiting for delivery are buffered without limit, so {@link #onNext(Object)} never blocks the producer
+ * (i.e. changes reader thread shared by all subscriptions) and no item is lost. Buffer can be bounded by maxPendingItems,
+ * then {@link BatchOverflowPolicy} decides whether producer waits or items which don't fit are dropped.
+ */
+public class BatchingObserver<T> implements IObserver<T>, CleanCloseable {
+
+  private static final ILog logger = LogManager.getCurrentClassLogger();
+
+  private static final long CLOSE_CHECK_INTERVAL_MILLIS = 100;
+
+  private final IBatchObserver<T> target;
+  private final int maxBatchSize;
+  private final long maxDelayMillis;
+  private final BlockingQueue<T> pending;
+  private final BatchOverflowPolicy overflowPolicy;
+  private final AtomicLong droppedItems = new AtomicLong();
+  private final Thread deliveryThread;
+  private volatile boolean closed;
+
+  /**
+   * Creates observer with unbounded buffer.
+   */
+  public BatchingObserver(IBatchObserver<T> target, int maxBatchSize, long maxDelayMillis) {
+    this(target, maxBatchSize, maxDelayMillis, Integer.MAX_VALUE, BatchOverflowPolicy.BLOCK);
+  }
+
+  /**
+   * Creates observer with at most maxPendingItems items waiting for delivery.
+   * @param overflowPolicy what happens when buffer is full
+   */
+  public BatchingObserver(IBatchObserver<T> target, int maxBatchSize, long maxDelayMillis, int maxPendingItems,
+    BatchOverflowPolicy overflowPolicy) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("maxBatchSize must be positive");
+    }
+    if (maxDelayMillis < 0) {
+      throw new IllegalArgumentException("maxDelayMillis can't be negative");
+    }
+    if (maxPendingItems < 1) {
+      throw new IllegalArgumentException("maxPendingItems must be positive");
+    }
+    if (overflowPolicy == null) {
+      throw new IllegalArgumentException("overflowPolicy can't be null");
+    }
+    this.target = target;
+    this.overflowPolicy = overflowPolicy;
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelayMillis = maxDelayMillis;
+    this.pending = new LinkedBlockingQueue<>(maxPendingItems);
+
+    deliveryThread = new Thread(new Runnable() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public void run() {
+        deliverBatches();
+      }
+    }, "Batching observer");
+    deliveryThread.setDaemon(true);
+    deliveryThread.start();
+  }
+
+  /**
+   * Subscribes batch observer to source, items waiting for delivery are buffered without limit.
+   * @return closeable which unsubscribes from source and delivers items which are still pending
+   */
+  public static <T> CleanCloseable subscribe(IObservable<T> source, IBatchObserver<T> observer, int maxBatchSize, long maxDelayMillis) {
+    return subscribe(source, new BatchingObserver<>(observer, maxBatchSize, maxDelayMillis));
+  }
+
+  /**
+   * Subscribes batch observer to source, at most maxPendingItems items wait for delivery.
+   * @param overflowPolicy what happens when buffer is full
+   * @return closeable which unsubscribes from source and delivers items which are still pending
+   */
+  public static <T> CleanCloseable subscribe(IObservable<T> source, IBatchObserver<T> observer, int maxBatchSize, long maxDelayMillis,
+    int maxPendingItems, BatchOverflowPolicy overflowPolicy) {
+    return subscribe(source, new BatchingObserver<>(observer, maxBatchSize, maxDelayMillis, maxPendingItems, overflowPolicy));
+  }
+
+  private static <T> CleanCloseable subscribe(IObservable<T> source, final BatchingObserver<T> batchingObserver) {
+    final CleanCloseable subscription = source.subscribe(batchingObserver);
+    return new CleanCloseable() {
+      @Override
+      public void close() {
+        subscription.close();
+        batchingObserver.close();
+      }
+    };
+  }
+
+  @Override
+  public void onNext(T value) {
+    if (closed) {
+      return;
+    }
+    if (overflowPolicy == BatchOverflowPolicy.DROP) {
+      if (!pending.offer(value)) {
+        droppedItems.incrementAndGet();
+      }
+      return;
+    }
+    try {
+      pending.put(value);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for space in batch buffer", e);
+    }
+  }
+
+  /**
+   * @return number of items waiting for delivery
+   */
+  public int getPendingItemsCount() {
+    return pending.size();
+  }
+
+  /**
+   * @return number of items which were dropped because buffer was full ({@link BatchOverflowPolicy#DROP} only)
+   */
+  public long getDroppedItemsCount() {
+    return droppedItems.get();
+  }
+
+  @Override
+  public void onError(Exception error) {
+    target.onError(error);
+  }
+
+  @Override
+  public void onCompleted() {
+    close();
+    target.onCompleted();
+  }
+
+  /**
+   * Stops accepting items and waits until pending items are delivered.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (Thread.currentThread() == deliveryThread) {
+      return;
+    }
+    try {
+      deliveryThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void deliverBatches() {
+    try {
+      long reportedDroppedItems = 0;
+      while (true) {
+        reportedDroppedItems = reportDroppedItems(reportedDroppedItems);
+        T first = pending.poll(CLOSE_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          if (closed && pending.isEmpty()) {
+            reportDroppedItems(reportedDroppedItems);
+            return;
+          }
+          continue;
+        }
+
+        List<T> batch = new ArrayList<>();
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        while (batch.size() < maxBatchSize) {
+          long remaining = deadline - System.nanoTime();
+          T next = closed || remaining <= 0 ? pending.poll() : pending.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        deliver(Collections.unmodifiableList(batch));
+      }
+    } catch (InterruptedException e) {
+      logger.warn("Batching observer was interrupted, pending items are dropped");
+    }
+  }
+
+  /**
+   * Reports items dropped since last report to batch observer (on delivery thread, so producer isn't slowed down).
+   * @return number of dropped items reported so far
+   */
+  private long reportDroppedItems(long reportedDroppedItems) {
+    long dropped = droppedItems.get();
+    if (dropped > reportedDroppedItems) {
+      try {
+        target.onError(new IllegalStateException("Batch observer is slower than producer, "
+          + (dropped - reportedDroppedItems) + " items were dropped"));
+      } catch (RuntimeException e) {
+        logger.warnException("Batch observer failed to handle error", e);
+      }
+    }
+    return dropped;
+  }
+
+  private void deliver(List<T> batch) throws InterruptedException {
+    try {
+      Future<?> handled = target.onNext(batch);
+      if (handled != null) {
+        handled.get();
+      }
+    } catch (ExecutionException e) {
+      target.onError(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+    } catch (RuntimeException e) {
+      target.onError(e);
+    }
+  }
+}
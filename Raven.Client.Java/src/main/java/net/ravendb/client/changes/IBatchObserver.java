@@ -0,0 +1,22 @@
+package net.ravendb.client.changes;
+
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Observer which receives items in batches, i.e. to write them to downstream system in bulk.
+ * Next batch isn't delivered until previous one is handled, meanwhile items are buffered. Subscribe it using
+ * {@link BatchingObserver#subscribe(IObservable, IBatchObserver, int, long)} or, with bounded buffer,
+ * {@link BatchingObserver#subscribe(IObservable, IBatchObserver, int, long, int, BatchOverflowPolicy)}.
+ */
+public interface IBatchObserver<T> {
+  /**
+   * @param batch items in order of their arrival, list can't be modified
+   * @return future completed when batch is handled or null when batch was handled synchronously
+   */
+  public Future<?> onNext(List<T> batch);
+
+  public void onError(Exception error);
+
+  public void onCompleted();
+}
@@ -2,6 +2,7 @@ package net.ravendb.client.changes;
 
 import java.util.UUID;
 
+import net.ravendb.abstractions.basic.EventHandler;
 import net.ravendb.abstractions.data.*;
 
 
@@ -90,4 +91,12 @@ public interface IDatabaseChanges extends IConnectableChanges {
    */
   public IObservable<DataSubscriptionChangeNotification> forDataSubscription(long id);
 
+  /**
+   * Raised after reconnect when document changes might have been missed while connection was down
+   * (for example to resynchronize caches).
+   */
+  public void addMissedChanges(EventHandler<MissedChangesEventArgs> handler);
+
+  public void removeMissedChanges(EventHandler<MissedChangesEventArgs> handler);
+
 }
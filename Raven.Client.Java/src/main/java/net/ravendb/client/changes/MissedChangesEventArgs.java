@@ -0,0 +1,34 @@
+package net.ravendb.client.changes;
+
+import net.ravendb.abstractions.basic.EventArgs;
+import net.ravendb.abstractions.data.Etag;
+
+/**
+ * Raised after Changes API connection was restored, when documents might have changed while client was disconnected.
+ */
+public class MissedChangesEventArgs extends EventArgs {
+
+  private final Etag lastSeenEtag;
+  private final Etag serverEtag;
+
+  public MissedChangesEventArgs(Etag lastSeenEtag, Etag serverEtag) {
+    super();
+    this.lastSeenEtag = lastSeenEtag;
+    this.serverEtag = serverEtag;
+  }
+
+  /**
+   * Etag of last document change notification received before disconnect (null if none was received).
+   */
+  public Etag getLastSeenEtag() {
+    return lastSeenEtag;
+  }
+
+  /**
+   * Last document etag reported by server after reconnect (null if it couldn't be retrieved).
+   */
+  public Etag getServerEtag() {
+    return serverEtag;
+  }
+
+}
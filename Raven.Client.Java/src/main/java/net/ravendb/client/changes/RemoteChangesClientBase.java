@@ -1,25 +1,36 @@
 package net.ravendb.client.changes;
 
 import java.io.Closeable;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.ravendb.abstractions.basic.CleanCloseable;
 import net.ravendb.abstractions.basic.EventArgs;
 import net.ravendb.abstractions.basic.EventHandler;
 import net.ravendb.abstractions.basic.EventHelper;
 import net.ravendb.abstractions.basic.Reference;
+import net.ravendb.abstractions.basic.Tuple;
 import net.ravendb.abstractions.basic.VoidArgs;
 import net.ravendb.abstractions.closure.Action0;
 import net.ravendb.abstractions.connection.OperationCredentials;
 import net.ravendb.abstractions.data.HttpMethods;
 import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
 import net.ravendb.abstractions.logging.ILog;
 import net.ravendb.abstractions.logging.LogManager;
 import net.ravendb.abstractions.util.AtomicDictionary;
@@ -50,20 +61,30 @@ public abstract class RemoteChangesClientBase<TChangesApi extends IConnectableCh
 
   private final Action0 onDispose;
 
-  private Closeable connection;
-  private Date lastHeartbeat = new Date();
+  private volatile Closeable connection;
+  /**
+   * Incremented for each established connection, callbacks of replaced connections are ignored
+   */
+  private final AtomicInteger connectionGeneration = new AtomicInteger();
+  private volatile long lastHeartbeat = System.nanoTime();
+  private final AtomicBoolean reconnecting = new AtomicBoolean();
+  private boolean wasConnected;
 
   private static int connectionCounter;
   private final String id;
 
   protected final AtomicDictionary<DatabaseConnectionState> counters = new AtomicDictionary<>(String.CASE_INSENSITIVE_ORDER);
 
-  private boolean connected;
+  private volatile boolean connected;
 
   private List<EventHandler<VoidArgs>> connectionStatusChanged;
 
   private volatile boolean disposed;
 
+  /**
+   * Sends restored subscriptions, guarded by this
+   */
+  private ThreadPoolExecutor sendExecutor;
 
   @SuppressWarnings("rawtypes")
   public RemoteChangesClientBase(String url, String apiKey, HttpJsonRequestFactory jsonRequestFactory, Convention conventions,
@@ -111,99 +132,217 @@ public abstract class RemoteChangesClientBase<TChangesApi extends IConnectableCh
     logger.info("Connection (%s) status changed, new status: %s", url, connected);
   }
 
-  @SuppressWarnings("null")
   public void establishConnection() {
-    if (disposed) {
-      return ;
-    }
-
-    if (clientSideHeartbeatTimer != null) {
-      clientSideHeartbeatTimer.cancel();
-      clientSideHeartbeatTimer = null;
-    }
-
-    CreateHttpJsonRequestParams requestParams = new CreateHttpJsonRequestParams(null, url + "/changes/events?id=" + id, HttpMethods.GET, null, credentials, conventions);
-    requestParams.setAvoidCachingRequest(true);
-    requestParams.setDisableRequestCompression(true);
-    logger.info("Trying to connect to %s with id %s", requestParams.getUrl(), id);
-    boolean retry = false;
-    IObservable<String> serverEvents = null;
-    try {
-      serverEvents = jsonRequestFactory.createHttpJsonRequest(requestParams).serverPull();
-    } catch (Exception e) {
-      logger.warnException("Could not connect to server: " + url + " and id  " + id, e);
-      connected = false;
-      EventHelper.invoke(connectionStatusChanged, this, EventArgs.EMPTY);
-
+    for (int attempt = 0; ; attempt++) {
       if (disposed) {
-        logger.warn("Failed to connect to %s with id %s, probably shutting down...", url, id);
-        throw e;
+        return ;
       }
-      Reference<Integer> codeRef = new Reference<>();
-      if (replicationInformer.isHttpStatus(e, codeRef, HttpStatus.SC_NOT_FOUND, HttpStatus.SC_FORBIDDEN, HttpStatus.SC_SERVICE_UNAVAILABLE, HttpStatus.SC_UNAUTHORIZED)) {
-        logger.error("Failed to connect to %s with id %s, server returned with an error code: %d", url, id, codeRef.value);
-        throw e;
+
+      if (clientSideHeartbeatTimer != null) {
+        clientSideHeartbeatTimer.cancel();
+        clientSideHeartbeatTimer = null;
       }
-      logger.warn("Failed to connect to %s with id %s, will try again in 15 seconds", url, id);
-      retry = true;
-    }
-    if (retry) {
+
+      CreateHttpJsonRequestParams requestParams = new CreateHttpJsonRequestParams(null, url + "/changes/events?id=" + id, HttpMethods.GET, null, credentials, conventions);
+      requestParams.setAvoidCachingRequest(true);
+      requestParams.setDisableRequestCompression(true);
+      logger.info("Trying to connect to %s with id %s", requestParams.getUrl(), id);
+      IObservable<String> serverEvents = null;
       try {
-        Thread.sleep(15000);
-      } catch (InterruptedException e) {
-        throw new IllegalStateException(e);
+        serverEvents = jsonRequestFactory.createHttpJsonRequest(requestParams).serverPull();
+      } catch (Exception e) {
+        logger.warnException("Could not connect to server: " + url + " and id  " + id, e);
+        connected = false;
+        EventHelper.invoke(connectionStatusChanged, this, EventArgs.EMPTY);
+
+        if (disposed) {
+          logger.warn("Failed to connect to %s with id %s, probably shutting down...", url, id);
+          throw e;
+        }
+        Reference<Integer> codeRef = new Reference<>();
+        if (replicationInformer.isHttpStatus(e, codeRef, HttpStatus.SC_NOT_FOUND, HttpStatus.SC_FORBIDDEN, HttpStatus.SC_SERVICE_UNAVAILABLE, HttpStatus.SC_UNAUTHORIZED)) {
+          logger.error("Failed to connect to %s with id %s, server returned with an error code: %d", url, id, codeRef.value);
+          throw e;
+        }
+        long delay = getReconnectDelay(attempt);
+        logger.warn("Failed to connect to %s with id %s, will try again in %d ms", url, id, delay);
+        try {
+          Thread.sleep(delay);
+        } catch (InterruptedException ie) {
+          throw new IllegalStateException(ie);
+        }
+        continue;
       }
-      establishConnection();
-      return;
-    }
 
-    if (disposed) {
-      connected = false;
+      if (disposed) {
+        connected = false;
+        EventHelper.invoke(connectionStatusChanged, this, EventArgs.EMPTY);
+        throw new IllegalStateException("RemoteDatabaseChanges was disposed!");
+      }
+
+      lastHeartbeat = System.nanoTime();
+      connected = true;
       EventHelper.invoke(connectionStatusChanged, this, EventArgs.EMPTY);
-      throw new IllegalStateException("RemoteDatabaseChanges was disposed!");
-    }
+      connection = (Closeable) serverEvents;
+      final int generation = connectionGeneration.incrementAndGet();
+      serverEvents.subscribe(new ConnectionObserver(generation));
+
+      long heartbeatCheckPeriod = Math.max(1000, conventions.getChangesHeartbeatTimeout() / 3);
+      clientSideHeartbeatTimer = new Timer("Changes Client Heartbeat", true);
+      clientSideHeartbeatTimer.schedule(new TimerTask() {
+        @Override
+        public void run() {
+          if (generation == connectionGeneration.get()) {
+            clientSideHeartbeat();
+          }
+        }
+      }, heartbeatCheckPeriod, heartbeatCheckPeriod);
 
-    connected = true;
-    EventHelper.invoke(connectionStatusChanged, this, EventArgs.EMPTY);
-    connection = (Closeable) serverEvents;
-    serverEvents.subscribe(this);
+      subscribeOnServer();
 
-    clientSideHeartbeatTimer = new Timer("Changes Client Heartbeat", true);
-    clientSideHeartbeatTimer.schedule(new TimerTask() {
-      @Override
-      public void run() {
-        clientSideHeartbeat();
+      if (wasConnected) {
+        onConnectionRestored();
       }
-    }, 10000, 10000);
+      wasConnected = true;
+      return;
+    }
+  }
 
-    subscribeOnServer();
+  /**
+   * Delay before given reconnect attempt: exponential backoff (starting at changesReconnectMinDelay and capped at
+   * changesReconnectMaxDelay) randomized between half and full value, so clients of restarted server don't reconnect at once.
+   */
+  protected long getReconnectDelay(int attempt) {
+    return getReconnectDelay(attempt, conventions.getChangesReconnectMinDelay(), conventions.getChangesReconnectMaxDelay());
+  }
+
+  static long getReconnectDelay(int attempt, long minDelay, long maxDelay) {
+    long delay = Math.max(1, minDelay);
+    for (int i = 0; i < attempt && delay < maxDelay; i++) {
+      delay <<= 1;
+    }
+    delay = Math.max(1, Math.min(delay, maxDelay));
+    long half = delay / 2;
+    return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+  }
+
+  /**
+   * Called after connection was established again and subscriptions were restored.
+   */
+  protected void onConnectionRestored() {
+    // empty by design
   }
 
   protected void clientSideHeartbeat() {
-    long elapsedTimeSinceHeartbeat = new Date().getTime() - lastHeartbeat.getTime();
-    if (elapsedTimeSinceHeartbeat < 45 * 1000) {
+    if (reconnecting.get()) {
+      return;
+    }
+    long timeout = conventions.getChangesHeartbeatTimeout();
+    long elapsedTimeSinceHeartbeat = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastHeartbeat);
+    if (elapsedTimeSinceHeartbeat < timeout) {
       return;
     }
-    onError(new TimeoutException("Over 45 seconds have passed since we got a server heartbeat, even though we should get one every 10 seconds or so.\r\n This connection is now presumed dead, and will attempt reconnection"));
+    onError(connectionGeneration.get(), new TimeoutException("Over " + timeout + " ms have passed since we got a server heartbeat, even though we should get one every 10 seconds or so.\r\n This connection is now presumed dead, and will attempt reconnection"));
   }
 
   protected void send(String command, String value) {
     synchronized (this) {
-      logger.info("Sending command %s - %s to %s with id %s", command, value, url, id);
+      sendCommand(command, value);
+    }
+  }
 
-      String sendUrl = url + "/changes/config?id=" + id + "&command=" + command;
-      if (StringUtils.isNotEmpty(value)) {
-        sendUrl += "&value=" + UrlUtils.escapeUriString(value);
+  /**
+   * Sends many commands using up to changesRestoreParallelism concurrent requests.
+   * Other commands are blocked until all of them are sent, so subscribe/unsubscribe order is preserved.
+   * @param commands list of (command, value) pairs
+   */
+  protected void sendAll(List<Tuple<String, String>> commands) {
+    synchronized (this) {
+      int parallelism = Math.min(conventions.getChangesRestoreParallelism(), commands.size());
+      if (parallelism <= 1) {
+        for (Tuple<String, String> command : commands) {
+          sendCommand(command.getItem1(), command.getItem2());
+        }
+        return;
       }
 
-      CreateHttpJsonRequestParams requestParams = new CreateHttpJsonRequestParams(null, sendUrl, HttpMethods.GET, null, credentials, conventions);
-      requestParams.setAvoidCachingRequest(true);
-      try (HttpJsonRequest request = jsonRequestFactory.createHttpJsonRequest(requestParams)) {
-        request.executeRequest();
+      final Queue<Tuple<String, String>> pending = new ConcurrentLinkedQueue<>(commands);
+      ThreadPoolExecutor executor = getSendExecutor(parallelism);
+      try {
+        List<Future<?>> workers = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+          workers.add(executor.submit(new Runnable() {
+            @Override
+            public void run() {
+              Tuple<String, String> command;
+              while ((command = pending.poll()) != null) {
+                sendCommand(command.getItem1(), command.getItem2());
+              }
+            }
+          }));
+        }
+        for (Future<?> worker : workers) {
+          worker.get();
+        }
+      } catch (InterruptedException e) {
+        pending.clear();
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      } catch (ExecutionException e) {
+        pending.clear();
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new IllegalStateException(e.getCause());
       }
     }
   }
 
+  /**
+   * Executor is reused by all resubscribes, its idle threads time out.
+   */
+  private ThreadPoolExecutor getSendExecutor(int parallelism) {
+    if (sendExecutor == null) {
+      sendExecutor = new ThreadPoolExecutor(parallelism, parallelism, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+        private final AtomicInteger counter = new AtomicInteger();
+        @Override
+        public Thread newThread(Runnable r) {
+          Thread thread = new Thread(r, "Changes subscriptions " + id + " " + counter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      sendExecutor.allowCoreThreadTimeOut(true);
+    } else if (sendExecutor.getMaximumPoolSize() < parallelism) {
+      sendExecutor.setMaximumPoolSize(parallelism);
+      sendExecutor.setCorePoolSize(parallelism);
+    }
+    return sendExecutor;
+  }
+
+  private void sendCommand(String command, String value) {
+    logger.info("Sending command %s - %s to %s with id %s", command, value, url, id);
+
+    String sendUrl = url + "/changes/config?id=" + id + "&command=" + command;
+    if (StringUtils.isNotEmpty(value)) {
+      sendUrl += "&value=" + UrlUtils.escapeUriString(value);
+    }
+
+    CreateHttpJsonRequestParams requestParams = new CreateHttpJsonRequestParams(null, sendUrl, HttpMethods.GET, null, credentials, conventions);
+    requestParams.setAvoidCachingRequest(true);
+    try (HttpJsonRequest request = jsonRequestFactory.createHttpJsonRequest(requestParams)) {
+      request.executeRequest();
+    }
+  }
+
+  protected RavenJToken getJson(String relativeUrl) {
+    CreateHttpJsonRequestParams requestParams = new CreateHttpJsonRequestParams(null, url + relativeUrl, HttpMethods.GET, null, credentials, conventions);
+    requestParams.setAvoidCachingRequest(true);
+    try (HttpJsonRequest request = jsonRequestFactory.createHttpJsonRequest(requestParams)) {
+      return request.readResponseJson();
+    }
+  }
+
   @Override
   public void close() {
     if (disposed) {
@@ -219,6 +358,13 @@ public abstract class RemoteChangesClientBase<TChangesApi extends IConnectableCh
 
     send("disconnect", null);
 
+    synchronized (this) {
+      if (sendExecutor != null) {
+        sendExecutor.shutdownNow();
+        sendExecutor = null;
+      }
+    }
+
     try {
       if (connection != null) {
         connection.close();
@@ -228,54 +374,95 @@ public abstract class RemoteChangesClientBase<TChangesApi extends IConnectableCh
     }
   }
 
+  /**
+   * Handles error of current connection.
+   */
   @Override
   public void onError(Exception error) {
+    onError(connectionGeneration.get(), error);
+  }
+
+  private void onError(int generation, Exception error) {
+    if (generation != connectionGeneration.get()) {
+      logger.debug("Ignoring error of replaced connection to %s on id %s", url, id);
+      return;
+    }
     logger.errorException("Got error from server connection for " + url + " on id " + id, error);
-    renewConnection();
+    renewConnection(generation);
   }
 
-  private void renewConnection() {
-    try {
-      Thread.sleep(15000);
-    } catch (InterruptedException e) {
-      // ignore
+  private void renewConnection(int generation) {
+    if (!reconnecting.compareAndSet(false, true)) {
+      return;
     }
     try {
+      if (generation != connectionGeneration.get()) {
+        // connection was already replaced
+        return;
+      }
+      connectionGeneration.incrementAndGet();
+      closeConnection();
+      if (connected) {
+        connected = false;
+        EventHelper.invoke(connectionStatusChanged, this, EventArgs.EMPTY);
+      }
+      try {
+        Thread.sleep(getReconnectDelay(0));
+      } catch (InterruptedException e) {
+        // ignore
+      }
       establishConnection();
     } catch (Exception e) {
       for (Map.Entry<String, DatabaseConnectionState> keyValuePair : counters) {
         keyValuePair.getValue().error(e);
       }
       counters.clear();
+    } finally {
+      reconnecting.set(false);
+    }
+  }
+
+  private void closeConnection() {
+    Closeable oldConnection = connection;
+    connection = null;
+    try {
+      if (oldConnection != null) {
+        oldConnection.close();
+      }
+    } catch (Exception e) {
+      logger.warnException("Unable to close connection to " + url + " on id " + id, e);
     }
   }
 
+  /**
+   * Handles message of current connection.
+   */
   @Override
   public void onNext(String dataFromConnection) {
-    lastHeartbeat = new Date();
+    onNext(connectionGeneration.get(), dataFromConnection);
+  }
+
+  private void onNext(int generation, String dataFromConnection) {
+    if (generation != connectionGeneration.get()) {
+      return;
+    }
+    lastHeartbeat = System.nanoTime();
     RavenJObject ravenJObject = RavenJObject.parse(dataFromConnection);
     RavenJObject value = ravenJObject.value(RavenJObject.class, "Value");
     String type = ravenJObject.value(String.class, "Type");
 
     logger.debug("Got notification from %s id %s of type %s", url, id, dataFromConnection);
 
-    try {
-      switch (type) {
-        case "Disconnect":
-          if (connection != null) {
-            connection.close();
-          }
-          renewConnection();
-          break;
-        case "Initialized":
-        case "Heartbeat":
-          break;
-        default:
-          notifySubscribers(type, value, counters.getValuesSnapshot());
-          break;
-      }
-    } catch (IOException e) {
-      throw new RuntimeException(e);
+    switch (type) {
+      case "Disconnect":
+        renewConnection(generation);
+        break;
+      case "Initialized":
+      case "Heartbeat":
+        break;
+      default:
+        notifySubscribers(type, value, counters.getValuesSnapshot());
+        break;
     }
   }
 
@@ -289,4 +476,32 @@ public abstract class RemoteChangesClientBase<TChangesApi extends IConnectableCh
     //empty by design
   }
 
+  /**
+   * Observes single connection, so late callbacks of connection which was already replaced don't affect current one.
+   */
+  private class ConnectionObserver implements IObserver<String> {
+    private final int generation;
+
+    public ConnectionObserver(int generation) {
+      this.generation = generation;
+    }
+
+    @SuppressWarnings("synthetic-access")
+    @Override
+    public void onNext(String value) {
+      RemoteChangesClientBase.this.onNext(generation, value);
+    }
+
+    @SuppressWarnings("synthetic-access")
+    @Override
+    public void onError(Exception error) {
+      RemoteChangesClientBase.this.onError(generation, error);
+    }
+
+    @Override
+    public void onCompleted() {
+      RemoteChangesClientBase.this.onCompleted();
+    }
+  }
+
 }
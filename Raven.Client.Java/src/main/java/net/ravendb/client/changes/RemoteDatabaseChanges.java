@@ -1,11 +1,16 @@
 package net.ravendb.client.changes;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import net.ravendb.abstractions.basic.EventHandler;
+import net.ravendb.abstractions.basic.EventHelper;
 import net.ravendb.abstractions.basic.ExceptionEventArgs;
+import net.ravendb.abstractions.basic.Tuple;
 import net.ravendb.abstractions.closure.Action0;
 import net.ravendb.abstractions.closure.Action1;
 import net.ravendb.abstractions.closure.Function1;
@@ -40,6 +45,9 @@ public class RemoteDatabaseChanges extends RemoteChangesClientBase<IDatabaseChan
   @SuppressWarnings("hiding")
   protected DocumentConvention conventions;
 
+  private final List<EventHandler<MissedChangesEventArgs>> missedChanges = new CopyOnWriteArrayList<>();
+  private volatile Etag lastDocumentEtag;
+
   private final Function4<String, Etag, String[] , OperationMetadata, Boolean> tryResolveConflictByUsingRegisteredConflictListeners;
 
 
@@ -53,50 +61,74 @@ public class RemoteDatabaseChanges extends RemoteChangesClientBase<IDatabaseChan
 
 
   @Override
-  protected void subscribeOnServer() {
+  public void addMissedChanges(EventHandler<MissedChangesEventArgs> handler) {
+    missedChanges.add(handler);
+  }
+
+  @Override
+  public void removeMissedChanges(EventHandler<MissedChangesEventArgs> handler) {
+    missedChanges.remove(handler);
+  }
 
+  @Override
+  protected void subscribeOnServer() {
+    List<Tuple<String, String>> commands = new ArrayList<>();
     if (watchAllDocs) {
-      send("watch-docs", null);
+      commands.add(Tuple.<String, String> create("watch-docs", null));
     }
     if (watchAllIndexes) {
-      send("watch-indexes", null);
+      commands.add(Tuple.<String, String> create("watch-indexes", null));
     }
     if (watchAllTransformers) {
-      send("watch-transformers", null);
+      commands.add(Tuple.<String, String> create("watch-transformers", null));
     }
     if (watchAllDataSubscriptions) {
-      send("watch-data-subscriptions", null);
-    }
-    if (watchedDocs != null) {
-      for (String watchedDoc : watchedDocs) {
-        send("watch-doc", watchedDoc);
-      }
+      commands.add(Tuple.<String, String> create("watch-data-subscriptions", null));
     }
-    if (watchedPrefixes != null) {
-      for (String watchedPrefix : watchedPrefixes) {
-        send("watch-prefix", watchedPrefix);
-      }
+    addCommands(commands, "watch-doc", watchedDocs);
+    addCommands(commands, "watch-prefix", watchedPrefixes);
+    addCommands(commands, "watch-collection", watchedCollections);
+    addCommands(commands, "watch-type", watchedTypes);
+    addCommands(commands, "watch-index", watchedIndexes);
+    addCommands(commands, "watch-bulk-operation", watchedBulkInserts);
+    sendAll(commands);
+  }
+
+  private static void addCommands(List<Tuple<String, String>> commands, String command, Iterable<String> values) {
+    // fields are not initialized yet when first connection is established from base constructor
+    if (values == null) {
+      return;
     }
-    if (watchedCollections != null) {
-      for (String watchedCollection : watchedCollections) {
-        send("watch-collection", watchedCollection);
-      }
+    for (String value : values) {
+      commands.add(Tuple.create(command, value));
     }
-    if (watchedTypes != null) {
-      for (String watchedType : watchedTypes) {
-        send("watch-type", watchedType);
-      }
+  }
+
+  /**
+   * Compares etag of last received document notification with last document etag on server.
+   * Notifications about documents which weren't watched aren't received, so unless all documents are watched
+   * MissedChanges can be raised even if nothing relevant changed.
+   */
+  @Override
+  protected void onConnectionRestored() {
+    if (missedChanges.isEmpty()) {
+      return;
     }
-    if (watchedIndexes != null) {
-      for (String watchedIndex : watchedIndexes) {
-        send("watch-indexes", watchedIndex);
-      }
+    Etag lastSeenEtag = lastDocumentEtag;
+    Etag serverEtag = null;
+    try {
+      serverEtag = Etag.parse(getJson("/stats").value(String.class, "LastDocEtag"));
+    } catch (Exception e) {
+      logger.warnException("Unable to get last document etag after reconnect", e);
     }
-    if (watchedBulkInserts != null) {
-      for (String watchedBulkInsert : watchedBulkInserts) {
-        send("watch-bulk-operation", watchedBulkInsert);
+    if (serverEtag != null) {
+      if (serverEtag.equals(lastSeenEtag)) {
+        return;
       }
+      lastDocumentEtag = serverEtag;
     }
+    logger.info("Changes might have been missed while disconnected, last seen etag: %s, server etag: %s", lastSeenEtag, serverEtag);
+    EventHelper.invoke(missedChanges, this, new MissedChangesEventArgs(lastSeenEtag, serverEtag));
   }
 
 
@@ -107,6 +139,10 @@ public class RemoteDatabaseChanges extends RemoteChangesClientBase<IDatabaseChan
     switch (type) {
       case "DocumentChangeNotification":
         DocumentChangeNotification documentChangeNotification = serializer.deserialize(value.toString(), DocumentChangeNotification.class);
+        Etag etag = documentChangeNotification.getEtag();
+        if (etag != null && (lastDocumentEtag == null || etag.compareTo(lastDocumentEtag) > 0)) {
+          lastDocumentEtag = etag;
+        }
         for (DatabaseConnectionState counter : connections) {
           counter.send(documentChangeNotification);
         }
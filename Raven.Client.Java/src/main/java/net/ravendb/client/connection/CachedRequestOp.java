@@ -3,6 +3,7 @@ package net.ravendb.client.connection;
 public class CachedRequestOp {
   private CachedRequest cachedRequest;
   private boolean skipServerCheck;
+  private boolean revalidate;
 
   public CachedRequestOp() {
     super();
@@ -14,6 +15,11 @@ public class CachedRequestOp {
     this.skipServerCheck = skipServerCheck;
   }
 
+  public CachedRequestOp(CachedRequest cachedRequest, boolean skipServerCheck, boolean revalidate) {
+    this(cachedRequest, skipServerCheck);
+    this.revalidate = revalidate;
+  }
+
   /**
    * @return the cachedRequest
    */
@@ -42,4 +48,18 @@ public class CachedRequestOp {
     this.skipServerCheck = skipServerCheck;
   }
 
+  /**
+   * @return true if stale cached response is served and should be refreshed in background
+   */
+  public boolean isRevalidate() {
+    return revalidate;
+  }
+
+  /**
+   * @param revalidate the revalidate to set
+   */
+  public void setRevalidate(boolean revalidate) {
+    this.revalidate = revalidate;
+  }
+
 }
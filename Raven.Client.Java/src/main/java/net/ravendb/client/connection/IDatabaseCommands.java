@@ -810,6 +810,32 @@ public interface IDatabaseCommands extends IHoldProfilingInformation {
    */
   public CloseableIterator<RavenJObject> streamDocs(Etag fromEtag, String startsWith, String matches, int start, int pageSize, String exclude, RavenPagingInformation pagingInformation, String skipAfter);
 
+  /**
+   * Streams the documents by etag OR starts with the prefix and match the matches, reopening the stream
+   * (possibly on replica) when connection fails. Stream is resumed after last delivered document: by key when
+   * streaming by prefix, by etag otherwise, so documents aren't returned twice. Documents which aren't streamed
+   * by prefix are returned in etag order, also when fromEtag is null.
+   * @param fromEtag ETag of a document from which stream should start (mutually exclusive with 'startsWith')
+   * @param startsWith Prefix for which documents should be streamed (mutually exclusive with 'fromEtag')
+   * @param matches Pipe ('|') separated values for which document keys (after 'keyPrefix') should be matched ('?' any single character, '*' any characters)
+   * @param start Number of documents that should be skipped
+   * @param pageSize Maximum number of documents that will be retrieved
+   * @param exclude Pipe ('|') separated values for which document keys (after 'keyPrefix') should not be matched ('?' any single character, '*' any characters)
+   * @param checkpoint Checkpoint of previous (interrupted) stream with the same parameters or null to start new stream
+   */
+  public ResumableStreamIterator streamDocsResumable(Etag fromEtag, String startsWith, String matches, int start, int pageSize, String exclude, StreamCheckpoint checkpoint);
+
+  /**
+   * Queries the specified index and streams *all* results, reopening the stream (possibly on replica) when
+   * connection fails. Stream is resumed at position of first result which wasn't delivered yet, so it assumes
+   * results are returned in stable order (i.e. query is sorted by unique field and index isn't updated meanwhile).
+   * @param index Name of an index to query
+   * @param query Query definition containing all information required to query a specified index
+   * @param queryHeaderInfo Information about performed query
+   * @param checkpoint Checkpoint of previous (interrupted) stream of the same query or null to start new stream
+   */
+  public ResumableStreamIterator streamQueryResumable(String index, IndexQuery query, Reference<QueryHeaderInformation> queryHeaderInfo, StreamCheckpoint checkpoint);
+
   /**
    * Return a list of documents that based on the MoreLikeThisQuery.
    * @param query More like this query definition that will be executed
@@ -10,6 +10,7 @@ import net.ravendb.abstractions.basic.Reference;
 import net.ravendb.abstractions.closure.Function1;
 import net.ravendb.abstractions.connection.OperationCredentials;
 import net.ravendb.abstractions.data.HttpMethods;
+import net.ravendb.client.connection.ReplicaHealthChecker.CircuitState;
 import net.ravendb.client.connection.ReplicationInformer.FailoverStatusChangedEventArgs;
 import org.apache.http.HttpStatus;
 
@@ -52,6 +53,12 @@ public interface IReplicationInformerBase<T> extends CleanCloseable {
    */
   public Date getFailureLastCheck(String operationUrl);
 
+  /**
+   * Get the state of circuit breaker for the url
+   * @param operationUrl
+   */
+  public CircuitState getCircuitState(String operationUrl);
+
   public int getReadStripingBase(boolean increment);
 
   public <S> S executeWithReplication(HttpMethods method, String primaryUrl, OperationCredentials primaryCredentials, int currentRequest,
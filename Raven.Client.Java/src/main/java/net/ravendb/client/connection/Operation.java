@@ -1,13 +1,43 @@
 package net.ravendb.client.connection;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import net.ravendb.abstractions.basic.Tuple;
+import net.ravendb.abstractions.closure.Action1;
 import net.ravendb.abstractions.closure.Function1;
 import net.ravendb.abstractions.json.linq.RavenJObject;
 import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.abstractions.logging.ILog;
+import net.ravendb.abstractions.logging.LogManager;
 
+/**
+ * Long running server operation (set based operations, compaction, restore).
+ *
+ * Completion can be awaited ({@link #waitForCompletion()}), observed as future ({@link #waitForCompletionAsync()})
+ * or callbacks ({@link #whenCompleted(Action1, Action1)}). Status is polled by shared {@link OperationStatusPoller},
+ * so awaiting many operations doesn't block thread per operation.
+ */
 public class Operation {
+
+  private static final ILog logger = LogManager.getCurrentClassLogger();
+
   private long id;
   private RavenJToken state;
   private Function1<Long, RavenJToken> statusFetcher;
+  private OperationStatusPoller poller = OperationStatusPoller.getDefault();
+  private long minPollDelay = 50;
+  private long maxPollDelay = 2000;
+
+  private final Object lock = new Object();
+  private CompletionFuture completion;
+  private Action1<RavenJToken> progressHandler;
+  private RavenJToken lastProgress;
+  private long pollDelay;
 
   public Operation(final ServerClient client, long id) {
     this(new Function1<Long, RavenJToken>() {
@@ -18,6 +48,8 @@ public class Operation {
       }
     }, id);
     this.id = id;
+    this.minPollDelay = client.convention.getOperationStatusPollMinDelay();
+    this.maxPollDelay = client.convention.getOperationStatusPollMaxDelay();
   }
 
   public Operation(Function1<Long, RavenJToken> statusFetcher, long id) {
@@ -31,30 +63,204 @@ public class Operation {
     this.state = state;
   }
 
-  @SuppressWarnings("boxing")
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * Poller used to track this operation (must be set before completion is awaited)
+   * @param poller
+   */
+  public void setPoller(OperationStatusPoller poller) {
+    this.poller = poller;
+  }
+
+  /**
+   * Sets delays between polls of operation status: delay starts at minPollDelay, doubles with each poll
+   * up to maxPollDelay and is reset when operation reports progress.
+   * @param minPollDelay
+   * @param maxPollDelay
+   */
+  public void setPollDelays(long minPollDelay, long maxPollDelay) {
+    this.minPollDelay = minPollDelay;
+    this.maxPollDelay = Math.max(minPollDelay, maxPollDelay);
+  }
+
+  /**
+   * Registers handler called with operation state, each time state of running operation changes.
+   * Handler is called from poller thread, its failures are logged and don't stop tracking of operation.
+   * @param progressHandler
+   */
+  public Operation onProgress(Action1<RavenJToken> progressHandler) {
+    this.progressHandler = progressHandler;
+    return this;
+  }
+
+  /**
+   * Waits for operation to complete.
+   * @return operation state (or null if operation doesn't exist on server)
+   */
   public RavenJToken waitForCompletion() {
-    if (statusFetcher == null)
-      return state;
-
-    while (true) {
-      RavenJToken status = statusFetcher.apply(id);
-      if (status == null) {
-        return null;
-      }
-      if (status.value(Boolean.class, "Completed")) {
-        boolean faulted = status.value(Boolean.TYPE, "Faulted");
-        if (faulted) {
-          RavenJObject error = status.value(RavenJObject.class, "State");
-          String errorMessage = error.value(String.class, "Error");
-          throw new IllegalStateException("Operation failed: " + errorMessage);
+    try {
+      return waitForCompletionAsync().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for operation " + id, e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * Starts tracking operation in shared poller (if not started yet).
+   * @return future completed with operation state, or failed when operation faulted
+   */
+  public Future<RavenJToken> waitForCompletionAsync() {
+    synchronized (lock) {
+      if (completion != null) {
+        return completion;
+      }
+      completion = new CompletionFuture();
+      if (statusFetcher == null) {
+        completion.complete(state);
+        return completion;
+      }
+      pollDelay = minPollDelay;
+    }
+    poller.track(this);
+    return completion;
+  }
+
+  /**
+   * Registers callbacks called (from poller thread) when operation completes.
+   * @param onCompleted called with operation state
+   * @param onFailed called when operation faulted or its status could not be retrieved
+   */
+  public void whenCompleted(Action1<RavenJToken> onCompleted, Action1<Exception> onFailed) {
+    CompletionFuture future = (CompletionFuture) waitForCompletionAsync();
+    future.addCallback(onCompleted, onFailed);
+  }
+
+  /**
+   * Fetches status of operation once.
+   * @return delay (in milliseconds) before next poll, or -1 when operation is completed
+   */
+  @SuppressWarnings("boxing")
+  long poll() {
+    RavenJToken status;
+    try {
+      status = statusFetcher.apply(id);
+    } catch (RuntimeException e) {
+      completion.fail(e);
+      return -1;
+    }
+    if (status == null) {
+      completion.complete(null);
+      return -1;
+    }
+    if (Boolean.TRUE.equals(status.value(Boolean.class, "Completed"))) {
+      if (Boolean.TRUE.equals(status.value(Boolean.class, "Faulted"))) {
+        RavenJObject error = status.value(RavenJObject.class, "State");
+        String errorMessage = error != null ? error.value(String.class, "Error") : null;
+        completion.fail(new IllegalStateException("Operation failed: " + errorMessage));
+      } else {
+        completion.complete(status.value(RavenJToken.class, "State"));
+      }
+      return -1;
+    }
+
+    RavenJToken progress = status.value(RavenJToken.class, "State");
+    if (progress != null && (lastProgress == null || !RavenJToken.deepEquals(progress, lastProgress))) {
+      lastProgress = progress;
+      pollDelay = minPollDelay;
+      if (progressHandler != null) {
+        try {
+          progressHandler.apply(progress);
+        } catch (RuntimeException e) {
+          logger.warnException("Progress handler of operation " + id + " failed", e);
+        }
+      }
+      return pollDelay;
+    }
+    long delay = pollDelay;
+    pollDelay = Math.min(pollDelay * 2, maxPollDelay);
+    return delay;
+  }
+
+  /**
+   * Fails operation when its status can't be processed, so waiting threads and callbacks are released.
+   */
+  void fail(Exception e) {
+    completion.fail(e);
+  }
+
+  private static class CompletionFuture extends FutureTask<RavenJToken> {
+    private final List<Tuple<Action1<RavenJToken>, Action1<Exception>>> callbacks = new ArrayList<>();
+    private boolean callbacksInvoked;
+
+    public CompletionFuture() {
+      super(new Callable<RavenJToken>() {
+        @Override
+        public RavenJToken call() throws Exception {
+          throw new IllegalStateException("Completion of operation is set by poller");
+        }
+      });
+    }
+
+    public void complete(RavenJToken value) {
+      set(value);
+    }
+
+    public void fail(Exception exception) {
+      setException(exception);
+    }
+
+    public void addCallback(Action1<RavenJToken> onCompleted, Action1<Exception> onFailed) {
+      synchronized (callbacks) {
+        if (!callbacksInvoked) {
+          callbacks.add(Tuple.create(onCompleted, onFailed));
+          return;
         }
+      }
+      invoke(onCompleted, onFailed);
+    }
 
-        return status.value(RavenJToken.class, "State");
+    @Override
+    protected void done() {
+      List<Tuple<Action1<RavenJToken>, Action1<Exception>>> toInvoke;
+      synchronized (callbacks) {
+        callbacksInvoked = true;
+        toInvoke = new ArrayList<>(callbacks);
+        callbacks.clear();
       }
+      for (Tuple<Action1<RavenJToken>, Action1<Exception>> callback : toInvoke) {
+        try {
+          invoke(callback.getItem1(), callback.getItem2());
+        } catch (RuntimeException e) {
+          logger.warnException("Completion callback of operation failed", e);
+        }
+      }
+    }
+
+    private void invoke(Action1<RavenJToken> onCompleted, Action1<Exception> onFailed) {
+      RavenJToken value;
       try {
-        Thread.sleep(500);
+        value = get();
+      } catch (ExecutionException e) {
+        if (onFailed != null) {
+          onFailed.apply(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        }
+        return;
       } catch (InterruptedException e) {
-        /*ignore */
+        // future is already done, so get() doesn't block
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (onCompleted != null) {
+        onCompleted.apply(value);
       }
     }
   }
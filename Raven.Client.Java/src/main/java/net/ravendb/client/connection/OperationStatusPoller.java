@@ -0,0 +1,91 @@
+package net.ravendb.client.connection;
+
+import java.io.Closeable;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.abstractions.logging.ILog;
+import net.ravendb.abstractions.logging.LogManager;
+
+/**
+ * Tracks status of many long running operations using small pool of threads.
+ * Each tracked operation is polled with its own (adaptive) delay, threads are not blocked between polls.
+ */
+public class OperationStatusPoller implements Closeable {
+
+  private static final ILog logger = LogManager.getCurrentClassLogger();
+
+  private static final OperationStatusPoller DEFAULT = new OperationStatusPoller(2);
+
+  private final ScheduledThreadPoolExecutor executor;
+  private final AtomicInteger trackedOperations = new AtomicInteger();
+
+  /**
+   * @return poller shared by all operations which don't have poller set explicitly
+   */
+  public static OperationStatusPoller getDefault() {
+    return DEFAULT;
+  }
+
+  public OperationStatusPoller(int threads) {
+    executor = new ScheduledThreadPoolExecutor(threads, new ThreadFactory() {
+      private final AtomicInteger counter = new AtomicInteger();
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "Operation status poller " + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    executor.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * Starts polling status of operation, until operation completes.
+   * @param operation
+   */
+  public void track(Operation operation) {
+    trackedOperations.incrementAndGet();
+    schedule(operation, 0);
+  }
+
+  /**
+   * @return number of operations which are still polled (operation stops being polled right after its completion)
+   */
+  public int getTrackedOperationsCount() {
+    return trackedOperations.get();
+  }
+
+  private void schedule(final Operation operation, long delay) {
+    executor.schedule(new Runnable() {
+      @Override
+      public void run() {
+        long nextDelay;
+        RuntimeException failure = null;
+        try {
+          nextDelay = operation.poll();
+        } catch (RuntimeException e) {
+          logger.warnException("Unable to poll status of operation " + operation.getId(), e);
+          failure = e;
+          nextDelay = -1;
+        }
+        if (nextDelay < 0) {
+          trackedOperations.decrementAndGet();
+          if (failure != null) {
+            // otherwise nobody would complete the operation
+            operation.fail(failure);
+          }
+        } else {
+          schedule(operation, nextDelay);
+        }
+      }
+    }, delay, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,266 @@
+package net.ravendb.client.connection;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.basic.EventHandler;
+import net.ravendb.abstractions.closure.Function0;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.IndexChangeNotification;
+import net.ravendb.abstractions.data.IndexQuery;
+import net.ravendb.abstractions.data.QueryResult;
+import net.ravendb.abstractions.logging.ILog;
+import net.ravendb.abstractions.logging.LogManager;
+import net.ravendb.client.changes.IDatabaseChanges;
+import net.ravendb.client.changes.MissedChangesEventArgs;
+import net.ravendb.client.changes.ObserverAdapter;
+
+/**
+ * Client side cache of query results of single database, keyed by query (index, normalized query string, options).
+ *
+ * Cached result is valid as long as index etag it was computed for is the latest known etag of its index:
+ * newer etag returned by any query on the index, or change notification of the index (Changes API) invalidates it.
+ * Only results of queries sent after changes of the index are observed are cached, see {@link #watchIndex(String)}.
+ * Stale results are not cached. Callers get snapshots of cached result, so it is shared without copying.
+ */
+public class QueryResultCache implements CleanCloseable {
+
+  private static final ILog logger = LogManager.getCurrentClassLogger();
+
+  private final int maxSize;
+  private final Function0<IDatabaseChanges> changesProvider;
+
+  private final ConcurrentMap<List<Object>, QueryResult> results = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Etag> indexEtags = new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+  private final ConcurrentMap<String, CleanCloseable> indexSubscriptions = new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+  private final AtomicLong generation = new AtomicLong();
+  private final AtomicInteger hits = new AtomicInteger();
+  private final AtomicInteger misses = new AtomicInteger();
+
+  private final Object changesLock = new Object();
+  private IDatabaseChanges changes;
+  private EventHandler<MissedChangesEventArgs> missedChangesHandler;
+  private volatile boolean closed;
+
+  /**
+   * @param maxSize maximum number of cached results (cache is cleared when it is reached)
+   * @param changesProvider Changes API of database, connected when first index is watched
+   */
+  public QueryResultCache(int maxSize, Function0<IDatabaseChanges> changesProvider) {
+    this.maxSize = maxSize;
+    this.changesProvider = changesProvider;
+  }
+
+  /**
+   * Results of queries waiting for non stale results, with includes or transformers (which can load documents
+   * not tracked by index etag) are not cached.
+   */
+  public static boolean isCacheable(IndexQuery query, String[] includes, boolean indexEntriesOnly) {
+    return !query.isDisableCaching()
+      && !query.isWaitForNonStaleResults()
+      && !query.isWaitForNonStaleResultsAsOfNow()
+      && query.getCutoff() == null
+      && query.getCutoffEtag() == null
+      && !query.isShowTimings()
+      && query.getResultsTransformer() == null
+      && (includes == null || includes.length == 0)
+      && !indexEntriesOnly;
+  }
+
+  /**
+   * Key of query in cache
+   */
+  public static List<Object> createKey(String index, IndexQuery query, boolean metadataOnly) {
+    return Arrays.<Object>asList(index.toLowerCase(), query.getIndexQueryUrl("", index, "indexes", true, true), metadataOnly);
+  }
+
+  /**
+   * Subscribes to changes of index before its query is sent to server (returns once server confirmed the subscription),
+   * so change of index made while result is computed can't be missed. Dynamic indexes are resolved by server,
+   * changes of the resolved index are watched when first result of the query arrives (that result isn't cached).
+   * @return false if changes of index can't be observed (query shouldn't be cached)
+   */
+  public boolean watchIndex(String indexName) {
+    if (isDynamicIndex(indexName)) {
+      return !closed;
+    }
+    return subscribe(indexName);
+  }
+
+  private static boolean isDynamicIndex(String indexName) {
+    return "dynamic".equalsIgnoreCase(indexName) || indexName.toLowerCase().startsWith("dynamic/");
+  }
+
+  /**
+   * Generation has to be read after {@link #watchIndex(String)} and before query is sent to server and passed
+   * to {@link #put(List, QueryResult, long)}, so result computed before invalidation isn't cached after it.
+   */
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * @return snapshot of cached result of query or null if there is no valid cached result
+   */
+  public QueryResult get(List<Object> key) {
+    QueryResult cached = results.get(key);
+    if (cached == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    Etag latestEtag = indexEtags.get(cached.getIndexName());
+    if (latestEtag == null || !latestEtag.equals(cached.getIndexEtag())) {
+      results.remove(key, cached);
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    QueryResult snapshot = cached.createSnapshot();
+    snapshot.setDurationMiliseconds(-1);
+    return snapshot;
+  }
+
+  /**
+   * Caches result of query (if it isn't stale and is computed for the latest known etag of its index).
+   * @param generation generation read before query was sent to server
+   * @return result which should be returned to caller
+   */
+  public QueryResult put(List<Object> key, QueryResult result, long generation) {
+    String indexName = result.getIndexName();
+    Etag indexEtag = result.getIndexEtag();
+    if (closed || result.isStale() || indexName == null || indexEtag == null) {
+      return result;
+    }
+    if (!indexSubscriptions.containsKey(indexName)) {
+      // changes of index weren't observed while result was computed (i.e. index resolved from dynamic query)
+      subscribe(indexName);
+      return result;
+    }
+    while (true) {
+      Etag latestEtag = indexEtags.get(indexName);
+      if (latestEtag == null) {
+        if (indexEtags.putIfAbsent(indexName, indexEtag) == null) {
+          break;
+        }
+      } else if (latestEtag.equals(indexEtag)) {
+        break;
+      } else if (latestEtag.compareTo(indexEtag) < 0) {
+        if (indexEtags.replace(indexName, latestEtag, indexEtag)) {
+          break;
+        }
+      } else {
+        // result from server which didn't catch up with index yet (replica)
+        return result;
+      }
+    }
+    if (this.generation.get() != generation) {
+      // index changed while query was executed - result (and its etag) may be outdated
+      indexEtags.remove(indexName, indexEtag);
+      return result;
+    }
+    if (results.size() >= maxSize) {
+      results.clear();
+    }
+    result.ensureSnapshot();
+    results.put(key, result);
+    return result.createSnapshot();
+  }
+
+  /**
+   * Removes cached results of given index
+   * @param indexName
+   */
+  public void invalidateIndex(String indexName) {
+    generation.incrementAndGet();
+    indexEtags.remove(indexName);
+  }
+
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    indexEtags.clear();
+    results.clear();
+  }
+
+  public int size() {
+    return results.size();
+  }
+
+  public int getHitsCount() {
+    return hits.get();
+  }
+
+  public int getMissesCount() {
+    return misses.get();
+  }
+
+  /**
+   * Subscribes to changes of index (once per index). New subscription starts new generation, so results which were
+   * computed before it went live aren't cached.
+   * @return false if changes of index can't be observed (results of index can't be cached)
+   */
+  private boolean subscribe(final String indexName) {
+    if (indexSubscriptions.containsKey(indexName)) {
+      return true;
+    }
+    synchronized (changesLock) {
+      if (closed) {
+        return false;
+      }
+      if (indexSubscriptions.containsKey(indexName)) {
+        return true;
+      }
+      try {
+        if (changes == null) {
+          changes = changesProvider.apply();
+          missedChangesHandler = new EventHandler<MissedChangesEventArgs>() {
+            @Override
+            public void handle(Object sender, MissedChangesEventArgs event) {
+              invalidateAll();
+            }
+          };
+          changes.addMissedChanges(missedChangesHandler);
+        }
+        CleanCloseable subscription = changes.forIndex(indexName).subscribe(new ObserverAdapter<IndexChangeNotification>() {
+          @Override
+          public void onNext(IndexChangeNotification value) {
+            invalidateIndex(indexName);
+          }
+
+          @Override
+          public void onError(Exception error) {
+            invalidateAll();
+          }
+        });
+        changes.waitForAllPendingSubscriptions();
+        indexSubscriptions.put(indexName, subscription);
+        generation.incrementAndGet();
+        return true;
+      } catch (RuntimeException e) {
+        logger.warnException("Unable to observe changes of index " + indexName + ", its query results won't be cached", e);
+        return false;
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    synchronized (changesLock) {
+      closed = true;
+      for (Map.Entry<String, CleanCloseable> subscription : indexSubscriptions.entrySet()) {
+        subscription.getValue().close();
+      }
+      indexSubscriptions.clear();
+      if (changes != null) {
+        changes.removeMissedChanges(missedChangesHandler);
+      }
+    }
+    invalidateAll();
+  }
+}
@@ -142,7 +142,7 @@ public class RavenJObjectIterator implements CloseableIterator<RavenJObject> {
     try {
       fetchNextObject();
     } catch (IOException e) {
-      throw new JsonReaderException("Unable to read object");
+      throw new JsonReaderException("Unable to read object", e);
     }
     return current;
   }
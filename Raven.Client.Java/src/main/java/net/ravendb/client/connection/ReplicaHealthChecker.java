@@ -0,0 +1,122 @@
+package net.ravendb.client.connection;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.basic.EventHandler;
+import net.ravendb.abstractions.basic.EventHelper;
+import net.ravendb.abstractions.logging.ILog;
+import net.ravendb.abstractions.logging.LogManager;
+import net.ravendb.client.connection.ReplicationInformer.FailoverStatusChangedEventArgs;
+
+/**
+ * Runs health probes of failing nodes and background refreshes of replication topology for all replication informers
+ * of document store, using single small pool of threads.
+ * Probes are scheduled (not slept on), so request threads never wait for them.
+ * Listeners registered here are notified about every node going down or up.
+ */
+public class ReplicaHealthChecker implements CleanCloseable {
+
+  private static final ILog logger = LogManager.getCurrentClassLogger();
+
+  /**
+   * State of circuit breaker kept for each node.
+   */
+  public enum CircuitState {
+    /**
+     * Node is healthy, requests are sent to it.
+     */
+    CLOSED,
+    /**
+     * Node failed, requests skip it while it is being probed.
+     */
+    OPEN,
+    /**
+     * Probe of failed node succeeded, requests are sent to it again. Next success closes the circuit, next failure opens it.
+     */
+    HALF_OPEN
+  }
+
+  private final ScheduledThreadPoolExecutor executor;
+  private final List<EventHandler<FailoverStatusChangedEventArgs>> nodeStatusChanged = new CopyOnWriteArrayList<>();
+  private final AtomicInteger scheduledProbes = new AtomicInteger();
+  private volatile boolean closed;
+
+  public ReplicaHealthChecker(int threads) {
+    executor = new ScheduledThreadPoolExecutor(threads, new ThreadFactory() {
+      private final AtomicInteger counter = new AtomicInteger();
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "Replica health check " + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    executor.setRemoveOnCancelPolicy(true);
+  }
+
+  public void addNodeStatusChanged(EventHandler<FailoverStatusChangedEventArgs> event) {
+    nodeStatusChanged.add(event);
+  }
+
+  public void removeNodeStatusChanged(EventHandler<FailoverStatusChangedEventArgs> event) {
+    nodeStatusChanged.remove(event);
+  }
+
+  /**
+   * @return number of probes waiting for execution
+   */
+  public int getScheduledProbesCount() {
+    return scheduledProbes.get();
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Schedules single execution of probe.
+   * @param probe
+   * @param delay in milliseconds
+   * @return false if checker is closed and probe won't be executed
+   */
+  public boolean schedule(final Runnable probe, long delay) {
+    if (closed) {
+      return false;
+    }
+    scheduledProbes.incrementAndGet();
+    try {
+      executor.schedule(new Runnable() {
+        @Override
+        public void run() {
+          scheduledProbes.decrementAndGet();
+          try {
+            probe.run();
+          } catch (RuntimeException e) {
+            logger.warnException("Replica health probe failed", e);
+          }
+        }
+      }, delay, TimeUnit.MILLISECONDS);
+      return true;
+    } catch (RejectedExecutionException e) {
+      scheduledProbes.decrementAndGet();
+      return false;
+    }
+  }
+
+  void publishNodeStatusChanged(Object sender, FailoverStatusChangedEventArgs args) {
+    EventHelper.invoke(nodeStatusChanged, sender, args);
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    executor.shutdownNow();
+  }
+}
@@ -2,13 +2,17 @@ package net.ravendb.client.connection;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import net.ravendb.abstractions.basic.EventArgs;
 import net.ravendb.abstractions.connection.OperationCredentials;
 import net.ravendb.abstractions.data.JsonDocument;
 import net.ravendb.abstractions.extensions.JsonExtensions;
 import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
 import net.ravendb.abstractions.replication.ReplicationDestination;
 import net.ravendb.abstractions.replication.ReplicationDocument;
 import net.ravendb.client.connection.implementation.HttpJsonRequestFactory;
@@ -17,10 +21,17 @@ import net.ravendb.client.document.FailoverBehavior;
 import net.ravendb.client.extensions.MultiDatabase;
 
 import org.apache.commons.lang.StringUtils;
-import org.apache.commons.lang.time.DateUtils;
+import org.codehaus.jackson.map.ObjectMapper;
 
 public class ReplicationInformer extends ReplicationInformerBase<ServerClient> implements IDocumentStoreReplicationInformer {
 
+  private static final ObjectMapper REPLICATION_DOCUMENT_MAPPER = JsonExtensions.createDefaultJsonSerializer();
+
+  /**
+   * Topology stored in local cache file (or null if it is unknown).
+   */
+  private volatile RavenJObject persistedDocument;
+
   private ReplicationDestination[] failoverServers;
 
   @Override
@@ -32,6 +43,7 @@ public class ReplicationInformer extends ReplicationInformerBase<ServerClient> i
   public void clearReplicationInformationLocalCache(ServerClient client) {
     String serverHash = ServerHash.getServerHash(client.getUrl());
     ReplicationInformerLocalCache.clearReplicationInformationFromLocalCache(serverHash);
+    persistedDocument = null;
   }
 
   @Override
@@ -49,46 +61,58 @@ public class ReplicationInformer extends ReplicationInformerBase<ServerClient> i
       return;//new CompletedFuture<>();
     }
 
-    if (DateUtils.addMinutes(lastReplicationUpdate, 5).after(new Date())) {
+    // called for every created ServerClient (so every session) - avoid Calendar allocation on this path
+    if (lastReplicationUpdate.getTime() + TimeUnit.MINUTES.toMillis(5) > System.currentTimeMillis()) {
       return;//new CompletedFuture<>();
     }
 
-    synchronized (replicationLock) {
-      if (firstTime) {
-        String serverHash = ServerHash.getServerHash(serverClient.getUrl());
-
-        JsonDocument document = ReplicationInformerLocalCache.tryLoadReplicationInformationFromLocalCache(serverHash);
-        if (!isInvalidDestinationsDocument(document)) {
-          updateReplicationInformationFromDocument(document);
-        }
-      }
-
-      firstTime = false;
-
-      if (DateUtils.addMinutes(lastReplicationUpdate, 5).after(new Date())) {
-        return; //new CompletedFuture<>();
-      }
+    loadLocalCache(serverClient);
 
-      Thread taskCopy = refreshReplicationInformationTask;
-
-      if (taskCopy != null) {
-        return; //taskCopy;
-      }
-
-      refreshReplicationInformationTask = new Thread( new Runnable() {
+    // only one refresh at the time - other requests use current topology instead of waiting
+    if (!refreshInProgress.compareAndSet(false, true)) {
+      return; //taskCopy;
+    }
+    if (lastReplicationUpdate.getTime() + TimeUnit.MINUTES.toMillis(5) > System.currentTimeMillis()) {
+      refreshInProgress.set(false); // refreshed in meantime
+      return;
+    }
 
-        @Override
-        public void run() {
-          try {
+    boolean scheduled = runInBackground(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          if (!closed) {
             refreshReplicationInformation(serverClient);
-            refreshReplicationInformationTask = null;
-          } catch (Exception e) {
-            log.error("Failed to refresh replication information", e);
           }
+        } catch (Exception e) {
+          log.error("Failed to refresh replication information", e);
+        } finally {
+          refreshInProgress.set(false);
         }
-      } );
+      }
+    });
+    if (!scheduled) {
+      refreshInProgress.set(false);
+    }
+  }
 
-      refreshReplicationInformationTask.start();
+  /**
+   * Reads local cache file at first use only, later its content is kept in persistedDocument.
+   */
+  private void loadLocalCache(ServerClient serverClient) {
+    if (firstTime) {
+      synchronized (replicationLock) {
+        if (firstTime) {
+          String serverHash = ServerHash.getServerHash(serverClient.getUrl());
+
+          JsonDocument document = ReplicationInformerLocalCache.tryLoadReplicationInformationFromLocalCache(serverHash);
+          if (!isInvalidDestinationsDocument(document)) {
+            persistedDocument = document.getDataAsJson();
+            updateReplicationInformationFromDocument(document.getDataAsJson());
+          }
+          firstTime = false;
+        }
+      }
     }
   }
 
@@ -100,59 +124,65 @@ public class ReplicationInformer extends ReplicationInformerBase<ServerClient> i
   @SuppressWarnings("hiding")
   @Override
   public void refreshReplicationInformation(ServerClient commands) {
-    synchronized (this) {
+    synchronized (refreshLock) {
+      loadLocalCache(commands);
       String serverHash = ServerHash.getServerHash(commands.getUrl());
 
-      JsonDocument document;
+      RavenJObject topology;
       try {
-        RavenJObject replicationDestinations = RavenJObject.fromObject(commands.directGetReplicationDestinations(new OperationMetadata(commands.getUrl(), commands.getPrimaryCredentials())));
-        document =  replicationDestinations == null ? null : SerializationHelper.toJsonDocument(replicationDestinations);
-        failureCounts.put(commands.getUrl(), new FailureCounter()); // we just hit the master, so we can reset its failure count
+        ReplicationDocument replicationDocument = commands.directGetReplicationDestinations(new OperationMetadata(commands.getUrl(), commands.getPrimaryCredentials()));
+        JsonDocument document = replicationDocument == null ? null : SerializationHelper.toJsonDocument(RavenJObject.fromObject(replicationDocument));
+        resetFailureCount(commands.getUrl()); // we just hit the master, so we can reset its failure count
+        topology = document == null ? null : document.getDataAsJson();
+        if (document != null && !RavenJToken.deepEquals(persistedDocument, topology)) {
+          // topology changes rarely - don't rewrite the file on each refresh
+          if (ReplicationInformerLocalCache.trySavingReplicationInformationToLocalCache(serverHash, document)) {
+            persistedDocument = topology;
+          }
+        }
       } catch (Exception e) {
         log.error("Could not contact master for new replication information", e);
-        document = ReplicationInformerLocalCache.tryLoadReplicationInformationFromLocalCache(serverHash);
+        topology = persistedDocument; // local cache was already read at first use
       }
-      if (document == null) {
+      if (topology == null) {
         lastReplicationUpdate = new Date(); // checked and not found
-        replicationDestinations.clear(); // clear destinations that could be retrieved from local storage
+        replicationDestinations = Collections.emptyList(); // clear destinations that could be retrieved from local storage
         return;
       }
 
-      ReplicationInformerLocalCache.trySavingReplicationInformationToLocalCache(serverHash, document);
-      updateReplicationInformationFromDocument(document);
+      updateReplicationInformationFromDocument(topology);
       lastReplicationUpdate = new Date();
     }
   }
 
-  private void updateReplicationInformationFromDocument(JsonDocument document) {
+  private void updateReplicationInformationFromDocument(RavenJObject topology) {
     ReplicationDocument replicationDocument = null;
     try {
-      replicationDocument = JsonExtensions.createDefaultJsonSerializer().readValue(document.getDataAsJson().toString(),
-        ReplicationDocument.class);
+      replicationDocument = REPLICATION_DOCUMENT_MAPPER.readValue(topology.toString(), ReplicationDocument.class);
     } catch (IOException e) {
       log.error("Mapping Exception", e);
       return;
     }
-    replicationDestinations = new ArrayList<>();
+    List<OperationMetadata> destinations = new ArrayList<>();
     for (ReplicationDestination x : replicationDocument.getDestinations()) {
       String url = StringUtils.isEmpty(x.getClientVisibleUrl()) ? x.getUrl() : x.getClientVisibleUrl();
       if (StringUtils.isEmpty(url) || Boolean.TRUE.equals(x.getDisabled()) || Boolean.TRUE.equals(x.getIgnoredClient())) {
-        return;
+        continue;
       }
       if (StringUtils.isEmpty(x.getDatabase())) {
-        replicationDestinations.add(new OperationMetadata(url,new OperationCredentials(x.getApiKey())));
-        return;
+        destinations.add(new OperationMetadata(url,new OperationCredentials(x.getApiKey())));
+        continue;
       }
-      replicationDestinations.add(new OperationMetadata(MultiDatabase.getRootDatabaseUrl(url) + "/databases/"
+      destinations.add(new OperationMetadata(MultiDatabase.getRootDatabaseUrl(url) + "/databases/"
         + x.getDatabase(), new OperationCredentials(x.getApiKey())));
     }
 
-    for (OperationMetadata replicationDestination : replicationDestinations) {
-      if (!failureCounts.containsKey(replicationDestination.getUrl())) {
-        failureCounts.put(replicationDestination.getUrl(), new FailureCounter());
-      }
+    for (OperationMetadata replicationDestination : destinations) {
+      getHolder(replicationDestination.getUrl());
     }
 
+    replicationDestinations = Collections.unmodifiableList(destinations);
+
     if (replicationDocument.getClientConfiguration() != null) {
       conventions.updateFrom(replicationDocument.getClientConfiguration());
     }
@@ -206,14 +236,7 @@ public class ReplicationInformer extends ReplicationInformerBase<ServerClient> i
 
   @Override
   public void close() {
-    Thread informationTask = refreshReplicationInformationTask;
-    if (informationTask != null) {
-      try {
-        informationTask.join();
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-    }
+    closed = true;
   }
 
 }
@@ -13,6 +13,7 @@ import net.ravendb.abstractions.json.linq.JTokenType;
 import net.ravendb.abstractions.json.linq.RavenJObject;
 import net.ravendb.abstractions.logging.ILog;
 import net.ravendb.abstractions.logging.LogManager;
+import net.ravendb.client.connection.ReplicaHealthChecker.CircuitState;
 import net.ravendb.client.connection.ReplicationInformer.FailoverStatusChangedEventArgs;
 import net.ravendb.client.connection.implementation.HttpJsonRequest;
 import net.ravendb.client.connection.implementation.HttpJsonRequestFactory;
@@ -25,10 +26,12 @@ import org.apache.http.HttpStatus;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -37,19 +40,35 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
 
   protected static ILog log = LogManager.getCurrentClassLogger();
 
-  protected boolean firstTime = true;
+  protected volatile boolean firstTime = true;
   protected Convention conventions;
   private final HttpJsonRequestFactory requestFactory;
-  protected Date lastReplicationUpdate = new Date(0);
+  protected volatile Date lastReplicationUpdate = new Date(0);
   protected final Object replicationLock = new Object();
   private static List<OperationMetadata> EMPTY = new ArrayList<>();
   protected static AtomicInteger readStripingBase = new AtomicInteger(0);
   private int delayTimeInMiliSec;
 
-  protected List<OperationMetadata> replicationDestinations = new ArrayList<>();
+  /**
+   * Immutable snapshot of topology: refresh swaps whole list, so requests read it without locking.
+   */
+  protected volatile List<OperationMetadata> replicationDestinations = Collections.emptyList();
 
-  protected final Map<String, FailureCounter> failureCounts = new ConcurrentHashMap<>();
+  protected final ConcurrentMap<String, FailureCounter> failureCounts = new ConcurrentHashMap<>();
 
+  protected volatile boolean closed;
+
+  protected final AtomicBoolean refreshInProgress = new AtomicBoolean();
+
+  /**
+   * Held while replication information is refreshed.
+   */
+  protected final Object refreshLock = new Object();
+
+  /**
+   * @deprecated refresh runs on shared background scheduler now, this field is always null.
+   */
+  @Deprecated
   protected Thread refreshReplicationInformationTask;
 
   protected List<EventHandler<FailoverStatusChangedEventArgs>> failoverStatusChanged = new ArrayList<>();
@@ -97,24 +116,60 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
   protected ReplicationInformerBase(Convention conventions, HttpJsonRequestFactory requestFactory, int delayTime) {
     this.conventions = conventions;
     this.requestFactory = requestFactory;
-    this.replicationDestinations = new ArrayList<>();
     this.delayTimeInMiliSec = delayTime;
   }
 
+  /**
+   * Runs task on background thread: on scheduler shared by request factory or on new thread if there is no factory.
+   * @return false if task won't be executed
+   */
+  protected boolean runInBackground(Runnable task) {
+    if (closed) {
+      return false;
+    }
+    if (requestFactory != null) {
+      return requestFactory.getReplicaHealthChecker().schedule(task, 0);
+    }
+    Thread thread = new Thread(task, "Replication information refresh");
+    thread.setDaemon(true);
+    thread.start();
+    return true;
+  }
+
   protected static class FailureCounter {
 
     private AtomicLong value = new AtomicLong();
     private Date lastCheck;
     private boolean forceCheck;
 
-    private AtomicReference<Thread> checkDestination = new AtomicReference<>();
+    private final AtomicReference<CircuitState> circuitState = new AtomicReference<>(CircuitState.CLOSED);
+    private final AtomicBoolean probeScheduled = new AtomicBoolean();
+    private final AtomicInteger failedProbes = new AtomicInteger();
+
+    public CircuitState getCircuitState() {
+      return circuitState.get();
+    }
+
+    /**
+     * Opens circuit (also when it is half open).
+     * @return true if circuit was closed before
+     */
+    public boolean open() {
+      return circuitState.getAndSet(CircuitState.OPEN) == CircuitState.CLOSED;
+    }
 
-    public AtomicReference<Thread> getCheckDestination() {
-      return checkDestination;
+    /**
+     * Moves circuit to half open state after successful probe.
+     * @return true if circuit was open before
+     */
+    public boolean halfOpen() {
+      failedProbes.set(0);
+      return circuitState.compareAndSet(CircuitState.OPEN, CircuitState.HALF_OPEN);
     }
 
-    public void setCheckDestination(AtomicReference<Thread> checkDestination) {
-      this.checkDestination = checkDestination;
+    public void close() {
+      circuitState.set(CircuitState.CLOSED);
+      failedProbes.set(0);
     }
 
     public AtomicLong getValue() {
@@ -171,6 +226,11 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
     return getHolder(operationUrl).getLastCheck();
   }
 
+  @Override
+  public CircuitState getCircuitState(String operationUrl) {
+    return getHolder(operationUrl).getCircuitState();
+  }
+
   @SuppressWarnings("unused")
   protected boolean shouldExecuteUsing(final OperationMetadata operationMetadata,
     final OperationMetadata primaryOperation, int currentRequest, HttpMethods method, boolean primary, Exception error) {
@@ -179,7 +239,7 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
     }
 
     FailureCounter failureCounter = getHolder(operationMetadata.getUrl());
-    if (failureCounter.getValue().longValue() == 0) {
+    if (failureCounter.getCircuitState() != CircuitState.OPEN) {
       return true;
     }
 
@@ -187,46 +247,76 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
       return true;
     }
 
-    Thread currentTask = failureCounter.getCheckDestination().get();
-    if ((currentTask == null || !currentTask.isAlive()) && delayTimeInMiliSec > 0) {
-      Thread checkDestination = new Thread(new Runnable() {
-
-        @SuppressWarnings("synthetic-access")
-        @Override
-        public void run() {
-          for (int i = 0; i < 5; i++) {
-            OperationResult<Object> r = tryOperation(new Function1<OperationMetadata, Object>() {
-
-              @Override
-              public OperationResult<Object> apply(OperationMetadata metadata) {
-                CreateHttpJsonRequestParams requestParams = new CreateHttpJsonRequestParams(null,
-                  getServerCheckUrl(metadata.getUrl()), HttpMethods.GET, new RavenJObject(), metadata.getCredentials(),
-                  conventions);
-                try (HttpJsonRequest request = requestFactory.createHttpJsonRequest(requestParams)) {
-                  request.readResponseJson();
-                }
-                return null;
-              }
-            }, operationMetadata, primaryOperation, true);
-            if (r.isSuccess()) {
-              return;
-            }
-
-            try {
-              Thread.sleep(delayTimeInMiliSec);
-            } catch (InterruptedException e) {
-              e.printStackTrace();
-            }
-          }
-        }
-      });
+    // node is being probed in background - make sure probe wasn't lost (i.e. when delay was changed)
+    scheduleProbe(operationMetadata, failureCounter);
+    return false;
+  }
 
-      if (failureCounter.getCheckDestination().compareAndSet(currentTask, checkDestination)) {
-        checkDestination.start();
+  /**
+   * Schedules health probe of node with open circuit, unless probe is already scheduled.
+   * Interval starts at delayTimeInMiliSec and doubles with each failed probe, up to convention limit.
+   */
+  private void scheduleProbe(final OperationMetadata operationMetadata, final FailureCounter failureCounter) {
+    if (closed || requestFactory == null || delayTimeInMiliSec <= 0) {
+      return;
+    }
+    if (!failureCounter.probeScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    int failedProbes = Math.min(failureCounter.failedProbes.get(), 16);
+    long delay = Math.min((long) delayTimeInMiliSec << failedProbes, Math.max(delayTimeInMiliSec, conventions.getReplicaHealthCheckMaxInterval()));
+    boolean scheduled = requestFactory.getReplicaHealthChecker().schedule(new Runnable() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public void run() {
+        probe(operationMetadata, failureCounter);
       }
+    }, delay);
+    if (!scheduled) {
+      failureCounter.probeScheduled.set(false);
     }
+  }
 
-    return false;
+  private void probe(OperationMetadata operationMetadata, FailureCounter failureCounter) {
+    if (closed) {
+      failureCounter.probeScheduled.set(false);
+      return;
+    }
+    boolean healthy;
+    CreateHttpJsonRequestParams requestParams = new CreateHttpJsonRequestParams(null,
+      getServerCheckUrl(operationMetadata.getUrl()), HttpMethods.GET, new RavenJObject(), operationMetadata.getCredentials(),
+      conventions);
+    try (HttpJsonRequest request = requestFactory.createHttpJsonRequest(requestParams)) {
+      request.readResponseJson();
+      healthy = true;
+    } catch (Exception e) {
+      log.debug("Health probe of " + operationMetadata.getUrl() + " failed: " + e.getMessage());
+      healthy = false;
+    }
+    failureCounter.probeScheduled.set(false);
+
+    switch (failureCounter.getCircuitState()) {
+      case OPEN:
+        if (healthy) {
+          // let requests in - first of them (or next probe) closes the circuit
+          failureCounter.halfOpen();
+          scheduleProbe(operationMetadata, failureCounter);
+        } else {
+          failureCounter.failedProbes.incrementAndGet();
+          scheduleProbe(operationMetadata, failureCounter);
+        }
+        break;
+      case HALF_OPEN:
+        if (healthy) {
+          resetFailureCount(operationMetadata.getUrl(), failureCounter);
+        } else {
+          incrementFailureCount(operationMetadata, failureCounter);
+        }
+        break;
+      default:
+        // closed by successful request in meantime
+        break;
+    }
   }
 
   protected abstract String getServerCheckUrl(String baseUrl);
@@ -253,11 +343,15 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
   }
 
   protected FailureCounter getHolder(String operationUrl) {
-    if (!failureCounts.containsKey(operationUrl)) {
-      failureCounts.put(operationUrl, new FailureCounter());
+    FailureCounter counter = failureCounts.get(operationUrl);
+    if (counter == null) {
+      FailureCounter newCounter = new FailureCounter();
+      counter = failureCounts.putIfAbsent(operationUrl, newCounter);
+      if (counter == null) {
+        counter = newCounter;
+      }
     }
-    return failureCounts.get(operationUrl);
-
+    return counter;
   }
 
   private boolean isFirstFailure(String operationUrl) {
@@ -265,13 +359,30 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
     return value.getValue().longValue() == 0;
   }
 
+  private void incrementFailureCount(OperationMetadata operationMetadata) {
+    incrementFailureCount(operationMetadata, getHolder(operationMetadata.getUrl()));
+  }
+
   @SuppressWarnings("boxing")
-  private void incrementFailureCount(String operationUrl) {
-    FailureCounter value = getHolder(operationUrl);
+  private void incrementFailureCount(OperationMetadata operationMetadata, FailureCounter value) {
+    String operationUrl = operationMetadata.getUrl();
     value.setForceCheck(false);
     long current = value.getValue().incrementAndGet();
+    value.setLastCheck(new Date());
+    value.open();
+    if (requestFactory != null) {
+      requestFactory.getMetrics().recordReplicaFailure(operationUrl);
+    }
     if (current == 1) { // first failure
-      EventHelper.invoke(failoverStatusChanged, this, new FailoverStatusChangedEventArgs(operationUrl, true));
+      publishFailoverStatusChanged(new FailoverStatusChangedEventArgs(operationUrl, true));
+    }
+    scheduleProbe(operationMetadata, value);
+  }
+
+  private void publishFailoverStatusChanged(FailoverStatusChangedEventArgs args) {
+    EventHelper.invoke(failoverStatusChanged, this, args);
+    if (requestFactory != null) {
+      requestFactory.getReplicaHealthChecker().publishNodeStatusChanged(this, args);
     }
   }
 
@@ -281,14 +392,21 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
       || JTokenType.NULL.equals(document.getDataAsJson().get("Destinations").getType());
   }
 
-  @SuppressWarnings("boxing")
   protected void resetFailureCount(String operationUrl) {
-    FailureCounter value = getHolder(operationUrl);
+    resetFailureCount(operationUrl, getHolder(operationUrl));
+  }
+
+  @SuppressWarnings("boxing")
+  private void resetFailureCount(String operationUrl, FailureCounter value) {
+    if (value.getCircuitState() == CircuitState.CLOSED && value.getValue().get() == 0) {
+      return; // hot path: request to healthy node
+    }
     long oldVal = value.getValue().getAndSet(0);
     value.setLastCheck(new Date());
     value.setForceCheck(false);
+    value.close();
     if (oldVal != 0) {
-      EventHelper.invoke(failoverStatusChanged, this, new FailoverStatusChangedEventArgs(operationUrl, false));
+      publishFailoverStatusChanged(new FailoverStatusChangedEventArgs(operationUrl, false));
     }
   }
 
@@ -339,14 +457,14 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
       if (operationResult.isSuccess()) {
         return operationResult.result;
       }
-      incrementFailureCount(primaryOperation.getUrl());
+      incrementFailureCount(primaryOperation);
       if (!operationResult.wasTimeout && isFirstFailure(primaryOperation.getUrl())) {
 
         operationResult = tryOperation(operation, primaryOperation, null, localReplicationDestinations.size() > 0);
         if (operationResult.isSuccess()) {
           return operationResult.result;
         }
-        incrementFailureCount(primaryOperation.getUrl());
+        incrementFailureCount(primaryOperation);
       }
 
     }
@@ -362,16 +480,18 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
       operationResult = tryOperation(operation, replicationDestination, primaryOperation, !operationResult.wasTimeout
         && hasMoreReplicationDestinations);
       if (operationResult.isSuccess()) {
+        recordFailover();
         return operationResult.result;
       }
-      incrementFailureCount(replicationDestination.getUrl());
+      incrementFailureCount(replicationDestination);
       if (!operationResult.wasTimeout && isFirstFailure(replicationDestination.getUrl())) {
         operationResult = tryOperation(operation, replicationDestination, primaryOperation,
           hasMoreReplicationDestinations);
         if (operationResult.success) {
+          recordFailover();
           return operationResult.result;
         }
-        incrementFailureCount(replicationDestination.getUrl());
+        incrementFailureCount(replicationDestination);
       }
     }
     // this should not be thrown, but since I know the value of should...
@@ -380,6 +500,12 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
         + (1 + localReplicationDestinations.size()) + " Raven instances.");
   }
 
+  private void recordFailover() {
+    if (requestFactory != null) {
+      requestFactory.getMetrics().recordFailover();
+    }
+  }
+
   @SuppressWarnings("boxing")
   protected <S> OperationResult<S> tryOperation(Function1<OperationMetadata, S> operation,
     OperationMetadata operationMetadata, OperationMetadata primaryOperationMetadata, boolean avoidThrowing) {
@@ -392,7 +518,7 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
       return new OperationResult<>(result, true);
     } catch (Exception e) {
       if (tryWithPrimaryCredentials && operationMetadata.getCredentials().getApiKey() != null) {
-        incrementFailureCount(operationMetadata.getUrl());
+        incrementFailureCount(operationMetadata);
 
         Throwable rootCause = ExceptionUtils.getRootCause(e);
         if (rootCause instanceof ErrorResponseException) {
@@ -446,10 +572,15 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
     return false;
   }
 
+  /**
+   * Stops refreshing of replication information and waits for refresh which is in progress.
+   * @throws InterruptedException kept for compatibility, waiting is not interruptible
+   */
+  @SuppressWarnings("unused")
   public void dispose() throws InterruptedException {
-    Thread replicationInformationTaskCopy = refreshReplicationInformationTask;
-    if (replicationInformationTaskCopy != null) {
-      replicationInformationTaskCopy.join();
+    closed = true;
+    synchronized (refreshLock) {
+      // refresh in progress has finished
     }
   }
 
@@ -1,6 +1,10 @@
 package net.ravendb.client.connection;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 import net.ravendb.abstractions.data.JsonDocument;
 import net.ravendb.abstractions.json.linq.RavenJObject;
@@ -37,7 +41,7 @@ public class ReplicationInformerLocalCache {
       if (!file.exists()) {
         return null;
       }
-      String fileContent = FileUtils.readFileToString(file);
+      String fileContent = FileUtils.readFileToString(file, StandardCharsets.UTF_8.name());
       if (StringUtils.isBlank(fileContent)) {
         return null;
       }
@@ -49,13 +53,29 @@ public class ReplicationInformerLocalCache {
     return result;
   }
 
-  public static void trySavingReplicationInformationToLocalCache(String serverHash, JsonDocument document) {
+  /**
+   * Writes topology to temporary file and moves it in place of cache file, so readers never see partially written file.
+   * @return true if document was persisted
+   */
+  public static boolean trySavingReplicationInformationToLocalCache(String serverHash, JsonDocument document) {
+    File tempFile = null;
     try {
       String path = "RavenDB Replication Information For - " + serverHash;
       File file = new File(tempDir, path);
-      FileUtils.writeStringToFile(file, document.toJson().toString());
+      tempFile = File.createTempFile(path, ".tmp", new File(tempDir));
+      FileUtils.writeStringToFile(tempFile, document.toJson().toString(), StandardCharsets.UTF_8.name());
+      try {
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+      return true;
     } catch (Exception e) {
       log.error("Could not persist the replication information", e);
+      if (tempFile != null) {
+        tempFile.delete();
+      }
+      return false;
     }
   }
 
@@ -0,0 +1,140 @@
+package net.ravendb.client.connection;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+import net.ravendb.abstractions.basic.CloseableIterator;
+import net.ravendb.abstractions.closure.Function1;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.logging.ILog;
+import net.ravendb.abstractions.logging.LogManager;
+import net.ravendb.abstractions.util.TimeUtils;
+
+/**
+ * Streaming iterator which records checkpoint of each delivered result. When connection fails, the stream is reopened
+ * after checkpoint (on the same server or, if it is down, on replica chosen by replication informer) and iteration continues
+ * without repeating delivered results.
+ */
+public class ResumableStreamIterator implements CloseableIterator<RavenJObject> {
+
+  private static final ILog logger = LogManager.getCurrentClassLogger();
+
+  private static final long MIN_RECONNECT_DELAY_MILLIS = 500;
+  private static final long MAX_RECONNECT_DELAY_MILLIS = 30 * 1000;
+
+  private final Function1<StreamCheckpoint, CloseableIterator<RavenJObject>> openStream;
+  private final StreamCheckpoint checkpoint;
+  private final int maxReconnectAttempts;
+  private CloseableIterator<RavenJObject> current;
+  private boolean opened;
+  private int failedAttempts;
+  private boolean closed;
+
+  /**
+   * @param openStream opens stream starting after checkpoint or returns null if there is nothing left to stream
+   * @param checkpoint initial checkpoint, updated on each delivered result
+   * @param maxReconnectAttempts number of consecutive failed attempts to continue stream before the failure is rethrown
+   */
+  public ResumableStreamIterator(Function1<StreamCheckpoint, CloseableIterator<RavenJObject>> openStream,
+    StreamCheckpoint checkpoint, int maxReconnectAttempts) {
+    this.openStream = openStream;
+    this.checkpoint = checkpoint;
+    this.maxReconnectAttempts = maxReconnectAttempts;
+  }
+
+  /**
+   * @return checkpoint after last delivered result
+   */
+  public StreamCheckpoint getCheckpoint() {
+    return checkpoint;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (true) {
+      try {
+        ensureOpened();
+        return current != null && current.hasNext();
+      } catch (RuntimeException e) {
+        handleFailure(e);
+      }
+    }
+  }
+
+  @Override
+  public RavenJObject next() {
+    while (true) {
+      try {
+        ensureOpened();
+        if (current == null || !current.hasNext()) {
+          throw new NoSuchElementException();
+        }
+        RavenJObject result = current.next();
+        checkpoint.resultDelivered(result);
+        failedAttempts = 0;
+        return result;
+      } catch (NoSuchElementException e) {
+        throw e;
+      } catch (RuntimeException e) {
+        handleFailure(e);
+      }
+    }
+  }
+
+  private void ensureOpened() {
+    if (closed) {
+      throw new IllegalStateException("Stream was closed");
+    }
+    if (!opened) {
+      current = openStream.apply(checkpoint);
+      opened = true;
+    }
+  }
+
+  /**
+   * Rethrows failure which isn't caused by connection or when reconnect attempts are exhausted, otherwise waits before reopening the stream.
+   */
+  @SuppressWarnings("boxing")
+  private void handleFailure(RuntimeException e) {
+    closeCurrent();
+    if (!isConnectionFailure(e) || ++failedAttempts > maxReconnectAttempts) {
+      throw e;
+    }
+    long delay = Math.min(MAX_RECONNECT_DELAY_MILLIS, MIN_RECONNECT_DELAY_MILLIS << Math.min(failedAttempts - 1, 16));
+    logger.warnException(String.format("Stream failed after %s, reconnecting in %d ms (attempt %d of %d)",
+      checkpoint, delay, failedAttempts, maxReconnectAttempts), e);
+    TimeUtils.cleanSleep((int) delay);
+  }
+
+  static boolean isConnectionFailure(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof IOException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void closeCurrent() {
+    if (current != null) {
+      try {
+        current.close();
+      } catch (RuntimeException e) {
+        // connection is already broken
+      }
+    }
+    current = null;
+    opened = false;
+  }
+
+  @Override
+  public void remove() {
+    throw new IllegalStateException("You can't remove entries");
+  }
+
+  @Override
+  public void close() {
+    closeCurrent();
+    closed = true;
+  }
+}
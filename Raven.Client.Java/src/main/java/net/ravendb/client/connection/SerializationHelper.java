@@ -161,6 +161,10 @@ public class SerializationHelper {
   public static JsonDocument ravenJObjectToJsonDocument(RavenJObject doc) {
     RavenJObject metadata = (RavenJObject) doc.get("@metadata");
     doc.remove("@metadata");
+    if (metadata == null) {
+      // i.e. document created from plain object
+      metadata = new RavenJObject();
+    }
     String key = extract(metadata, "@id", "", String.class);
 
     Date lastModified = getLastModified(metadata);
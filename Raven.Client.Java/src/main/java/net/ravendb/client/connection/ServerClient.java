@@ -2,6 +2,7 @@ package net.ravendb.client.connection;
 
 import com.google.common.io.Closeables;
 import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.basic.CloseableIterator;
 import net.ravendb.abstractions.basic.EventHandler;
 import net.ravendb.abstractions.basic.Reference;
 import net.ravendb.abstractions.basic.SharpEnum;
@@ -63,6 +64,7 @@ public class ServerClient implements IDatabaseCommands {
   private String rootUrl;
   private OperationCredentials credentialsThatShouldBeUsedOnlyInOperationsWithoutReplication;
   final DocumentConvention convention;
+  private QueryResultCache queryResultCache;
   protected Map<String, String> operationsHeaders = new HashMap<>();
   protected final HttpJsonRequestFactory jsonRequestFactory;
   private final UUID sessionId;
@@ -818,6 +820,17 @@ public class ServerClient implements IDatabaseCommands {
     }
   }
 
+  /**
+   * Cache of query results used by this client (null - results aren't cached)
+   */
+  public QueryResultCache getQueryResultCache() {
+    return queryResultCache;
+  }
+
+  public void setQueryResultCache(QueryResultCache queryResultCache) {
+    this.queryResultCache = queryResultCache;
+  }
+
   @Override
   public IDatabaseCommands forDatabase(String database) {
     if (Constants.SYSTEM_DATABASE.equals(database)) {
@@ -1780,6 +1793,21 @@ public class ServerClient implements IDatabaseCommands {
   @Override
   public QueryResult query(final String index, final IndexQuery query, final String[] includes, final boolean metadataOnly, final boolean indexEntriesOnly) {
     ensureIsNotNullOrEmpty(index, "index");
+    if (queryResultCache == null || !QueryResultCache.isCacheable(query, includes, indexEntriesOnly)
+      || !queryResultCache.watchIndex(index)) {
+      return queryInternal(index, query, includes, metadataOnly, indexEntriesOnly);
+    }
+    List<Object> cacheKey = QueryResultCache.createKey(index, query, metadataOnly);
+    QueryResult cachedResult = queryResultCache.get(cacheKey);
+    if (cachedResult != null) {
+      return cachedResult;
+    }
+    long generation = queryResultCache.getGeneration();
+    QueryResult queryResult = queryInternal(index, query, includes, metadataOnly, indexEntriesOnly);
+    return queryResult != null ? queryResultCache.put(cacheKey, queryResult, generation) : null;
+  }
+
+  private QueryResult queryInternal(final String index, final IndexQuery query, final String[] includes, final boolean metadataOnly, final boolean indexEntriesOnly) {
     final HttpMethods method = query.getQuery() == null || query.getQuery().length() <= convention.getMaxLengthOfQueryUsingGetUrl()
       ? HttpMethods.GET : HttpMethods.POST;
 
@@ -2287,6 +2315,26 @@ public class ServerClient implements IDatabaseCommands {
     });
   }
 
+  @Override
+  public ResumableStreamIterator streamQueryResumable(final String index, final IndexQuery query,
+    final Reference<QueryHeaderInformation> queryHeaderInfo, StreamCheckpoint checkpoint) {
+    return new ResumableStreamIterator(new Function1<StreamCheckpoint, CloseableIterator<RavenJObject>>() {
+      @Override
+      public CloseableIterator<RavenJObject> apply(StreamCheckpoint position) {
+        IndexQuery resumedQuery = query.clone();
+        resumedQuery.setStart(query.getStart() + position.getDelivered());
+        if (query.isPageSizeSet()) {
+          int remaining = query.getPageSize() - position.getDelivered();
+          if (remaining <= 0) {
+            return null;
+          }
+          resumedQuery.setPageSize(remaining);
+        }
+        return streamQuery(index, resumedQuery, queryHeaderInfo);
+      }
+    }, checkpoint != null ? checkpoint : new StreamCheckpoint(), convention.getMaxStreamReconnectAttempts());
+  }
+
   @SuppressWarnings("boxing")
   public RavenJObjectIterator directStreamQuery(OperationMetadata operationMetadata, String index, IndexQuery query, Reference<QueryHeaderInformation> queryHeaderInfo) {
     ensureIsNotNullOrEmpty(index, "index");
@@ -2421,11 +2469,58 @@ public class ServerClient implements IDatabaseCommands {
 
   @SuppressWarnings("null")
   public RavenJObjectIterator directStreamDocs(OperationMetadata operationMetadata, final Etag fromEtag, final String startsWith, final String matches, final int start, final int pageSize, final String exclude, final RavenPagingInformation pagingInformation, final String skipAfter) {
+    CloseableHttpResponse response = directStreamDocsResponse(operationMetadata, fromEtag, startsWith, matches, start, pageSize, exclude, pagingInformation, skipAfter);
+    return yieldStreamResults(response, start, pageSize, pagingInformation, null);
+  }
+
+  @Override
+  public ResumableStreamIterator streamDocsResumable(final Etag fromEtag, final String startsWith, final String matches,
+    final int start, final int pageSize, final String exclude, StreamCheckpoint checkpoint) {
+    return new ResumableStreamIterator(new Function1<StreamCheckpoint, CloseableIterator<RavenJObject>>() {
+      @Override
+      public CloseableIterator<RavenJObject> apply(StreamCheckpoint position) {
+        int remaining = pageSize == Integer.MAX_VALUE ? Integer.MAX_VALUE : pageSize - position.getDelivered();
+        if (remaining <= 0) {
+          return null;
+        }
+        if (startsWith != null) {
+          if (position.getLastKey() != null) {
+            // documents with prefix are streamed in order of keys
+            return streamDocs(null, startsWith, matches, 0, remaining, exclude, null, position.getLastKey());
+          }
+          return streamDocs(null, startsWith, matches, start, remaining, exclude);
+        }
+        if (position.getLastEtag() != null) {
+          // other documents are streamed in order of etags
+          return streamDocs(position.getLastEtag(), null, matches, 0, remaining, exclude);
+        }
+        // without etag server streams most recently modified documents first, which can't be resumed by etag
+        return streamDocs(fromEtag != null ? fromEtag : Etag.empty(), null, matches, start, remaining, exclude);
+      }
+    }, checkpoint != null ? checkpoint : new StreamCheckpoint(), convention.getMaxStreamReconnectAttempts());
+  }
+
+  /**
+   * Streams documents with etag greater than fromEtag (or all documents when fromEtag is null) without parsing them.
+   * Response body has the same format as in {@link #streamDocs(Etag)}: { "Results": [ ... ] }.
+   * Caller is responsible for closing the response.
+   * @param fromEtag
+   */
+  public CloseableHttpResponse streamDocsResponse(final Etag fromEtag) {
+    return executeWithReplication(HttpMethods.GET, new Function1<OperationMetadata, CloseableHttpResponse>() {
+      @Override
+      public CloseableHttpResponse apply(OperationMetadata operationMetadata) {
+        return directStreamDocsResponse(operationMetadata, fromEtag, null, null, 0, Integer.MAX_VALUE, null, null, null);
+      }
+    });
+  }
+
+  protected CloseableHttpResponse directStreamDocsResponse(OperationMetadata operationMetadata, final Etag fromEtag, final String startsWith, final String matches, final int start, final int pageSize, final String exclude, final RavenPagingInformation pagingInformation, final String skipAfter) {
 
     if (fromEtag != null && startsWith != null)
       throw new IllegalArgumentException("Either fromEtag or startsWith must be null, you can't specify both");
 
-    StringBuilder sb = new StringBuilder(url).append("/streams/docs?");
+    StringBuilder sb = new StringBuilder(operationMetadata.getUrl()).append("/streams/docs?");
 
     if (fromEtag != null) {
       sb.append("etag=")
@@ -2468,7 +2563,7 @@ public class ServerClient implements IDatabaseCommands {
     HttpJsonRequest request = jsonRequestFactory.createHttpJsonRequest(
       new CreateHttpJsonRequestParams(this, sb.toString(), HttpMethods.GET, new RavenJObject(), credentialsThatShouldBeUsedOnlyInOperationsWithoutReplication, convention)
       .addOperationHeaders(operationsHeaders))
-      .addReplicationStatusHeaders(url, url, replicationInformer, convention.getFailoverBehavior(), new HandleReplicationStatusChangesCallback());
+      .addReplicationStatusHeaders(url, operationMetadata.getUrl(), replicationInformer, convention.getFailoverBehavior(), new HandleReplicationStatusChangesCallback());
 
     SingleAuthTokenRetriever tokenRetriever = new SingleAuthTokenRetriever(this, jsonRequestFactory, convention, operationsHeaders, operationMetadata);
     String token = tokenRetriever.getToken();
@@ -2491,8 +2586,7 @@ public class ServerClient implements IDatabaseCommands {
       request.close();
       throw new IllegalStateException(e.getMessage(), e);
     }
-    return yieldStreamResults(response, start, pageSize, pagingInformation, null);
-
+    return response;
   }
 
   @Override
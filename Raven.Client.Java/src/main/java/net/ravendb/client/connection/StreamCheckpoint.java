@@ -0,0 +1,66 @@
+package net.ravendb.client.connection;
+
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+
+/**
+ * Position of resumable stream: etag and key of last delivered document and number of delivered results.
+ * Checkpoint can be persisted and passed to new stream, which continues after last delivered result.
+ */
+public class StreamCheckpoint {
+
+  private volatile Etag lastEtag;
+  private volatile String lastKey;
+  private volatile int delivered;
+
+  public StreamCheckpoint() {
+  }
+
+  public StreamCheckpoint(Etag lastEtag, String lastKey, int delivered) {
+    this.lastEtag = lastEtag;
+    this.lastKey = lastKey;
+    this.delivered = delivered;
+  }
+
+  /**
+   * @return etag of last delivered document or null if no document was delivered yet
+   */
+  public Etag getLastEtag() {
+    return lastEtag;
+  }
+
+  /**
+   * @return key of last delivered document or null if no document was delivered yet
+   */
+  public String getLastKey() {
+    return lastKey;
+  }
+
+  /**
+   * @return number of delivered results
+   */
+  public int getDelivered() {
+    return delivered;
+  }
+
+  void resultDelivered(RavenJObject result) {
+    RavenJObject metadata = result.value(RavenJObject.class, Constants.METADATA);
+    if (metadata != null) {
+      String etag = metadata.value(String.class, "@etag");
+      if (etag != null) {
+        lastEtag = Etag.parse(etag);
+      }
+      String key = metadata.value(String.class, "@id");
+      if (key != null) {
+        lastKey = key;
+      }
+    }
+    delivered++;
+  }
+
+  @Override
+  public String toString() {
+    return "StreamCheckpoint [lastEtag=" + lastEtag + ", lastKey=" + lastKey + ", delivered=" + delivered + "]";
+  }
+}
@@ -6,8 +6,10 @@ import java.io.InputStream;
 import java.net.InetAddress;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -91,6 +93,7 @@ public class HttpJsonRequest implements CleanCloseable {
   private Map<String, String> headers = new HashMap<>();
 
   private final StopWatch sp;
+  private long startNanos;
 
   private final OperationCredentials _credentials;
 
@@ -100,6 +103,7 @@ public class HttpJsonRequest implements CleanCloseable {
   private final Convention conventions;
   private boolean disabledAuthRetries;
   private String postedData;
+  private long postedBytes;
   private boolean isRequestSendToServer;
 
   boolean shouldCacheRequest;
@@ -130,6 +134,7 @@ public class HttpJsonRequest implements CleanCloseable {
   public HttpJsonRequest(CreateHttpJsonRequestParams requestParams, HttpJsonRequestFactory factory) {
     sp = new StopWatch();
     sp.start();
+    startNanos = System.nanoTime();
     this._credentials = requestParams.isDisableAuthentication()?null : requestParams.getCredentials();
     this.disabledAuthRetries = requestParams.isDisableAuthentication();
 
@@ -182,6 +187,7 @@ public class HttpJsonRequest implements CleanCloseable {
       args.setPostedData(postedData);
 
       factory.onLogRequest(owner, args);
+      recordMetrics(RequestStatus.AGGRESSIVELY_CACHED);
 
       return result;
     }
@@ -190,6 +196,33 @@ public class HttpJsonRequest implements CleanCloseable {
       return readJsonInternal();
     }
 
+    if (method == HttpMethods.GET && conventions != null && conventions.isCoalesceConcurrentGetRequests()) {
+      return factory.getRequestCoalescer().execute(getCoalescingKey(), this, new Function0<RavenJToken>() {
+        @SuppressWarnings("synthetic-access")
+        @Override
+        public RavenJToken apply() {
+          return sendAndReadResponseJson();
+        }
+      });
+    }
+    return sendAndReadResponseJson();
+  }
+
+  /**
+   * Identical GET requests (the same url, headers and credentials) can share single response
+   */
+  private List<Object> getCoalescingKey() {
+    return Arrays.<Object>asList(url, new HashMap<>(headers), new HashMap<>(defaultRequestHeaders),
+      _credentials != null ? _credentials.getApiKey() : null, timeout);
+  }
+
+  void setCoalescedResponse(Map<String, String> responseHeaders, int responseStatusCode, long size) {
+    this.responseHeaders = responseHeaders;
+    this.responseStatusCode = responseStatusCode;
+    this.size = size;
+  }
+
+  private RavenJToken sendAndReadResponseJson() {
     RavenJToken result = sendRequestInternal(new Function0<HttpUriRequest>() {
 
       @SuppressWarnings("synthetic-access")
@@ -224,6 +257,7 @@ public class HttpJsonRequest implements CleanCloseable {
           assertServerVersionSupported();
           responseStatusCode = response.getStatusLine().getStatusCode();
         } catch (IOException e) {
+          recordFailureMetrics();
           throw new JsonWriterException(e);
         } finally {
           sp.stop();
@@ -260,7 +294,7 @@ public class HttpJsonRequest implements CleanCloseable {
         return requestOperation.apply();
       } catch (ErrorResponseException e) {
         if (++retries >= 3 || disabledAuthRetries) {
-          throw e;
+          throw recordAuthFailureMetrics(e);
         }
 
         if (e.getStatusCode() != HttpStatus.SC_UNAUTHORIZED
@@ -275,11 +309,26 @@ public class HttpJsonRequest implements CleanCloseable {
         throw responseException;
       }
       if (handleUnauthorizedResponse(response) == false) {
-        throw responseException;
+        throw recordAuthFailureMetrics(responseException);
       }
     }
   }
 
+  /**
+   * Responses which can be retried after authentication are recorded only when request fails with them,
+   * so request which succeeds after authentication is recorded once.
+   */
+  private static boolean isAuthRetryStatus(int statusCode) {
+    return statusCode == HttpStatus.SC_UNAUTHORIZED || statusCode == HttpStatus.SC_PRECONDITION_FAILED;
+  }
+
+  private ErrorResponseException recordAuthFailureMetrics(ErrorResponseException e) {
+    if (isAuthRetryStatus(e.getStatusCode())) {
+      recordMetrics(RequestStatus.ERROR_ON_SERVER);
+    }
+    return e;
+  }
+
   private void copyHeadersToHttpRequestMessage(HttpUriRequest httpRequestMessage) {
     for (Map.Entry<String, String> kvp : headers.entrySet()) {
       if (!Constants.LAST_MODIFIED.equals(kvp.getKey())) {
@@ -313,6 +362,11 @@ public class HttpJsonRequest implements CleanCloseable {
       requestResultArgs.setPostedData(postedData);
 
       factory.onLogRequest(owner, requestResultArgs);
+      // not found is regular response for loads
+      if (!isAuthRetryStatus(response.getStatusLine().getStatusCode())) {
+        recordMetrics(response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_FOUND
+          ? RequestStatus.SEND_TO_SERVER : RequestStatus.ERROR_ON_SERVER);
+      }
 
       throw ErrorResponseException.fromResponseMessage(response, readErrorString);
     }
@@ -330,6 +384,7 @@ public class HttpJsonRequest implements CleanCloseable {
       requestResultArgs.setUrl(url);
       requestResultArgs.setPostedData(postedData);
       factory.onLogRequest(owner, requestResultArgs);
+      recordMetrics(RequestStatus.CACHED);
 
       return result;
     }
@@ -353,6 +408,10 @@ public class HttpJsonRequest implements CleanCloseable {
     requestResultArgs.setUrl(url);
     requestResultArgs.setPostedData(postedData);
     factory.onLogRequest(owner, requestResultArgs);
+    size = readToEnd.length();
+    if (!isAuthRetryStatus(response.getStatusLine().getStatusCode())) {
+      recordMetrics(RequestStatus.ERROR_ON_SERVER);
+    }
 
     if (StringUtils.isBlank(readToEnd)) {
       throw ErrorResponseException.fromResponseMessage(response, true);
@@ -404,10 +463,10 @@ public class HttpJsonRequest implements CleanCloseable {
       }
     }, false);
 
-    if (response.getEntity() == null) {
-      return new byte[0];
-    }
-    return IOUtils.toByteArray(response.getEntity().getContent());
+    byte[] bytes = response.getEntity() != null ? IOUtils.toByteArray(response.getEntity().getContent()) : new byte[0];
+    size = bytes.length;
+    recordMetrics(RequestStatus.SEND_TO_SERVER);
+    return bytes;
   }
 
   public void executeRequest() {
@@ -433,6 +492,7 @@ public class HttpJsonRequest implements CleanCloseable {
   private void recreateHttpClient(Action1<HttpRequest> configureHttpClient) {
     sp.reset();
     sp.start();
+    startNanos = System.nanoTime();
     Closeables.closeQuietly(response);
 
     isRequestSendToServer = false;
@@ -470,6 +530,7 @@ public class HttpJsonRequest implements CleanCloseable {
       args.setPostedData(postedData);
 
       factory.onLogRequest(owner, args);
+      recordMetrics(RequestStatus.SEND_TO_SERVER);
 
       return data;
     } catch (IOException e) {
@@ -532,6 +593,14 @@ public class HttpJsonRequest implements CleanCloseable {
     return sp.getTime();
   }
 
+  private void recordMetrics(RequestStatus status) {
+    factory.getMetrics().recordRequest(method, url, System.nanoTime() - startNanos, status, postedBytes, size);
+  }
+
+  private void recordFailureMetrics() {
+    factory.getMetrics().recordFailure(method, url, System.nanoTime() - startNanos);
+  }
+
   @SuppressWarnings("boxing")
   private void writeMetadata(RavenJObject metadata) {
     if (metadata == null || metadata.getCount() == 0) {
@@ -624,6 +693,7 @@ public class HttpJsonRequest implements CleanCloseable {
         HttpEntity entity = null;
         StringEntity innerEntity = new StringEntity(data, ContentType.APPLICATION_JSON);
         innerEntity.setChunked(true);
+        postedBytes = innerEntity.getContentLength();
         if (factory.isDisableRequestCompression()) {
           entity = innerEntity;
         } else {
@@ -651,12 +721,18 @@ public class HttpJsonRequest implements CleanCloseable {
         HttpUriRequest rawRequestMessage = createWebRequest(url, method);
         if (content != null) {
           ((HttpEntityEnclosingRequestBase) rawRequestMessage).setEntity(content);
+          postedBytes = Math.max(0, content.getContentLength());
         }
         copyHeadersToHttpRequestMessage(rawRequestMessage);
 
         try {
           response = httpClient.execute(rawRequestMessage);
           responseStatusCode = response.getStatusLine().getStatusCode();
+          size = response.getEntity() != null ? Math.max(0, response.getEntity().getContentLength()) : 0;
+          if (!isAuthRetryStatus(responseStatusCode)) {
+            recordMetrics(responseStatusCode >= 400 && responseStatusCode != HttpStatus.SC_NOT_FOUND
+              ? RequestStatus.ERROR_ON_SERVER : RequestStatus.SEND_TO_SERVER);
+          }
           if (response.getStatusLine().getStatusCode() >= 300 &&
             (response.getStatusLine().getStatusCode() == HttpStatus.SC_PRECONDITION_FAILED ||
             response.getStatusLine().getStatusCode() == HttpStatus.SC_FORBIDDEN ||
@@ -665,6 +741,7 @@ public class HttpJsonRequest implements CleanCloseable {
           }
           return response;
         } catch (IOException e) {
+          recordFailureMetrics();
           throw new JsonReaderException(e);
         }
       }
@@ -820,6 +897,11 @@ public class HttpJsonRequest implements CleanCloseable {
         try {
           response = httpClient.execute(rawRequestMessage);
           responseStatusCode = response.getStatusLine().getStatusCode();
+          size = response.getEntity() != null ? Math.max(0, response.getEntity().getContentLength()) : 0;
+          if (!isAuthRetryStatus(responseStatusCode)) {
+            recordMetrics(responseStatusCode >= 400 && responseStatusCode != HttpStatus.SC_NOT_FOUND
+              ? RequestStatus.ERROR_ON_SERVER : RequestStatus.SEND_TO_SERVER);
+          }
           if (response.getStatusLine().getStatusCode() >= 300 &&
             (response.getStatusLine().getStatusCode() == HttpStatus.SC_PRECONDITION_FAILED ||
              response.getStatusLine().getStatusCode() == HttpStatus.SC_FORBIDDEN ||
@@ -828,6 +910,7 @@ public class HttpJsonRequest implements CleanCloseable {
           }
           return response;
         } catch (IOException e) {
+          recordFailureMetrics();
           throw new JsonWriterException(e);
         }
       }
@@ -1,10 +1,17 @@
 package net.ravendb.client.connection.implementation;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import net.ravendb.abstractions.basic.CleanCloseable;
@@ -15,10 +22,15 @@ import net.ravendb.abstractions.closure.Action0;
 import net.ravendb.abstractions.closure.Action2;
 import net.ravendb.abstractions.connection.WebRequestEventArgs;
 import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.HttpMethods;
 import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.abstractions.logging.ILog;
+import net.ravendb.abstractions.logging.LogManager;
 import net.ravendb.client.connection.CachedRequest;
 import net.ravendb.client.connection.CachedRequestOp;
 import net.ravendb.client.connection.CreateHttpJsonRequestParams;
+import net.ravendb.client.connection.ReplicaHealthChecker;
+import net.ravendb.client.connection.profiling.ClientMetrics;
 import net.ravendb.client.connection.profiling.IHoldProfilingInformation;
 import net.ravendb.client.connection.profiling.RequestResultArgs;
 import net.ravendb.client.extensions.MultiDatabase;
@@ -43,6 +55,8 @@ import org.apache.http.protocol.HttpProcessorBuilder;
  */
 public class HttpJsonRequestFactory implements CleanCloseable {
 
+  private static final ILog logger = LogManager.getCurrentClassLogger();
+
   private CloseableHttpClient httpClient;
 
   private List<EventHandler<WebRequestEventArgs>> configureRequest = new ArrayList<>();
@@ -59,9 +73,19 @@ public class HttpJsonRequestFactory implements CleanCloseable {
   private boolean disableRequestCompression;
   private boolean enableBasicAuthenticationOverUnsecuredHttpEvenThoughPasswordsWouldBeSentOverTheWireInClearTextToBeStolenByHackers;
   private ThreadLocal<Long> aggressiveCacheDuration = new ThreadLocal<>(); // in milis
+  private ThreadLocal<Long> aggressiveCacheMaxStaleness = new ThreadLocal<>(); // in milis
   private ThreadLocal<Boolean> disableHttpCaching = new ThreadLocal<>();
   private volatile boolean disposed;
   private ThreadLocal<Long> requestTimeout=  new ThreadLocal<>();// in milis
+  private ClientMetrics metrics = new ClientMetrics();
+  private final RequestCoalescer requestCoalescer = new RequestCoalescer();
+  private final Set<String> revalidatedUrls = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+  private final Object executorsLock = new Object();
+  private ExecutorService revalidationExecutor;
+  private ReplicaHealthChecker replicaHealthChecker;
+  private final AtomicInteger numOfStaleResponses = new AtomicInteger();
+  private final AtomicInteger numOfRevalidations = new AtomicInteger();
+  private final AtomicInteger numOfFailedRevalidations = new AtomicInteger();
 
 
   public HttpJsonRequestFactory(int maxNumberOfCachedRequests) {
@@ -125,6 +149,14 @@ public class HttpJsonRequestFactory implements CleanCloseable {
       return ;
     }
     disposed = true;
+    synchronized (executorsLock) {
+      if (revalidationExecutor != null) {
+        revalidationExecutor.shutdownNow();
+      }
+      if (replicaHealthChecker != null) {
+        replicaHealthChecker.close();
+      }
+    }
     cache.close();
     Closeables.closeQuietly(httpClient);
     if (onDispose != null) {
@@ -139,19 +171,27 @@ public class HttpJsonRequestFactory implements CleanCloseable {
       return new CachedRequestOp(null, false);
     }
     boolean skipServerCheck = false;
+    boolean revalidate = false;
     if (getAggressiveCacheDuration() != null) {
       long totalSeconds = getAggressiveCacheDuration() / 1000;
       if (totalSeconds > 0) {
         setHeader.apply("Cache-Control", "max-age=" + totalSeconds);
       }
 
-      if (cachedRequest.isForceServerCheck() == false && (new Date().getTime() - cachedRequest.getTime().getTime() < getAggressiveCacheDuration())) { //can serve directly from local cache
+      long age = new Date().getTime() - cachedRequest.getTime().getTime();
+      if (cachedRequest.isForceServerCheck() == false && age < getAggressiveCacheDuration()) { //can serve directly from local cache
+        skipServerCheck = true;
+      } else if (getAggressiveCacheMaxStaleness() != null && age < getAggressiveCacheDuration() + getAggressiveCacheMaxStaleness()) {
+        // serve stale response, it is refreshed in background (which also clears force server check)
         skipServerCheck = true;
+        revalidate = true;
+      }
+      if (!revalidate) {
+        cachedRequest.setForceServerCheck(false);
       }
-      cachedRequest.setForceServerCheck(false);
     }
     setHeader.apply("If-None-Match", cachedRequest.getHeaders().get(Constants.METADATA_ETAG_FIELD));
-    return new CachedRequestOp(cachedRequest, skipServerCheck);
+    return new CachedRequestOp(cachedRequest, skipServerCheck, revalidate);
   }
 
   private static class SetHeader implements Action2<String, String> {
@@ -183,12 +223,64 @@ public class HttpJsonRequestFactory implements CleanCloseable {
       CachedRequestOp cachedRequestDetails = configureCaching(createHttpJsonRequestParams.getUrl(), new SetHeader(request));
       request.setCachedRequestDetails(cachedRequestDetails.getCachedRequest());
       request.setSkipServerCheck(cachedRequestDetails.isSkipServerCheck());
+      if (cachedRequestDetails.isRevalidate() && createHttpJsonRequestParams.getMethod() == HttpMethods.GET) {
+        numOfStaleResponses.incrementAndGet();
+        revalidateInBackground(createHttpJsonRequestParams);
+      }
     }
 
     //we don't configure request here as we don't have request yet! - only http client instance
     return request;
   }
 
+  /**
+   * Refreshes cached response of given request (if it isn't refreshed already), without blocking caller.
+   */
+  private void revalidateInBackground(final CreateHttpJsonRequestParams requestParams) {
+    final String url = requestParams.getUrl();
+    if (!revalidatedUrls.add(url)) {
+      return;
+    }
+    try {
+      getRevalidationExecutor().execute(new Runnable() {
+        @SuppressWarnings("synthetic-access")
+        @Override
+        public void run() {
+          try (HttpJsonRequest request = createHttpJsonRequest(requestParams)) {
+            // this thread isn't in aggressive caching context, so request is sent with If-None-Match
+            request.readResponseJson();
+            numOfRevalidations.incrementAndGet();
+          } catch (Exception e) {
+            numOfFailedRevalidations.incrementAndGet();
+            logger.warnException("Unable to refresh cached response of " + url, e);
+          } finally {
+            revalidatedUrls.remove(url);
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // factory is being closed
+      revalidatedUrls.remove(url);
+    }
+  }
+
+  private ExecutorService getRevalidationExecutor() {
+    synchronized (executorsLock) {
+      if (revalidationExecutor == null) {
+        revalidationExecutor = Executors.newFixedThreadPool(2, new ThreadFactory() {
+          private final AtomicInteger counter = new AtomicInteger();
+          @Override
+          public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "Cache revalidation " + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+      }
+      return revalidationExecutor;
+    }
+  }
+
   public void configureRequest(IHoldProfilingInformation owner, WebRequestEventArgs args) {
     EventHelper.invoke(configureRequest, owner, args);
   }
@@ -210,6 +302,54 @@ public class HttpJsonRequestFactory implements CleanCloseable {
     };
   }
 
+  /**
+   * Settings of requests which are scoped to thread: aggressive caching, disabled http caching and request timeout.
+   */
+  public static class ThreadSettings {
+    private final Long aggressiveCacheDuration;
+    private final Long aggressiveCacheMaxStaleness;
+    private final Boolean disableHttpCaching;
+    private final Long requestTimeout;
+
+    ThreadSettings(Long aggressiveCacheDuration, Long aggressiveCacheMaxStaleness, Boolean disableHttpCaching, Long requestTimeout) {
+      this.aggressiveCacheDuration = aggressiveCacheDuration;
+      this.aggressiveCacheMaxStaleness = aggressiveCacheMaxStaleness;
+      this.disableHttpCaching = disableHttpCaching;
+      this.requestTimeout = requestTimeout;
+    }
+  }
+
+  /**
+   * Captures settings of calling thread, so requests sent on its behalf by other threads can use them.
+   * @see #applyThreadSettings(ThreadSettings)
+   */
+  public ThreadSettings captureThreadSettings() {
+    return new ThreadSettings(aggressiveCacheDuration.get(), aggressiveCacheMaxStaleness.get(), disableHttpCaching.get(), requestTimeout.get());
+  }
+
+  /**
+   * Applies settings captured on other thread to calling thread.
+   * @return closeable which restores previous settings of calling thread
+   */
+  public CleanCloseable applyThreadSettings(ThreadSettings settings) {
+    final ThreadSettings old = captureThreadSettings();
+    apply(settings);
+    return new CleanCloseable() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public void close() {
+        apply(old);
+      }
+    };
+  }
+
+  private void apply(ThreadSettings settings) {
+    aggressiveCacheDuration.set(settings.aggressiveCacheDuration);
+    aggressiveCacheMaxStaleness.set(settings.aggressiveCacheMaxStaleness);
+    disableHttpCaching.set(settings.disableHttpCaching);
+    requestTimeout.set(settings.requestTimeout);
+  }
+
   public void expireItemsFromCache(String db)
   {
     cache.forceServerCheckOfCachedItemsForDatabase(db);
@@ -220,6 +360,18 @@ public class HttpJsonRequestFactory implements CleanCloseable {
     return aggressiveCacheDuration.get();
   }
 
+  /**
+   * How long (in milliseconds) after aggressive cache duration elapsed (or after cached item was marked for server check)
+   * cached response is still served, while it is refreshed in background. Null when stale responses are not served.
+   */
+  public Long getAggressiveCacheMaxStaleness() {
+    return aggressiveCacheMaxStaleness.get();
+  }
+
+  public void setAggressiveCacheMaxStaleness(Long value) {
+    aggressiveCacheMaxStaleness.set(value);
+  }
+
   RavenJToken getCachedResponse(HttpJsonRequest httpJsonRequest, Map<String, String> additionalHeaders) {
     if (httpJsonRequest.getCachedRequestDetails() == null) {
       throw new IllegalStateException("Cannot get cached response from a request that has no cached information");
@@ -268,6 +420,39 @@ public class HttpJsonRequestFactory implements CleanCloseable {
 
 
 
+  /**
+   * Number of GET requests which didn't reach server, because they were served by identical request in flight
+   * (see {@link net.ravendb.client.document.Convention#setCoalesceConcurrentGetRequests(boolean)})
+   */
+  public int getNumOfCoalescedRequests() {
+    return requestCoalescer.getNumOfCoalescedRequests();
+  }
+
+  /**
+   * Number of stale cached responses served while they were refreshed in background
+   */
+  public int getNumOfStaleResponses() {
+    return numOfStaleResponses.get();
+  }
+
+  /**
+   * Number of cached responses refreshed in background
+   */
+  public int getNumOfRevalidations() {
+    return numOfRevalidations.get();
+  }
+
+  /**
+   * Number of failed background refreshes of cached responses
+   */
+  public int getNumOfFailedRevalidations() {
+    return numOfFailedRevalidations.get();
+  }
+
+  RequestCoalescer getRequestCoalescer() {
+    return requestCoalescer;
+  }
+
   public void incrementCachedRequests() {
     numOfCachedRequests.incrementAndGet();
   }
@@ -357,6 +542,9 @@ public class HttpJsonRequestFactory implements CleanCloseable {
       throw new IllegalStateException("Cannot update cached response from a request that has no cached information");
     }
     httpJsonRequest.getCachedRequestDetails().setTime(new Date());
+    httpJsonRequest.getCachedRequestDetails().setForceServerCheck(false);
+    // server confirmed cached response is up to date, so writes to database seen so far don't invalidate it
+    cache.set(httpJsonRequest.getUrl(), httpJsonRequest.getCachedRequestDetails());
   }
 
   public Long getRequestTimeout() {
@@ -375,4 +563,31 @@ public class HttpJsonRequestFactory implements CleanCloseable {
   public void setOnDispose(Action0 onDispose) {
     this.onDispose = onDispose;
   }
+
+  /**
+   * Metrics updated by every request created by this factory
+   */
+  public ClientMetrics getMetrics() {
+    return metrics;
+  }
+
+  public void setMetrics(ClientMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Health checker shared by all replication informers using this factory. Its second thread keeps topology refreshes
+   * from delaying probes.
+   */
+  public ReplicaHealthChecker getReplicaHealthChecker() {
+    synchronized (executorsLock) {
+      if (replicaHealthChecker == null) {
+        replicaHealthChecker = new ReplicaHealthChecker(2);
+        if (disposed) {
+          replicaHealthChecker.close();
+        }
+      }
+      return replicaHealthChecker;
+    }
+  }
 }
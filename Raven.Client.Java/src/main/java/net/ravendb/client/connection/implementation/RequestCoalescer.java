@@ -0,0 +1,128 @@
+package net.ravendb.client.connection.implementation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.abstractions.closure.Function0;
+import net.ravendb.abstractions.connection.ErrorResponseException;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+
+/**
+ * Single flight of identical GET requests: when request with given key is already in flight,
+ * caller waits for its response instead of sending another request to server.
+ * Each caller gets its own copy of response, or its own exception when shared request failed.
+ */
+class RequestCoalescer {
+
+  private final ConcurrentMap<List<Object>, InFlightRequest> inFlightRequests = new ConcurrentHashMap<>();
+  private final AtomicInteger numOfCoalescedRequests = new AtomicInteger();
+
+  /**
+   * Sends request (or joins identical request in flight) and returns its response
+   * @param key identifies request (url, headers, credentials)
+   * @param request caller's request, response of shared request is copied into it
+   * @param sendRequest sends request to server
+   */
+  public RavenJToken execute(List<Object> key, HttpJsonRequest request, Function0<RavenJToken> sendRequest) {
+    while (true) {
+      InFlightRequest inFlight = new InFlightRequest(request);
+      InFlightRequest existing = inFlightRequests.putIfAbsent(key, inFlight);
+      if (existing == null) {
+        try {
+          RavenJToken result = sendRequest.apply();
+          inFlight.complete(result, null);
+          return result;
+        } catch (RuntimeException e) {
+          inFlight.complete(null, e);
+          throw e;
+        } finally {
+          inFlightRequests.remove(key, inFlight);
+        }
+      }
+      if (existing.join()) {
+        numOfCoalescedRequests.incrementAndGet();
+        return existing.awaitResponse(request);
+      }
+      // request completed in meantime and its response is owned by its caller - start new one
+    }
+  }
+
+  public int getNumOfCoalescedRequests() {
+    return numOfCoalescedRequests.get();
+  }
+
+  private static class InFlightRequest {
+    private final HttpJsonRequest request;
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private int followers;
+    private boolean done;
+    private RavenJToken sharedResult;
+    private Map<String, String> responseHeaders;
+    private int responseStatusCode;
+    private long size;
+    private RuntimeException error;
+
+    public InFlightRequest(HttpJsonRequest request) {
+      this.request = request;
+    }
+
+    public synchronized boolean join() {
+      if (done) {
+        return false;
+      }
+      followers++;
+      return true;
+    }
+
+    public void complete(RavenJToken result, RuntimeException error) {
+      synchronized (this) {
+        done = true;
+        // caller of leading request owns (and may modify) result, followers copy from snapshot
+        if (followers > 0) {
+          sharedResult = result != null ? result.cloneToken() : null;
+          responseHeaders = request.getResponseHeaders() != null ? new HashMap<>(request.getResponseHeaders()) : null;
+          responseStatusCode = request.getResponseStatusCode();
+          size = request.getSize();
+        }
+        this.error = error;
+      }
+      completed.countDown();
+    }
+
+    public RavenJToken awaitResponse(HttpJsonRequest follower) {
+      try {
+        completed.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for response of " + request.getUrl(), e);
+      }
+      if (error != null) {
+        throw copyForFollower(error);
+      }
+      follower.setCoalescedResponse(responseHeaders != null ? new HashMap<>(responseHeaders) : null, responseStatusCode, size);
+      return sharedResult != null ? sharedResult.cloneToken() : null;
+    }
+
+    /**
+     * Creates exception (of the same type when possible) with follower's stack trace and shared error as its cause,
+     * so callers on different threads don't modify the same instance.
+     */
+    private static RuntimeException copyForFollower(RuntimeException error) {
+      if (error.getClass() == ErrorResponseException.class) {
+        ErrorResponseException copy = new ErrorResponseException((ErrorResponseException) error, error.getMessage());
+        copy.initCause(error);
+        return copy;
+      }
+      try {
+        return error.getClass().getConstructor(String.class, Throwable.class).newInstance(error.getMessage(), error);
+      } catch (ReflectiveOperationException e) {
+        return new RuntimeException(error.getMessage(), error);
+      }
+    }
+  }
+}
@@ -0,0 +1,327 @@
+package net.ravendb.client.connection.profiling;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import net.ravendb.abstractions.data.HttpMethods;
+import net.ravendb.abstractions.logging.ILog;
+import net.ravendb.abstractions.logging.LogManager;
+
+/**
+ * Request latencies (per operation type and per server), traffic, cache and failover statistics of a document store.
+ * Registered in platform MBean server under "net.ravendb.client" domain by DocumentStore.
+ * ShardedDocumentStore registers its own metrics (sessions) too, requests are recorded by metrics of each shard.
+ */
+public class ClientMetrics implements ClientMetricsMXBean {
+
+  private static final ILog log = LogManager.getCurrentClassLogger();
+
+  public static final String JMX_DOMAIN = "net.ravendb.client";
+
+  private final Map<OperationType, LatencyHistogram> operationLatencies;
+  private final ConcurrentMap<String, LatencyHistogram> replicaLatencies = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, AtomicLong> replicaFailures = new ConcurrentHashMap<>();
+
+  private final AtomicLong requestsCount = new AtomicLong();
+  private final AtomicLong failedRequestsCount = new AtomicLong();
+  private final AtomicLong bytesSent = new AtomicLong();
+  private final AtomicLong bytesReceived = new AtomicLong();
+  private final AtomicLong cacheHitsCount = new AtomicLong();
+  private final AtomicLong cacheMissesCount = new AtomicLong();
+  private final AtomicLong failoversCount = new AtomicLong();
+  private final AtomicLong sessionsOpenedCount = new AtomicLong();
+  private final AtomicLong sessionRequestsCount = new AtomicLong();
+
+  private final List<ObjectName> registeredNames = new CopyOnWriteArrayList<>();
+  private volatile String registeredStoreName;
+
+  public ClientMetrics() {
+    Map<OperationType, LatencyHistogram> latencies = new EnumMap<>(OperationType.class);
+    for (OperationType operationType : OperationType.values()) {
+      latencies.put(operationType, new LatencyHistogram());
+    }
+    operationLatencies = Collections.unmodifiableMap(latencies);
+  }
+
+  /**
+   * Records request which reached the server or was served from cache.
+   */
+  public void recordRequest(HttpMethods method, String url, long durationNanos, RequestStatus status, long sent, long received) {
+    long durationMicros = TimeUnit.NANOSECONDS.toMicros(durationNanos);
+    requestsCount.incrementAndGet();
+    operationLatencies.get(OperationType.fromRequest(method, url)).recordValue(durationMicros);
+    if (status != RequestStatus.AGGRESSIVELY_CACHED) {
+      getReplicaLatency(OperationType.getReplicaUrl(url)).recordValue(durationMicros);
+    }
+
+    switch (status) {
+      case CACHED:
+      case AGGRESSIVELY_CACHED:
+        cacheHitsCount.incrementAndGet();
+        break;
+      case ERROR_ON_SERVER:
+        failedRequestsCount.incrementAndGet();
+        break;
+      default:
+        if (method == HttpMethods.GET) {
+          cacheMissesCount.incrementAndGet();
+        }
+    }
+
+    if (sent > 0) {
+      bytesSent.addAndGet(sent);
+    }
+    if (received > 0) {
+      bytesReceived.addAndGet(received);
+    }
+  }
+
+  /**
+   * Records request which failed before response was received (ex. connection refused or timeout).
+   */
+  public void recordFailure(HttpMethods method, String url, long durationNanos) {
+    long durationMicros = TimeUnit.NANOSECONDS.toMicros(durationNanos);
+    requestsCount.incrementAndGet();
+    failedRequestsCount.incrementAndGet();
+    operationLatencies.get(OperationType.fromRequest(method, url)).recordValue(durationMicros);
+    getReplicaLatency(OperationType.getReplicaUrl(url)).recordValue(durationMicros);
+  }
+
+  public void recordReplicaFailure(String replicaUrl) {
+    AtomicLong failures = replicaFailures.get(replicaUrl);
+    if (failures == null) {
+      AtomicLong newFailures = new AtomicLong();
+      failures = replicaFailures.putIfAbsent(replicaUrl, newFailures);
+      if (failures == null) {
+        failures = newFailures;
+      }
+    }
+    failures.incrementAndGet();
+  }
+
+  public void recordFailover() {
+    failoversCount.incrementAndGet();
+  }
+
+  public void onSessionOpened() {
+    sessionsOpenedCount.incrementAndGet();
+  }
+
+  public void onSessionRequest() {
+    sessionRequestsCount.incrementAndGet();
+  }
+
+  /**
+   * Latencies of given operation type (in microseconds)
+   */
+  public LatencyHistogram getOperationLatency(OperationType operationType) {
+    return operationLatencies.get(operationType);
+  }
+
+  /**
+   * Latencies per server url (in microseconds)
+   */
+  public Map<String, LatencyHistogram> getReplicaLatencies() {
+    return Collections.unmodifiableMap(replicaLatencies);
+  }
+
+  private LatencyHistogram getReplicaLatency(String replicaUrl) {
+    LatencyHistogram histogram = replicaLatencies.get(replicaUrl);
+    if (histogram != null) {
+      return histogram;
+    }
+    LatencyHistogram newHistogram = new LatencyHistogram();
+    histogram = replicaLatencies.putIfAbsent(replicaUrl, newHistogram);
+    if (histogram != null) {
+      return histogram;
+    }
+    String storeName = registeredStoreName;
+    if (storeName != null) {
+      registerReplicaLatency(storeName, replicaUrl, newHistogram);
+    }
+    return newHistogram;
+  }
+
+  @Override
+  public long getRequestsCount() {
+    return requestsCount.get();
+  }
+
+  @Override
+  public long getFailedRequestsCount() {
+    return failedRequestsCount.get();
+  }
+
+  @Override
+  public long getBytesSent() {
+    return bytesSent.get();
+  }
+
+  @Override
+  public long getBytesReceived() {
+    return bytesReceived.get();
+  }
+
+  @Override
+  public long getCacheHitsCount() {
+    return cacheHitsCount.get();
+  }
+
+  @Override
+  public long getCacheMissesCount() {
+    return cacheMissesCount.get();
+  }
+
+  @Override
+  public double getCacheHitRatio() {
+    long hits = cacheHitsCount.get();
+    long total = hits + cacheMissesCount.get();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  @Override
+  public long getFailoversCount() {
+    return failoversCount.get();
+  }
+
+  @Override
+  public Map<String, Long> getReplicaFailuresCount() {
+    Map<String, Long> result = new HashMap<>();
+    for (Map.Entry<String, AtomicLong> failures : replicaFailures.entrySet()) {
+      result.put(failures.getKey(), failures.getValue().get());
+    }
+    return result;
+  }
+
+  @Override
+  public long getSessionsOpenedCount() {
+    return sessionsOpenedCount.get();
+  }
+
+  @Override
+  public long getSessionRequestsCount() {
+    return sessionRequestsCount.get();
+  }
+
+  @Override
+  public double getAverageRequestsPerSession() {
+    long sessions = sessionsOpenedCount.get();
+    return sessions == 0 ? 0 : (double) sessionRequestsCount.get() / sessions;
+  }
+
+  @Override
+  public void reset() {
+    for (LatencyHistogram histogram : operationLatencies.values()) {
+      histogram.reset();
+    }
+    for (LatencyHistogram histogram : replicaLatencies.values()) {
+      histogram.reset();
+    }
+    for (AtomicLong failures : replicaFailures.values()) {
+      failures.set(0);
+    }
+    requestsCount.set(0);
+    failedRequestsCount.set(0);
+    bytesSent.set(0);
+    bytesReceived.set(0);
+    cacheHitsCount.set(0);
+    cacheMissesCount.set(0);
+    failoversCount.set(0);
+    sessionsOpenedCount.set(0);
+    sessionRequestsCount.set(0);
+  }
+
+  /**
+   * Registers metrics in platform MBean server. If name is already taken (several stores pointing to the same url)
+   * sequential number is appended.
+   * @return store name used in object names or null if registration failed
+   */
+  public synchronized String registerMBeans(String storeIdentifier) {
+    if (registeredStoreName != null) {
+      return registeredStoreName;
+    }
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    String baseName = storeIdentifier != null ? storeIdentifier : "DocumentStore";
+    try {
+      String storeName = baseName;
+      for (int i = 2; ; i++) {
+        try {
+          register(server, this, createName("DocumentStore", storeName, null, null));
+          break;
+        } catch (InstanceAlreadyExistsException e) {
+          storeName = baseName + " #" + i;
+        }
+      }
+      for (Map.Entry<OperationType, LatencyHistogram> latency : operationLatencies.entrySet()) {
+        register(server, latency.getValue(), createName("OperationLatency", storeName, "operation", latency.getKey().name().toLowerCase()));
+      }
+      registeredStoreName = storeName;
+      for (Map.Entry<String, LatencyHistogram> latency : replicaLatencies.entrySet()) {
+        registerReplicaLatency(storeName, latency.getKey(), latency.getValue());
+      }
+      return storeName;
+    } catch (JMException e) {
+      log.warn("Unable to register client metrics MBeans: " + e.getMessage());
+      unregisterMBeans();
+      return null;
+    }
+  }
+
+  private synchronized void registerReplicaLatency(String storeName, String replicaUrl, LatencyHistogram histogram) {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = createName("ReplicaLatency", storeName, "replica", ObjectName.quote(replicaUrl));
+      if (!server.isRegistered(name)) {
+        register(server, histogram, name);
+      }
+    } catch (JMException e) {
+      log.warn("Unable to register replica latency MBean: " + e.getMessage());
+    }
+  }
+
+  private void register(MBeanServer server, Object mbean, ObjectName name) throws JMException {
+    server.registerMBean(mbean, name);
+    registeredNames.add(name);
+  }
+
+  private static ObjectName createName(String type, String storeName, String key, String value) throws JMException {
+    Hashtable<String, String> properties = new Hashtable<>();
+    properties.put("type", type);
+    properties.put("store", ObjectName.quote(storeName));
+    if (key != null) {
+      properties.put(key, value);
+    }
+    return new ObjectName(JMX_DOMAIN, properties);
+  }
+
+  /**
+   * Removes all MBeans registered by {@link #registerMBeans(String)}
+   */
+  public synchronized void unregisterMBeans() {
+    registeredStoreName = null;
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for (ObjectName name : registeredNames) {
+      try {
+        server.unregisterMBean(name);
+      } catch (JMException e) {
+        // already unregistered
+      }
+    }
+    registeredNames.clear();
+  }
+}
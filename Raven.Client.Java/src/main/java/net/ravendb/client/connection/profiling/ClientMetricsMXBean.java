@@ -0,0 +1,65 @@
+package net.ravendb.client.connection.profiling;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link ClientMetrics}.
+ */
+public interface ClientMetricsMXBean {
+
+  /**
+   * Number of requests sent to the server or served from cache
+   */
+  public long getRequestsCount();
+
+  /**
+   * Number of requests which failed (server error or network failure)
+   */
+  public long getFailedRequestsCount();
+
+  /**
+   * Size of request bodies (uncompressed json)
+   */
+  public long getBytesSent();
+
+  /**
+   * Size of response bodies read by the client
+   */
+  public long getBytesReceived();
+
+  /**
+   * Number of requests served from local cache (not modified or aggressively cached)
+   */
+  public long getCacheHitsCount();
+
+  /**
+   * Number of GET requests which were not served from local cache
+   */
+  public long getCacheMissesCount();
+
+  public double getCacheHitRatio();
+
+  /**
+   * Number of operations served by replica because primary server failed
+   */
+  public long getFailoversCount();
+
+  /**
+   * Failures count per server url
+   */
+  public Map<String, Long> getReplicaFailuresCount();
+
+  public long getSessionsOpenedCount();
+
+  /**
+   * Number of requests made by sessions
+   */
+  public long getSessionRequestsCount();
+
+  public double getAverageRequestsPerSession();
+
+  /**
+   * Clears all counters and histograms
+   */
+  public void reset();
+}
@@ -0,0 +1,130 @@
+package net.ravendb.client.connection.profiling;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free latency histogram with HDR-like log-linear buckets. Values below 128 are tracked exactly,
+ * larger values with relative error below 1/64. Values up to ~38 hours (in microseconds) are supported.
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+
+  private static final int SUB_BUCKET_BITS = 7;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+  private static final int MAX_SHIFT = 30;
+
+  /**
+   * Largest value which can be recorded, bigger values are stored as this one.
+   */
+  public static final long MAX_VALUE = ((long) SUB_BUCKET_COUNT << MAX_SHIFT) - 1;
+
+  private final AtomicLongArray counts = new AtomicLongArray(SUB_BUCKET_COUNT + MAX_SHIFT * SUB_BUCKET_HALF_COUNT);
+  private final AtomicLong totalCount = new AtomicLong();
+  private final AtomicLong totalSum = new AtomicLong();
+  private final AtomicLong maxValue = new AtomicLong();
+
+  public void recordValue(long value) {
+    long boundedValue = Math.min(Math.max(value, 0), MAX_VALUE);
+    counts.incrementAndGet(indexOf(boundedValue));
+    totalCount.incrementAndGet();
+    totalSum.addAndGet(boundedValue);
+
+    long currentMax;
+    while (boundedValue > (currentMax = maxValue.get())) {
+      if (maxValue.compareAndSet(currentMax, boundedValue)) {
+        break;
+      }
+    }
+  }
+
+  static int indexOf(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    // shift brings value into [SUB_BUCKET_HALF_COUNT, SUB_BUCKET_COUNT) range
+    int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+    return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT + (int) ((value >> shift) - SUB_BUCKET_HALF_COUNT);
+  }
+
+  static long highestEquivalentValue(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int offset = index - SUB_BUCKET_COUNT;
+    int shift = offset / SUB_BUCKET_HALF_COUNT + 1;
+    long subBucket = offset % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+    return (subBucket << shift) + (1L << shift) - 1;
+  }
+
+  @Override
+  public long getCount() {
+    return totalCount.get();
+  }
+
+  @Override
+  public double getMeanMicros() {
+    long count = totalCount.get();
+    return count == 0 ? 0 : (double) totalSum.get() / count;
+  }
+
+  @Override
+  public long getMaxMicros() {
+    return maxValue.get();
+  }
+
+  @Override
+  public long getP50Micros() {
+    return getValueAtPercentile(50);
+  }
+
+  @Override
+  public long getP90Micros() {
+    return getValueAtPercentile(90);
+  }
+
+  @Override
+  public long getP99Micros() {
+    return getValueAtPercentile(99);
+  }
+
+  @Override
+  public long getP999Micros() {
+    return getValueAtPercentile(99.9);
+  }
+
+  @Override
+  public long getValueAtPercentile(double percentile) {
+    long count = totalCount.get();
+    if (count == 0) {
+      return 0;
+    }
+    double boundedPercentile = Math.min(Math.max(percentile, 0), 100);
+    long countAtPercentile = Math.max(1, (long) Math.ceil(boundedPercentile / 100 * count));
+    long max = maxValue.get();
+    long cumulative = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      cumulative += counts.get(i);
+      if (cumulative >= countAtPercentile) {
+        return Math.min(highestEquivalentValue(i), max);
+      }
+    }
+    return max;
+  }
+
+  @Override
+  public void reset() {
+    for (int i = 0; i < counts.length(); i++) {
+      counts.set(i, 0);
+    }
+    totalCount.set(0);
+    totalSum.set(0);
+    maxValue.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("count=%d, mean=%.1fus, p50=%dus, p99=%dus, max=%dus", getCount(), getMeanMicros(),
+      getP50Micros(), getP99Micros(), getMaxMicros());
+  }
+}
@@ -0,0 +1,34 @@
+package net.ravendb.client.connection.profiling;
+
+/**
+ * JMX view of {@link LatencyHistogram}. All values are in microseconds.
+ */
+public interface LatencyHistogramMXBean {
+
+  /**
+   * Number of recorded requests
+   */
+  public long getCount();
+
+  public double getMeanMicros();
+
+  public long getMaxMicros();
+
+  public long getP50Micros();
+
+  public long getP90Micros();
+
+  public long getP99Micros();
+
+  public long getP999Micros();
+
+  /**
+   * Returns value below which given percentage (0-100) of recorded values fall
+   */
+  public long getValueAtPercentile(double percentile);
+
+  /**
+   * Clears all recorded values
+   */
+  public void reset();
+}
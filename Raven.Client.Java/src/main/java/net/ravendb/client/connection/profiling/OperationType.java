@@ -0,0 +1,106 @@
+package net.ravendb.client.connection.profiling;
+
+import net.ravendb.abstractions.data.HttpMethods;
+
+/**
+ * Kind of operation performed by a request, used to group request latencies in {@link ClientMetrics}
+ */
+public enum OperationType {
+  /**
+   * Documents loaded by id (single or multi load)
+   */
+  LOAD,
+  /**
+   * Index query (including facets, suggestions and more like this)
+   */
+  QUERY,
+  /**
+   * Batch of commands sent by saveChanges and single document writes
+   */
+  BATCH,
+  /**
+   * Lazy operations sent as one multi get request
+   */
+  MULTI_GET,
+  /**
+   * Streamed documents or query results (time to first byte)
+   */
+  STREAM,
+  /**
+   * Bulk insert operation (whole upload)
+   */
+  BULK_INSERT,
+  /**
+   * Any other request
+   */
+  OTHER;
+
+  private static final String DATABASES_PREFIX = "/databases/";
+
+  /**
+   * Resolves operation type based on request method and url
+   */
+  public static OperationType fromRequest(HttpMethods method, String url) {
+    String path = getDatabaseRelativePath(url);
+
+    if (path.startsWith("/docs")) {
+      return method == HttpMethods.GET || method == HttpMethods.HEAD ? LOAD : BATCH;
+    }
+    if (path.startsWith("/queries")) {
+      return LOAD;
+    }
+    if (path.startsWith("/indexes/") || path.startsWith("/facets/") || path.startsWith("/suggest/")
+      || path.startsWith("/morelikethis/")) {
+      return method == HttpMethods.GET || method == HttpMethods.POST ? QUERY : OTHER;
+    }
+    if (path.startsWith("/bulk_docs")) {
+      return BATCH;
+    }
+    if (path.startsWith("/multi_get")) {
+      return MULTI_GET;
+    }
+    if (path.startsWith("/streams/")) {
+      return STREAM;
+    }
+    if (path.startsWith("/bulkInsert")) {
+      return BULK_INSERT;
+    }
+    return OTHER;
+  }
+
+  private static String getDatabaseRelativePath(String url) {
+    int schemeEnd = url.indexOf("://");
+    int pathStart = url.indexOf('/', schemeEnd >= 0 ? schemeEnd + 3 : 0);
+    if (pathStart < 0) {
+      return "";
+    }
+    int queryStart = url.indexOf('?', pathStart);
+    String path = queryStart >= 0 ? url.substring(pathStart, queryStart) : url.substring(pathStart);
+    if (path.startsWith(DATABASES_PREFIX)) {
+      int databaseEnd = path.indexOf('/', DATABASES_PREFIX.length());
+      return databaseEnd >= 0 ? path.substring(databaseEnd) : "";
+    }
+    return path;
+  }
+
+  /**
+   * Returns server url (including database part) the request was sent to
+   */
+  public static String getReplicaUrl(String url) {
+    int schemeEnd = url.indexOf("://");
+    int pathStart = url.indexOf('/', schemeEnd >= 0 ? schemeEnd + 3 : 0);
+    if (pathStart < 0) {
+      int queryStart = url.indexOf('?');
+      return queryStart >= 0 ? url.substring(0, queryStart) : url;
+    }
+    if (url.startsWith(DATABASES_PREFIX, pathStart)) {
+      int databaseEnd = url.indexOf('/', pathStart + DATABASES_PREFIX.length());
+      int queryStart = url.indexOf('?', pathStart + DATABASES_PREFIX.length());
+      if (databaseEnd < 0 || (queryStart >= 0 && queryStart < databaseEnd)) {
+        databaseEnd = queryStart;
+      }
+      return databaseEnd >= 0 ? url.substring(0, databaseEnd) : url;
+    }
+    return url.substring(0, pathStart);
+  }
+}
@@ -47,6 +47,7 @@ import net.ravendb.client.connection.IRavenQueryInspector;
 import net.ravendb.client.document.batches.LazyQueryOperation;
 import net.ravendb.client.document.sessionoperations.QueryOperation;
 import net.ravendb.client.linq.LinqPathProvider;
+import net.ravendb.client.linq.QueryParameter;
 import net.ravendb.client.listeners.IDocumentQueryListener;
 import net.ravendb.client.shard.ShardReduceFunction;
 import net.ravendb.client.spatial.SpatialCriteria;
@@ -57,6 +58,7 @@ import org.apache.commons.lang.StringUtils;
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Defaults;
 import com.mysema.query.types.Expression;
+import com.mysema.query.types.ParamExpression;
 import com.mysema.query.types.Path;
 
 /**
@@ -254,6 +256,19 @@ public abstract class AbstractDocumentQuery<T, TSelf extends AbstractDocumentQue
 
   private Class originalType;
 
+  /**
+   * Parameter slots of query text, not null only when query contains parameters (see {@link QueryParameter})
+   */
+  protected List<ParameterSlot> parameterSlots;
+
+  /**
+   * Query text split on parameter slots and slots in order of appearance in text, set when query is compiled
+   */
+  protected String[] parameterTextSegments;
+  protected List<ParameterSlot> parameterTextSlots;
+
+  private static final char PARAMETER_MARKER = '\u0000';
+
   private static final Pattern ESPACE_POSTFIX_WILDCARD = Pattern.compile("\\\\\\*($|\\s)");
 
   /**
@@ -367,6 +382,9 @@ public abstract class AbstractDocumentQuery<T, TSelf extends AbstractDocumentQue
     disableCaching = other.disableCaching;
     showQueryTimings = other.showQueryTimings;
     shouldExplainScores = other.shouldExplainScores;
+    parameterSlots = other.parameterSlots;
+    parameterTextSegments = other.parameterTextSegments;
+    parameterTextSlots = other.parameterTextSlots;
     isMapReduce = false;
     fieldsToFetch = null;
 
@@ -529,6 +547,9 @@ public abstract class AbstractDocumentQuery<T, TSelf extends AbstractDocumentQue
 
   @Override
   public IndexQuery getIndexQuery() {
+    if (parameterSlots != null) {
+      throw new IllegalStateException("Query contains parameters, use compiled query to bind values: " + this);
+    }
     String query = queryText.toString();
     IndexQuery indexQuery = generateIndexQuery(query);
     return indexQuery;
@@ -956,8 +977,9 @@ public abstract class AbstractDocumentQuery<T, TSelf extends AbstractDocumentQue
   public IDocumentQuery<T> whereEquals(WhereParams whereParams) {
     ensureValidFieldName(whereParams);
 
-    if (theSession != null && whereParams.getValue() != null && !(whereParams.getValue() instanceof String)) {
-      sortByHints.add(Tuple.create(whereParams.getFieldName(), theSession.getConventions().getDefaultSortOption(whereParams.getValue().getClass())));
+    if (theSession != null && whereParams.getValue() != null && !(whereParams.getValue() instanceof String)
+      && getValueType(whereParams.getValue()) != String.class) {
+      sortByHints.add(Tuple.create(whereParams.getFieldName(), theSession.getConventions().getDefaultSortOption(getValueType(whereParams.getValue()))));
     }
 
     String transformToEqualValue = transformToEqualValue(whereParams);
@@ -1066,7 +1088,7 @@ public abstract class AbstractDocumentQuery<T, TSelf extends AbstractDocumentQue
     // NOTE: doesn't fully match startsWith semantics
     WhereParams whereParams = new WhereParams();
     whereParams.setFieldName(fieldName);
-    whereParams.setValue(value.toString() + "*");
+    whereParams.setValue(value instanceof QueryParameter ? ((QueryParameter) value).wrap("", "*") : value.toString() + "*");
     whereParams.setAnalyzed(true);
     whereParams.setAllowWildcards(true);
     whereEquals(whereParams);
@@ -1090,7 +1112,7 @@ public abstract class AbstractDocumentQuery<T, TSelf extends AbstractDocumentQue
     // NOTE: doesn't fully match EndsWith semantics
     WhereParams whereParams = new WhereParams();
     whereParams.setFieldName(fieldName);
-    whereParams.setValue("*" + value.toString());
+    whereParams.setValue(value instanceof QueryParameter ? ((QueryParameter) value).wrap("*", "") : "*" + value.toString());
     whereParams.setAllowWildcards(true);
     whereParams.setAnalyzed(true);
     whereEquals(whereParams);
@@ -1115,7 +1137,7 @@ public abstract class AbstractDocumentQuery<T, TSelf extends AbstractDocumentQue
 
     if ((start != null ? start : end) != null && theSession != null) {
       sortByHints.add(new Tuple<>(fieldName, theSession.getConventions().getDefaultSortOption(
-        (start != null ? start : end).getClass())));
+        getValueType(start != null ? start : end))));
     }
 
     negateIfNeeded();
@@ -1154,7 +1176,7 @@ public abstract class AbstractDocumentQuery<T, TSelf extends AbstractDocumentQue
     appendSpaceIfNeeded(queryText.length() > 0);
     if ((start != null ? start : end) != null && theSession != null) {
       sortByHints.add(new Tuple<>(fieldName, theSession.getConventions().getDefaultSortOption(
-        (start != null ? start : end).getClass())));
+        getValueType(start != null ? start : end))));
     }
 
     negateIfNeeded();
@@ -1186,7 +1208,7 @@ public abstract class AbstractDocumentQuery<T, TSelf extends AbstractDocumentQue
     }
 
     Object val = start != null ? start : end;
-    if (conventions.usesRangeType(val) && !fieldName.endsWith("_Range")) {
+    if (conventions.usesRangeType(val instanceof QueryParameter ? getValueType(val) : val) && !fieldName.endsWith("_Range")) {
       fieldName = fieldName + "_Range";
     }
     return fieldName;
@@ -1738,6 +1760,9 @@ public abstract class AbstractDocumentQuery<T, TSelf extends AbstractDocumentQue
 
   @SuppressWarnings("boxing")
   private String transformToEqualValue(WhereParams whereParams) {
+    if (whereParams.getValue() instanceof QueryParameter) {
+      return addParameterSlot(whereParams, false);
+    }
     if (whereParams.getValue() == null) {
       return Constants.NULL_VALUE_NOT_ANALYZED;
     }
@@ -1810,6 +1835,9 @@ public abstract class AbstractDocumentQuery<T, TSelf extends AbstractDocumentQue
 
   @SuppressWarnings("boxing")
   private String transformToRangeValue(WhereParams whereParams) {
+    if (whereParams.getValue() instanceof QueryParameter) {
+      return addParameterSlot(whereParams, true);
+    }
     if (whereParams.getValue() == null) {
       return Constants.NULL_VALUE_NOT_ANALYZED;
     }
@@ -1869,6 +1897,9 @@ public abstract class AbstractDocumentQuery<T, TSelf extends AbstractDocumentQue
         + currentClauseDepth);
     }
 
+    if (parameterSlots != null) {
+      return describeParameters(queryText.toString()).trim();
+    }
     return queryText.toString().trim();
   }
 
@@ -1979,4 +2010,143 @@ public abstract class AbstractDocumentQuery<T, TSelf extends AbstractDocumentQue
   public void setOriginalQueryType(Class originalType) {
     this.originalType = originalType;
   }
+
+  private static Class<?> getValueType(Object value) {
+    return value instanceof QueryParameter ? ((QueryParameter) value).getType() : value.getClass();
+  }
+
+  private String addParameterSlot(WhereParams whereParams, boolean range) {
+    if (parameterSlots == null) {
+      parameterSlots = new ArrayList<>();
+    }
+    parameterSlots.add(new ParameterSlot(whereParams, range));
+    return PARAMETER_MARKER + String.valueOf(parameterSlots.size() - 1) + PARAMETER_MARKER;
+  }
+
+  private String describeParameters(String text) {
+    StringBuilder result = new StringBuilder();
+    int position = 0;
+    int markerStart;
+    while ((markerStart = text.indexOf(PARAMETER_MARKER, position)) >= 0) {
+      int markerEnd = text.indexOf(PARAMETER_MARKER, markerStart + 1);
+      result.append(text, position, markerStart);
+      result.append(parameterSlots.get(Integer.parseInt(text.substring(markerStart + 1, markerEnd))).whereParams.getValue());
+      position = markerEnd + 1;
+    }
+    return result.append(text, position, text.length()).toString();
+  }
+
+  /**
+   * Splits query text on parameter slots, so values can be later bound without translating query again.
+   */
+  protected void splitOnParameterSlots() {
+    String text = queryText.toString();
+    List<String> segments = new ArrayList<>();
+    List<ParameterSlot> slots = new ArrayList<>();
+    int position = 0;
+    int markerStart;
+    while ((markerStart = text.indexOf(PARAMETER_MARKER, position)) >= 0) {
+      int markerEnd = text.indexOf(PARAMETER_MARKER, markerStart + 1);
+      segments.add(text.substring(position, markerStart));
+      slots.add(parameterSlots.get(Integer.parseInt(text.substring(markerStart + 1, markerEnd))));
+      position = markerEnd + 1;
+    }
+    segments.add(text.substring(position));
+    parameterTextSegments = segments.toArray(new String[0]);
+    parameterTextSlots = slots;
+  }
+
+  /**
+   * Copies state of compiled query template to given query created by executing session.
+   * Parameter slots are replaced by given values, escaped using conventions of target query.
+   * @param target
+   * @param parameterValues
+   */
+  protected void copyCompiledStateTo(AbstractDocumentQuery<T, ?> target, Map<ParamExpression<?>, Object> parameterValues) {
+    target.queryText = new StringBuilder(bindParameters(target, parameterValues));
+    target.pageSize = pageSize;
+    target.start = start;
+    target.timeout = timeout;
+    target.theWaitForNonStaleResults = theWaitForNonStaleResults;
+    target.theWaitForNonStaleResultsAsOfNow = theWaitForNonStaleResultsAsOfNow;
+    target.cutoff = theWaitForNonStaleResultsAsOfNow ? new Date() : cutoff;
+    if (target.cutoffEtag == null) {
+      target.cutoffEtag = cutoffEtag;
+    }
+    target.sortByHints.addAll(sortByHints);
+    target.orderByFields = orderByFields;
+    target.distinct = distinct;
+    target.allowMultipleIndexEntriesForSameDocumentToResultTransformer = allowMultipleIndexEntriesForSameDocumentToResultTransformer;
+    target.transformResultsFunc = transformResultsFunc;
+    target.includes.addAll(includes);
+    target.isSpatialQuery = isSpatialQuery;
+    target.spatialFieldName = spatialFieldName;
+    target.queryShape = queryShape;
+    target.spatialRelation = spatialRelation;
+    target.spatialUnits = spatialUnits;
+    target.distanceErrorPct = distanceErrorPct;
+    target.rootTypes.addAll(rootTypes);
+    target.defaultField = defaultField;
+    target.defaultOperator = defaultOperator;
+    target.beforeQueryExecutionAction = beforeQueryExecutionAction;
+    target.highlightedFields.addAll(highlightedFields);
+    target.highlighterPreTags = highlighterPreTags;
+    target.highlighterPostTags = highlighterPostTags;
+    target.resultsTransformer = resultsTransformer;
+    target.transformerParameters.putAll(transformerParameters);
+    target.disableEntitiesTracking = disableEntitiesTracking;
+    target.disableCaching = disableCaching;
+    target.showQueryTimings = showQueryTimings;
+    target.shouldExplainScores = shouldExplainScores;
+    target.afterStreamExecutedCallback = afterStreamExecutedCallback;
+    target.originalType = originalType;
+    if (parameterValues == null) {
+      target.parameterSlots = parameterSlots;
+      target.parameterTextSegments = parameterTextSegments;
+      target.parameterTextSlots = parameterTextSlots;
+    }
+  }
+
+  private String bindParameters(AbstractDocumentQuery<T, ?> target, Map<ParamExpression<?>, Object> parameterValues) {
+    if (parameterValues == null || parameterTextSegments == null) {
+      return queryText.toString();
+    }
+    StringBuilder result = new StringBuilder(queryText.length() + 16 * parameterTextSlots.size());
+    for (int i = 0; i < parameterTextSlots.size(); i++) {
+      result.append(parameterTextSegments[i]);
+      ParameterSlot slot = parameterTextSlots.get(i);
+      QueryParameter parameter = (QueryParameter) slot.whereParams.getValue();
+      if (!parameterValues.containsKey(parameter.getParam())) {
+        throw new IllegalStateException("Value of parameter '" + parameter.getParam().getName() + "' was not set");
+      }
+      WhereParams whereParams = slot.withValue(parameter.apply(target.linqPathProvider.convertValue(parameterValues.get(parameter.getParam()))));
+      result.append(slot.range ? target.transformToRangeValue(whereParams) : target.transformToEqualValue(whereParams));
+    }
+    result.append(parameterTextSegments[parameterTextSlots.size()]);
+    return result.toString();
+  }
+
+  /**
+   * Place in query text where value of parameter is bound
+   */
+  protected static class ParameterSlot {
+    private final WhereParams whereParams;
+    private final boolean range;
+
+    public ParameterSlot(WhereParams whereParams, boolean range) {
+      this.whereParams = whereParams;
+      this.range = range;
+    }
+
+    public WhereParams withValue(Object value) {
+      WhereParams result = new WhereParams();
+      result.setFieldName(whereParams.getFieldName());
+      result.setValue(value);
+      result.setAnalyzed(whereParams.isAnalyzed());
+      result.setAllowWildcards(whereParams.isAllowWildcards());
+      result.setFieldTypeForIdentifier(whereParams.getFieldTypeForIdentifier());
+      result.setNestedPath(whereParams.isNestedPath());
+      return result;
+    }
+  }
 }
@@ -0,0 +1,150 @@
+package net.ravendb.client.document;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flow control of bulk insert: limits number and size of documents which were accepted from producer, but weren't
+ * written to server yet (in flight), and adapts batch size to measured rate at which server accepts documents.
+ *
+ * Producer is blocked only while window is full and server keeps accepting batches, so slow server doesn't cause
+ * timeouts - only server which doesn't accept any batch for stall timeout does.
+ */
+class BulkInsertFlowControl {
+
+  static final int MIN_BATCH_SIZE = 16;
+
+  /**
+   * Batch size is chosen to be written in about this time, so window is released in small steps under pressure.
+   */
+  static final long TARGET_BATCH_MILLIS = 250;
+
+  private final int maxDocumentsInFlight;
+  private final long maxBytesInFlight;
+  private final int maxBatchSize;
+
+  private int documentsInFlight;
+  private long bytesInFlight;
+  private long batchesWritten;
+  private boolean closed;
+
+  private double documentsPerSecond;
+  private volatile int batchSize;
+
+  public BulkInsertFlowControl(int maxDocumentsInFlight, long maxBytesInFlight, int maxBatchSize) {
+    this.maxDocumentsInFlight = maxDocumentsInFlight;
+    this.maxBytesInFlight = maxBytesInFlight;
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+    this.batchSize = this.maxBatchSize;
+  }
+
+  /**
+   * Reserves window for single document without waiting. Document is always admitted when nothing is in flight,
+   * so documents bigger than the window can be written too.
+   * @return false when window is full or flow control was closed
+   */
+  public synchronized boolean tryAcquire(long bytes) {
+    if (closed || !fits(bytes)) {
+      return false;
+    }
+    documentsInFlight++;
+    bytesInFlight += bytes;
+    return true;
+  }
+
+  /**
+   * Reserves window for single document, waiting until it fits.
+   * @param stallTimeoutMillis maximum time to wait without server accepting any batch
+   * @return false when server didn't accept any batch for stall timeout or flow control was closed
+   */
+  public synchronized boolean acquire(long bytes, long stallTimeoutMillis) throws InterruptedException {
+    long progress = batchesWritten;
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(stallTimeoutMillis);
+    while (!closed && !fits(bytes)) {
+      if (batchesWritten != progress) {
+        progress = batchesWritten;
+        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(stallTimeoutMillis);
+      }
+      long remainingNanos = deadline - System.nanoTime();
+      if (remainingNanos <= 0) {
+        return false;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+    }
+    return tryAcquire(bytes);
+  }
+
+  /**
+   * Releases window reserved for document which wasn't written after all.
+   */
+  public synchronized void release(long bytes) {
+    documentsInFlight--;
+    bytesInFlight -= bytes;
+    notifyAll();
+  }
+
+  private boolean fits(long bytes) {
+    if (documentsInFlight == 0) {
+      return true;
+    }
+    return documentsInFlight < maxDocumentsInFlight && bytesInFlight + bytes <= maxBytesInFlight;
+  }
+
+  /**
+   * Releases window of documents which were written to server and updates batch size using time it took to write them.
+   */
+  public synchronized void batchWritten(int documents, long bytes, long elapsedNanos) {
+    documentsInFlight -= documents;
+    bytesInFlight -= bytes;
+    batchesWritten++;
+    updateBatchSize(documents, elapsedNanos);
+    notifyAll();
+  }
+
+  private void updateBatchSize(int documents, long elapsedNanos) {
+    if (documents == 0) {
+      return;
+    }
+    double rate = documents * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsedNanos);
+    documentsPerSecond = documentsPerSecond == 0 ? rate : 0.7 * documentsPerSecond + 0.3 * rate;
+    long size = (long) (documentsPerSecond * TARGET_BATCH_MILLIS / 1000);
+    batchSize = (int) Math.max(Math.min(MIN_BATCH_SIZE, maxBatchSize), Math.min(maxBatchSize, size));
+  }
+
+  /**
+   * Wakes up and fails all waiting producers, subsequent reservations fail too.
+   */
+  public synchronized void close() {
+    closed = true;
+    notifyAll();
+  }
+
+  public synchronized boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * @return number of documents which should be sent in next batch
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * @return size of batch which releases half of byte window, so producer can fill the other half meanwhile
+   */
+  public long getMaxBatchBytes() {
+    return Math.max(1, maxBytesInFlight / 2);
+  }
+
+  public synchronized int getDocumentsInFlight() {
+    return documentsInFlight;
+  }
+
+  public synchronized long getBytesInFlight() {
+    return bytesInFlight;
+  }
+
+  public synchronized double getDocumentsPerSecond() {
+    return documentsPerSecond;
+  }
+}
@@ -6,6 +6,7 @@ import java.util.UUID;
 
 import net.ravendb.abstractions.basic.CleanCloseable;
 import net.ravendb.abstractions.basic.Reference;
+import net.ravendb.abstractions.closure.Action0;
 import net.ravendb.abstractions.closure.Action1;
 import net.ravendb.abstractions.closure.Function1;
 import net.ravendb.abstractions.data.BulkInsertOptions;
@@ -132,6 +133,23 @@ public class BulkInsertOperation implements CleanCloseable {
     operation.write(id, metadata, document, dataSize);
   }
 
+  /**
+   * Stores document only when it doesn't have to wait for server to accept previously stored documents.
+   * Before insert listeners are invoked only when document is stored (rejected document isn't modified).
+   * @return false when document wasn't stored because too many documents are waiting to be sent to server
+   */
+  public boolean tryStore(final RavenJObject document, final RavenJObject metadata, final String id, Integer dataSize) throws InterruptedException {
+    if (operation.isAborted()) {
+      throw new IllegalStateException("Bulk insert has been aborted or the operation was timed out");
+    }
+    return operation.tryWrite(id, metadata, document, dataSize, new Action0() {
+      @Override
+      public void apply() {
+        onBeforeEntityInsert(id, document, metadata);
+      }
+    });
+  }
+
   public String getId(Object entity) {
     Reference<String> idRef = new Reference<>();
 
@@ -1,5 +1,6 @@
 package net.ravendb.client.document;
 
+import net.ravendb.abstractions.closure.Action0;
 import net.ravendb.abstractions.closure.Action1;
 import net.ravendb.abstractions.closure.Delegates;
 import net.ravendb.abstractions.data.BulkInsertOptions;
@@ -10,6 +11,9 @@ import net.ravendb.client.changes.IDatabaseChanges;
 import net.ravendb.client.connection.ServerClient;
 
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 public class ChunkedRemoteBulkInsertOperation implements ILowLevelBulkInsertOperation {
 
@@ -21,7 +25,7 @@ public class ChunkedRemoteBulkInsertOperation implements ILowLevelBulkInsertOper
     private long currentChunkSize;
     private boolean disposed;
     private Action1<String> report;
-    //TODO: previous task?
+    private FutureTask<RemoteBulkInsertOperation> nextChunk;
 
     public ChunkedRemoteBulkInsertOperation(BulkInsertOptions options, ServerClient serverClient, IDatabaseChanges changes) {
         this.options = options;
@@ -54,23 +58,109 @@ public class ChunkedRemoteBulkInsertOperation implements ILowLevelBulkInsertOper
         processedItemsInCurrentOperation++;
     }
 
+    @Override
+    public boolean tryWrite(String id, RavenJObject metadata, RavenJObject data, Integer dataSize) throws InterruptedException {
+        return tryWrite(id, metadata, data, dataSize, null);
+    }
+
+    /**
+     * Never waits for server: full chunk is finished and next one is started on background thread,
+     * documents are rejected until next chunk is ready.
+     */
+    @Override
+    public boolean tryWrite(String id, RavenJObject metadata, RavenJObject data, Integer dataSize, Action0 beforeWrite) throws InterruptedException {
+        if (!tryRollOver()) {
+            return false;
+        }
+
+        if (!current.tryWrite(id, metadata, data, dataSize, beforeWrite)) {
+            return false;
+        }
+
+        if (options.getChunkedBulkInsertOptions().getMaxChunkVolumeInBytes() > 0) {
+            currentChunkSize += DocumentHelpers.getRoughSize(data);
+        }
+
+        processedItemsInCurrentOperation++;
+        return true;
+    }
+
     private RemoteBulkInsertOperation getBulkInsertOperation() {
         if (current == null) {
             return current = createBulkInsertOperation();
         }
 
+        if (nextChunk != null) {
+            completeRollOver();
+        }
+
+        if (!isChunkFull()) {
+            return current;
+        }
+
+        // finish previous chunk, otherwise it keeps its connection (and writer thread) until whole operation is closed
+        current.close();
+
+        currentChunkSize = 0;
+        processedItemsInCurrentOperation = 0;
+        current = createBulkInsertOperation();
+        return current;
+    }
+
+    private boolean isChunkFull() {
         if (processedItemsInCurrentOperation < options.getChunkedBulkInsertOptions().getMaxDocumentsPerChunk()) {
             if (options.getChunkedBulkInsertOptions().getMaxChunkVolumeInBytes() <= 0 || currentChunkSize < options.getChunkedBulkInsertOptions().getMaxChunkVolumeInBytes()) {
-                return current;
+                return false;
             }
         }
+        return true;
+    }
 
-        //TODO: do we need prev task logic?
+    /**
+     * Starts finishing full chunk (and starting next one) on background thread.
+     * @return false while next chunk isn't ready
+     */
+    private boolean tryRollOver() {
+        if (nextChunk == null) {
+            if (!isChunkFull()) {
+                return true;
+            }
+            final RemoteBulkInsertOperation previous = current;
+            nextChunk = new FutureTask<>(new Callable<RemoteBulkInsertOperation>() {
+                @Override
+                public RemoteBulkInsertOperation call() {
+                    previous.close();
+                    return createBulkInsertOperation();
+                }
+            });
+            Thread thread = new Thread(nextChunk, "Bulk insert chunk roll over");
+            thread.setDaemon(true);
+            thread.start();
+            return false;
+        }
+        if (!nextChunk.isDone()) {
+            return false;
+        }
+        completeRollOver();
+        return true;
+    }
 
+    private void completeRollOver() {
+        FutureTask<RemoteBulkInsertOperation> rollOver = nextChunk;
+        nextChunk = null;
         currentChunkSize = 0;
         processedItemsInCurrentOperation = 0;
-        current = createBulkInsertOperation();
-        return current;
+        try {
+            current = rollOver.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
     }
 
     private RemoteBulkInsertOperation createBulkInsertOperation() {
@@ -93,6 +183,9 @@ public class ChunkedRemoteBulkInsertOperation implements ILowLevelBulkInsertOper
 
     @Override
     public void abort() {
+        if (nextChunk != null) {
+            completeRollOver();
+        }
         current.abort();
     }
 
@@ -101,6 +194,10 @@ public class ChunkedRemoteBulkInsertOperation implements ILowLevelBulkInsertOper
         if (disposed) {
             return;
         }
+        disposed = true;
+        if (nextChunk != null) {
+            completeRollOver();
+        }
         if (current != null) {
             current.close();
         }
@@ -1,18 +1,17 @@
 package net.ravendb.client.document;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import org.apache.commons.lang.reflect.FieldUtils;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 
 import com.mysema.query.types.Expression;
 
+import net.ravendb.abstractions.basic.Reference;
 import net.ravendb.abstractions.closure.Action1;
 import net.ravendb.abstractions.connection.OperationCredentials;
 import net.ravendb.abstractions.replication.ReplicationClientConfiguration;
@@ -22,12 +21,15 @@ import net.ravendb.client.delegates.IdentityPropertyFinder;
 import net.ravendb.client.delegates.RequestCachePolicy;
 import net.ravendb.client.indexes.AbstractIndexCreationTask;
 import net.ravendb.client.linq.LinqPathProvider;
+import net.ravendb.client.util.FieldAccessor;
+import net.ravendb.client.util.TypeAccessor;
 
 
 @SuppressWarnings("unused")
 public class Convention {
 
-  private Map<Class<?>, Field> idPropertyCache = new HashMap<>();
+  // reference holds null for types without identity property
+  private ConcurrentMap<Class<?>, Reference<FieldAccessor>> idPropertyCache = new ConcurrentHashMap<>();
 
   private FailoverBehaviorSet failoverBehavior = new FailoverBehaviorSet();
 
@@ -43,6 +45,22 @@ public class Convention {
 
   private boolean saveEnumsAsIntegers;
 
+  private long changesReconnectMinDelay = 1000;
+
+  private long changesReconnectMaxDelay = 30000;
+
+  private long changesHeartbeatTimeout = 30000;
+
+  private int changesRestoreParallelism = 8;
+
+  private long operationStatusPollMinDelay = 50;
+
+  private long operationStatusPollMaxDelay = 2000;
+
+  private long replicaHealthCheckMaxInterval = 5000;
+
+  private boolean coalesceConcurrentGetRequests;
+
   public void updateFrom(ReplicationClientConfiguration configuration) {
     if (configuration == null) {
       return;
@@ -80,51 +98,39 @@ public class Convention {
    * Gets the identity property.
    * @param type
    */
-  @SuppressWarnings("boxing")
   public Field getIdentityProperty(Class<?> type) {
-    if (idPropertyCache.containsKey(type)) {
-      return idPropertyCache.get(type);
+    FieldAccessor accessor = getIdentityPropertyAccessor(type);
+    return accessor != null ? accessor.getField() : null;
+  }
+
+  /**
+   * Gets accessor of the identity property.
+   * @param type
+   */
+  public FieldAccessor getIdentityPropertyAccessor(Class<?> type) {
+    Reference<FieldAccessor> cached = idPropertyCache.get(type);
+    if (cached != null) {
+      return cached.value;
     }
+    FieldAccessor identityProperty = findIdentityPropertyAccessor(type);
+    idPropertyCache.put(type, new Reference<>(identityProperty));
+    return identityProperty;
+  }
+
+  private FieldAccessor findIdentityPropertyAccessor(Class<?> type) {
     // we want to ignore nested entities from index creation tasks
     if (type.isMemberClass() && type.getDeclaringClass() != null && AbstractIndexCreationTask.class.isAssignableFrom(type.getDeclaringClass())) {
-      idPropertyCache.put(type, null);
       return null;
     }
 
-    Field identityProperty = null;
-    for (Field f : getPropertiesForType(type)) {
-      if (findIdentityProperty.find(f)) {
-        identityProperty = f;
-        break;
+    for (FieldAccessor f : TypeAccessor.of(type).getFields()) {
+      if (findIdentityProperty.find(f.getField())) {
+        return f;
       }
     }
-
-    if (identityProperty != null && !identityProperty.getDeclaringClass().equals(type)) {
-      Field propertyInfo = FieldUtils.getField(identityProperty.getDeclaringClass(), identityProperty.getName());
-      if (propertyInfo != null) {
-        identityProperty = propertyInfo;
-      }
-    }
-
-    idPropertyCache.put(type, identityProperty);
-    return identityProperty;
+    return null;
   }
 
-  private static Iterable<Field> getPropertiesForType(Class<?> type) {
-    List<Field> result = new ArrayList<>();
-    do {
-      Field[] fields = type.getDeclaredFields();
-      for (Field field : fields) {
-        if (field.isSynthetic() || Modifier.isStatic(field.getModifiers())) {
-          continue;
-        }
-        result.add(field);
-      }
-      type = type.getSuperclass();
-    } while (type != null && !Object.class.equals(type));
-
-    return result;
-  }
   /**
    * Whatever or not RavenDB should cache the request to the specified url.
    * @return the shouldCacheRequest
@@ -234,4 +240,132 @@ public class Convention {
     this.saveEnumsAsIntegers = saveEnumsAsIntegers;
   }
 
+  /**
+   * Delay (in milliseconds) before first attempt to reconnect Changes API connection.
+   * Each following attempt doubles the delay (up to changesReconnectMaxDelay), actual delay is randomized to spread reconnects of many clients.
+   */
+  public long getChangesReconnectMinDelay() {
+    return changesReconnectMinDelay;
+  }
+
+  /**
+   * Delay (in milliseconds) before first attempt to reconnect Changes API connection.
+   * Each following attempt doubles the delay (up to changesReconnectMaxDelay), actual delay is randomized to spread reconnects of many clients.
+   * @param changesReconnectMinDelay
+   */
+  public void setChangesReconnectMinDelay(long changesReconnectMinDelay) {
+    this.changesReconnectMinDelay = changesReconnectMinDelay;
+  }
+
+  /**
+   * Maximum delay (in milliseconds) between attempts to reconnect Changes API connection.
+   */
+  public long getChangesReconnectMaxDelay() {
+    return changesReconnectMaxDelay;
+  }
+
+  /**
+   * Maximum delay (in milliseconds) between attempts to reconnect Changes API connection.
+   * @param changesReconnectMaxDelay
+   */
+  public void setChangesReconnectMaxDelay(long changesReconnectMaxDelay) {
+    this.changesReconnectMaxDelay = changesReconnectMaxDelay;
+  }
+
+  /**
+   * Time (in milliseconds) without any message (server sends heartbeat every 10 seconds) after which Changes API connection is presumed dead.
+   */
+  public long getChangesHeartbeatTimeout() {
+    return changesHeartbeatTimeout;
+  }
+
+  /**
+   * Time (in milliseconds) without any message (server sends heartbeat every 10 seconds) after which Changes API connection is presumed dead.
+   * @param changesHeartbeatTimeout
+   */
+  public void setChangesHeartbeatTimeout(long changesHeartbeatTimeout) {
+    this.changesHeartbeatTimeout = changesHeartbeatTimeout;
+  }
+
+  /**
+   * Maximum number of concurrent requests used to restore Changes API subscriptions after reconnect.
+   */
+  public int getChangesRestoreParallelism() {
+    return changesRestoreParallelism;
+  }
+
+  /**
+   * Maximum number of concurrent requests used to restore Changes API subscriptions after reconnect.
+   * @param changesRestoreParallelism
+   */
+  public void setChangesRestoreParallelism(int changesRestoreParallelism) {
+    this.changesRestoreParallelism = changesRestoreParallelism;
+  }
+
+  /**
+   * Delay (in milliseconds) between first polls of status of long running operation (set based operations, compaction, restore).
+   * Delay doubles with each poll (up to operationStatusPollMaxDelay) and is reset when operation reports progress.
+   */
+  public long getOperationStatusPollMinDelay() {
+    return operationStatusPollMinDelay;
+  }
+
+  /**
+   * Delay (in milliseconds) between first polls of status of long running operation (set based operations, compaction, restore).
+   * Delay doubles with each poll (up to operationStatusPollMaxDelay) and is reset when operation reports progress.
+   * @param operationStatusPollMinDelay
+   */
+  public void setOperationStatusPollMinDelay(long operationStatusPollMinDelay) {
+    this.operationStatusPollMinDelay = operationStatusPollMinDelay;
+  }
+
+  /**
+   * Maximum delay (in milliseconds) between polls of status of long running operation.
+   */
+  public long getOperationStatusPollMaxDelay() {
+    return operationStatusPollMaxDelay;
+  }
+
+  /**
+   * Maximum delay (in milliseconds) between polls of status of long running operation.
+   * @param operationStatusPollMaxDelay
+   */
+  public void setOperationStatusPollMaxDelay(long operationStatusPollMaxDelay) {
+    this.operationStatusPollMaxDelay = operationStatusPollMaxDelay;
+  }
+
+  /**
+   * Maximum interval (in milliseconds) between health probes of failing node.
+   * First probe is sent after replication informer delay, interval doubles with each failed probe.
+   */
+  public long getReplicaHealthCheckMaxInterval() {
+    return replicaHealthCheckMaxInterval;
+  }
+
+  /**
+   * Maximum interval (in milliseconds) between health probes of failing node.
+   * First probe is sent after replication informer delay, interval doubles with each failed probe.
+   * @param replicaHealthCheckMaxInterval
+   */
+  public void setReplicaHealthCheckMaxInterval(long replicaHealthCheckMaxInterval) {
+    this.replicaHealthCheckMaxInterval = replicaHealthCheckMaxInterval;
+  }
+
+  /**
+   * Whether concurrent identical GET requests (the same url, headers and credentials) share single request to server.
+   */
+  public boolean isCoalesceConcurrentGetRequests() {
+    return coalesceConcurrentGetRequests;
+  }
+
+  /**
+   * When enabled, GET request identical to request already in flight (the same url, headers and credentials)
+   * is not sent to server - caller waits for response of request in flight and gets its own copy of it.
+   * Prevents thundering herd of requests for popular documents and queries. Disabled by default.
+   * @param coalesceConcurrentGetRequests
+   */
+  public void setCoalesceConcurrentGetRequests(boolean coalesceConcurrentGetRequests) {
+    this.coalesceConcurrentGetRequests = coalesceConcurrentGetRequests;
+  }
+
 }
@@ -54,12 +54,18 @@ public class DocumentConvention extends Convention implements Serializable {
 
   private boolean disableProfiling;
 
+  private boolean disableMetricsMBeans;
+
   private List<ITypeConverter> identityTypeConvertors;
 
   private int maxNumberOfRequestsPerSession;
 
+  private int maxNumberOfEntitiesPerSession;
+
   private int maxLengthOfQueryUsingGetUrl;
 
+  private int queryResultCacheSize;
+
   private boolean allowQueriesOnId;
 
   private ConsistencyOptions defaultQueryingConsistency;
@@ -111,6 +117,10 @@ public class DocumentConvention extends Convention implements Serializable {
 
   private EnumSet<IndexAndTransformerReplicationMode> indexAndTransformerReplicationMode;
 
+  private int indexDeploymentParallelism = 8;
+
+  private int maxStreamReconnectAttempts = 5;
+
   private boolean acceptGzipContent;
 
   public DocumentConvention() {
@@ -283,6 +293,23 @@ public class DocumentConvention extends Convention implements Serializable {
     this.disableProfiling = b;
   }
 
+  /**
+   * Disable registration of client metrics MBeans (request latencies, cache and failover statistics)
+   * in platform MBean server. Metrics are still collected and available from DocumentStore.getMetrics().
+   */
+  public boolean isDisableMetricsMBeans() {
+    return disableMetricsMBeans;
+  }
+
+  /**
+   * Disable registration of client metrics MBeans (request latencies, cache and failover statistics)
+   * in platform MBean server. Metrics are still collected and available from DocumentStore.getMetrics().
+   * @param disableMetricsMBeans
+   */
+  public void setDisableMetricsMBeans(boolean disableMetricsMBeans) {
+    this.disableMetricsMBeans = disableMetricsMBeans;
+  }
+
   /**
    * A list of type converters that can be used to translate the document key (string)
    * to whatever type it is that is used on the entity, if the type isn't already a string
@@ -338,6 +365,24 @@ public class DocumentConvention extends Convention implements Serializable {
     this.maxNumberOfRequestsPerSession = maxNumberOfRequestsPerSession;
   }
 
+  /**
+   * Gets the default max number of entities (and included documents) held by session (0 - unbounded).
+   */
+  public int getMaxNumberOfEntitiesPerSession() {
+    return maxNumberOfEntitiesPerSession;
+  }
+
+  /**
+   * Sets the default max number of entities (and included documents) held by session.
+   * When it is exceeded, session evicts least recently used unmodified entities and unused included documents.
+   * Modified, new and deleted entities are never evicted, evicted entities still held by caller are tracked again
+   * when they are used, so their changes are saved. Unbounded (0) by default.
+   * @param maxNumberOfEntitiesPerSession
+   */
+  public void setMaxNumberOfEntitiesPerSession(int maxNumberOfEntitiesPerSession) {
+    this.maxNumberOfEntitiesPerSession = maxNumberOfEntitiesPerSession;
+  }
+
   /**
    *  Whatever to allow queries on document id.
    *  By default, queries on id are disabled, because it is far more efficient
@@ -835,6 +880,22 @@ public class DocumentConvention extends Convention implements Serializable {
     this.maxLengthOfQueryUsingGetUrl = maxLengthOfQueryUsingGetUrl;
   }
 
+  /**
+   * Maximum number of query results cached per database (0 - query results aren't cached).
+   */
+  public int getQueryResultCacheSize() {
+    return queryResultCacheSize;
+  }
+
+  /**
+   * Maximum number of query results cached per database. Cached results are reused (without request to server)
+   * until index etag changes, which is observed through Changes API. Disabled (0) by default.
+   * @param queryResultCacheSize
+   */
+  public void setQueryResultCacheSize(int queryResultCacheSize) {
+    this.queryResultCacheSize = queryResultCacheSize;
+  }
+
 
   public EnumSet<IndexAndTransformerReplicationMode> getIndexAndTransformerReplicationMode() {
     return indexAndTransformerReplicationMode;
@@ -846,6 +907,40 @@ public class DocumentConvention extends Convention implements Serializable {
     this.indexAndTransformerReplicationMode = indexAndTransformerReplicationMode;
   }
 
+  /**
+   * Maximum number of concurrent requests (transformer puts, priority changes and replication requests)
+   * sent to single database when indexes are deployed using executeIndexes.
+   */
+  public int getIndexDeploymentParallelism() {
+    return indexDeploymentParallelism;
+  }
+
+  /**
+   * Maximum number of concurrent requests (transformer puts, priority changes and replication requests)
+   * sent to single database when indexes are deployed using executeIndexes.
+   * @param indexDeploymentParallelism
+   */
+  public void setIndexDeploymentParallelism(int indexDeploymentParallelism) {
+    this.indexDeploymentParallelism = indexDeploymentParallelism;
+  }
+
+  /**
+   * Maximum number of consecutive attempts to reopen resumable stream (streamDocsResumable, streamQueryResumable)
+   * after connection failure.
+   */
+  public int getMaxStreamReconnectAttempts() {
+    return maxStreamReconnectAttempts;
+  }
+
+  /**
+   * Maximum number of consecutive attempts to reopen resumable stream (streamDocsResumable, streamQueryResumable)
+   * after connection failure.
+   * @param maxStreamReconnectAttempts
+   */
+  public void setMaxStreamReconnectAttempts(int maxStreamReconnectAttempts) {
+    this.maxStreamReconnectAttempts = maxStreamReconnectAttempts;
+  }
+
   public boolean isPreserveDocumentPropertiesNotFoundOnModel() {
     return preserveDocumentPropertiesNotFoundOnModel;
   }
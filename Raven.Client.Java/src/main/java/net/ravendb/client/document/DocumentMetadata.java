@@ -15,6 +15,7 @@ public class DocumentMetadata {
   private RavenJObject originalMetadata;
   private boolean forceConcurrencyCheck;
   private boolean ignoreChanges;
+  private long lastAccess;
   public RavenJObject getOriginalValue() {
     return originalValue;
   }
@@ -67,4 +68,14 @@ public class DocumentMetadata {
   public void setIgnoreChanges(boolean ignoreChanges) {
     this.ignoreChanges = ignoreChanges;
   }
+
+  /**
+   * Sequence number of the last access of entity in session, used to evict least recently used entities
+   */
+  long getLastAccess() {
+    return lastAccess;
+  }
+  void setLastAccess(long lastAccess) {
+    this.lastAccess = lastAccess;
+  }
 }
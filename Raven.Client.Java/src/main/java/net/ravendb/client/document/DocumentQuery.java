@@ -2,6 +2,7 @@ package net.ravendb.client.document;
 
 import com.google.common.collect.Sets;
 import com.mysema.query.types.Expression;
+import com.mysema.query.types.ParamExpression;
 import com.mysema.query.types.Path;
 import com.mysema.query.types.path.ListPath;
 import net.ravendb.abstractions.basic.Lazy;
@@ -22,13 +23,13 @@ import net.ravendb.client.IDocumentQuery;
 import net.ravendb.client.connection.IDatabaseCommands;
 import net.ravendb.client.indexes.AbstractTransformerCreationTask;
 import net.ravendb.client.linq.EnumerableUtils;
+import net.ravendb.client.linq.IDocumentQueryGenerator;
 import net.ravendb.client.listeners.IDocumentQueryListener;
 import net.ravendb.client.spatial.SpatialCriteria;
+import net.ravendb.client.util.PropertyAccessor;
+import net.ravendb.client.util.TypeAccessor;
 import org.apache.commons.lang.StringUtils;
 
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.lang.reflect.Field;
 import java.util.*;
 
@@ -66,29 +67,22 @@ public class DocumentQuery<T> extends AbstractDocumentQuery<T, DocumentQuery<T>>
    */
   @Override
   public <TProjection> IDocumentQuery<TProjection> selectFields(Class<TProjection> projectionClass) {
-    try {
-      List<String> projections = new ArrayList<>();
-      List<String> fields = new ArrayList<>();
-
-      Field identityProperty = getDocumentConvention().getIdentityProperty(projectionClass);
-
-      for (PropertyDescriptor propertyDescriptor : Introspector.getBeanInfo(projectionClass).getPropertyDescriptors()) {
-        if (propertyDescriptor.getWriteMethod() != null && propertyDescriptor.getReadMethod() != null) {
-          projections.add(StringUtils.capitalize(propertyDescriptor.getName()));
-          String field = null;
-          if (identityProperty != null && propertyDescriptor.getName().equals(identityProperty.getName())) {
-            field = Constants.DOCUMENT_ID_FIELD_NAME;
-          } else {
-            field = propertyDescriptor.getName();
-          }
-          fields.add(StringUtils.capitalize(field));
-        }
+    List<String> projections = new ArrayList<>();
+    List<String> fields = new ArrayList<>();
+
+    Field identityProperty = getDocumentConvention().getIdentityProperty(projectionClass);
+
+    for (PropertyAccessor property : TypeAccessor.of(projectionClass).getReadWriteProperties()) {
+      projections.add(StringUtils.capitalize(property.getName()));
+      String field = null;
+      if (identityProperty != null && property.getName().equals(identityProperty.getName())) {
+        field = Constants.DOCUMENT_ID_FIELD_NAME;
+      } else {
+        field = property.getName();
       }
-      return selectFields(projectionClass, fields.toArray(new String[0]), projections.toArray(new String[0]));
-
-    } catch (IntrospectionException e) {
-      throw new RuntimeException(e);
+      fields.add(StringUtils.capitalize(field));
     }
+    return selectFields(projectionClass, fields.toArray(new String[0]), projections.toArray(new String[0]));
   }
 
   @Override
@@ -266,10 +260,36 @@ public class DocumentQuery<T> extends AbstractDocumentQuery<T, DocumentQuery<T>>
     documentQuery.shouldExplainScores = shouldExplainScores;
     documentQuery.afterQueryExecuted(afterQueryExecutedCallback);
     documentQuery.afterStreamExecutedCallback = afterStreamExecutedCallback;
+    documentQuery.parameterSlots = parameterSlots;
     return documentQuery;
 
   }
 
+  /**
+   * Creates template of compiled query: copy of this query detached from session, with query text split on parameter slots.
+   */
+  public DocumentQuery<T> toCompiledTemplate() {
+    DocumentQuery<T> template = new DocumentQuery<>(clazz, null, null, indexName, fieldsToFetch, projectionFields, null, isMapReduce);
+    copyCompiledStateTo(template, null);
+    template.splitOnParameterSlots();
+    return template;
+  }
+
+  /**
+   * Creates query executed by given session from this compiled query template, binding values of parameters.
+   * @param queryGenerator session which executes query
+   * @param parameterValues values of parameters used in query expression
+   */
+  @SuppressWarnings("unchecked")
+  public IDocumentQuery<T> bind(IDocumentQueryGenerator queryGenerator, Map<ParamExpression<?>, Object> parameterValues) {
+    DocumentQuery<T> documentQuery = (DocumentQuery<T>) queryGenerator.documentQuery(clazz, indexName, isMapReduce);
+    copyCompiledStateTo(documentQuery, parameterValues);
+    if (fieldsToFetch != null && fieldsToFetch.length > 0 || projectionFields != null && projectionFields.length > 0) {
+      return documentQuery.selectFields(clazz, fieldsToFetch, projectionFields);
+    }
+    return documentQuery;
+  }
+
   @Override
   public IDocumentQuery<T> withinRadiusOf(double radius, double latitude, double longitude) {
     return generateQueryWithinRadiusOf(Constants.DEFAULT_SPATIAL_FIELD_NAME, radius, latitude, longitude);
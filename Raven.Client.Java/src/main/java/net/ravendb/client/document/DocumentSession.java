@@ -115,7 +115,7 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
     Object existingEntity;
     if (entitiesByKey.containsKey(id)) {
       existingEntity = entitiesByKey.get(id);
-      return (T) existingEntity;
+      return (T) markAccessed(existingEntity);
     }
 
     if (includedDocumentsByKey.containsKey(id)) {
@@ -25,6 +25,7 @@ import net.ravendb.abstractions.data.BulkInsertOptions;
 import net.ravendb.abstractions.data.ConnectionStringParser;
 import net.ravendb.abstractions.data.Constants;
 import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.FailoverServers;
 import net.ravendb.abstractions.data.RavenConnectionStringOptions;
 import net.ravendb.abstractions.oauth.BasicAuthenticator;
 import net.ravendb.abstractions.oauth.SecuredAuthenticator;
@@ -37,6 +38,7 @@ import net.ravendb.client.changes.RemoteDatabaseChanges;
 import net.ravendb.client.connection.IDatabaseCommands;
 import net.ravendb.client.connection.IDocumentStoreReplicationInformer;
 import net.ravendb.client.connection.OperationMetadata;
+import net.ravendb.client.connection.QueryResultCache;
 import net.ravendb.client.connection.ServerClient;
 import net.ravendb.client.connection.implementation.HttpJsonRequestFactory;
 import net.ravendb.client.connection.profiling.RequestResultArgs;
@@ -59,15 +61,18 @@ import org.apache.http.HttpResponse;
  */
 public class DocumentStore extends DocumentStoreBase {
 
-  // The current session id - only used during construction
-  protected static ThreadLocal<UUID> currentSessionId = new ThreadLocal<>();
-
   private final static int DEFAULT_NUMBER_OF_CACHED_REQUESTS = 2048;
   private int maxNumberOfCachedRequests = DEFAULT_NUMBER_OF_CACHED_REQUESTS;
   private boolean aggressiveCachingUsed;
 
   protected Function0<IDatabaseCommands> databaseCommandsGenerator;
 
+  private static final IDocumentConflictListener[] NO_CONFLICT_LISTENERS = new IDocumentConflictListener[0];
+
+  private volatile DatabaseContext defaultDatabaseContext;
+  private final ConcurrentMap<String, DatabaseContext> databaseContexts = new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+  private final ReplicationInformerGetter replicationInformerGetter = new ReplicationInformerGetter();
+
   private final ConcurrentMap<String, IDocumentStoreReplicationInformer> replicationInformers =  new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
   private String identifier;
 
@@ -78,6 +83,8 @@ public class DocumentStore extends DocumentStoreBase {
 
   private ConcurrentMap<String, EvictItemsFromCacheBasedOnChanges> observeChangesAndEvictItemsFromCacheForDatabases = new ConcurrentHashMap<>();
 
+  private final ConcurrentMap<String, QueryResultCache> queryResultCaches = new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+
   private String apiKey;
   private String defaultDatabase;
 
@@ -105,6 +112,22 @@ public class DocumentStore extends DocumentStoreBase {
 
   public void setDefaultDatabase(String defaultDatabase) {
     this.defaultDatabase = defaultDatabase;
+    this.defaultDatabaseContext = null;
+  }
+
+  @Override
+  public void setUrl(String url) {
+    super.setUrl(url);
+    defaultDatabaseContext = null;
+    databaseContexts.clear();
+  }
+
+  @Override
+  public void setFailoverServers(FailoverServers failoverServers) {
+    super.setFailoverServers(failoverServers);
+    // replication informers cached in contexts are resolved again, so they get new failover servers
+    defaultDatabaseContext = null;
+    databaseContexts.clear();
   }
 
   /**
@@ -130,15 +153,7 @@ public class DocumentStore extends DocumentStoreBase {
   @Override
   public IDatabaseCommands getDatabaseCommands() {
     assertInitialized();
-    IDatabaseCommands commands = databaseCommandsGenerator.apply();
-    for (String key: getSharedOperationsHeaders().keySet()) {
-      String value = getSharedOperationsHeaders().get(key);
-      if (value == null) {
-        continue;
-      }
-      commands.getOperationsHeaders().put(key, value);
-    }
-    return commands;
+    return databaseCommandsGenerator.apply();
   }
 
   public DocumentStore() {
@@ -209,7 +224,7 @@ public class DocumentStore extends DocumentStoreBase {
       apiKey = options.getApiKey();
     }
     if (options.getFailoverServers() != null) {
-      failoverServers = options.getFailoverServers();
+      setFailoverServers(options.getFailoverServers());
     }
   }
 
@@ -231,6 +246,10 @@ public class DocumentStore extends DocumentStoreBase {
       }
     }
 
+    for (QueryResultCache queryResultCache : queryResultCaches.values()) {
+      queryResultCache.close();
+    }
+
     for (IDocumentStoreReplicationInformer ri : replicationInformers.values()) {
       ri.close();
     }
@@ -245,6 +264,8 @@ public class DocumentStore extends DocumentStoreBase {
       jsonRequestFactory.close();
     }
 
+    getMetrics().unregisterMBeans();
+
     try {
       if (replication != null) {
         replication.close();
@@ -281,28 +302,105 @@ public class DocumentStore extends DocumentStoreBase {
   public IDocumentSession openSession(OpenSessionOptions options) {
     ensureNotClosed();
 
-    UUID sessionId = UUID.randomUUID();
-    currentSessionId.set(sessionId);
-    try {
-      DocumentSession session = new DocumentSession(Lang.coalesce(options.getDatabase(), defaultDatabase, MultiDatabase.getDatabaseName(url)), this, getListeners(), sessionId,
-        setupCommands(getDatabaseCommands(), options.getDatabase(), options));
-      session.setDatabaseName(options.getDatabase() != null ? options.getDatabase() : defaultDatabase);
+    assertInitialized();
+    UUID sessionId = newSessionId();
+    IDatabaseCommands databaseCommands = createDatabaseCommands(options.getDatabase(), sessionId);
+    if (options.isForceReadFromMaster()) {
+      databaseCommands.forceReadFromMaster();
+    }
+    DocumentSession session = new DocumentSession(Lang.coalesce(options.getDatabase(), defaultDatabase, MultiDatabase.getDatabaseName(url)), this, getListeners(), sessionId,
+      databaseCommands);
+    session.setDatabaseName(options.getDatabase() != null ? options.getDatabase() : defaultDatabase);
+    session.setReadOnly(options.isReadOnly());
 
-      afterSessionCreated(session);
-      return session;
-    } finally {
-      currentSessionId.set(null);
+    afterSessionCreated(session);
+    return session;
+  }
+
+  /**
+   * Creates database commands for given database (or default database when null) directly,
+   * instead of creating commands for default database and switching them using forDatabase.
+   */
+  private IDatabaseCommands createDatabaseCommands(String database, UUID sessionId) {
+    DatabaseContext context = getDatabaseContext(database);
+    List<IDocumentConflictListener> conflictListeners = getListeners().getConflictListeners();
+    IDatabaseCommands commands = new ServerClient(context.getUrl(), conventions, new OperationCredentials(apiKey),
+      jsonRequestFactory, sessionId, replicationInformerGetter, context.getDatabaseName(),
+      conflictListeners.isEmpty() ? NO_CONFLICT_LISTENERS : conflictListeners.toArray(new IDocumentConflictListener[conflictListeners.size()]), true);
+    if (conventions.getQueryResultCacheSize() > 0) {
+      ((ServerClient) commands).setQueryResultCache(getQueryResultCache(database));
+    }
+    for (Map.Entry<String, String> header : getSharedOperationsHeaders().entrySet()) {
+      if (header.getValue() == null) {
+        continue;
+      }
+      commands.getOperationsHeaders().put(header.getKey(), header.getValue());
     }
+    return commands;
   }
 
-  private static IDatabaseCommands setupCommands(IDatabaseCommands databaseCommands, String database, OpenSessionOptions options) {
-    if (database != null) {
-      databaseCommands = databaseCommands.forDatabase(database);
+  /**
+   * Query results cache of given database (or default database when null),
+   * used when {@link DocumentConvention#setQueryResultCacheSize(int)} is set.
+   * @param database
+   */
+  public QueryResultCache getQueryResultCache(String database) {
+    final String databaseName = Lang.coalesce(database, defaultDatabase, Constants.SYSTEM_DATABASE);
+    QueryResultCache cache = queryResultCaches.get(databaseName);
+    if (cache != null) {
+      return cache;
     }
-    if (options.isForceReadFromMaster()) {
-      databaseCommands.forceReadFromMaster();
+    cache = new QueryResultCache(conventions.getQueryResultCacheSize(), new Function0<IDatabaseChanges>() {
+      @Override
+      public IDatabaseChanges apply() {
+        return changes(databaseName);
+      }
+    });
+    QueryResultCache existing = queryResultCaches.putIfAbsent(databaseName, cache);
+    return existing != null ? existing : cache;
+  }
+
+  private DatabaseContext getDatabaseContext(String database) {
+    if (database == null) {
+      if (defaultDatabaseContext == null) {
+        String databaseUrl = StringUtils.isNotEmpty(defaultDatabase) ? MultiDatabase.getRootDatabaseUrl(url) + "/databases/" + defaultDatabase : url;
+        defaultDatabaseContext = new DatabaseContext(databaseUrl, null);
+      }
+      return defaultDatabaseContext;
+    }
+    DatabaseContext context = databaseContexts.get(database);
+    if (context != null) {
+      return context;
+    }
+    if (Constants.SYSTEM_DATABASE.equals(database)) {
+      context = new DatabaseContext(MultiDatabase.getRootDatabaseUrl(url), null);
+    } else {
+      context = new DatabaseContext(MultiDatabase.getRootDatabaseUrl(url) + "/databases/" + database, database);
+    }
+    DatabaseContext existing = databaseContexts.putIfAbsent(database, context);
+    return existing != null ? existing : context;
+  }
+
+  /**
+   * Per database state shared by all sessions opened for the same database.
+   */
+  private static class DatabaseContext {
+    private final String url;
+    private final String databaseName;
+    private volatile IDocumentStoreReplicationInformer replicationInformer;
+
+    public DatabaseContext(String url, String databaseName) {
+      this.url = url;
+      this.databaseName = databaseName;
+    }
+
+    public String getUrl() {
+      return url;
+    }
+
+    public String getDatabaseName() {
+      return databaseName;
     }
-    return databaseCommands;
   }
 
   @Override
@@ -314,6 +412,7 @@ public class DocumentStore extends DocumentStoreBase {
     assertValidConfiguration();
 
     jsonRequestFactory = new HttpJsonRequestFactory(getMaxNumberOfCachedRequests(), conventions.isAcceptGzipContent());
+    jsonRequestFactory.setMetrics(getMetrics());
     try {
       initializeEncryptor();
       SecurityExtensions.initializeSecurity(conventions, jsonRequestFactory, getUrl());
@@ -333,6 +432,10 @@ public class DocumentStore extends DocumentStoreBase {
 
       initialized = true;
 
+      if (!conventions.isDisableMetricsMBeans()) {
+        getMetrics().registerMBeans(getIdentifier());
+      }
+
       if (StringUtils.isNotEmpty(defaultDatabase) && !defaultDatabase.equals(Constants.SYSTEM_DATABASE)) { //system database exists anyway
         getDatabaseCommands().forSystemDatabase().getGlobalAdmin().ensureDatabaseExists(defaultDatabase, true);
       }
@@ -385,22 +488,13 @@ public class DocumentStore extends DocumentStoreBase {
    */
   protected void initializeInternal() {
 
-    final String rootDatabaseUrl = MultiDatabase.getRootDatabaseUrl(url);
     databaseCommandsGenerator = new Function0<IDatabaseCommands>() {
 
       @SuppressWarnings("synthetic-access")
       @Override
       public IDatabaseCommands apply() {
-        String databaseUrl = getUrl();
-        if (StringUtils.isNotEmpty(defaultDatabase)) {
-          databaseUrl = rootDatabaseUrl;
-          databaseUrl += "/databases/" + defaultDatabase;
-        }
-
-        return new ServerClient(databaseUrl, conventions, new OperationCredentials(apiKey),
-          jsonRequestFactory, currentSessionId.get(),
-          new ReplicationInformerGetter(),
-          null, getListeners().getConflictListeners().toArray(new IDocumentConflictListener[0]), true);
+        // commands of store aren't bound to any session
+        return createDatabaseCommands(null, null);
       }
     };
 
@@ -409,7 +503,11 @@ public class DocumentStore extends DocumentStoreBase {
 
     @Override
     public IDocumentStoreReplicationInformer apply(String dbName) {
-      return getReplicationInformerForDatabase(dbName);
+      DatabaseContext context = getDatabaseContext(dbName);
+      if (context.replicationInformer == null) {
+        context.replicationInformer = getReplicationInformerForDatabase(dbName);
+      }
+      return context.replicationInformer;
     }
 
   }
@@ -427,8 +525,11 @@ public class DocumentStore extends DocumentStoreBase {
     if (StringUtils.isNotEmpty(dbName)) {
       key = MultiDatabase.getRootDatabaseUrl(url) + "/databases/" + dbName;
     }
-    replicationInformers.putIfAbsent(key, conventions.getReplicationInformerFactory().create(key, jsonRequestFactory));
     IDocumentStoreReplicationInformer informer = replicationInformers.get(key);
+    if (informer == null) {
+      replicationInformers.putIfAbsent(key, conventions.getReplicationInformerFactory().create(key, jsonRequestFactory));
+      informer = replicationInformers.get(key);
+    }
 
     if (failoverServers == null) {
       return informer;
@@ -534,16 +635,37 @@ public class DocumentStore extends DocumentStoreBase {
    * we provide is current or not, but will serve the information directly from the local cache
    * without touching the server.
    */
+  @Override
+  public CleanCloseable aggressivelyCacheFor(long cacheDurationInMilis) {
+    return setupAggressiveCaching(cacheDurationInMilis, null);
+  }
+
+  /**
+   * Setup the context for aggressive caching with stale-while-revalidate policy.
+   *
+   * Within cache duration responses are served from the local cache without touching the server. After that
+   * (or when cached item was marked as changed on server) cached response is still served for up to maxStalenessInMilis,
+   * while it is refreshed in background, so callers don't wait for server round trip.
+   */
   @SuppressWarnings("boxing")
   @Override
-  public CleanCloseable aggressivelyCacheFor(long cacheDurationInMilis)
-  {
+  public CleanCloseable aggressivelyCacheFor(long cacheDurationInMilis, long maxStalenessInMilis) {
+    if (maxStalenessInMilis < 0) {
+      throw new IllegalArgumentException("maxStaleness must not be negative");
+    }
+    return setupAggressiveCaching(cacheDurationInMilis, maxStalenessInMilis);
+  }
+
+  @SuppressWarnings("boxing")
+  private CleanCloseable setupAggressiveCaching(long cacheDurationInMilis, Long maxStalenessInMilis) {
     assertInitialized();
     if (cacheDurationInMilis < 1000)
       throw new IllegalArgumentException("cacheDuration must be longer than a single second");
 
     final Long old = jsonRequestFactory.getAggressiveCacheDuration();
+    final Long oldMaxStaleness = jsonRequestFactory.getAggressiveCacheMaxStaleness();
     jsonRequestFactory.setAggressiveCacheDuration(cacheDurationInMilis);
+    jsonRequestFactory.setAggressiveCacheMaxStaleness(maxStalenessInMilis);
 
     aggressiveCachingUsed = true;
 
@@ -551,6 +673,7 @@ public class DocumentStore extends DocumentStoreBase {
       @Override
       public void close() {
         jsonRequestFactory.setAggressiveCacheDuration(old);
+        jsonRequestFactory.setAggressiveCacheMaxStaleness(oldMaxStaleness);
       }
     };
   }
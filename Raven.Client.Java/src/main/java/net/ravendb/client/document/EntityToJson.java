@@ -18,7 +18,8 @@ public class EntityToJson {
   //All the listeners for this session
   private DocumentSessionListeners listeners;
 
-  private final IdentityHashMap<Object, Map<String, RavenJToken>> missingDictionary = new IdentityHashMap<>();
+  // created lazily - most of the sessions don't deal with extension data
+  private IdentityHashMap<Object, Map<String, RavenJToken>> missingDictionary;
 
   protected IdentityHashMap<Object, RavenJObject> cachedJsonDocs;
 
@@ -27,6 +28,9 @@ public class EntityToJson {
   }
 
   public IdentityHashMap<Object, Map<String, RavenJToken>> getMissingDictionary() {
+    if (missingDictionary == null) {
+      missingDictionary = new IdentityHashMap<>();
+    }
     return missingDictionary;
   }
 
@@ -75,7 +79,7 @@ public class EntityToJson {
 
     RavenJObject jObject = RavenJObject.fromObject(entity, documentStore.getConventions().createSerializer());
     jObject.setTag(entity);
-    if (missingDictionary.containsKey(entity)) {
+    if (missingDictionary != null && missingDictionary.containsKey(entity)) {
       Map<String, RavenJToken> value = missingDictionary.get(entity);
       for (Map.Entry<String, RavenJToken> item: value.entrySet()) {
         jObject.add(item.getKey(), item.getValue());
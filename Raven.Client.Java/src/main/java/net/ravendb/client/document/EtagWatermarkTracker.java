@@ -0,0 +1,43 @@
+package net.ravendb.client.document;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import net.ravendb.abstractions.data.Etag;
+
+/**
+ * Tracks documents of subscription batch processed out of order and computes watermark: etag of last document
+ * of the longest processed prefix of batch. Acknowledging watermark never skips document which wasn't processed yet.
+ */
+class EtagWatermarkTracker {
+
+  private final List<Etag> etags = new ArrayList<>();
+  private final BitSet processed = new BitSet();
+  private int processedPrefix;
+
+  /**
+   * Registers next document of batch (in order of etags).
+   * @return position of document to pass to {@link #markProcessed(int)}
+   */
+  public synchronized int add(Etag etag) {
+    etags.add(etag);
+    return etags.size() - 1;
+  }
+
+  public synchronized void markProcessed(int position) {
+    processed.set(position);
+    processedPrefix = processed.nextClearBit(processedPrefix);
+  }
+
+  /**
+   * @return etag of last document of processed prefix or null if first document wasn't processed yet
+   */
+  public synchronized Etag getWatermark() {
+    return processedPrefix > 0 ? etags.get(processedPrefix - 1) : null;
+  }
+
+  public synchronized int getProcessedCount() {
+    return processed.cardinality();
+  }
+}
@@ -1,15 +1,14 @@
 package net.ravendb.client.document;
 
-import java.lang.reflect.Field;
 import java.util.UUID;
 
 import net.ravendb.abstractions.basic.Reference;
 import net.ravendb.abstractions.closure.Function1;
 import net.ravendb.abstractions.data.Constants;
 import net.ravendb.client.converters.ITypeConverter;
+import net.ravendb.client.util.FieldAccessor;
 
 import org.apache.commons.lang.NullArgumentException;
-import org.apache.commons.lang.reflect.FieldUtils;
 
 
 public class GenerateEntityIdOnTheClient {
@@ -21,8 +20,8 @@ public class GenerateEntityIdOnTheClient {
     this.generateKey = generateKey;
   }
 
-  private Field getIdentityProperty(Class<?> entityType) {
-    return conventions.getIdentityProperty(entityType);
+  private FieldAccessor getIdentityProperty(Class<?> entityType) {
+    return conventions.getIdentityPropertyAccessor(entityType);
   }
 
   /**
@@ -34,21 +33,17 @@ public class GenerateEntityIdOnTheClient {
     if (entity == null) {
       throw new NullArgumentException("entity");
     }
-    try {
-      Field identityProperty = getIdentityProperty(entity.getClass());
-      if (identityProperty != null) {
-        Object value = FieldUtils.readField(identityProperty, entity, true);
-        return getIdAsString(entity, value, identityProperty, idHolder);
-      }
-      idHolder.value = null;
-      return false;
-    } catch (IllegalAccessException e) {
-      throw new IllegalStateException(e);
+    FieldAccessor identityProperty = getIdentityProperty(entity.getClass());
+    if (identityProperty != null) {
+      Object value = identityProperty.get(entity);
+      return getIdAsString(entity, value, identityProperty, idHolder);
     }
+    idHolder.value = null;
+    return false;
   }
 
   @SuppressWarnings("boxing")
-  private boolean getIdAsString(Object entity, Object value, Field identityProperty, Reference<String> idHolder) {
+  private boolean getIdAsString(Object entity, Object value, FieldAccessor identityProperty, Reference<String> idHolder) {
     if (value instanceof String) {
       idHolder.value = (String) value;
     }
@@ -93,7 +88,7 @@ public class GenerateEntityIdOnTheClient {
    */
   public void trySetIdentity(Object entity, String id) {
     Class<?> entityType = entity.getClass();
-    Field identityProperty = conventions.getIdentityProperty(entityType);
+    FieldAccessor identityProperty = getIdentityProperty(entityType);
 
     if (identityProperty == null) {
       return;
@@ -102,22 +97,18 @@ public class GenerateEntityIdOnTheClient {
     setPropertyOrField(identityProperty.getType(), entity, identityProperty, id);
   }
 
-  private void setPropertyOrField(Class<?> propertyOrFieldType, Object entity, Field field, String id) {
-    try {
-      if (String.class.equals(propertyOrFieldType)) {
-        FieldUtils.writeField(field, entity, id, true);
-      } else { // need converting
-        for (ITypeConverter converter : conventions.getIdentityTypeConvertors()) {
-          if (converter.canConvertFrom(propertyOrFieldType)) {
-            FieldUtils.writeField(field, entity, converter.convertTo(conventions.getFindIdValuePartForValueTypeConversion().find(entity, id)), true);
-            return;
-          }
+  private void setPropertyOrField(Class<?> propertyOrFieldType, Object entity, FieldAccessor field, String id) {
+    if (String.class.equals(propertyOrFieldType)) {
+      field.set(entity, id);
+    } else { // need converting
+      for (ITypeConverter converter : conventions.getIdentityTypeConvertors()) {
+        if (converter.canConvertFrom(propertyOrFieldType)) {
+          field.set(entity, converter.convertTo(conventions.getFindIdValuePartForValueTypeConversion().find(entity, id)));
+          return;
         }
-        throw new IllegalArgumentException("Could not convert identity to type " + propertyOrFieldType +
-            " because there is not matching type converter registered in the conventions' IdentityTypeConvertors");
       }
-    } catch (IllegalAccessException e) {
-      throw new IllegalStateException(e);
+      throw new IllegalArgumentException("Could not convert identity to type " + propertyOrFieldType +
+          " because there is not matching type converter registered in the conventions' IdentityTypeConvertors");
     }
   }
 
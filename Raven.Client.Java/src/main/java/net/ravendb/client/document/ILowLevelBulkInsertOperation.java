@@ -3,6 +3,7 @@ package net.ravendb.client.document;
 import java.util.UUID;
 
 import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.closure.Action0;
 import net.ravendb.abstractions.closure.Action1;
 import net.ravendb.abstractions.json.linq.RavenJObject;
 
@@ -16,6 +17,19 @@ public interface ILowLevelBulkInsertOperation extends CleanCloseable {
 
   public void write(String id, RavenJObject metadata, RavenJObject data, Integer dataSize) throws InterruptedException;
 
+  /**
+   * Writes document without waiting for server to accept previous documents.
+   * @return false when too many documents are waiting to be sent to server, document should be written later
+   */
+  public boolean tryWrite(String id, RavenJObject metadata, RavenJObject data, Integer dataSize) throws InterruptedException;
+
+  /**
+   * Writes document without waiting for server to accept previous documents.
+   * @param beforeWrite invoked only when document is going to be written, before document is modified (can be null)
+   * @return false when too many documents are waiting to be sent to server, document should be written later
+   */
+  public boolean tryWrite(String id, RavenJObject metadata, RavenJObject data, Integer dataSize, Action0 beforeWrite) throws InterruptedException;
+
   public Action1<String> getReport();
 
   /**
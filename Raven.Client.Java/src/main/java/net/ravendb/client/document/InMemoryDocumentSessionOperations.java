@@ -1,13 +1,16 @@
 package net.ravendb.client.document;
 
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -54,6 +57,8 @@ import net.ravendb.client.listeners.IDocumentConversionListener;
 import net.ravendb.client.listeners.IDocumentDeleteListener;
 import net.ravendb.client.listeners.IDocumentStoreListener;
 import net.ravendb.client.util.IdentityHashSet;
+import net.ravendb.client.util.PropertyAccessor;
+import net.ravendb.client.util.TypeAccessor;
 import net.ravendb.client.util.Types;
 import net.ravendb.client.utils.Closer;
 import net.ravendb.client.utils.Lang;
@@ -74,6 +79,9 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
 
   private static AtomicInteger counter = new AtomicInteger();
 
+  // identity maps are sized for short lived sessions, default capacity would allocate 64 slots tables upfront
+  private static final int INITIAL_CAPACITY = 4;
+
   private final int hash = counter.incrementAndGet();
 
   protected boolean generateDocumentKeysOnStore = true;
@@ -85,7 +93,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
   protected static final ILog log = LogManager.getCurrentClassLogger();
 
   //The entities waiting to be deleted
-  protected final Set<Object> deletedEntities = new IdentityHashSet<>();
+  protected final Set<Object> deletedEntities = new IdentityHashSet<>(INITIAL_CAPACITY);
 
   //Entities whose id we already know do not exists, because they are a missing include, or a missing load, etc.
   protected final Set<String> knownMissingIds =  new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
@@ -93,13 +101,20 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
   private Map<String, Object> externalState;
 
   // hold the data required to manage the data for RavenDB's Unit of Work
-  protected final Map<Object, DocumentMetadata> entitiesAndMetadata = new IdentityHashMap<>();
+  protected final Map<Object, DocumentMetadata> entitiesAndMetadata = new IdentityHashMap<>(INITIAL_CAPACITY);
 
   protected final Map<String, JsonDocument> includedDocumentsByKey = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
 
   // Translate between a key and its associated entity
   protected final Map<String, Object> entitiesByKey = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
 
+  // order in which documents were included, maintained only when number of entities is bounded
+  private final Deque<String> includedDocumentsOrder = new ArrayDeque<>();
+
+  // entities evicted because number of entities is bounded, they are tracked again when caller still holds and uses them
+  private final Map<String, EvictedEntity> evictedEntities = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+  private final ReferenceQueue<Object> evictedEntitiesQueue = new ReferenceQueue<>();
+
   protected final String dbName;
   private final DocumentStoreBase documentStore;
 
@@ -109,8 +124,14 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
   private int numberOfRequests;
   private Long nonAuthoritativeInformationTimeout;
   private int maxNumberOfRequestsPerSession;
+  private int maxNumberOfEntitiesInUnitOfWork;
+  private int evictionThreshold;
+  private long accessCounter;
+  private int numberOfEvictedEntities;
+  private int numberOfEvictedIncludedDocuments;
   private boolean useOptimisticConcurrency;
   private boolean allowNonAuthoritativeInformation;
+  private boolean readOnly;
 
   private final List<ICommandData> deferedCommands = new ArrayList<>();
   protected String _databaseName;
@@ -158,6 +179,20 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
     return Lang.coalesce(databaseName, MultiDatabase.getDatabaseName(documentStore.getUrl()));
   }
 
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+
+  public void setReadOnly(boolean readOnly) {
+    this.readOnly = readOnly;
+  }
+
+  private void assertNotReadOnly() {
+    if (readOnly) {
+      throw new IllegalStateException("Session was opened as read only, it cannot store, delete or defer commands");
+    }
+  }
+
   /**
    * Initializes a new instance of the {@link InMemoryDocumentSessionOperations} class.
    * @param dbName
@@ -178,6 +213,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
     this.allowNonAuthoritativeInformation = true;
     this.nonAuthoritativeInformationTimeout = 15 * 1000L;
     this.maxNumberOfRequestsPerSession = documentStore.getConventions().getMaxNumberOfRequestsPerSession();
+    this.maxNumberOfEntitiesInUnitOfWork = documentStore.getConventions().getMaxNumberOfEntitiesPerSession();
     this.generateEntityIdOnTheClient = new GenerateEntityIdOnTheClient(documentStore.getConventions(), new Function1<Object, String>() {
       @Override
       public String apply(Object entity) {
@@ -237,6 +273,38 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
     this.maxNumberOfRequestsPerSession = maxNumberOfRequestsPerSession;
   }
 
+  /**
+   * Gets the max number of entities and included documents held by session (0 - unbounded).
+   */
+  public int getMaxNumberOfEntitiesInUnitOfWork() {
+    return maxNumberOfEntitiesInUnitOfWork;
+  }
+
+  /**
+   * Sets the max number of entities and included documents held by session (0 - unbounded).
+   * When it is exceeded, least recently used unmodified entities and unused included documents are evicted
+   * before the next request to server. New, modified and deleted entities are never evicted.
+   * @param maxNumberOfEntitiesInUnitOfWork
+   */
+  public void setMaxNumberOfEntitiesInUnitOfWork(int maxNumberOfEntitiesInUnitOfWork) {
+    this.maxNumberOfEntitiesInUnitOfWork = maxNumberOfEntitiesInUnitOfWork;
+    this.evictionThreshold = 0;
+  }
+
+  /**
+   * Gets the number of unmodified entities evicted from session, because it exceeded max number of entities.
+   */
+  public int getNumberOfEvictedEntities() {
+    return numberOfEvictedEntities;
+  }
+
+  /**
+   * Gets the number of unused included documents evicted from session, because it exceeded max number of entities.
+   */
+  public int getNumberOfEvictedIncludedDocuments() {
+    return numberOfEvictedIncludedDocuments;
+  }
+
   /**
    * Gets a value indicating whether the session should use optimistic concurrency.
    * When set to <c>true</c>, a check is made so that a change made behind the session back would fail
@@ -301,6 +369,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
     value.setOriginalMetadata(jsonDocument.getMetadata());
     value.setMetadata(jsonDocument.getMetadata().cloneToken());
     value.setOriginalValue(new RavenJObject());
+    value.setLastAccess(++accessCounter);
     entitiesAndMetadata.put(instance, value);
     return value;
   }
@@ -355,6 +424,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
     if (deletedEntities.size() > 0) {
       return true;
     }
+    restoreModifiedEvictedEntities();
     for (Map.Entry<Object, DocumentMetadata> pair : entitiesAndMetadata.entrySet()) {
       if (entityChanged(pair.getKey(), pair.getValue(), null)) {
         return true;
@@ -369,6 +439,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
    * @param entity
    */
   public boolean hasChanged(Object entity) {
+    restoreEvictedEntity(entity);
     DocumentMetadata value;
     if (entitiesAndMetadata.containsKey(entity)) {
       value = entitiesAndMetadata.get(entity);
@@ -380,6 +451,8 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
 
   @SuppressWarnings("boxing")
   public void incrementRequestCount() {
+    documentStore.getMetrics().onSessionRequest();
+    evictLeastRecentlyUsed();
     if (++numberOfRequests > maxNumberOfRequestsPerSession)
       throw new IllegalStateException(String.format("The maximum number of requests (%d) allowed for this session has been reached."  +
           "Raven limits the number of remote calls that a session is allowed to make as an early warning system. Sessions are expected to be short lived, and " +
@@ -418,7 +491,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
    * @param key The key
    * @param document The document
    * @param metadata The metadata
-   * @param noTracking Entity tracking is enabled if true, disabled otherwise.
+   * @param noTracking Entity tracking is enabled if true, disabled otherwise. Ignored for read only session, which never tracks entities.
    */
   @SuppressWarnings("boxing")
   public Object trackEntity(Class<?> entityType, String key, RavenJObject document, RavenJObject metadata, boolean noTracking) {
@@ -427,9 +500,13 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
     if (entitiesByKey.containsKey(key)) {
       // the local instance may have been changed, we adhere to the current Unit of Work
       // instance, and return that, ignoring anything new.
-      return entitiesByKey.get(key);
+      return markAccessed(entitiesByKey.get(key));
+    } else if ((entity = restoreEvictedEntity(key)) != null) {
+      // caller still holds evicted instance, it is the instance of current Unit of Work
+      return entity;
     } else {
-      entity = convertToEntity(entityType, key, document, metadata, false);
+      // read only session is never saved, so there is no need to keep properties not found on model
+      entity = convertToEntity(entityType, key, document, metadata, false, !readOnly);
     }
 
     String etag = metadata.value(String.class, "@etag");
@@ -439,13 +516,14 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
           " returned Non Authoritative Information (probably modified by a transaction in progress) and AllowNonAuthoritativeInformation  is set to false");
     }
 
-    if (!noTracking) {
+    if (!noTracking && !readOnly) {
       DocumentMetadata docMeta = new DocumentMetadata();
       docMeta.setOriginalValue(document);
       docMeta.setMetadata(metadata);
       docMeta.setOriginalMetadata(metadata.cloneToken());
       docMeta.setEtag(HttpExtensions.etagHeaderToEtag(etag));
       docMeta.setKey(key);
+      docMeta.setLastAccess(++accessCounter);
 
       entitiesAndMetadata.put(entity, docMeta);
       entitiesByKey.put(key, entity);
@@ -464,6 +542,18 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
    */
   @SuppressWarnings("hiding")
   public Object convertToEntity(Class<?> entityType, String id, RavenJObject documentFound, RavenJObject metadata, boolean isStreaming) {
+    return convertToEntity(entityType, id, documentFound, metadata, isStreaming, true);
+  }
+
+  /**
+   * Converts the json document to an entity.
+   * @param isStreaming Is the conversion is part of the streaming? If yes, no sense in registering missing properties
+   * @param keepPropertiesNotFoundOnModel Should properties not found on model be registered, so they are saved back with the entity?
+   * Applies only when convention preserves document properties not found on model.
+   */
+  @SuppressWarnings("hiding")
+  private Object convertToEntity(Class<?> entityType, String id, RavenJObject documentFound, RavenJObject metadata, boolean isStreaming,
+    boolean keepPropertiesNotFoundOnModel) {
     if (RavenJObject.class.equals(entityType)) {
       return documentFound.cloneToken();
     }
@@ -477,7 +567,8 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
 
     CleanCloseable disposable = null;
     DefaultRavenContractResolver defaultRavenContractResolver = (DefaultRavenContractResolver) getConventions().getJsonContractResolver();
-    if (!isStreaming && defaultRavenContractResolver != null && getConventions().isPreserveDocumentPropertiesNotFoundOnModel()) {
+    if (!isStreaming && keepPropertiesNotFoundOnModel && defaultRavenContractResolver != null
+      && getConventions().isPreserveDocumentPropertiesNotFoundOnModel()) {
       disposable = defaultRavenContractResolver.registerForExtensionData(new Action3<Object, String, RavenJToken>() {
         @SuppressWarnings("synthetic-access")
         @Override
@@ -570,7 +661,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
     if (entity == null) {
       throw new IllegalArgumentException("Entity is null");
     }
-    if (!entitiesAndMetadata.containsKey(entity)) {
+    if (!entitiesAndMetadata.containsKey(entity) && !restoreEvictedEntity(entity)) {
       throw new IllegalStateException(entity + " is not associated with the session, cannot delete unknown entity instance");
     }
     DocumentMetadata value = entitiesAndMetadata.get(entity);
@@ -607,6 +698,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
   @SuppressWarnings("hiding")
   public void delete(String id)
   {
+      assertNotReadOnly();
       if (id == null) {
         throw new IllegalArgumentException("id is null");
       }
@@ -684,11 +776,12 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
 
   @SuppressWarnings("hiding")
   private void storeInternal(Object entity, Etag etag, String id, boolean forceConcurrencyCheck) {
+    assertNotReadOnly();
     if (entity == null) {
       throw new IllegalArgumentException("entity is null");
     }
 
-    if (entitiesAndMetadata.containsKey(entity)) {
+    if (entitiesAndMetadata.containsKey(entity) || restoreEvictedEntity(entity)) {
       DocumentMetadata value = entitiesAndMetadata.get(entity);
       if (etag != null) {
         value.setEtag(etag);
@@ -756,6 +849,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
     meta.setEtag(etag);
     meta.setOriginalValue(new RavenJObject());
     meta.setForceConcurrencyCheck(forceConcurrencyCheck);
+    meta.setLastAccess(++accessCounter);
 
     entitiesAndMetadata.put(entity, meta);
 
@@ -866,6 +960,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
 
     deferedCommands.clear();
 
+    restoreModifiedEvictedEntities();
     prepareForEntitiesDeletion(result, null);
     prepareForEntitiesPuts(result);
 
@@ -874,6 +969,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
 
   public Map<String, List<DocumentsChanges>> whatChanged() {
     Map<String, List<DocumentsChanges>> changes = new HashMap<>();
+    restoreModifiedEvictedEntities();
     prepareForEntitiesDeletion(null, changes);
     getAllEntitiesChanges(changes);
     return changes;
@@ -1042,6 +1138,11 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
       entitiesAndMetadata.remove(entity);
       entitiesByKey.remove(value.getKey());
     }
+    for (Iterator<EvictedEntity> iterator = evictedEntities.values().iterator(); iterator.hasNext(); ) {
+      if (iterator.next().get() == entity) {
+        iterator.remove();
+      }
+    }
     deletedEntities.remove(entity);
   }
 
@@ -1053,6 +1154,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
     entitiesAndMetadata.clear();
     deletedEntities.clear();
     entitiesByKey.clear();
+    evictedEntities.clear();
     knownMissingIds.clear();
   }
 
@@ -1069,6 +1171,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
    * Defer commands to be executed on saveChanges()
    */
   public void defer(ICommandData... commands) {
+    assertNotReadOnly();
     for (ICommandData command: commands) {
       deferedCommands.add(command);
     }
@@ -1190,6 +1293,168 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
 
   public void trackIncludedDocument(JsonDocument include) {
       includedDocumentsByKey.put(include.getKey(), include);
+      if (maxNumberOfEntitiesInUnitOfWork > 0) {
+        includedDocumentsOrder.add(include.getKey());
+        if (includedDocumentsOrder.size() > 2 * includedDocumentsByKey.size() + 16) {
+          // drop keys of included documents which were already loaded as entities
+          for (Iterator<String> iterator = includedDocumentsOrder.iterator(); iterator.hasNext(); ) {
+            if (!includedDocumentsByKey.containsKey(iterator.next())) {
+              iterator.remove();
+            }
+          }
+        }
+      }
+  }
+
+  /**
+   * Marks tracked entity as the most recently used one
+   * @param entity
+   * @return entity
+   */
+  protected Object markAccessed(Object entity) {
+    DocumentMetadata metadata = entitiesAndMetadata.get(entity);
+    if (metadata != null) {
+      metadata.setLastAccess(++accessCounter);
+    }
+    return entity;
+  }
+
+  /**
+   * Evicts unused included documents (in order they were included) and least recently used unmodified entities,
+   * when session holds more than {@link #getMaxNumberOfEntitiesInUnitOfWork()} of them. It evicts down to 3/4 of the limit,
+   * so entities aren't checked for changes on every request. New, modified and deleted entities are never evicted.
+   *
+   * Evicted entity is only weakly referenced, so it is released once caller doesn't hold it. Until then it is tracked
+   * again when caller stores, deletes or loads it, or modifies it before changes are saved, so no change is lost.
+   * Metadata (with original value) of entities released by caller is forgotten on every pass, i.e. before every request.
+   */
+  protected void evictLeastRecentlyUsed() {
+    expungeEvictedEntities();
+    if (maxNumberOfEntitiesInUnitOfWork <= 0
+      || entitiesAndMetadata.size() + includedDocumentsByKey.size() <= Math.max(maxNumberOfEntitiesInUnitOfWork, evictionThreshold)) {
+      return;
+    }
+    int target = maxNumberOfEntitiesInUnitOfWork - maxNumberOfEntitiesInUnitOfWork / 4;
+
+    while (entitiesAndMetadata.size() + includedDocumentsByKey.size() > target && !includedDocumentsOrder.isEmpty()) {
+      if (includedDocumentsByKey.remove(includedDocumentsOrder.poll()) != null) {
+        numberOfEvictedIncludedDocuments++;
+      }
+    }
+
+    if (entitiesAndMetadata.size() + includedDocumentsByKey.size() > target) {
+      List<Object> entities = new ArrayList<>(entitiesAndMetadata.keySet());
+      Collections.sort(entities, new Comparator<Object>() {
+        @Override
+        public int compare(Object o1, Object o2) {
+          return Long.compare(entitiesAndMetadata.get(o1).getLastAccess(), entitiesAndMetadata.get(o2).getLastAccess());
+        }
+      });
+      for (Object entity : entities) {
+        if (entitiesAndMetadata.size() + includedDocumentsByKey.size() <= target) {
+          break;
+        }
+        DocumentMetadata metadata = entitiesAndMetadata.get(entity);
+        if (metadata.getKey() == null || deletedEntities.contains(entity) || entityChanged(entity, metadata)) {
+          continue;
+        }
+        entitiesAndMetadata.remove(entity);
+        entitiesByKey.remove(metadata.getKey());
+        evictedEntities.put(metadata.getKey(), new EvictedEntity(entity, metadata, evictedEntitiesQueue));
+        numberOfEvictedEntities++;
+      }
+    }
+
+    // when most of entities are modified, don't look for unmodified ones again until session grows
+    evictionThreshold = entitiesAndMetadata.size() + includedDocumentsByKey.size() + maxNumberOfEntitiesInUnitOfWork / 4;
+    if (log.isDebugEnabled()) {
+      log.debug("Session " + id + " evicted " + numberOfEvictedEntities + " entities and " + numberOfEvictedIncludedDocuments
+        + " included documents so far, it holds " + entitiesAndMetadata.size() + " entities");
+    }
+  }
+
+  private static class EvictedEntity extends WeakReference<Object> {
+    private final DocumentMetadata metadata;
+
+    public EvictedEntity(Object entity, DocumentMetadata metadata, ReferenceQueue<Object> queue) {
+      super(entity, queue);
+      this.metadata = metadata;
+    }
+  }
+
+  /**
+   * Tracks evicted entity again, if caller still holds it
+   * @return evicted entity or null
+   */
+  private Object restoreEvictedEntity(String key) {
+    if (evictedEntities.isEmpty()) {
+      return null;
+    }
+    EvictedEntity evicted = evictedEntities.remove(key);
+    Object entity = evicted != null ? evicted.get() : null;
+    if (entity == null) {
+      return null;
+    }
+    entitiesAndMetadata.put(entity, evicted.metadata);
+    entitiesByKey.put(key, entity);
+    return markAccessed(entity);
+  }
+
+  /**
+   * Tracks evicted entity again
+   * @return false if entity wasn't evicted
+   */
+  private boolean restoreEvictedEntity(Object entity) {
+    if (evictedEntities.isEmpty()) {
+      return false;
+    }
+    if (getConventions().getIdentityPropertyAccessor(entity.getClass()) != null) {
+      // identity of evicted entity was set when it was loaded
+      Reference<String> idHolder = new Reference<>();
+      if (!generateEntityIdOnTheClient.tryGetIdFromInstance(entity, idHolder) || idHolder.value == null) {
+        return false;
+      }
+      EvictedEntity evicted = evictedEntities.get(idHolder.value);
+      return evicted != null && evicted.get() == entity && restoreEvictedEntity(idHolder.value) != null;
+    }
+    // entity without identity property can be found only by instance
+    for (EvictedEntity evicted : evictedEntities.values()) {
+      if (evicted.get() == entity) {
+        return restoreEvictedEntity(evicted.metadata.getKey()) != null;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Tracks again evicted entities which caller modified after they were evicted, so their changes are saved
+   */
+  private void restoreModifiedEvictedEntities() {
+    expungeEvictedEntities();
+    for (Iterator<EvictedEntity> iterator = evictedEntities.values().iterator(); iterator.hasNext(); ) {
+      EvictedEntity evicted = iterator.next();
+      Object entity = evicted.get();
+      if (entity == null || entitiesByKey.containsKey(evicted.metadata.getKey())) {
+        iterator.remove();
+      } else if (entityChanged(entity, evicted.metadata)) {
+        iterator.remove();
+        entitiesAndMetadata.put(entity, evicted.metadata);
+        entitiesByKey.put(evicted.metadata.getKey(), entity);
+      }
+    }
+  }
+
+  /**
+   * Forgets evicted entities which were released by caller
+   */
+  private void expungeEvictedEntities() {
+    EvictedEntity evicted;
+    while ((evicted = (EvictedEntity) evictedEntitiesQueue.poll()) != null) {
+      String key = evicted.metadata.getKey();
+      if (evictedEntities.get(key) == evicted) {
+        evictedEntities.remove(key);
+      }
+    }
   }
 
   @SuppressWarnings("rawtypes")
@@ -1243,16 +1508,8 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
     value.setOriginalValue(jsonDocument.getDataAsJson());
     Object newEntity = convertToEntity(entity.getClass(), value.getKey(), jsonDocument.getDataAsJson(), jsonDocument.getMetadata(), false);
 
-    try {
-      for (PropertyDescriptor propertyDescriptor : Introspector.getBeanInfo(entity.getClass()).getPropertyDescriptors()) {
-        if (propertyDescriptor.getWriteMethod() == null || propertyDescriptor.getReadMethod() == null) {
-          continue;
-        }
-        Object propValue = propertyDescriptor.getReadMethod().invoke(newEntity, new Object[0]);
-        propertyDescriptor.getWriteMethod().invoke(entity, new Object[] { propValue });
-      }
-    } catch (IntrospectionException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-      throw new RuntimeException(e);
+    for (PropertyAccessor property : TypeAccessor.of(entity.getClass()).getReadWriteProperties()) {
+      property.set(entity, property.get(newEntity));
     }
   }
 
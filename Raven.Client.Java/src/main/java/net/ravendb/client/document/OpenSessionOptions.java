@@ -3,6 +3,7 @@ package net.ravendb.client.document;
 public class OpenSessionOptions {
   private String database;
   private boolean forceReadFromMaster;
+  private boolean readOnly;
 
 
   public String getDatabase() {
@@ -17,6 +18,16 @@ public class OpenSessionOptions {
   public void setForceReadFromMaster(boolean forceReadFromMaster) {
     this.forceReadFromMaster = forceReadFromMaster;
   }
+  /**
+   * Read only session doesn't track loaded entities: no identity map and no original document snapshots are kept,
+   * so each load goes to the server (or included documents) and returns new instance. Entities can't be stored or deleted.
+   */
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+  public void setReadOnly(boolean readOnly) {
+    this.readOnly = readOnly;
+  }
 
 
 }
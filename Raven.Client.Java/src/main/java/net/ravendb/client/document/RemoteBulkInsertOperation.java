@@ -10,11 +10,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPOutputStream;
 
+import net.ravendb.abstractions.closure.Action0;
 import net.ravendb.abstractions.closure.Action1;
 import net.ravendb.abstractions.data.BulkInsertChangeNotification;
 import net.ravendb.abstractions.data.BulkInsertOptions;
@@ -23,6 +24,7 @@ import net.ravendb.abstractions.data.DocumentChangeTypes;
 import net.ravendb.abstractions.data.HttpMethods;
 import net.ravendb.abstractions.json.linq.RavenJObject;
 import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.abstractions.util.DocumentHelpers;
 import net.ravendb.abstractions.util.TimeUtils;
 import net.ravendb.client.changes.IDatabaseChanges;
 import net.ravendb.client.changes.IObserver;
@@ -46,7 +48,17 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
 
   private final BsonFactory bsonFactory = new BsonFactory();
 
-  private final static RavenJObject END_OF_QUEUE_OBJECT = RavenJObject.parse("{ \"QueueFinished\" : true }");
+  private static class QueuedDocument {
+    private final RavenJObject data;
+    private final long size;
+
+    public QueuedDocument(RavenJObject data, long size) {
+      this.data = data;
+      this.size = size;
+    }
+  }
+
+  private final static QueuedDocument END_OF_QUEUE_OBJECT = new QueuedDocument(RavenJObject.parse("{ \"QueueFinished\" : true }"), 0);
 
   private final BulkInsertOptions options;
 
@@ -54,10 +66,10 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
   private final ServerClient operationClient;
 
   private final ByteArrayOutputStream bufferedStream = new ByteArrayOutputStream();
-  private final BlockingQueue<RavenJObject> queue;
+  private final BlockingQueue<QueuedDocument> queue = new LinkedBlockingQueue<>();
+  private final BulkInsertFlowControl flowControl;
 
-  private static final RavenJObject ABORT_MARKER = new RavenJObject();
-  private static final RavenJObject SKIP_MARKER = new RavenJObject();
+  private static final QueuedDocument ABORT_MARKER = new QueuedDocument(new RavenJObject(), 0);
 
   @SuppressWarnings("unused")
   private HttpJsonRequest operationRequest;
@@ -66,9 +78,7 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
   private final Thread operationTask;
   private Exception operationTaskException;
   private int total;
-  private boolean aborted;
-
-  private static final int BIG_DOCUMENT_SIZE = 64 * 1024;
+  private volatile boolean aborted;
 
   private Action1<String> report;
   private long responseOperationId;
@@ -98,7 +108,7 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
     this.options = options;
     operationId = existingOperationId != null ? existingOperationId : UUID.randomUUID();
     operationClient = client;
-    queue = new ArrayBlockingQueue<>(Math.max(128, (options.getBatchSize() * 3) / 2));
+    flowControl = new BulkInsertFlowControl(Math.max(128, (options.getBatchSize() * 3) / 2), options.getMaxBytesInFlight(), options.getBatchSize());
 
     operationTask = startBulkInsertAsync(options);
     subscribeToBulkInsertNotifications(changes);
@@ -220,6 +230,7 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
           }
 
         } finally {
+          flowControl.close();
           operationClient.setExpect100Continue(false);
         }
       }
@@ -288,32 +299,31 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
   private void writeQueueToServer(OutputStream stream, BulkInsertOptions options, CancellationToken cancellationToken) throws IOException {
     while (true) {
       cancellationToken.throwIfCancellationRequested();
-      List<RavenJObject> batch = new ArrayList<>();
+      List<QueuedDocument> batch = new ArrayList<>();
+      long batchBytes = 0;
       try {
-        RavenJObject document;
+        QueuedDocument document;
         while ((document = queue.poll(200, TimeUnit.MICROSECONDS)) != null) {
           cancellationToken.throwIfCancellationRequested();
 
           if (document == END_OF_QUEUE_OBJECT) { //marker
-            flushBatch(stream, batch);
+            flushBatch(stream, batch, batchBytes);
             return;
           }
-          if (document == SKIP_MARKER) { // ignore this, just filling the queue
-            continue;
-          }
           if (document == ABORT_MARKER) { // abort immediately
             return;
           }
           batch.add(document);
+          batchBytes += document.size;
 
-          if (batch.size() >= options.getBatchSize()) {
+          if (batch.size() >= flowControl.getBatchSize() || batchBytes >= flowControl.getMaxBatchBytes()) {
             break;
           }
         }
       } catch (InterruptedException e ){
         //ignore
       }
-      flushBatch(stream, batch);
+      flushBatch(stream, batch, batchBytes);
     }
   }
 
@@ -322,9 +332,59 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
     write(id, metadata, data, null);
   }
 
-  @SuppressWarnings("boxing")
   @Override
   public void write(String id, RavenJObject metadata, RavenJObject data, Integer dataSize) throws InterruptedException {
+    assertCanWrite(id, metadata, data);
+
+    long size = getDocumentSize(id, metadata, data, dataSize);
+    if (flowControl.acquire(size, options.getWriteTimeoutMiliseconds())) {
+      queue.add(new QueuedDocument(prepareDocument(id, metadata, data), size));
+      return;
+    }
+
+    if (flowControl.isClosed()) {
+      // operation task finished (i.e. failed), wait for it to get its failure
+      operationTask.join();
+    }
+    assertOperationTaskRunning();
+    if (aborted) {
+      throw new IllegalStateException("Operation has been aborted");
+    }
+
+    throw new IllegalStateException("Could not flush in the specified timeout, server probably not responding or responding too slowly.\r\nAre you writing very big documents?");
+  }
+
+  @Override
+  public boolean tryWrite(String id, RavenJObject metadata, RavenJObject data, Integer dataSize) throws InterruptedException {
+    return tryWrite(id, metadata, data, dataSize, null);
+  }
+
+  /**
+   * Writes document only if it fits into window of documents which weren't sent to server yet, never blocks.
+   * Document isn't modified when it doesn't fit.
+   * @return false when window is full, document wasn't written and should be written later
+   */
+  @Override
+  public boolean tryWrite(String id, RavenJObject metadata, RavenJObject data, Integer dataSize, Action0 beforeWrite) throws InterruptedException {
+    assertCanWrite(id, metadata, data);
+
+    long size = getDocumentSize(id, metadata, data, dataSize);
+    if (!flowControl.tryAcquire(size)) {
+      return false;
+    }
+    if (beforeWrite != null) {
+      try {
+        beforeWrite.apply();
+      } catch (RuntimeException e) {
+        flowControl.release(size);
+        throw e;
+      }
+    }
+    queue.add(new QueuedDocument(prepareDocument(id, metadata, data), size));
+    return true;
+  }
+
+  private void assertCanWrite(String id, RavenJObject metadata, RavenJObject data) throws InterruptedException {
     if (id == null) {
       throw new IllegalArgumentException("id");
     }
@@ -337,40 +397,33 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
     if (aborted) {
       throw new IllegalStateException("Operation has been aborted");
     }
+    assertOperationTaskRunning();
+  }
+
+  /**
+   * Size of document as it is sent to server, computed without modifying document
+   */
+  @SuppressWarnings("boxing")
+  private static long getDocumentSize(String id, RavenJObject metadata, RavenJObject data, Integer dataSize) {
+    if (dataSize != null) {
+      return dataSize;
+    }
+    return DocumentHelpers.getRoughSize(data) + DocumentHelpers.getRoughSize(metadata) + id.length();
+  }
 
+  private static RavenJObject prepareDocument(String id, RavenJObject metadata, RavenJObject data) {
     metadata.add("@id", id);
     data.add(Constants.METADATA, metadata);
-    for (int i = 0; i < 2; i++) {
-      if (operationTask.isInterrupted() || !operationTask.isAlive()){
-        operationTask.join();
-        if (operationTaskException != null) {
-          throw new InterruptedException("Bulk insert timeouted or was aborted");
-        }
-      }
-
-      if (queue.offer(data, options.getWriteTimeoutMiliseconds() / 2, TimeUnit.MILLISECONDS)) {
-        if (dataSize != null && dataSize >= BIG_DOCUMENT_SIZE) {
-          //essentially for a BatchSize == 1024 and stream of 1MB documents - the actual batch size will be 128
-          // --> BatchSize = 1024 / (dataSize = 1024/BigDocumentSize = 250) * 2 == 128
-          for (int skipDocIndex = 0; skipDocIndex < (dataSize / BIG_DOCUMENT_SIZE) * 2; skipDocIndex++) {
-            if (!queue.offer(SKIP_MARKER)) {
-              break;
-            }
-          }
-        }
-        return;
-      }
-    }
+    return data;
+  }
 
+  private void assertOperationTaskRunning() throws InterruptedException {
     if (operationTask.isInterrupted() || !operationTask.isAlive()){
       operationTask.join();
       if (operationTaskException != null) {
         throw new InterruptedException("Bulk insert was timeouted or aborted");
       }
     }
-
-    throw new IllegalStateException("Could not flush in the specified timeout, server probably not responding or responding too slowly.\r\nAre you writing very big documents?");
-
   }
 
 
@@ -420,13 +473,14 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
   }
 
   @SuppressWarnings({"hiding", "boxing"})
-  private  void flushBatch(OutputStream requestStream, Collection<RavenJObject> localBatch) throws IOException {
+  private  void flushBatch(OutputStream requestStream, Collection<QueuedDocument> localBatch, long batchBytes) throws IOException {
     if (localBatch.isEmpty()) {
       return ;
     }
     if (aborted) {
       throw new IllegalStateException("Operation was timed out or has been aborted");
     }
+    long start = System.nanoTime();
     bufferedStream.reset();
     writeToBuffer(localBatch);
 
@@ -436,6 +490,9 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
     bufferedStream.writeTo(requestStream);
     requestStream.flush();
 
+    // batch was accepted by server, time includes waiting for server to read previous batches
+    flowControl.batchWritten(localBatch.size(), batchBytes, System.nanoTime() - start);
+
     total += localBatch.size();
 
     Action1<String> report = getReport();
@@ -445,7 +502,7 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
 
   }
 
-  private void writeToBuffer(Collection<RavenJObject> localBatch) throws IOException {
+  private void writeToBuffer(Collection<QueuedDocument> localBatch) throws IOException {
     GZIPOutputStream gzipOutputStream = new GZIPOutputStream(bufferedStream);
 
     BsonGenerator bsonWriter = bsonFactory.createJsonGenerator(gzipOutputStream);
@@ -454,8 +511,8 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
     byte[] bytes = ByteBuffer.allocate(4).putInt(localBatch.size()).array();
     ArrayUtils.reverse(bytes);
     gzipOutputStream.write(bytes);
-    for (RavenJObject doc : localBatch) {
-      doc.writeTo(bsonWriter);
+    for (QueuedDocument doc : localBatch) {
+      doc.data.writeTo(bsonWriter);
     }
     bsonWriter.close();
     gzipOutputStream.finish();
@@ -490,6 +547,7 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
   public void abort() {
     aborted = true;
     queue.add(ABORT_MARKER);
+    flowControl.close();
   }
 
   @Override
@@ -35,6 +35,7 @@ import org.codehaus.jackson.JsonParser;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.*;
 
@@ -44,6 +45,7 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
   private final static Object END_OF_COLLECTION_MARKER = new Object();
 
   private final ExecutorService executorService = Executors.newFixedThreadPool(3);
+  private final ExecutorService processingExecutorService;
 
   protected static final ILog logger = LogManager.getCurrentClassLogger();
 
@@ -56,6 +58,7 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
   private final DocumentConvention conventions;
   private final Action0 ensureOpenSubscription;
   private final ConcurrentSet<IObserver<T>> subscribers = new ConcurrentSet<>();
+  private final ConcurrentSet<BatchSubscriber<T>> batchSubscribers = new ConcurrentSet<>();
   private final SubscriptionConnectionOptions options;
   private final CancellationTokenSource cts = new CancellationTokenSource();
   private GenerateEntityIdOnTheClient generateEntityIdOnTheClient;
@@ -78,8 +81,10 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
 
   private EventHandler<VoidArgs> eventHandler;
 
-  private boolean isErroredBecauseOfSubscriber;
-  private Exception lastSubscriberException;
+  private volatile Function1<T, ?> partitionKeySelector;
+
+  private volatile boolean isErroredBecauseOfSubscriber;
+  private volatile Exception lastSubscriberException;
   private Throwable subscriptionConnectionException;
   private boolean connectionClosed;
 
@@ -93,6 +98,8 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
     this.changes = changes;
     this.conventions = conventions;
     this.ensureOpenSubscription = ensureOpenSubscription;
+    this.processingExecutorService = options.getMaxDegreeOfParallelism() > 1
+      ? Executors.newFixedThreadPool(options.getMaxDegreeOfParallelism()) : executorService;
 
     if (!RavenJObject.class.equals(clazz)) {
       isStronglyTyped = true;
@@ -139,10 +146,15 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
 
             boolean pulledDocs = false;
             final Reference<Etag> lastProcessedEtagOnServerRef = new Reference<>();
-            final Reference<Integer> processedDocsRef = new Reference<>(0);
+            final EtagWatermarkTracker watermark = new EtagWatermarkTracker();
+            final Function1<T, ?> partitionKey = partitionKeySelector;
+
+            // documents for batch subscribers, which get them after per document subscribers
+            List<T> batch = batchSubscribers.isEmpty() ? null : new ArrayList<T>();
 
-            final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(options.getBatchOptions().getMaxDocCount() + 1);
-            Future<?> processingTask = null;
+            List<BlockingQueue<Object>> queues = createProcessingQueues(partitionKey != null);
+            List<Future<?>> processingTasks = new ArrayList<>();
+            Etag acknowledgedEtag = null;
 
             try (HttpJsonRequest subscriptionRequest = createPullingRequest()) {
               try (CloseableHttpResponse response = subscriptionRequest.executeRawResponse()) {
@@ -170,68 +182,35 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
                     if (pulledDocs == false) {
                       EventHelper.invoke(beforeBatch, this, EventArgs.EMPTY);
 
-                      processingTask = executorService.submit(new Runnable() {
-                        @Override
-                        public void run() {
-                          T doc;
-                          try {
-                            while (true) {
-                              Object takenObject = queue.take();
-
-                              if (END_OF_COLLECTION_MARKER == takenObject) {
-                                break;
-                              }
-
-                              doc = (T) takenObject;
-                              cts.getToken().throwIfCancellationRequested();
-
-                              for (IObserver<T> subscriber : subscribers) {
-                                try {
-                                  subscriber.onNext(doc);
-                                } catch (Exception ex) {
-                                  logger.warnException("Subscriber threw an exception", ex);
-                                  if (options.isIgnoreSubscribersErrors() == false) {
-                                    isErroredBecauseOfSubscriber = true;
-                                    lastSubscriberException = ex;
-                                    try {
-                                      subscriber.onError(ex);
-                                    } catch (Exception e) {
-                                      // can happen if a subscriber doesn't have an onError handler - just ignore it
-                                    }
-                                    break;
-                                  }
-                                }
-                              }
-
-                              if (isErroredBecauseOfSubscriber) {
-                                break;
-                              }
-
-                              processedDocsRef.value++;
-                            }
-                          } catch (InterruptedException e) {
-                            throw new RuntimeException(e);
-                          }
-                        }
-                      });
+                      for (BlockingQueue<Object> queue : queues) {
+                        processingTasks.add(processingExecutorService.submit(createProcessingTask(queue, watermark)));
+                      }
                     }
                     pulledDocs = true;
 
                     cts.getToken().throwIfCancellationRequested();
 
                     RavenJObject jsonDoc = streamedDocs.next();
+                    RavenJObject metadata = jsonDoc.value(RavenJObject.class, Constants.METADATA);
+                    String etag = metadata != null ? metadata.value(String.class, "@etag") : null;
 
+                    T doc;
                     if (isStronglyTyped) {
-                      T instance = conventions.createSerializer().deserialize(jsonDoc.toString(), clazz);
-                      String docId = jsonDoc.get(Constants.METADATA).value(String.class, "@id");
+                      doc = conventions.createSerializer().deserialize(jsonDoc.toString(), clazz);
+                      String docId = metadata != null ? metadata.value(String.class, "@id") : null;
 
                       if (StringUtils.isNotEmpty(docId)) {
-                        generateEntityIdOnTheClient.trySetIdentity(instance, docId);
+                        generateEntityIdOnTheClient.trySetIdentity(doc, docId);
                       }
-
-                      queue.add(instance);
                     } else {
-                      queue.add((T) jsonDoc);
+                      doc = (T) jsonDoc;
+                    }
+
+                    // without partition key all workers share single queue
+                    BlockingQueue<Object> queue = partitionKey == null ? queues.get(0) : queues.get(partitionOf(partitionKey.apply(doc), queues.size()));
+                    queue.add(new PendingDocument<>(watermark.add(etag != null ? Etag.parse(etag) : null), doc));
+                    if (batch != null) {
+                      batch.add(doc);
                     }
 
                     if (isErroredBecauseOfSubscriber) {
@@ -241,16 +220,29 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
                 }
               }
 
-              queue.add(END_OF_COLLECTION_MARKER);
-
-              if (processingTask != null) {
-                processingTask.get();
+              for (BlockingQueue<Object> queue : queues) {
+                queue.add(END_OF_COLLECTION_MARKER);
               }
 
+              // documents can't be acknowledged before batch subscribers handle them
+              acknowledgedEtag = waitForProcessing(processingTasks, watermark, batch == null);
+
               if (isErroredBecauseOfSubscriber) {
+                // don't redeliver documents which were processed before the failure
+                Etag processedEtag = watermark.getWatermark();
+                if (batch == null && processedEtag != null && !processedEtag.equals(acknowledgedEtag)) {
+                  acknowledgeBatchToServer(processedEtag);
+                }
                 break;
               }
 
+              if (batch != null && !batch.isEmpty()) {
+                deliverBatch(batch);
+                if (isErroredBecauseOfSubscriber) {
+                  break;
+                }
+              }
+
               if (lastProcessedEtagOnServerRef.value != null) {
 
                 // This is an acknowledge when the server returns documents to the subscriber.
@@ -259,7 +251,7 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
                   acknowledgeBatchToServer(lastProcessedEtagOnServerRef.value);
                   EventHelper.invoke(afterAcknowledgment, this, new LastProcessedEtagEventArgs(lastProcessedEtagOnServerRef.value));
 
-                  EventHelper.invoke(afterBatch, this, new DocumentProcessedEventArgs(processedDocsRef.value));
+                  EventHelper.invoke(afterBatch, this, new DocumentProcessedEventArgs(watermark.getProcessedCount()));
                   continue; // try to pull more documents from subscription
                 } else {
                   if (!lastProcessedEtagOnServerRef.value.equals(lastProcessedEtagOnClient)) {
@@ -307,6 +299,199 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
     }
   }
 
+  /**
+   * Queues of documents for processing tasks: single queue shared by all tasks or, when documents are partitioned,
+   * separate queue for each task (so documents with the same partition key are processed in order).
+   */
+  private List<BlockingQueue<Object>> createProcessingQueues(boolean partitioned) {
+    int parallelism = options.getMaxDegreeOfParallelism();
+    int capacity = options.getBatchOptions().getMaxDocCount() + parallelism;
+    List<BlockingQueue<Object>> queues = new ArrayList<>(parallelism);
+    BlockingQueue<Object> sharedQueue = partitioned ? null : new ArrayBlockingQueue<>(capacity);
+    for (int i = 0; i < parallelism; i++) {
+      queues.add(partitioned ? new ArrayBlockingQueue<>(capacity) : sharedQueue);
+    }
+    return queues;
+  }
+
+  private static int partitionOf(Object partitionKey, int partitions) {
+    if (partitionKey == null) {
+      return 0;
+    }
+    int hash = partitionKey.hashCode();
+    return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % partitions;
+  }
+
+  private Runnable createProcessingTask(final BlockingQueue<Object> queue, final EtagWatermarkTracker watermark) {
+    return new Runnable() {
+      @SuppressWarnings({"unchecked", "synthetic-access"})
+      @Override
+      public void run() {
+        try {
+          while (true) {
+            Object takenObject = queue.take();
+
+            if (END_OF_COLLECTION_MARKER == takenObject || isErroredBecauseOfSubscriber) {
+              break;
+            }
+
+            PendingDocument<T> pending = (PendingDocument<T>) takenObject;
+            cts.getToken().throwIfCancellationRequested();
+
+            for (IObserver<T> subscriber : subscribers) {
+              if (!deliver(subscriber, pending.document)) {
+                break;
+              }
+            }
+
+            if (isErroredBecauseOfSubscriber) {
+              break;
+            }
+
+            watermark.markProcessed(pending.position);
+          }
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+  }
+
+  /**
+   * Passes document to subscriber, retrying up to MaxDocumentRetries times.
+   * @return false if subscriber failed and subscription is errored
+   */
+  private boolean deliver(IObserver<T> subscriber, T document) {
+    for (int attempt = 0;; attempt++) {
+      try {
+        subscriber.onNext(document);
+        return true;
+      } catch (Exception ex) {
+        if (shouldRetry(ex, attempt)) {
+          continue;
+        }
+        if (options.isIgnoreSubscribersErrors() == false) {
+          markErroredBecauseOfSubscriber(ex);
+          try {
+            subscriber.onError(ex);
+          } catch (Exception e) {
+            // can happen if a subscriber doesn't have an onError handler - just ignore it
+          }
+          return false;
+        }
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Passes documents of pulled batch to batch subscribers (split to their maximal batch size) and waits until they handle them.
+   */
+  private void deliverBatch(List<T> batch) throws InterruptedException {
+    for (BatchSubscriber<T> batchSubscriber : batchSubscribers) {
+      int start = 0;
+      while (start < batch.size()) {
+        int end = (int) Math.min(batch.size(), (long) start + batchSubscriber.maxBatchSize);
+        if (!deliver(batchSubscriber.observer, Collections.unmodifiableList(batch.subList(start, end)))) {
+          return;
+        }
+        start = end;
+      }
+    }
+  }
+
+  /**
+   * Passes documents to batch subscriber, retrying up to MaxDocumentRetries times.
+   * @return false if subscriber failed and subscription is errored
+   */
+  private boolean deliver(IBatchObserver<T> subscriber, List<T> documents) throws InterruptedException {
+    for (int attempt = 0;; attempt++) {
+      try {
+        Future<?> handled = subscriber.onNext(documents);
+        if (handled != null) {
+          handled.get();
+        }
+        return true;
+      } catch (ExecutionException | RuntimeException e) {
+        Exception ex = e instanceof ExecutionException && e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        if (shouldRetry(ex, attempt)) {
+          continue;
+        }
+        if (options.isIgnoreSubscribersErrors() == false) {
+          markErroredBecauseOfSubscriber(ex);
+          try {
+            subscriber.onError(ex);
+          } catch (Exception onErrorException) {
+            // can happen if a subscriber doesn't have an onError handler - just ignore it
+          }
+          return false;
+        }
+        return true;
+      }
+    }
+  }
+
+  private boolean shouldRetry(Exception ex, int attempt) {
+    if (attempt < options.getMaxDocumentRetries()) {
+      logger.warnException("Subscriber threw an exception, retrying", ex);
+      return true;
+    }
+    logger.warnException("Subscriber threw an exception", ex);
+    return false;
+  }
+
+  private void markErroredBecauseOfSubscriber(Exception ex) {
+    lastSubscriberException = ex;
+    isErroredBecauseOfSubscriber = true;
+  }
+
+  /**
+   * Waits for processing tasks. Meanwhile acknowledges processed part of batch, so server sees progress of long batches
+   * and doesn't consider them timed out.
+   * @return last acknowledged etag or null
+   */
+  private Etag waitForProcessing(List<Future<?>> processingTasks, EtagWatermarkTracker watermark, boolean acknowledgeProgress)
+    throws InterruptedException, ExecutionException {
+    Long acknowledgmentTimeout = options.getBatchOptions().getAcknowledgmentTimeout();
+    long interval = acknowledgmentTimeout != null ? Math.max(1, acknowledgmentTimeout / 2) : 30 * 1000L;
+    Etag acknowledgedEtag = null;
+    for (Future<?> processingTask : processingTasks) {
+      while (true) {
+        try {
+          processingTask.get(interval, TimeUnit.MILLISECONDS);
+          break;
+        } catch (TimeoutException e) {
+          Etag processedEtag = watermark.getWatermark();
+          if (acknowledgeProgress && processedEtag != null && !processedEtag.equals(acknowledgedEtag)) {
+            acknowledgeBatchToServer(processedEtag);
+            acknowledgedEtag = processedEtag;
+          }
+        }
+      }
+    }
+    return acknowledgedEtag;
+  }
+
+  private static class BatchSubscriber<T> {
+    private final IBatchObserver<T> observer;
+    private final int maxBatchSize;
+
+    public BatchSubscriber(IBatchObserver<T> observer, int maxBatchSize) {
+      this.observer = observer;
+      this.maxBatchSize = maxBatchSize;
+    }
+  }
+
+  private static class PendingDocument<T> {
+    private final int position;
+    private final T document;
+
+    public PendingDocument(int position, T document) {
+      this.position = position;
+      this.document = document;
+    }
+  }
+
    private Future<?> startPullingDocs() {
      return executorService.submit(new Runnable() {
       @Override
@@ -452,9 +637,7 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
     }
 
     if (subscribers.add(observer)) {
-      if (subscribers.size() == 1) {
-        anySubscriber.set();
-      }
+      anySubscriber.set();
     }
 
     return new CleanCloseable() {
@@ -462,13 +645,52 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
       @Override
       public void close() {
         subscribers.remove(observer);
-        if (subscribers.isEmpty()) {
-          anySubscriber.reset();
-        }
+        resetIfNoSubscribers();
+      }
+    };
+  }
+
+  /**
+   * Subscribes observer which receives all documents of each pulled batch at once. Batch is acknowledged
+   * after observer handles it, so next batch is pulled after that.
+   */
+  public CleanCloseable subscribe(IBatchObserver<T> observer) {
+    return subscribe(observer, Integer.MAX_VALUE, 0);
+  }
+
+  /**
+   * Subscribes observer which receives documents of each pulled batch, split to lists of at most maxBatchSize documents.
+   * Batches are delivered as soon as they are pulled, so maxDelayMillis is ignored. Batch is acknowledged
+   * after observer handles it, so next batch is pulled after that.
+   */
+  public CleanCloseable subscribe(IBatchObserver<T> observer, int maxBatchSize, long maxDelayMillis) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("maxBatchSize must be positive");
+    }
+    if (isErroredBecauseOfSubscriber) {
+      throw new IllegalStateException("Subscription encountered errors and stopped. Cannot add any subscriber.");
+    }
+
+    final BatchSubscriber<T> batchSubscriber = new BatchSubscriber<>(observer, maxBatchSize);
+    batchSubscribers.add(batchSubscriber);
+    anySubscriber.set();
+
+    return new CleanCloseable() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public void close() {
+        batchSubscribers.remove(batchSubscriber);
+        resetIfNoSubscribers();
       }
     };
   }
 
+  private void resetIfNoSubscribers() {
+    if (subscribers.isEmpty() && batchSubscribers.isEmpty()) {
+      anySubscriber.reset();
+    }
+  }
+
     @SuppressWarnings("boxing")
     private HttpJsonRequest createAcknowledgmentRequest(Etag lastProcessedEtag) {
       return commands.createRequest(HttpMethods.POST,
@@ -501,6 +723,9 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
       for (IObserver<T> subscriber: subscribers) {
         subscriber.onCompleted();
       }
+      for (BatchSubscriber<T> batchSubscriber : batchSubscribers) {
+        batchSubscriber.observer.onCompleted();
+      }
       completed = true;
     }
 
@@ -514,6 +739,7 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
       onCompletedNotification();
 
       subscribers.clear();
+      batchSubscribers.clear();
 
       Closeables.closeQuietly(putDocumentsObserver);
 
@@ -552,6 +778,7 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
         }
       }
 
+      processingExecutorService.shutdown();
       executorService.shutdown(); //TODO: make sure this invocation will throw is any task in queue will throw
       // TODO: verify if it stopping underlaying threads
       // TODO: filter for operation canceled exception and don't rethrow if such
@@ -630,6 +857,15 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
     afterAcknowledgment.remove(handler);
   }
 
+  /**
+   * Sets function which computes partition key of document. With MaxDegreeOfParallelism greater than 1,
+   * documents with equal partition keys are processed one by one in etag order, while other documents are processed concurrently.
+   * Without partition key documents from a batch are processed in any order.
+   */
+  public void setPartitionKeySelector(Function1<T, ?> partitionKeySelector) {
+    this.partitionKeySelector = partitionKeySelector;
+  }
+
   /**
    * It determines if the subscription is closed.
    */
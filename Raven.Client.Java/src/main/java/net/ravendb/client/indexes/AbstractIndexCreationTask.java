@@ -205,16 +205,20 @@ public class AbstractIndexCreationTask extends AbstractCommonApiForIndexesAndTra
   public void execute(final IDatabaseCommands databaseCommands, final DocumentConvention documentConvention) {
     conventions = documentConvention;
     final IndexDefinition indexDefinition = createIndexDefinition();
-    // This code take advantage on the fact that RavenDB will turn an index PUT
-    // to a noop of the index already exists and the stored definition matches
-    // the new definition.
-    databaseCommands.putIndex(getIndexName(), indexDefinition, true);
+    // definition is compared the same way as in IndexDeployment, so unchanged index isn't sent again
+    IndexDefinition serverDefinition = databaseCommands.getIndex(getIndexName());
+    boolean changed = serverDefinition == null || !serverDefinition.equals(indexDefinition, true);
+    if (changed) {
+      databaseCommands.putIndex(getIndexName(), indexDefinition, true);
+    }
 
     if (priority != null) {
       databaseCommands.setIndexPriority(getIndexName(), priority);
     }
 
-    afterExecute(databaseCommands, documentConvention);
+    if (changed) {
+      afterExecute(databaseCommands, documentConvention);
+    }
   }
 
   public void afterExecute(IDatabaseCommands databaseCommands, DocumentConvention documentConvention) {
@@ -64,6 +64,10 @@ public abstract class AbstractTransformerCreationTask extends AbstractCommonApiF
     // the new definition.
     databaseCommands.putTransformer(getTransformerName(), transformerDefinition);
 
+    afterExecute(databaseCommands, documentConvention);
+  }
+
+  public void afterExecute(IDatabaseCommands databaseCommands, DocumentConvention documentConvention) {
     if (documentConvention.getIndexAndTransformerReplicationMode().contains(IndexAndTransformerReplicationMode.TRANSFORMERS)) {
       replicateTransformerIfNeeded(databaseCommands);
     }
@@ -2,10 +2,17 @@ package net.ravendb.client.indexes;
 
 import net.ravendb.abstractions.data.IndexStats;
 import net.ravendb.abstractions.data.IndexToAdd;
+import net.ravendb.client.IDocumentStore;
 import net.ravendb.client.document.DocumentConvention;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class IndexCreation {
 
@@ -22,4 +29,42 @@ public class IndexCreation {
 
         return indexesToAdd.toArray(new IndexToAdd[0]);
     }
+
+    /**
+     * Deploys indexes and transformers to many databases concurrently, sending only definitions which changed.
+     * @param store document store
+     * @param databases names of target databases
+     * @param parallelism maximum number of databases processed at the same time
+     * @return deployment reports keyed by database name
+     */
+    public static Map<String, IndexDeploymentReport> deployIndexes(final IDocumentStore store, Collection<String> databases,
+      List<AbstractIndexCreationTask> indexCreationTasks, List<AbstractTransformerCreationTask> transformerCreationTasks, int parallelism) {
+        final IndexDeployment deployment = new IndexDeployment(indexCreationTasks, transformerCreationTasks, store.getConventions(), 1);
+        final Map<String, IndexDeploymentReport> reports = new LinkedHashMap<>();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (final String database : databases) {
+            reports.put(database, null);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    IndexDeploymentReport report = deployment.deploy(database, store.getDatabaseCommands().forDatabase(database));
+                    synchronized (reports) {
+                        reports.put(database, report);
+                    }
+                    return null;
+                }
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, tasks.size())));
+        try {
+            IndexDeployment.invokeAll(executor, tasks);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return reports;
+    }
 }
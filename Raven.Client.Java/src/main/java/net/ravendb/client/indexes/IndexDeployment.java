@@ -0,0 +1,219 @@
+package net.ravendb.client.indexes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.ravendb.abstractions.data.IndexStats;
+import net.ravendb.abstractions.data.IndexStats.IndexingPriority;
+import net.ravendb.abstractions.data.IndexToAdd;
+import net.ravendb.abstractions.indexing.IndexDefinition;
+import net.ravendb.abstractions.indexing.TransformerDefinition;
+import net.ravendb.abstractions.logging.ILog;
+import net.ravendb.abstractions.logging.LogManager;
+import net.ravendb.client.connection.IDatabaseCommands;
+import net.ravendb.client.document.DocumentConvention;
+
+/**
+ * Deploys indexes and transformers pushing only definitions which differ from the ones already stored on server.
+ *
+ * Existing definitions are fetched with single (paged) call, changed indexes are sent in single batch and
+ * transformer PUTs, priority updates and replication requests are executed concurrently.
+ * Definitions are created once, so the same deployment can be executed against many databases.
+ */
+public class IndexDeployment {
+
+  private static final ILog log = LogManager.getCurrentClassLogger();
+
+  private static final int PAGE_SIZE = 1024;
+
+  private final DocumentConvention conventions;
+  private final List<AbstractIndexCreationTask> indexCreationTasks;
+  private final List<AbstractTransformerCreationTask> transformerCreationTasks;
+  private final IndexToAdd[] indexesToAdd;
+  private final TransformerDefinition[] transformerDefinitions;
+  private final int parallelism;
+
+  /**
+   * @param parallelism maximum number of concurrent requests sent to single database
+   */
+  public IndexDeployment(List<AbstractIndexCreationTask> indexCreationTasks, List<AbstractTransformerCreationTask> transformerCreationTasks,
+    DocumentConvention conventions, int parallelism) {
+    this.conventions = conventions;
+    this.indexCreationTasks = indexCreationTasks != null ? indexCreationTasks : new ArrayList<AbstractIndexCreationTask>();
+    this.transformerCreationTasks = transformerCreationTasks != null ? transformerCreationTasks : new ArrayList<AbstractTransformerCreationTask>();
+    this.parallelism = Math.max(1, parallelism);
+
+    indexesToAdd = IndexCreation.createIndexesToAdd(this.indexCreationTasks, conventions);
+    transformerDefinitions = new TransformerDefinition[this.transformerCreationTasks.size()];
+    for (int i = 0; i < transformerDefinitions.length; i++) {
+      AbstractTransformerCreationTask creationTask = this.transformerCreationTasks.get(i);
+      creationTask.setConventions(conventions);
+      transformerDefinitions[i] = creationTask.createTransformerDefinition();
+    }
+  }
+
+  /**
+   * Deploys indexes and transformers to database. Errors are not thrown, but collected in returned report.
+   * @param databaseName name used in report
+   * @param databaseCommands commands of target database
+   */
+  public IndexDeploymentReport deploy(String databaseName, IDatabaseCommands databaseCommands) {
+    long start = System.currentTimeMillis();
+    IndexDeploymentReport report = new IndexDeploymentReport(databaseName);
+    ExecutorService executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+    try {
+      List<Callable<Void>> tasks = new ArrayList<>();
+      deployIndexes(databaseCommands, report, tasks);
+      deployTransformers(databaseCommands, report, tasks);
+      invokeAll(executor, tasks);
+    } catch (Exception e) {
+      log.warnException("Unable to deploy indexes to " + (databaseName != null ? databaseName : "default database"), e);
+      report.getErrors().put(databaseName, e);
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+    }
+    report.setDurationInMs(System.currentTimeMillis() - start);
+    return report;
+  }
+
+  private void deployIndexes(final IDatabaseCommands databaseCommands, final IndexDeploymentReport report, List<Callable<Void>> tasks) {
+    if (indexesToAdd.length == 0) {
+      return;
+    }
+    Map<String, IndexDefinition> serverIndexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    for (int start = 0; ; start += PAGE_SIZE) {
+      Collection<IndexDefinition> page = databaseCommands.getIndexes(start, PAGE_SIZE);
+      for (IndexDefinition definition : page) {
+        serverIndexes.put(definition.getName(), definition);
+      }
+      if (page.size() < PAGE_SIZE) {
+        break;
+      }
+    }
+
+    List<IndexToAdd> changed = new ArrayList<>();
+    final List<AbstractIndexCreationTask> changedTasks = new ArrayList<>();
+    List<IndexToAdd> unchanged = new ArrayList<>();
+    for (int i = 0; i < indexesToAdd.length; i++) {
+      IndexDefinition serverDefinition = serverIndexes.get(indexesToAdd[i].getName());
+      if (serverDefinition != null && serverDefinition.equals(indexesToAdd[i].getDefinition(), true)) {
+        unchanged.add(indexesToAdd[i]);
+        report.getUnchangedIndexes().add(indexesToAdd[i].getName());
+      } else {
+        changed.add(indexesToAdd[i]);
+        changedTasks.add(indexCreationTasks.get(i));
+      }
+    }
+
+    if (!changed.isEmpty()) {
+      databaseCommands.putIndexes(changed.toArray(new IndexToAdd[0]));
+      for (IndexToAdd indexToAdd : changed) {
+        report.getPutIndexes().add(indexToAdd.getName());
+      }
+      for (final AbstractIndexCreationTask creationTask : changedTasks) {
+        tasks.add(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            creationTask.afterExecute(databaseCommands, conventions);
+            return null;
+          }
+        });
+      }
+    }
+
+    if (!unchanged.isEmpty()) {
+      // PUT of index sets its priority, so keep that behavior also for unchanged indexes
+      Map<String, IndexingPriority> serverPriorities = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+      for (IndexStats indexStats : databaseCommands.getStatistics().getIndexes()) {
+        serverPriorities.put(indexStats.getName(), indexStats.getPriority());
+      }
+      for (final IndexToAdd indexToAdd : unchanged) {
+        if (indexToAdd.getPriority() == serverPriorities.get(indexToAdd.getName())) {
+          continue;
+        }
+        tasks.add(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            try {
+              databaseCommands.setIndexPriority(indexToAdd.getName(), indexToAdd.getPriority());
+              report.getPrioritizedIndexes().add(indexToAdd.getName());
+            } catch (Exception e) {
+              report.getErrors().put(indexToAdd.getName(), e);
+            }
+            return null;
+          }
+        });
+      }
+    }
+  }
+
+  private void deployTransformers(final IDatabaseCommands databaseCommands, final IndexDeploymentReport report, List<Callable<Void>> tasks) {
+    if (transformerDefinitions.length == 0) {
+      return;
+    }
+    Map<String, TransformerDefinition> serverTransformers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    for (int start = 0; ; start += PAGE_SIZE) {
+      List<TransformerDefinition> page = databaseCommands.getTransformers(start, PAGE_SIZE);
+      for (TransformerDefinition definition : page) {
+        serverTransformers.put(definition.getName(), definition);
+      }
+      if (page.size() < PAGE_SIZE) {
+        break;
+      }
+    }
+
+    for (int i = 0; i < transformerDefinitions.length; i++) {
+      final AbstractTransformerCreationTask creationTask = transformerCreationTasks.get(i);
+      final TransformerDefinition definition = transformerDefinitions[i];
+      if (definition.equals(serverTransformers.get(creationTask.getTransformerName()))) {
+        report.getUnchangedTransformers().add(creationTask.getTransformerName());
+        continue;
+      }
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          try {
+            databaseCommands.putTransformer(creationTask.getTransformerName(), definition);
+            report.getPutTransformers().add(creationTask.getTransformerName());
+          } catch (Exception e) {
+            report.getErrors().put(creationTask.getTransformerName(), e);
+            return null;
+          }
+          creationTask.afterExecute(databaseCommands, conventions);
+          return null;
+        }
+      });
+    }
+  }
+
+  static void invokeAll(ExecutorService executor, List<Callable<Void>> tasks) throws Exception {
+    if (executor == null || tasks.size() <= 1) {
+      for (Callable<Void> task : tasks) {
+        task.call();
+      }
+      return;
+    }
+    List<Future<Void>> futures = executor.invokeAll(tasks);
+    for (Future<Void> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof Exception) {
+          throw (Exception) e.getCause();
+        }
+        throw e;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,96 @@
+package net.ravendb.client.indexes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of deploying indexes and transformers to single database.
+ */
+public class IndexDeploymentReport {
+
+  private final String databaseName;
+  private final List<String> putIndexes = Collections.synchronizedList(new ArrayList<String>());
+  private final List<String> unchangedIndexes = Collections.synchronizedList(new ArrayList<String>());
+  private final List<String> prioritizedIndexes = Collections.synchronizedList(new ArrayList<String>());
+  private final List<String> putTransformers = Collections.synchronizedList(new ArrayList<String>());
+  private final List<String> unchangedTransformers = Collections.synchronizedList(new ArrayList<String>());
+  private final Map<String, Exception> errors = Collections.synchronizedMap(new LinkedHashMap<String, Exception>());
+  private long durationInMs;
+
+  public IndexDeploymentReport(String databaseName) {
+    this.databaseName = databaseName;
+  }
+
+  /**
+   * Database name (null for default database of document store).
+   */
+  public String getDatabaseName() {
+    return databaseName;
+  }
+
+  /**
+   * Indexes which were missing on server or had different definition.
+   */
+  public List<String> getPutIndexes() {
+    return putIndexes;
+  }
+
+  /**
+   * Indexes which already existed with the same definition.
+   */
+  public List<String> getUnchangedIndexes() {
+    return unchangedIndexes;
+  }
+
+  /**
+   * Unchanged indexes which had only priority updated.
+   */
+  public List<String> getPrioritizedIndexes() {
+    return prioritizedIndexes;
+  }
+
+  /**
+   * Transformers which were missing on server or had different definition.
+   */
+  public List<String> getPutTransformers() {
+    return putTransformers;
+  }
+
+  /**
+   * Transformers which already existed with the same definition.
+   */
+  public List<String> getUnchangedTransformers() {
+    return unchangedTransformers;
+  }
+
+  /**
+   * Errors keyed by name of index or transformer (or database name when whole deployment failed).
+   * Failures of index and transformer replication are ignored, as in {@link AbstractIndexCreationTask#afterExecute}.
+   */
+  public Map<String, Exception> getErrors() {
+    return errors;
+  }
+
+  public boolean hasErrors() {
+    return !errors.isEmpty();
+  }
+
+  public long getDurationInMs() {
+    return durationInMs;
+  }
+
+  public void setDurationInMs(long durationInMs) {
+    this.durationInMs = durationInMs;
+  }
+
+  @Override
+  public String toString() {
+    return "IndexDeploymentReport [databaseName=" + databaseName + ", putIndexes=" + putIndexes.size()
+      + ", unchangedIndexes=" + unchangedIndexes.size() + ", prioritizedIndexes=" + prioritizedIndexes.size()
+      + ", putTransformers=" + putTransformers.size() + ", unchangedTransformers=" + unchangedTransformers.size()
+      + ", errors=" + errors.keySet() + ", durationInMs=" + durationInMs + "]";
+  }
+}
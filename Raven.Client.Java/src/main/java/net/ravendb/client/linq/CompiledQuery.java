@@ -0,0 +1,113 @@
+package net.ravendb.client.linq;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.ravendb.abstractions.closure.Action1;
+import net.ravendb.abstractions.data.QueryResult;
+import net.ravendb.client.IDocumentQuery;
+import net.ravendb.client.IDocumentSession;
+import net.ravendb.client.document.DocumentQuery;
+
+import com.mysema.query.types.ParamExpression;
+
+/**
+ * Query translated from QueryDSL expression once, into template with parameter slots.
+ * Executing compiled query only binds values of parameters - expression tree is not visited again.
+ * Instances are immutable and can be shared by many sessions and threads.
+ *
+ * <pre>
+ * Param&lt;String&gt; name = new Param&lt;&gt;(String.class, "name");
+ * CompiledQuery&lt;User&gt; query = session.query(User.class).where(x.name.eq(name)).compile();
+ * List&lt;User&gt; users = query.bind(session).set(name, "John").toList();
+ * </pre>
+ * @param <T>
+ */
+public class CompiledQuery<T> {
+
+  private final DocumentQuery<T> template;
+  private final Set<String> fieldsToFetch;
+  private final List<RenamedField> fieldsToRename;
+
+  public CompiledQuery(DocumentQuery<T> template, Set<String> fieldsToFetch, List<RenamedField> fieldsToRename) {
+    this.template = template;
+    this.fieldsToFetch = fieldsToFetch;
+    this.fieldsToRename = fieldsToRename;
+  }
+
+  /**
+   * Starts execution of compiled query in given session
+   * @param session
+   */
+  public BoundQuery bind(IDocumentSession session) {
+    if (!(session instanceof IDocumentQueryGenerator)) {
+      throw new IllegalArgumentException("Compiled query can't be executed by session: " + session);
+    }
+    return new BoundQuery((IDocumentQueryGenerator) session);
+  }
+
+  @Override
+  public String toString() {
+    return template.toString();
+  }
+
+  /**
+   * Compiled query with values of parameters bound in given session
+   */
+  public class BoundQuery {
+    private final IDocumentQueryGenerator queryGenerator;
+    private final Map<ParamExpression<?>, Object> parameterValues = new HashMap<>();
+
+    protected BoundQuery(IDocumentQueryGenerator queryGenerator) {
+      this.queryGenerator = queryGenerator;
+    }
+
+    /**
+     * Sets value of parameter used in query expression
+     * @param param
+     * @param value
+     */
+    public <P> BoundQuery set(ParamExpression<P> param, P value) {
+      parameterValues.put(param, value);
+      return this;
+    }
+
+    /**
+     * Creates document query with bound values of parameters
+     */
+    public IDocumentQuery<T> toDocumentQuery() {
+      IDocumentQuery<T> documentQuery = template.bind(queryGenerator, parameterValues);
+      if (!fieldsToRename.isEmpty()) {
+        documentQuery.afterQueryExecuted(new Action1<QueryResult>() {
+          @Override
+          public void apply(QueryResult queryResult) {
+            RavenQueryProviderProcessor.renameResults(queryResult, fieldsToFetch, fieldsToRename);
+          }
+        });
+      }
+      return documentQuery;
+    }
+
+    public List<T> toList() {
+      return toDocumentQuery().toList();
+    }
+
+    public T first() {
+      return toDocumentQuery().first();
+    }
+
+    public T firstOrDefault() {
+      return toDocumentQuery().firstOrDefault();
+    }
+
+    public T single() {
+      return toDocumentQuery().single();
+    }
+
+    public T singleOrDefault() {
+      return toDocumentQuery().singleOrDefault();
+    }
+  }
+}
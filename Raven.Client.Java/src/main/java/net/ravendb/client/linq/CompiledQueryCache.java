@@ -0,0 +1,48 @@
+package net.ravendb.client.linq;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.ravendb.abstractions.closure.Function0;
+
+/**
+ * Compiled queries of document store, keyed by shape of query (query expression with parameters, index, transformer, projection).
+ * Cache is cleared when it reaches maximum size.
+ */
+public class CompiledQueryCache {
+
+  private final int maxSize;
+  private final ConcurrentMap<List<Object>, CompiledQuery<?>> compiledQueries = new ConcurrentHashMap<>();
+
+  public CompiledQueryCache(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Returns compiled query for given key, compiling it when missing
+   * @param key
+   * @param compiler
+   */
+  @SuppressWarnings("unchecked")
+  public <T> CompiledQuery<T> getOrCompile(List<Object> key, Function0<CompiledQuery<T>> compiler) {
+    CompiledQuery<?> compiledQuery = compiledQueries.get(key);
+    if (compiledQuery != null) {
+      return (CompiledQuery<T>) compiledQuery;
+    }
+    CompiledQuery<T> result = compiler.apply();
+    if (compiledQueries.size() >= maxSize) {
+      compiledQueries.clear();
+    }
+    compiledQueries.put(key, result);
+    return result;
+  }
+
+  public int size() {
+    return compiledQueries.size();
+  }
+
+  public void clear() {
+    compiledQueries.clear();
+  }
+}
@@ -83,6 +83,13 @@ public interface IRavenQueryProvider extends IQueryProvider {
 
   public <T> Lazy<Integer> countLazily(Class<T> clazz, Expression<?> expression);
 
+  /**
+   * Translates the linq query once into compiled query, which binds values of parameters on execution
+   * @param expression
+   * @return compiled query
+   */
+  public <T> CompiledQuery<T> compile(Expression<?> expression);
+
   /**
    * @return fields to fetch
    */
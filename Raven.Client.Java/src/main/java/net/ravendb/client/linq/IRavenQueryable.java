@@ -71,6 +71,13 @@ public interface IRavenQueryable<T> extends IOrderedQueryable<T>, LinqExtensions
    */
   IRavenQueryable<T> distinct();
 
+  /**
+   * Translates the query once into compiled query. Use {@link com.mysema.query.types.expr.Param} in query expression
+   * for values which are bound when compiled query is executed.
+   * @return CompiledQuery
+   */
+  CompiledQuery<T> compile();
+
   /**
    * Holds the original query type only when TransformWith is invoked otherwise null.
      */
@@ -14,6 +14,7 @@ import com.mysema.query.types.Constant;
 import com.mysema.query.types.Expression;
 import com.mysema.query.types.Operation;
 import com.mysema.query.types.Ops;
+import com.mysema.query.types.ParamExpression;
 import com.mysema.query.types.Path;
 import com.mysema.query.types.PathType;
 import com.mysema.query.types.expr.NumberOperation;
@@ -199,24 +200,33 @@ public class LinqPathProvider {
     if (expression == null) {
       return new IllegalArgumentException("Value is missing");
     }
+    if (expression instanceof ParamExpression) {
+      // value will be bound when compiled query is executed
+      return new QueryParameter((ParamExpression< ? >) expression);
+    }
     // get object
     Reference<Object> valueRef= new Reference<>();
     if (getValueFromExpressionWithoutConversion(expression, valueRef)) {
-      if (valueRef.value == null) {
-        return null;
-      }
-      if (valueRef.value instanceof Enum) {
-        if (!conventions.isSaveEnumsAsIntegers()) {
-          return ((Enum<?>)valueRef.value).name();
-        }
-        return ((Enum<?>)valueRef.value).ordinal();
-      }
-
-      return valueRef.value;
+      return convertValue(valueRef.value);
     }
     throw new IllegalStateException("Can't extract value from expression of type:" + expression);
   }
 
+  /**
+   * Converts value used in query expression (enums are stored as names or ordinals depending on conventions)
+   * @param value
+   */
+  @SuppressWarnings("boxing")
+  public Object convertValue(Object value) {
+    if (value instanceof Enum) {
+      if (!conventions.isSaveEnumsAsIntegers()) {
+        return ((Enum<?>)value).name();
+      }
+      return ((Enum<?>)value).ordinal();
+    }
+    return value;
+  }
+
   public Path<?> getMemberExpression(Expression<?> expression) {
     if (expression instanceof Path) {
       return (Path< ? >) expression;
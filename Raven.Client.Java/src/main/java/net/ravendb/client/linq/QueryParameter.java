@@ -0,0 +1,60 @@
+package net.ravendb.client.linq;
+
+import com.mysema.query.types.ParamExpression;
+
+/**
+ * Placeholder used instead of value when query expression contains {@link ParamExpression}.
+ * Actual value is bound when compiled query is executed, see {@link CompiledQuery}.
+ */
+public class QueryParameter {
+
+  private final ParamExpression<?> param;
+  private final String prefix;
+  private final String suffix;
+
+  public QueryParameter(ParamExpression<?> param) {
+    this(param, "", "");
+  }
+
+  private QueryParameter(ParamExpression<?> param, String prefix, String suffix) {
+    this.param = param;
+    this.prefix = prefix;
+    this.suffix = suffix;
+  }
+
+  public ParamExpression<?> getParam() {
+    return param;
+  }
+
+  /**
+   * Type of value which will be bound to this parameter
+   */
+  public Class<?> getType() {
+    return param.getType();
+  }
+
+  /**
+   * Returns placeholder which binds value surrounded by given prefix and suffix (for example: wildcards)
+   * @param prefix
+   * @param suffix
+   */
+  public QueryParameter wrap(String prefix, String suffix) {
+    return new QueryParameter(param, prefix + this.prefix, this.suffix + suffix);
+  }
+
+  /**
+   * Applies prefix and suffix to bound value
+   * @param value
+   */
+  public Object apply(Object value) {
+    if (prefix.isEmpty() && suffix.isEmpty()) {
+      return value;
+    }
+    return prefix + value + suffix;
+  }
+
+  @Override
+  public String toString() {
+    return prefix + "{" + param.getName() + "}" + suffix;
+  }
+}
@@ -567,6 +567,11 @@ public class RavenQueryInspector<T> implements IRavenQueryable<T>, IRavenQueryIn
     return (long) provider.execute(Expressions.operation(Object.class, LinqOps.Query.LONG_COUNT, getExpression()));
   }
 
+  @Override
+  public CompiledQuery<T> compile() {
+    return provider.compile(expression);
+  }
+
   @Override
   public IRavenQueryable<T> distinct() {
     return provider.createQuery(Expressions.operation(Object.class, LinqOps.Query.DISTINCT, getExpression()));
@@ -1,6 +1,7 @@
 package net.ravendb.client.linq;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -10,11 +11,14 @@ import java.util.Set;
 import net.ravendb.abstractions.basic.Lazy;
 import net.ravendb.abstractions.basic.Reference;
 import net.ravendb.abstractions.closure.Action1;
+import net.ravendb.abstractions.closure.Function0;
 import net.ravendb.abstractions.closure.Function1;
 import net.ravendb.abstractions.data.QueryResult;
 import net.ravendb.abstractions.json.linq.RavenJObject;
 import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.client.DocumentStoreBase;
 import net.ravendb.client.IDocumentQuery;
+import net.ravendb.client.IDocumentStore;
 import net.ravendb.client.RavenQueryHighlightings;
 import net.ravendb.client.RavenQueryStatistics;
 import net.ravendb.client.connection.IDatabaseCommands;
@@ -240,6 +244,31 @@ public class RavenQueryProvider<T> implements IRavenQueryProvider {
       return query.countLazily();
   }
 
+  /**
+   * Translates the expression into compiled query. Compiled queries are cached in document store by shape of query,
+   * unless query was customized.
+   */
+  @SuppressWarnings({"hiding", "unchecked", "boxing"})
+  @Override
+  public <T> CompiledQuery<T> compile(final Expression<?> expression) {
+    Function0<CompiledQuery<T>> compiler = new Function0<CompiledQuery<T>>() {
+      @Override
+      public CompiledQuery<T> apply() {
+        return (CompiledQuery<T>) getQueryProviderProcessor(clazz).compile(expression);
+      }
+    };
+    if (customizeQuery != null || !(queryGenerator instanceof InMemoryDocumentSessionOperations)) {
+      return compiler.apply();
+    }
+    IDocumentStore documentStore = ((InMemoryDocumentSessionOperations) queryGenerator).getDocumentStore();
+    if (!(documentStore instanceof DocumentStoreBase)) {
+      return compiler.apply();
+    }
+    List<Object> key = Arrays.<Object> asList(clazz, indexName, isMapReduce, resultTranformer, new HashMap<>(transformerParameters),
+      new HashSet<>(fieldsToFetch), originalQueryType, expression);
+    return ((DocumentStoreBase) documentStore).getCompiledQueryCache().getOrCompile(key, compiler);
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public <S> IRavenQueryable<S> createQuery(Expression< ? > expression) {
@@ -1,8 +1,5 @@
 package net.ravendb.client.linq;
 
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -31,6 +28,8 @@ import net.ravendb.client.document.DocumentQueryCustomization;
 import net.ravendb.client.document.DocumentQueryCustomizationFactory;
 import net.ravendb.client.document.IAbstractDocumentQuery;
 import net.ravendb.client.linq.LinqPathProvider.Result;
+import net.ravendb.client.util.PropertyAccessor;
+import net.ravendb.client.util.TypeAccessor;
 
 import com.google.common.collect.Lists;
 import com.mysema.codegen.StringUtils;
@@ -256,6 +255,7 @@ public class RavenQueryProviderProcessor<T> {
   private void visitContainsAny(Operation<Boolean> expression) {
     ExpressionInfo memberInfo = getMember(expression.getArg(0));
     Object objects = getValueFromExpression(expression.getArg(1), getMemberType(memberInfo));
+    assertNotParameter(objects, "containsAny");
     documentQuery.containsAny(memberInfo.getPath(), (Collection<Object>)objects);
   }
 
@@ -263,6 +263,7 @@ public class RavenQueryProviderProcessor<T> {
   private void visitContainsAll(Operation<Boolean> expression) {
     ExpressionInfo memberInfo = getMember(expression.getArg(0));
     Object objects = getValueFromExpression(expression.getArg(1), getMemberType(memberInfo));
+    assertNotParameter(objects, "containsAll");
     documentQuery.containsAll(memberInfo.getPath(), (Collection<Object>)objects);
   }
 
@@ -270,6 +271,7 @@ public class RavenQueryProviderProcessor<T> {
   private void visitIn(Operation<Boolean> expression) {
     ExpressionInfo memberInfo = getMember(expression.getArg(0));
     Object objects = getValueFromExpression(expression.getArg(1), getMemberType(memberInfo));
+    assertNotParameter(objects, "whereIn");
     documentQuery.whereIn(memberInfo.getPath(), (Collection<Object>)objects);
   }
 
@@ -433,6 +435,12 @@ public class RavenQueryProviderProcessor<T> {
     return linqPathProvider.getValueFromExpression(expression, type);
   }
 
+  private static void assertNotParameter(Object value, String method) {
+    if (value instanceof QueryParameter) {
+      throw new IllegalArgumentException("Parameters are not supported in " + method + ", use constant collection instead of: " + value);
+    }
+  }
+
   private void visitOrElse(Operation<Boolean> orElse) {
     if (subClauseDepth > 0) {
       documentQuery.openSubclause();
@@ -810,14 +818,8 @@ public class RavenQueryProviderProcessor<T> {
           // extract mappings using reflection
           List<String> fieldsList = new ArrayList<>();
 
-          try {
-            for (PropertyDescriptor propertyDescriptor : Introspector.getBeanInfo(projectionClass).getPropertyDescriptors()) {
-              if (propertyDescriptor.getWriteMethod() != null && propertyDescriptor.getReadMethod() != null) {
-                fieldsList.add(StringUtils.capitalize(propertyDescriptor.getName()));
-              }
-            }
-          } catch (IntrospectionException e) {
-            throw new RuntimeException(e);
+          for (PropertyAccessor property : TypeAccessor.of(projectionClass).getReadWriteProperties()) {
+            fieldsList.add(StringUtils.capitalize(property.getName()));
           }
           fields = fieldsList.toArray(new String[0]);
           projections = fieldsList.toArray(new String[0]);
@@ -1055,7 +1057,8 @@ public class RavenQueryProviderProcessor<T> {
 
       return Constants.DOCUMENT_ID_FIELD_NAME;
     }
-    if (documentQuery.getDocumentConvention().usesRangeType(value) && !expression.getPath().endsWith("_Range")) {
+    Object rangeValue = value instanceof QueryParameter ? ((QueryParameter) value).getType() : value;
+    if (documentQuery.getDocumentConvention().usesRangeType(rangeValue) && !expression.getPath().endsWith("_Range")) {
       return expression.getPath() + "_Range";
     }
     return expression.getPath();
@@ -1090,8 +1093,28 @@ public class RavenQueryProviderProcessor<T> {
     }
   }
 
+  /**
+   * Translates expression once into template which can be executed many times, binding values of parameters
+   * ({@link com.mysema.query.types.expr.Param}) used in expression.
+   * @param expression
+   */
   @SuppressWarnings("unchecked")
-  private <TProjection> Object executeQuery(Class<TProjection> projectionClass) {
+  public CompiledQuery<T> compile(Expression<?> expression) {
+    chanedWhere = false;
+
+    documentQuery = (IAbstractDocumentQuery<T>) getDocumentQueryFor(expression);
+    if (!newExpressionType.equals(clazz)) {
+      throw new IllegalStateException("Don't know how to handle expression:" + expression);
+    }
+    if (queryType != SpecialQueryType.NONE) {
+      throw new IllegalStateException("Compiled query can't contain " + queryType + " operation, apply it to bound query instead");
+    }
+    DocumentQuery<T> finalQuery = (DocumentQuery<T>) createFinalQuery(clazz);
+    return new CompiledQuery<>(finalQuery.toCompiledTemplate(), new HashSet<>(fieldsToFetch), new ArrayList<>(fieldsToRename));
+  }
+
+  @SuppressWarnings("unchecked")
+  private <TProjection> IDocumentQuery<TProjection> createFinalQuery(Class<TProjection> projectionClass) {
     List<String> renamedFields = new ArrayList<>();
     outer:
       for (String field :fieldsToFetch) {
@@ -1109,6 +1132,11 @@ public class RavenQueryProviderProcessor<T> {
       finalQuery.setResultTransformer(this.resultsTransformer);
     }
     finalQuery.setTransformerParameters(this.transformerParameters);
+    return finalQuery;
+  }
+
+  private <TProjection> Object executeQuery(Class<TProjection> projectionClass) {
+    IDocumentQuery<TProjection> finalQuery = createFinalQuery(projectionClass);
 
 
     if (!fieldsToRename.isEmpty()) {
@@ -1130,11 +1158,15 @@ public class RavenQueryProviderProcessor<T> {
   }
 
   public void renameResults(QueryResult queryResult) {
+    renameResults(queryResult, fieldsToFetch, fieldsToRename);
+  }
+
+  public static void renameResults(QueryResult queryResult, Set<String> fieldsToFetch, List<RenamedField> fieldsToRename) {
 
     for (int index = 0; index < queryResult.getResults().size(); index++) {
       RavenJObject result = queryResult.getResults().get(index);
       RavenJObject safeToModify = result.createSnapshot();
-      if (!renameSingleResult(new Reference<>(safeToModify))) {
+      if (!renameSingleResult(new Reference<>(safeToModify), fieldsToFetch, fieldsToRename)) {
         continue;
       }
       safeToModify.ensureCannotBeChangeAndEnableShapshotting();
@@ -1143,6 +1175,10 @@ public class RavenQueryProviderProcessor<T> {
   }
 
   public boolean renameSingleResult(Reference<RavenJObject> doc) {
+    return renameSingleResult(doc, fieldsToFetch, fieldsToRename);
+  }
+
+  public static boolean renameSingleResult(Reference<RavenJObject> doc, Set<String> fieldsToFetch, List<RenamedField> fieldsToRename) {
       boolean changed = false;
       Map<String, RavenJToken> values = new HashMap<>();
 
@@ -0,0 +1,95 @@
+package net.ravendb.client.shard;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+import com.mysema.query.types.Path;
+
+/**
+ * Routes documents to shards by consistent hashing of sharding property value. Each shard owns many virtual nodes
+ * on hash ring, so adding a shard moves only keys which are taken over by new shard.
+ * Equality and in predicates are pruned to shards owning queried values, range queries go to all shards.
+ */
+public class ConsistentHashShardResolutionStrategy extends RoutingShardResolutionStrategy {
+
+  public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+  private final long[] ringHashes;
+  private final String[] ringShardIds;
+
+  public ConsistentHashShardResolutionStrategy(Collection<String> shardIds, ShardStrategy shardStrategy) {
+    this(shardIds, shardStrategy, DEFAULT_VIRTUAL_NODES);
+  }
+
+  public ConsistentHashShardResolutionStrategy(Collection<String> shardIds, ShardStrategy shardStrategy, int virtualNodesPerShard) {
+    super(shardIds, shardStrategy);
+    if (virtualNodesPerShard < 1) {
+      throw new IllegalArgumentException("virtualNodesPerShard must be positive");
+    }
+
+    // ring is kept as sorted (hash, shard) pairs, ties are broken by shard order
+    int size = this.shardIds.size() * virtualNodesPerShard;
+    long[][] nodes = new long[size][];
+    int i = 0;
+    for (int shard = 0; shard < this.shardIds.size(); shard++) {
+      for (int node = 0; node < virtualNodesPerShard; node++) {
+        nodes[i++] = new long[] { hash(this.shardIds.get(shard).toLowerCase() + "#" + node), shard };
+      }
+    }
+    Arrays.sort(nodes, new Comparator<long[]>() {
+      @Override
+      public int compare(long[] o1, long[] o2) {
+        int result = Long.compare(o1[0], o2[0]);
+        return result != 0 ? result : Long.compare(o1[1], o2[1]);
+      }
+    });
+    ringHashes = new long[size];
+    ringShardIds = new String[size];
+    for (i = 0; i < size; i++) {
+      ringHashes[i] = nodes[i][0];
+      ringShardIds[i] = this.shardIds.get((int) nodes[i][1]);
+    }
+  }
+
+  @Override
+  public ConsistentHashShardResolutionStrategy shardingOn(Path<?> shardingProperty) {
+    super.shardingOn(shardingProperty);
+    return this;
+  }
+
+  @Override
+  protected String shardIdFor(Object value) {
+    long hash = hash(value.toString());
+    int index = Arrays.binarySearch(ringHashes, hash);
+    if (index < 0) {
+      index = -index - 1;
+    }
+    if (index == ringHashes.length) {
+      index = 0;
+    }
+    return ringShardIds[index];
+  }
+
+  @Override
+  protected Collection<String> shardIdsFor(Object lower, boolean lowerInclusive, Object upper, boolean upperInclusive) {
+    return null; // hashing doesn't preserve order
+  }
+
+  /**
+   * 64 bit FNV-1a hash with murmur finalizer - stable across JVMs, unlike String.hashCode based hashing.
+   */
+  static long hash(String text) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < text.length(); i++) {
+      hash ^= text.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
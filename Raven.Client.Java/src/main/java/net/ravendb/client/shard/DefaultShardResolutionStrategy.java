@@ -12,6 +12,8 @@ import java.util.regex.Pattern;
 import net.ravendb.abstractions.closure.Function1;
 import net.ravendb.abstractions.data.Constants;
 import net.ravendb.abstractions.extensions.ExpressionExtensions;
+import net.ravendb.client.util.FieldAccessor;
+import net.ravendb.client.util.TypeAccessor;
 
 import org.apache.commons.beanutils.ConvertUtils;
 import org.apache.commons.lang.StringUtils;
@@ -77,9 +79,15 @@ public class DefaultShardResolutionStrategy implements IShardResolutionStrategy
       };
     }
 
+    Field field = ExpressionExtensions.toProperty(shardingProperty);
+    final FieldAccessor property = field != null ? TypeAccessor.of(field) : null;
+    if (property == null) {
+      throw new IllegalArgumentException("Unable to find field " + ExpressionExtensions.toPropertyPath(shardingProperty));
+    }
+
     String shardFieldForQuerying = ExpressionExtensions.toPropertyPath(shardingProperty);
 
-    if (shardStrategy.getConventions().getFindIdentityProperty().find(ExpressionExtensions.toProperty(shardingProperty))) {
+    if (shardStrategy.getConventions().getFindIdentityProperty().find(field)) {
       shardFieldForQuerying = Constants.DOCUMENT_ID_FIELD_NAME;
     }
 
@@ -91,14 +99,7 @@ public class DefaultShardResolutionStrategy implements IShardResolutionStrategy
       @SuppressWarnings("unchecked")
       @Override
       public String apply(Object input) {
-        try {
-          Field property = ExpressionExtensions.toProperty(shardingProperty);
-          property.setAccessible(true);
-          Object value = property.get(input);
-          return finalValueTranslator.apply((TResult)value);
-        } catch (IllegalAccessException e) {
-          throw new IllegalStateException(e);
-        }
+        return finalValueTranslator.apply((TResult) property.get(input));
       }
     });
     queryResultToStringByType.put(shardingProperty.getRoot().getType(), queryTranslator);
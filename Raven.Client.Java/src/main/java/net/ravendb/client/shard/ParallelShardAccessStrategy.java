@@ -91,7 +91,7 @@ public class ParallelShardAccessStrategy implements IShardAccessStrategy, CleanC
           throw new RuntimeException(e);
         }
       }
-      boolean allErrored = false;
+      boolean allErrored = errors.length > 0;
       for (Exception e : errors) {
         allErrored &= e != null;
       }
@@ -0,0 +1,126 @@
+package net.ravendb.client.shard;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.mysema.query.types.Path;
+
+/**
+ * Routes documents to shards by ordered ranges of sharding property value. Each shard owns range starting
+ * at its (inclusive) lower bound and ending at lower bound of next shard. Splitting a range moves only keys
+ * from this range.
+ * Equality, in and range predicates are pruned to shards owning queried values.
+ */
+public class RangeShardResolutionStrategy extends RoutingShardResolutionStrategy {
+
+  private static final Comparator<Object> VALUE_COMPARATOR = new Comparator<Object>() {
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Override
+    public int compare(Object o1, Object o2) {
+      if (o1 instanceof Number && o2 instanceof Number && !o1.getClass().equals(o2.getClass())) {
+        // i.e. Integer bounds of Long property
+        return Double.compare(((Number) o1).doubleValue(), ((Number) o2).doubleValue());
+      }
+      return ((Comparable) o1).compareTo(o2);
+    }
+  };
+
+  private final Object[] lowerBounds;
+  private final String[] rangeShardIds;
+
+  /**
+   * @param lowerBoundsByShardId inclusive lower bound of range owned by each shard, first shard has null bound
+   */
+  public RangeShardResolutionStrategy(Map<String, ? extends Comparable<?>> lowerBoundsByShardId, ShardStrategy shardStrategy) {
+    this(sortRanges(lowerBoundsByShardId), shardStrategy);
+  }
+
+  private RangeShardResolutionStrategy(List<Map.Entry<String, Object>> ranges, ShardStrategy shardStrategy) {
+    super(shardIdsOf(ranges), shardStrategy);
+
+    lowerBounds = new Object[ranges.size()];
+    rangeShardIds = new String[ranges.size()];
+    for (int i = 0; i < ranges.size(); i++) {
+      Object bound = ranges.get(i).getValue();
+      if ((i == 0) != (bound == null)) {
+        throw new IllegalArgumentException("Exactly one shard (owning the lowest values) must have null lower bound");
+      }
+      if (i > 1 && VALUE_COMPARATOR.compare(lowerBounds[i - 1], bound) == 0) {
+        throw new IllegalArgumentException("Shards " + rangeShardIds[i - 1] + " and " + ranges.get(i).getKey() + " have the same lower bound");
+      }
+      lowerBounds[i] = bound;
+      rangeShardIds[i] = ranges.get(i).getKey();
+    }
+  }
+
+  private static List<Map.Entry<String, Object>> sortRanges(Map<String, ? extends Comparable<?>> lowerBoundsByShardId) {
+    List<Map.Entry<String, Object>> ranges = new ArrayList<>();
+    for (Map.Entry<String, ? extends Comparable<?>> range : lowerBoundsByShardId.entrySet()) {
+      ranges.add(new AbstractMap.SimpleImmutableEntry<String, Object>(range.getKey(), normalize(range.getValue())));
+    }
+    Collections.sort(ranges, new Comparator<Map.Entry<String, Object>>() {
+      @Override
+      public int compare(Map.Entry<String, Object> o1, Map.Entry<String, Object> o2) {
+        if (o1.getValue() == null || o2.getValue() == null) {
+          return o1.getValue() == null ? (o2.getValue() == null ? 0 : -1) : 1;
+        }
+        return VALUE_COMPARATOR.compare(o1.getValue(), o2.getValue());
+      }
+    });
+    return ranges;
+  }
+
+  private static List<String> shardIdsOf(List<Map.Entry<String, Object>> ranges) {
+    List<String> shardIds = new ArrayList<>(ranges.size());
+    for (Map.Entry<String, Object> range : ranges) {
+      shardIds.add(range.getKey());
+    }
+    return shardIds;
+  }
+
+  @Override
+  public RangeShardResolutionStrategy shardingOn(Path<?> shardingProperty) {
+    super.shardingOn(shardingProperty);
+    return this;
+  }
+
+  @Override
+  protected String shardIdFor(Object value) {
+    return rangeShardIds[rangeIndexOf(value)];
+  }
+
+  @Override
+  protected Collection<String> shardIdsFor(Object lower, boolean lowerInclusive, Object upper, boolean upperInclusive) {
+    int first = lower != null ? rangeIndexOf(lower) : 0;
+    int last = upper != null ? rangeIndexOf(upper) : rangeShardIds.length - 1;
+    if (upper != null && !upperInclusive && last > first && VALUE_COMPARATOR.compare(upper, lowerBounds[last]) == 0) {
+      last--; // range ends just before lower bound of this shard
+    }
+    return Arrays.asList(rangeShardIds).subList(first, Math.max(first, last) + 1);
+  }
+
+  /**
+   * @return index of range containing value
+   */
+  private int rangeIndexOf(Object value) {
+    int low = 1;
+    int high = lowerBounds.length - 1;
+    int result = 0;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (VALUE_COMPARATOR.compare(lowerBounds[mid], value) <= 0) {
+        result = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,279 @@
+package net.ravendb.client.shard;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.IndexQuery;
+import net.ravendb.abstractions.extensions.ExpressionExtensions;
+import net.ravendb.client.util.FieldAccessor;
+import net.ravendb.client.util.TypeAccessor;
+import net.ravendb.client.shard.ShardingQueryParser.Clause;
+import net.ravendb.client.shard.ShardingQueryParser.Occur;
+import net.ravendb.client.shard.ShardingQueryParser.Predicate;
+
+import com.mysema.query.types.Path;
+
+/**
+ * Base for shard resolution strategies which route documents by value of sharding property, using precomputed routing table.
+ * Ids of documents are prefixed with shard id, so loads by id go to single shard. Queries are sent only to shards
+ * which can match equality, in and range predicates on sharding property (when these predicates have to match).
+ *
+ * String values are routed case insensitively, as they are indexed lowercased by default analyzer.
+ */
+public abstract class RoutingShardResolutionStrategy implements IShardResolutionStrategy {
+
+  protected final ShardStrategy shardStrategy;
+  protected final List<String> shardIds;
+
+  private final Map<Class<?>, ShardingProperty> shardingProperties = new HashMap<>();
+
+  private static class ShardingProperty {
+    private final FieldAccessor field;
+    private final Class<?> type;
+    private final String fieldForQuerying;
+
+    public ShardingProperty(FieldAccessor field, String fieldForQuerying) {
+      this.field = field;
+      this.type = field.getType();
+      this.fieldForQuerying = fieldForQuerying;
+    }
+  }
+
+  protected RoutingShardResolutionStrategy(Collection<String> shardIds, ShardStrategy shardStrategy) {
+    if (shardIds.isEmpty()) {
+      throw new IllegalArgumentException("shardIds must have at least one value");
+    }
+    this.shardStrategy = shardStrategy;
+    this.shardIds = Collections.unmodifiableList(new ArrayList<>(shardIds));
+  }
+
+  /**
+   * Routes instances of root type of shardingProperty by value of this property.
+   * @param shardingProperty
+   */
+  public RoutingShardResolutionStrategy shardingOn(Path<?> shardingProperty) {
+    Field field = ExpressionExtensions.toProperty(shardingProperty);
+    FieldAccessor accessor = field != null ? TypeAccessor.of(field) : null;
+    if (accessor == null) {
+      throw new IllegalArgumentException("Unable to find field " + ExpressionExtensions.toPropertyPath(shardingProperty));
+    }
+    String fieldForQuerying = ExpressionExtensions.toPropertyPath(shardingProperty);
+    if (shardStrategy.getConventions().getFindIdentityProperty().find(field)) {
+      fieldForQuerying = Constants.DOCUMENT_ID_FIELD_NAME;
+    }
+    shardingProperties.put(shardingProperty.getRoot().getType(), new ShardingProperty(accessor, fieldForQuerying));
+    return this;
+  }
+
+  /**
+   * @param value not null value of sharding property
+   * @return shard id for given value
+   */
+  protected abstract String shardIdFor(Object value);
+
+  /**
+   * @param lower lower bound or null if range is unbounded
+   * @param upper upper bound or null if range is unbounded
+   * @return shard ids which may contain values from range or null if every shard may contain them
+   */
+  protected abstract Collection<String> shardIdsFor(Object lower, boolean lowerInclusive, Object upper, boolean upperInclusive);
+
+  /**
+   * Value used for routing: strings are lowercased.
+   */
+  protected static Object normalize(Object value) {
+    if (value instanceof String) {
+      return ((String) value).toLowerCase();
+    }
+    return value;
+  }
+
+  @Override
+  public String generateShardIdFor(Object entity, Object owner) {
+    ShardingProperty property = shardingProperties.get(entity.getClass());
+    if (property == null) {
+      throw new IllegalStateException("Entity " + entity.getClass().getName() + " was not setup in " + getClass().getName()
+        + ". Did you forget to call shardingOn(" + entity.getClass().getName() + ") and provide the sharding property?");
+    }
+    Object value = property.field.get(entity);
+    if (value == null) {
+      throw new IllegalStateException("Got null for the shard id using " + property.field.getName() + " of "
+        + entity.getClass().getName() + ", no idea how to get the shard id from null.");
+    }
+    return shardIdFor(normalize(value));
+  }
+
+  @Override
+  public String metadataShardIdFor(Object entity) {
+    return shardIds.get(0);
+  }
+
+  @Override
+  public List<String> potentialShardsFor(ShardRequestData requestData) {
+    if (requestData.getQuery() != null) {
+      ShardingProperty property = shardingProperties.get(requestData.getEntityType());
+      if (property == null || requestData.getQuery().getQuery() == null) {
+        return null;
+      }
+      return potentialShardsFor(requestData.getQuery(), property);
+    }
+
+    if (requestData.getKeys() == null || requestData.getKeys().isEmpty()) {
+      return null;
+    }
+
+    // ids are prefixed with shard id
+    String separator = shardStrategy.getConventions().getIdentityPartsSeparator();
+    Set<String> result = new LinkedHashSet<>();
+    for (String key : requestData.getKeys()) {
+      int end = key.indexOf(separator);
+      if (end == -1) {
+        return null;
+      }
+      String shardId = findShardId(key.substring(0, end));
+      if (shardId == null) {
+        return null;
+      }
+      result.add(shardId);
+    }
+    return new ArrayList<>(result);
+  }
+
+  private String findShardId(String maybeShardId) {
+    for (String shardId : shardIds) {
+      if (shardId.equalsIgnoreCase(maybeShardId)) {
+        return shardId;
+      }
+    }
+    return null;
+  }
+
+  private List<String> potentialShardsFor(IndexQuery query, ShardingProperty property) {
+    List<Clause> clauses = ShardingQueryParser.parseClauses(query.getQuery(), query.getDefaultOperator());
+    if (clauses == null || clauses.isEmpty()) {
+      return null;
+    }
+
+    Set<String> required = null;
+    Set<String> optional = new LinkedHashSet<>();
+    boolean hasRequiredClauses = false;
+    boolean hasOptionalClauses = false;
+    boolean allOptionalClausesResolved = true;
+
+    for (Clause clause : clauses) {
+      if (clause.getOccur() == Occur.MUST_NOT) {
+        continue; // doesn't narrow set of matching documents
+      }
+      Predicate predicate = ShardingQueryParser.parsePredicate(clause.getText(), property.fieldForQuerying);
+      Collection<String> shards = predicate != null ? shardIdsFor(predicate, property.type) : null;
+      if (clause.getOccur() == Occur.MUST) {
+        hasRequiredClauses = true;
+        if (shards != null) {
+          if (required == null) {
+            required = new LinkedHashSet<>(shards);
+          } else {
+            required.retainAll(shards);
+          }
+        }
+      } else {
+        hasOptionalClauses = true;
+        if (shards == null) {
+          allOptionalClausesResolved = false;
+        } else {
+          optional.addAll(shards);
+        }
+      }
+    }
+
+    Set<String> result;
+    if (required != null) {
+      result = required;
+    } else if (!hasRequiredClauses && hasOptionalClauses && allOptionalClausesResolved) {
+      // documents have to match at least one of optional clauses
+      result = optional;
+    } else {
+      return null;
+    }
+
+    List<String> orderedResult = new ArrayList<>(result.size());
+    for (String shardId : shardIds) {
+      if (result.contains(shardId)) {
+        orderedResult.add(shardId);
+      }
+    }
+    if (orderedResult.isEmpty()) {
+      // predicates can't be satisfied - any single shard returns empty result
+      orderedResult.add(shardIds.get(0));
+    }
+    return orderedResult;
+  }
+
+  private Collection<String> shardIdsFor(Predicate predicate, Class<?> type) {
+    if (predicate.isRange()) {
+      Object lower = null;
+      Object upper = null;
+      if (predicate.getLower() != null) {
+        lower = convert(predicate.getLower(), type);
+        if (lower == null) {
+          return null;
+        }
+      }
+      if (predicate.getUpper() != null) {
+        upper = convert(predicate.getUpper(), type);
+        if (upper == null) {
+          return null;
+        }
+      }
+      return shardIdsFor(lower, predicate.isLowerInclusive(), upper, predicate.isUpperInclusive());
+    }
+
+    Set<String> result = new LinkedHashSet<>();
+    for (String value : predicate.getValues()) {
+      Object converted = convert(value, type);
+      if (converted == null) {
+        return null;
+      }
+      result.add(shardIdFor(converted));
+    }
+    return result;
+  }
+
+  /**
+   * Converts value from query to type of sharding property.
+   * @return normalized value or null if value can't be converted
+   */
+  @SuppressWarnings("boxing")
+  private static Object convert(String value, Class<?> type) {
+    try {
+      if (String.class.equals(type)) {
+        return normalize(value);
+      }
+      if (Integer.class.equals(type) || int.class.equals(type)) {
+        return Integer.valueOf(value);
+      }
+      if (Long.class.equals(type) || long.class.equals(type)) {
+        return Long.valueOf(value);
+      }
+      if (Short.class.equals(type) || short.class.equals(type)) {
+        return Short.valueOf(value);
+      }
+      if (Double.class.equals(type) || double.class.equals(type)) {
+        return Double.valueOf(value);
+      }
+      if (Float.class.equals(type) || float.class.equals(type)) {
+        return Float.valueOf(value);
+      }
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    return null;
+  }
+}
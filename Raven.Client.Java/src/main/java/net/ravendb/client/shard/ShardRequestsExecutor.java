@@ -0,0 +1,135 @@
+package net.ravendb.client.shard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.closure.Function0;
+import net.ravendb.client.connection.implementation.HttpJsonRequestFactory;
+import net.ravendb.client.connection.implementation.HttpJsonRequestFactory.ThreadSettings;
+
+/**
+ * Executes requests to shard groups concurrently, on bounded pool of threads owned by {@link ShardedDocumentStore}.
+ * The first request of each fan-out runs on calling thread. Other requests run with thread scoped settings
+ * (aggressive caching, disabled http caching, request timeout) of calling thread.
+ */
+public class ShardRequestsExecutor implements CleanCloseable {
+
+  private final ThreadPoolExecutor executor;
+  private final List<HttpJsonRequestFactory> requestFactories;
+
+  public ShardRequestsExecutor(int maxThreads) {
+    this(maxThreads, Collections.<HttpJsonRequestFactory> emptyList());
+  }
+
+  /**
+   * @param requestFactories factories of shards, settings of calling thread are applied to them on executing threads
+   */
+  public ShardRequestsExecutor(int maxThreads, Collection<HttpJsonRequestFactory> requestFactories) {
+    this.requestFactories = new ArrayList<>(requestFactories);
+    executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+      private final AtomicInteger counter = new AtomicInteger();
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "Shard requests " + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Executes all requests concurrently and waits for all of them (also when some of them fail).
+   * @return results in order of requests
+   * @throws RuntimeException first error of requests, errors of other requests are added as suppressed
+   */
+  public <T> List<T> executeAll(List<Function0<T>> requests) {
+    List<Future<T>> futures = new ArrayList<>(requests.size());
+    final List<ThreadSettings> settings = new ArrayList<>(requestFactories.size());
+    if (requests.size() > 1) {
+      for (HttpJsonRequestFactory factory : requestFactories) {
+        settings.add(factory.captureThreadSettings());
+      }
+    }
+    for (int i = 1; i < requests.size(); i++) {
+      final Function0<T> request = requests.get(i);
+      futures.add(executor.submit(new Callable<T>() {
+        @SuppressWarnings("synthetic-access")
+        @Override
+        public T call() throws Exception {
+          List<CleanCloseable> scopes = new ArrayList<>(settings.size());
+          try {
+            for (int j = 0; j < settings.size(); j++) {
+              scopes.add(requestFactories.get(j).applyThreadSettings(settings.get(j)));
+            }
+            return request.apply();
+          } finally {
+            for (CleanCloseable scope : scopes) {
+              scope.close();
+            }
+          }
+        }
+      }));
+    }
+
+    List<T> results = new ArrayList<>(requests.size());
+    RuntimeException error = null;
+    if (!requests.isEmpty()) {
+      try {
+        results.add(requests.get(0).apply());
+      } catch (RuntimeException e) {
+        error = e;
+        results.add(null);
+      }
+    }
+
+    boolean interrupted = false;
+    for (Future<T> future : futures) {
+      RuntimeException requestError = null;
+      T result = null;
+      while (true) {
+        try {
+          result = future.get();
+          break;
+        } catch (InterruptedException e) {
+          // requests already sent have to complete, so results aren't lost
+          interrupted = true;
+        } catch (ExecutionException e) {
+          requestError = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+          break;
+        }
+      }
+      results.add(result);
+      if (requestError != null) {
+        if (error == null) {
+          error = requestError;
+        } else {
+          error.addSuppressed(requestError);
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (error != null) {
+      throw error;
+    }
+    return results;
+  }
+
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+}
@@ -9,6 +9,7 @@ import net.ravendb.abstractions.basic.VoidArgs;
 import net.ravendb.abstractions.data.*;
 import net.ravendb.client.changes.IDatabaseChanges;
 import net.ravendb.client.changes.IObservable;
+import net.ravendb.client.changes.MissedChangesEventArgs;
 
 
 public class ShardedDatabaseChanges implements IDatabaseChanges {
@@ -177,4 +178,18 @@ public class ShardedDatabaseChanges implements IDatabaseChanges {
     }
   }
 
+  @Override
+  public void addMissedChanges(EventHandler<MissedChangesEventArgs> handler) {
+    for (IDatabaseChanges shardedDatabaseChange: shardedDatabaseChanges) {
+      shardedDatabaseChange.addMissedChanges(handler);
+    }
+  }
+
+  @Override
+  public void removeMissedChanges(EventHandler<MissedChangesEventArgs> handler) {
+    for (IDatabaseChanges shardedDatabaseChange: shardedDatabaseChanges) {
+      shardedDatabaseChange.removeMissedChanges(handler);
+    }
+  }
+
 }
@@ -29,12 +29,10 @@ import net.ravendb.client.indexes.AbstractTransformerCreationTask;
 import net.ravendb.client.linq.IDocumentQueryGenerator;
 import net.ravendb.client.linq.IRavenQueryable;
 import net.ravendb.client.linq.RavenQueryInspector;
+import net.ravendb.client.util.PropertyAccessor;
+import net.ravendb.client.util.TypeAccessor;
 
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.lang.reflect.Array;
-import java.lang.reflect.InvocationTargetException;
 import java.util.*;
 import java.util.Map.Entry;
 
@@ -42,12 +40,15 @@ import java.util.Map.Entry;
 public class ShardedDocumentSession extends BaseShardedDocumentSession<IDatabaseCommands>
 implements IDocumentQueryGenerator, IDocumentSessionImpl, ISyncAdvancedSessionOperation {
 
+  private final ShardRequestsExecutor shardRequestsExecutor;
+
   /**
    * Initializes a new instance of the ShardedDocumentSession class.
    */
   public ShardedDocumentSession(String dbName, ShardedDocumentStore documentStore, DocumentSessionListeners listeners, UUID id,
     ShardStrategy shardStrategy, Map<String, IDatabaseCommands> shardDbCommands) {
     super(dbName, documentStore, listeners, id, shardStrategy, shardDbCommands);
+    this.shardRequestsExecutor = documentStore.getShardRequestsExecutor();
   }
 
   @Override
@@ -146,7 +147,7 @@ implements IDocumentQueryGenerator, IDocumentSessionImpl, ISyncAdvancedSessionOp
     Object existingEntity;
     if (entitiesByKey.containsKey(id)) {
       existingEntity = entitiesByKey.get(id);
-      return (T) existingEntity;
+      return (T) markAccessed(existingEntity);
     }
 
     JsonDocument value = includedDocumentsByKey.get(id);
@@ -324,70 +325,54 @@ implements IDocumentQueryGenerator, IDocumentSessionImpl, ISyncAdvancedSessionOp
 
     incrementRequestCount();
 
-    if (clazz.isArray()) {
-      for (Entry<List<IDatabaseCommands>, List<IdToLoad<IDatabaseCommands>>> shard: idsToLoad.entrySet()) {
-        final List<String> currentShardIds = new ArrayList<>();
-        for (IdToLoad<IDatabaseCommands> x: shard.getValue()) {
-          currentShardIds.add(x.id);
-        }
-        ShardRequestData shardRequest = new ShardRequestData();
-        shardRequest.setEntityType(clazz);
-        shardRequest.setKeys(currentShardIds);
-        T[][] shardResults = getShardStrategy().getShardAccessStrategy().apply(clazz, shard.getKey(), shardRequest, new Function2<IDatabaseCommands, Integer, T[]>() {
-          @SuppressWarnings("synthetic-access")
-          @Override
-          public T[] apply(IDatabaseCommands dbCmd, Integer i) {
-            // Returns array of arrays, public APIs don't surface that yet though as we only support Transform
-            // With a single Id
-            MultiLoadResult multiLoadResult = dbCmd.get(currentShardIds.toArray(new String[0]), includePaths, transformer, transformerParameters);
-
-            return new LoadTransformerOperation(ShardedDocumentSession.this, transformer, ids).complete(clazz, multiLoadResult);
-
-          }
-        });
-        int items = 0;
-        for (T[] item: shardResults) {
-          items += item.length;
-        }
-        T[] finalResult = (T[]) Array.newInstance(clazz, items);
-        int i = 0;
-        for (T[] itemOuter: shardResults) {
-          for (T itemInner: itemOuter) {
-            finalResult[i] = itemInner;
-            i++;
-          }
-        }
-        return finalResult;
-      }
-    }
-
-    for (Entry<List<IDatabaseCommands>, List<IdToLoad<IDatabaseCommands>>> shard: idsToLoad.entrySet()) {
+    // all shard groups are queried concurrently, results are tracked by session on this thread
+    List<List<String>> shardIds = new ArrayList<>();
+    List<Function0<MultiLoadResult[]>> requests = new ArrayList<>();
+    for (final Entry<List<IDatabaseCommands>, List<IdToLoad<IDatabaseCommands>>> shard: idsToLoad.entrySet()) {
       final List<String> currentShardIds = new ArrayList<>();
       for (IdToLoad<IDatabaseCommands> x: shard.getValue()) {
         currentShardIds.add(x.id);
       }
-      ShardRequestData shardRequest = new ShardRequestData();
+      shardIds.add(currentShardIds);
+      final ShardRequestData shardRequest = new ShardRequestData();
       shardRequest.setEntityType(clazz);
       shardRequest.setKeys(currentShardIds);
-      T[][] shardResults = getShardStrategy().getShardAccessStrategy().apply(clazz, shard.getKey(), shardRequest, new Function2<IDatabaseCommands, Integer, T[]>() {
+      requests.add(new Function0<MultiLoadResult[]>() {
         @Override
-        public T[] apply(IDatabaseCommands dbCmd, Integer i) {
-          // Returns array of arrays, public APIs don't surface that yet though as we only support Transform
-          // With a single Id
-          MultiLoadResult multiLoadResult = dbCmd.get(currentShardIds.toArray(new String[0]), includePaths, transformer, transformerParameters);
-          T[] items = new LoadTransformerOperation(ShardedDocumentSession.this, transformer, ids).complete(clazz, multiLoadResult);
-
-          if (items.length > currentShardIds.size()) {
-            throw new IllegalStateException(
-              "A load was attempted with transformer " + transformer + ", and more than one item was returned per entity - please use " + clazz.getSimpleName()
-              + "[] as the projection type instread of " + clazz.getSimpleName());
-          }
-          return items;
+        public MultiLoadResult[] apply() {
+          return getShardStrategy().getShardAccessStrategy().apply(MultiLoadResult.class, shard.getKey(), shardRequest, new Function2<IDatabaseCommands, Integer, MultiLoadResult>() {
+            @Override
+            public MultiLoadResult apply(IDatabaseCommands dbCmd, Integer i) {
+              return dbCmd.get(currentShardIds.toArray(new String[0]), includePaths, transformer, transformerParameters);
+            }
+          });
         }
       });
+    }
+    List<MultiLoadResult[]> shardResults = shardRequestsExecutor.executeAll(requests);
 
-      List<String> idsAsList = Arrays.asList(ids);
-      for (T[] shardResult: shardResults) {
+    if (clazz.isArray()) {
+      // Returns array of arrays, public APIs don't surface that yet though as we only support Transform
+      // With a single Id
+      List<T> items = new ArrayList<>();
+      for (MultiLoadResult[] shardResult: shardResults) {
+        for (MultiLoadResult multiLoadResult: shardResult) {
+          items.addAll(Arrays.asList(new LoadTransformerOperation(this, transformer, ids).complete(clazz, multiLoadResult)));
+        }
+      }
+      return items.toArray((T[]) Array.newInstance(clazz, items.size()));
+    }
+
+    List<String> idsAsList = Arrays.asList(ids);
+    for (int shard = 0; shard < shardResults.size(); shard++) {
+      List<String> currentShardIds = shardIds.get(shard);
+      for (MultiLoadResult multiLoadResult: shardResults.get(shard)) {
+        T[] shardResult = new LoadTransformerOperation(this, transformer, ids).complete(clazz, multiLoadResult);
+        if (shardResult.length > currentShardIds.size()) {
+          throw new IllegalStateException(
+            "A load was attempted with transformer " + transformer + ", and more than one item was returned per entity - please use " + clazz.getSimpleName()
+            + "[] as the projection type instread of " + clazz.getSimpleName());
+        }
         for (int i = 0; i < shardResult.length; i++) {
           if (shardResult[i] == null) {
             continue;
@@ -400,7 +385,6 @@ implements IDocumentQueryGenerator, IDocumentSessionImpl, ISyncAdvancedSessionOp
           results[itemPosition] = shardResult[i];
         }
       }
-
     }
     return results;
   }
@@ -430,37 +414,49 @@ implements IDocumentQueryGenerator, IDocumentSessionImpl, ISyncAdvancedSessionOp
 
     incrementRequestCount();
 
-    for (Entry<List<IDatabaseCommands>, List<IdToLoad<IDatabaseCommands>>> shard: idsToLoad.entrySet()) {
+    // all shard groups are queried concurrently, results are tracked by session on this thread
+    List<List<String>> shardIds = new ArrayList<>();
+    List<Function0<MultiLoadOperation[]>> requests = new ArrayList<>();
+    for (final Entry<List<IDatabaseCommands>, List<IdToLoad<IDatabaseCommands>>> shard: idsToLoad.entrySet()) {
       final List<String> currentShardIds = new ArrayList<>();
       for (IdToLoad<IDatabaseCommands> x: shard.getValue()) {
         currentShardIds.add(x.id);
       }
-      ShardRequestData shardRequest = new ShardRequestData();
+      shardIds.add(currentShardIds);
+      final ShardRequestData shardRequest = new ShardRequestData();
       shardRequest.setEntityType(clazz);
       shardRequest.setKeys(currentShardIds);
-      MultiLoadOperation[] multiLoadOperations = getShardStrategy().getShardAccessStrategy().apply(MultiLoadOperation.class, shard.getKey(), shardRequest, new Function2<IDatabaseCommands, Integer, MultiLoadOperation>() {
+      requests.add(new Function0<MultiLoadOperation[]>() {
         @Override
-        public MultiLoadOperation apply(final IDatabaseCommands dbCmd, Integer i) {
-          MultiLoadOperation multiLoadOperation = new MultiLoadOperation(ShardedDocumentSession.this, new Function0<CleanCloseable>() {
+        public MultiLoadOperation[] apply() {
+          return getShardStrategy().getShardAccessStrategy().apply(MultiLoadOperation.class, shard.getKey(), shardRequest, new Function2<IDatabaseCommands, Integer, MultiLoadOperation>() {
             @Override
-            public CleanCloseable apply() {
-              return dbCmd.disableAllCaching();
-            }
-          }, currentShardIds.toArray(new String[0]), includes);
-
-
-          MultiLoadResult multiLoadResult;
-          do {
-            multiLoadOperation.logOperation();
-            try (CleanCloseable scope = multiLoadOperation.enterMultiLoadContext()) {
-              multiLoadResult = dbCmd.get(currentShardIds.toArray(new String[0]), includePaths);
+            public MultiLoadOperation apply(final IDatabaseCommands dbCmd, Integer i) {
+              MultiLoadOperation multiLoadOperation = new MultiLoadOperation(ShardedDocumentSession.this, new Function0<CleanCloseable>() {
+                @Override
+                public CleanCloseable apply() {
+                  return dbCmd.disableAllCaching();
+                }
+              }, currentShardIds.toArray(new String[0]), includes);
+
+              MultiLoadResult multiLoadResult;
+              do {
+                multiLoadOperation.logOperation();
+                try (CleanCloseable scope = multiLoadOperation.enterMultiLoadContext()) {
+                  multiLoadResult = dbCmd.get(currentShardIds.toArray(new String[0]), includePaths);
+                }
+              } while (multiLoadOperation.setResult(multiLoadResult));
+              return multiLoadOperation;
             }
-          } while (multiLoadOperation.setResult(multiLoadResult));
-          return multiLoadOperation;
+          });
         }
       });
+    }
+    List<MultiLoadOperation[]> shardResults = shardRequestsExecutor.executeAll(requests);
 
-      for (MultiLoadOperation multiLoadOperation : multiLoadOperations) {
+    for (int shard = 0; shard < shardResults.size(); shard++) {
+      List<String> currentShardIds = shardIds.get(shard);
+      for (MultiLoadOperation multiLoadOperation : shardResults.get(shard)) {
         T[] loadResults = multiLoadOperation.complete(clazz);
         for (int i = 0; i < loadResults.length; i++) {
           if (loadResults[i] == null) {
@@ -476,7 +472,6 @@ implements IDocumentQueryGenerator, IDocumentSessionImpl, ISyncAdvancedSessionOp
       }
     }
 
-
     T[] finalResult = (T[]) Array.newInstance(clazz, ids.length);
     for (int i =0 ; i < finalResult.length; i++) {
       // so we get items that were skipped because they are already in the session cache
@@ -630,19 +625,34 @@ implements IDocumentQueryGenerator, IDocumentSessionImpl, ISyncAdvancedSessionOp
         list.add(item.getItem1());
       }
 
-      for (Map.Entry<List<IDatabaseCommands>, List<ILazyOperation>> operationPerShard: operationsPerShardGroup.entrySet()) {
+      // multi gets of all shard groups are sent concurrently, responses are handled on this thread
+      List<List<ILazyOperation>> lazyOperationsPerShardGroup = new ArrayList<>();
+      List<Function0<GetResponse[][]>> requestsPerShardGroup = new ArrayList<>();
+      for (final Map.Entry<List<IDatabaseCommands>, List<ILazyOperation>> operationPerShard: operationsPerShardGroup.entrySet()) {
         List<ILazyOperation> lazyOperations = operationPerShard.getValue();
+        lazyOperationsPerShardGroup.add(lazyOperations);
         final List<GetRequest> requests = new ArrayList<>();
         for (ILazyOperation op : lazyOperations) {
           requests.add(op.createRequest());
         }
-        GetResponse[][] multiResponses = getShardStrategy().getShardAccessStrategy().apply(GetResponse[].class, operationPerShard.getKey(), new ShardRequestData(),
-          new Function2<IDatabaseCommands, Integer, GetResponse[]>() {
-            @Override
-            public GetResponse[] apply(IDatabaseCommands commands, Integer i) {
-              return commands.multiGet(requests.toArray(new GetRequest[0]));
-            }
-          });
+        requestsPerShardGroup.add(new Function0<GetResponse[][]>() {
+          @Override
+          public GetResponse[][] apply() {
+            return getShardStrategy().getShardAccessStrategy().apply(GetResponse[].class, operationPerShard.getKey(), new ShardRequestData(),
+              new Function2<IDatabaseCommands, Integer, GetResponse[]>() {
+                @Override
+                public GetResponse[] apply(IDatabaseCommands commands, Integer i) {
+                  return commands.multiGet(requests.toArray(new GetRequest[0]));
+                }
+              });
+          }
+        });
+      }
+      List<GetResponse[][]> responsesPerShardGroup = shardRequestsExecutor.executeAll(requestsPerShardGroup);
+
+      for (int group = 0; group < lazyOperationsPerShardGroup.size(); group++) {
+        List<ILazyOperation> lazyOperations = lazyOperationsPerShardGroup.get(group);
+        GetResponse[][] multiResponses = responsesPerShardGroup.get(group);
 
         StringBuilder sb = new StringBuilder();
         for (GetResponse[] respGroup: multiResponses) {
@@ -731,16 +741,47 @@ implements IDocumentQueryGenerator, IDocumentSessionImpl, ISyncAdvancedSessionOp
       // split by shards
       Map<String, SaveChangesData> saveChangesPerShard = getChangesToSavePerShard(data);
 
-      // execute on all shards
+      // execute on all shards concurrently
+      final List<SaveChangesData> shardsData = new ArrayList<>();
+      final RuntimeException[] errors = new RuntimeException[saveChangesPerShard.size()];
+      List<Function0<BatchResult[]>> batches = new ArrayList<>();
       for (Map.Entry<String, SaveChangesData> shardAndObject : saveChangesPerShard.entrySet()) {
         String shardId = shardAndObject.getKey();
 
-        IDatabaseCommands databaseCommands = shardDbCommands.get(shardId);
+        final IDatabaseCommands databaseCommands = shardDbCommands.get(shardId);
         if (databaseCommands == null) {
           throw new IllegalStateException("ShardedDocumentStore can't find a DatabaseCommands for shard id '" + shardId + "'");
         }
-        BatchResult[] results = databaseCommands.batch(shardAndObject.getValue().getCommands());
-        updateBatchResults(Arrays.asList(results), shardAndObject.getValue());
+        final SaveChangesData shardData = shardAndObject.getValue();
+        final int index = shardsData.size();
+        shardsData.add(shardData);
+        batches.add(new Function0<BatchResult[]>() {
+          @Override
+          public BatchResult[] apply() {
+            try {
+              return databaseCommands.batch(shardData.getCommands());
+            } catch (RuntimeException e) {
+              // batches saved on other shards still have to be applied to session
+              errors[index] = e;
+              return null;
+            }
+          }
+        });
+      }
+      List<BatchResult[]> resultsPerShard = shardRequestsExecutor.executeAll(batches);
+
+      RuntimeException error = null;
+      for (int i = 0; i < shardsData.size(); i++) {
+        if (errors[i] == null) {
+          updateBatchResults(Arrays.asList(resultsPerShard.get(i)), shardsData.get(i));
+        } else if (error == null) {
+          error = errors[i];
+        } else {
+          error.addSuppressed(errors[i]);
+        }
+      }
+      if (error != null) {
+        throw error;
       }
     }
   }
@@ -793,16 +834,8 @@ implements IDocumentQueryGenerator, IDocumentSessionImpl, ISyncAdvancedSessionOp
         value.setEtag(jsonDocument.getEtag());
         value.setOriginalValue(jsonDocument.getDataAsJson());
         Object newEntity = convertToEntity(entity.getClass(), value.getKey(), jsonDocument.getDataAsJson(), jsonDocument.getMetadata(), false);
-        try {
-          for (PropertyDescriptor propertyDescriptor : Introspector.getBeanInfo(entity.getClass()).getPropertyDescriptors()) {
-            if (propertyDescriptor.getWriteMethod() == null || propertyDescriptor.getReadMethod() == null) {
-              continue;
-            }
-            Object propValue = propertyDescriptor.getReadMethod().invoke(newEntity, new Object[0]);
-            propertyDescriptor.getWriteMethod().invoke(entity, new Object[] { propValue });
-          }
-        } catch (IntrospectionException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-          throw new RuntimeException(e);
+        for (PropertyAccessor property : TypeAccessor.of(entity.getClass()).getReadWriteProperties()) {
+          property.set(entity, property.get(newEntity));
         }
         return Boolean.TRUE;
       }
@@ -36,6 +36,7 @@ public class ShardedDocumentStore extends DocumentStoreBase {
 
   private ShardStrategy shardStrategy;
 
+  private ShardRequestsExecutor shardRequestsExecutor;
 
 
   @Override
@@ -109,6 +110,12 @@ public class ShardedDocumentStore extends DocumentStoreBase {
     for (IDocumentStore shard: shards.values()) {
       shard.close();
     }
+    synchronized (this) {
+      if (shardRequestsExecutor != null) {
+        shardRequestsExecutor.close();
+      }
+    }
+    getMetrics().unregisterMBeans();
 
     setWasDisposed(true);
     if (afterDispose != null) {
@@ -171,6 +178,27 @@ public class ShardedDocumentStore extends DocumentStoreBase {
     };
   }
 
+  /**
+   * Setup the context for aggressive caching with stale-while-revalidate policy on all shards.
+   */
+  @Override
+  public CleanCloseable aggressivelyCacheFor(long cacheDurationInMilis, long maxStalenessInMilis) {
+    Map<String, IDocumentStore> shards = shardStrategy.getShards();
+    final List<CleanCloseable> closeables = new ArrayList<>();
+    for (IDocumentStore shard : shards.values()) {
+      closeables.add(shard.aggressivelyCacheFor(cacheDurationInMilis, maxStalenessInMilis));
+    }
+
+    return new CleanCloseable() {
+      @Override
+      public void close() {
+        for (CleanCloseable closeable: closeables) {
+          closeable.close();
+        }
+      }
+    };
+  }
+
   /**
    * Setup the context for no aggressive caching
    *
@@ -223,7 +251,7 @@ public class ShardedDocumentStore extends DocumentStoreBase {
     for (Map.Entry<String, IDocumentStore> shard: shardStrategy.getShards().entrySet()) {
       commands.put(shard.getKey(), shard.getValue().getDatabaseCommands());
     }
-    return openSessionInternal(null, commands);
+    return openSessionInternal(null, commands, false);
   }
 
   /**
@@ -235,7 +263,7 @@ public class ShardedDocumentStore extends DocumentStoreBase {
     for (Map.Entry<String, IDocumentStore> shard: shardStrategy.getShards().entrySet()) {
       commands.put(shard.getKey(), shard.getValue().getDatabaseCommands().forDatabase(database));
     }
-    return openSessionInternal(database, commands);
+    return openSessionInternal(database, commands, false);
   }
 
   /**
@@ -247,15 +275,16 @@ public class ShardedDocumentStore extends DocumentStoreBase {
     for (Map.Entry<String, IDocumentStore> shard: shardStrategy.getShards().entrySet()) {
       commands.put(shard.getKey(), shard.getValue().getDatabaseCommands().forDatabase(sessionOptions.getDatabase()));
     }
-    return openSessionInternal(sessionOptions.getDatabase(), commands);
+    return openSessionInternal(sessionOptions.getDatabase(), commands, sessionOptions.isReadOnly());
   }
 
-  private IDocumentSession openSessionInternal(String database, Map<String, IDatabaseCommands> shardDbCommands) {
+  private IDocumentSession openSessionInternal(String database, Map<String, IDatabaseCommands> shardDbCommands, boolean readOnly) {
     ensureNotClosed();
 
-    UUID sessionId = UUID.randomUUID();
+    UUID sessionId = newSessionId();
     ShardedDocumentSession session = new ShardedDocumentSession(database, this, getListeners(), sessionId, shardStrategy, shardDbCommands);
     session.setDatabaseName(database);
+    session.setReadOnly(readOnly);
     afterSessionCreated(session);
     return session;
   }
@@ -277,6 +306,23 @@ public class ShardedDocumentStore extends DocumentStoreBase {
     return shardStrategy;
   }
 
+  /**
+   * Gets the executor used by sessions to send requests to shard groups concurrently.
+   * It has one thread per shard.
+   */
+  public synchronized ShardRequestsExecutor getShardRequestsExecutor() {
+    if (shardRequestsExecutor == null) {
+      List<HttpJsonRequestFactory> requestFactories = new ArrayList<>();
+      for (IDocumentStore shard : shardStrategy.getShards().values()) {
+        if (shard.getJsonRequestFactory() != null) {
+          requestFactories.add(shard.getJsonRequestFactory());
+        }
+      }
+      shardRequestsExecutor = new ShardRequestsExecutor(Math.max(1, shardStrategy.getShards().size()), requestFactories);
+    }
+    return shardRequestsExecutor;
+  }
+
   /**
    * Gets the etag of the last document written by any session belonging to this
    */
@@ -375,6 +421,11 @@ public class ShardedDocumentStore extends DocumentStoreBase {
           }
         });
       }
+
+      // requests are recorded by metrics of shards, registered by each shard
+      if (!getConventions().isDisableMetricsMBeans()) {
+        getMetrics().registerMBeans(identifier != null ? identifier : "ShardedDocumentStore");
+      }
     } catch (Exception e) {
       close();
       throw e;
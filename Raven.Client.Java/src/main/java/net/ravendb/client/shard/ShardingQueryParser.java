@@ -0,0 +1,334 @@
+package net.ravendb.client.shard;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.QueryOperator;
+import net.ravendb.abstractions.indexing.NumberUtil;
+import net.ravendb.abstractions.util.RavenQuery;
+
+/**
+ * Extracts predicates on sharding field from top level of lucene query generated by document query
+ * (equality, range and in clauses), together with information if clause is required to match.
+ * Nested sub clauses are never interpreted, so they can only widen set of shards to query.
+ */
+class ShardingQueryParser {
+
+  private static final String IN_PREFIX = "@in<";
+  private static final String EMPTY_IN_PREFIX = "@emptyIn<";
+
+  enum Occur {
+    MUST, SHOULD, MUST_NOT
+  }
+
+  static class Clause {
+    private final String text;
+    private Occur occur;
+
+    Clause(String text, Occur occur) {
+      this.text = text;
+      this.occur = occur;
+    }
+
+    public String getText() {
+      return text;
+    }
+
+    public Occur getOccur() {
+      return occur;
+    }
+  }
+
+  /**
+   * Predicate on sharding field. Values are unescaped, but not converted to field type yet.
+   */
+  static class Predicate {
+    private final List<String> values;
+    private final String lower;
+    private final boolean lowerInclusive;
+    private final String upper;
+    private final boolean upperInclusive;
+
+    private Predicate(List<String> values) {
+      this.values = values;
+      this.lower = null;
+      this.lowerInclusive = false;
+      this.upper = null;
+      this.upperInclusive = false;
+    }
+
+    private Predicate(String lower, boolean lowerInclusive, String upper, boolean upperInclusive) {
+      this.values = null;
+      this.lower = lower;
+      this.lowerInclusive = lowerInclusive;
+      this.upper = upper;
+      this.upperInclusive = upperInclusive;
+    }
+
+    public boolean isRange() {
+      return values == null;
+    }
+
+    /**
+     * @return values of equality or in predicate
+     */
+    public List<String> getValues() {
+      return values;
+    }
+
+    /**
+     * @return lower bound of range or null if range is unbounded
+     */
+    public String getLower() {
+      return lower;
+    }
+
+    public boolean isLowerInclusive() {
+      return lowerInclusive;
+    }
+
+    /**
+     * @return upper bound of range or null if range is unbounded
+     */
+    public String getUpper() {
+      return upper;
+    }
+
+    public boolean isUpperInclusive() {
+      return upperInclusive;
+    }
+  }
+
+  private ShardingQueryParser() {
+    // static helper
+  }
+
+  /**
+   * Splits query into top level clauses. Occurrence of clauses follows rules of lucene query parser.
+   * @return clauses or null if query can't be split
+   */
+  static List<Clause> parseClauses(String query, QueryOperator defaultOperator) {
+    List<String> tokens = tokenize(query);
+    if (tokens == null) {
+      return null;
+    }
+    boolean defaultAnd = QueryOperator.AND.equals(defaultOperator);
+    List<Clause> clauses = new ArrayList<>();
+    boolean conjAnd = false;
+    boolean conjOr = false;
+    boolean not = false;
+    for (String token : tokens) {
+      if ("AND".equals(token) || "&&".equals(token)) {
+        conjAnd = true;
+        continue;
+      }
+      if ("OR".equals(token) || "||".equals(token)) {
+        conjOr = true;
+        continue;
+      }
+      if ("NOT".equals(token) || "!".equals(token)) {
+        not = true;
+        continue;
+      }
+      boolean required = false;
+      if (token.charAt(0) == '+' && token.length() > 1) {
+        required = true;
+        token = token.substring(1);
+      } else if (token.charAt(0) == '-' && token.length() > 1) {
+        not = true;
+        token = token.substring(1);
+      }
+
+      if (!clauses.isEmpty()) {
+        Clause previous = clauses.get(clauses.size() - 1);
+        if (conjAnd && previous.occur != Occur.MUST_NOT) {
+          previous.occur = Occur.MUST;
+        }
+        if (defaultAnd && conjOr && previous.occur != Occur.MUST_NOT) {
+          previous.occur = Occur.SHOULD;
+        }
+      }
+
+      Occur occur;
+      if (not) {
+        occur = Occur.MUST_NOT;
+      } else if (defaultAnd) {
+        occur = conjOr ? Occur.SHOULD : Occur.MUST;
+      } else {
+        occur = required || conjAnd ? Occur.MUST : Occur.SHOULD;
+      }
+      clauses.add(new Clause(token, occur));
+      conjAnd = false;
+      conjOr = false;
+      not = false;
+    }
+    return clauses;
+  }
+
+  /**
+   * Splits query on white spaces outside of quotes and brackets.
+   */
+  private static List<String> tokenize(String query) {
+    List<String> tokens = new ArrayList<>();
+    int depth = 0;
+    boolean inQuotes = false;
+    int start = -1;
+    for (int i = 0; i < query.length(); i++) {
+      char c = query.charAt(i);
+      if (c == '\\') {
+        if (start < 0) {
+          start = i;
+        }
+        i++;
+        continue;
+      }
+      if (Character.isWhitespace(c) && depth == 0 && !inQuotes) {
+        if (start >= 0) {
+          tokens.add(query.substring(start, i));
+          start = -1;
+        }
+        continue;
+      }
+      if (start < 0) {
+        start = i;
+      }
+      if (c == '"') {
+        inQuotes = !inQuotes;
+      } else if (!inQuotes) {
+        if (c == '(' || c == '[' || c == '{') {
+          depth++;
+        } else if (c == ')' || c == ']' || c == '}') {
+          depth--;
+          if (depth < 0) {
+            return null;
+          }
+        }
+      }
+    }
+    if (depth != 0 || inQuotes) {
+      return null;
+    }
+    if (start >= 0) {
+      tokens.add(query.substring(start));
+    }
+    return tokens;
+  }
+
+  /**
+   * @return predicate on given field or null if clause isn't simple predicate on this field
+   */
+  static Predicate parsePredicate(String clause, String fieldName) {
+    String escapedField = RavenQuery.escapeField(fieldName);
+    if (clause.startsWith(EMPTY_IN_PREFIX + fieldName + ">:")) {
+      return new Predicate(new ArrayList<String>());
+    }
+    if (clause.startsWith(IN_PREFIX + fieldName + ">:(") && clause.endsWith(")")) {
+      String list = clause.substring(IN_PREFIX.length() + fieldName.length() + 3, clause.length() - 1);
+      List<String> values = new ArrayList<>();
+      StringBuilder current = new StringBuilder();
+      for (int i = 0; i < list.length(); i++) {
+        char c = list.charAt(i);
+        if (c == '`' && list.startsWith("`,`", i)) {
+          current.append(',');
+          i += 2;
+        } else if (c == ',') {
+          values.add(current.toString());
+          current.setLength(0);
+        } else {
+          current.append(c);
+        }
+      }
+      values.add(current.toString());
+      for (int i = 0; i < values.size(); i++) {
+        String value = unescape(values.get(i).trim());
+        if (value == null) {
+          return null;
+        }
+        values.set(i, value);
+      }
+      return new Predicate(values);
+    }
+
+    String expression;
+    if (clause.startsWith(escapedField + ":")) {
+      expression = clause.substring(escapedField.length() + 1);
+    } else if (clause.startsWith(escapedField + "_Range:")) {
+      expression = clause.substring(escapedField.length() + 7);
+    } else {
+      return null;
+    }
+    if (expression.isEmpty()) {
+      return null;
+    }
+
+    char first = expression.charAt(0);
+    char last = expression.charAt(expression.length() - 1);
+    if ((first == '[' || first == '{') && (last == ']' || last == '}')) {
+      String[] bounds = expression.substring(1, expression.length() - 1).split(" TO ");
+      if (bounds.length != 2) {
+        return null;
+      }
+      String lower = rangeBound(bounds[0].trim());
+      String upper = rangeBound(bounds[1].trim());
+      if (lower == null || upper == null) {
+        return null;
+      }
+      return new Predicate(lower.isEmpty() ? null : lower, first == '[', upper.isEmpty() ? null : upper, last == ']');
+    }
+
+    String value = unescape(expression);
+    if (value == null) {
+      return null;
+    }
+    List<String> values = new ArrayList<>();
+    values.add(value);
+    return new Predicate(values);
+  }
+
+  /**
+   * @return bound value, empty string for unbounded range or null if bound is not supported
+   */
+  private static String rangeBound(String bound) {
+    if ("*".equals(bound) || "NULL".equals(bound)) {
+      return "";
+    }
+    if (bound.length() > 2 && bound.charAt(1) == 'x' && "ILFD".indexOf(bound.charAt(0)) >= 0) {
+      try {
+        return NumberUtil.stringToNumber(bound).toString();
+      } catch (IllegalArgumentException e) {
+        return null;
+      }
+    }
+    return unescape(bound);
+  }
+
+  /**
+   * Removes quotes and escaping from term.
+   * @return term or null if term has wildcards or is special value
+   */
+  private static String unescape(String term) {
+    if (term.isEmpty() || Constants.NULL_VALUE_NOT_ANALYZED.equals(term) || Constants.EMPTY_STRING_NOT_ANALYZED.equals(term)) {
+      return null;
+    }
+    if (term.startsWith("[[") && term.endsWith("]]")) {
+      term = term.substring(2, term.length() - 2);
+    }
+    if (term.length() >= 2 && term.charAt(0) == '"' && term.charAt(term.length() - 1) == '"') {
+      term = term.substring(1, term.length() - 1);
+    }
+    StringBuilder result = new StringBuilder(term.length());
+    for (int i = 0; i < term.length(); i++) {
+      char c = term.charAt(i);
+      if (c == '\\' && i + 1 < term.length()) {
+        result.append(term.charAt(++i));
+      } else if (c == '*' || c == '?' || c == '"' || c == '~' || c == '^') {
+        // wildcard, fuzzy or boosted term - we can't tell which values match
+        return null;
+      } else {
+        result.append(c);
+      }
+    }
+    return result.toString();
+  }
+}
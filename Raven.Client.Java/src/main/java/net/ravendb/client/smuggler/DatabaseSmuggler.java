@@ -0,0 +1,463 @@
+package net.ravendb.client.smuggler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.indexing.IndexDefinition;
+import net.ravendb.abstractions.indexing.TransformerDefinition;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.logging.ILog;
+import net.ravendb.abstractions.logging.LogManager;
+import net.ravendb.abstractions.smuggler.ItemType;
+import net.ravendb.abstractions.smuggler.OperationState;
+import net.ravendb.client.IDocumentStore;
+import net.ravendb.client.connection.IDatabaseCommands;
+import net.ravendb.client.connection.ServerClient;
+import net.ravendb.client.document.BulkInsertOperation;
+import net.ravendb.imports.json.JsonConvert;
+
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.util.TokenBuffer;
+
+/**
+ * Exports database to dump in RavenDB smuggler format ({ "Indexes": [], "Docs": [], "Transformers": [], ... })
+ * and imports such dumps.
+ *
+ * Export copies documents streamed by server token by token into output, so documents are never materialized.
+ * Passing {@link OperationState} of previous export makes export incremental: only documents changed since then are exported.
+ * System documents (Raven/...) except of HiLo documents are skipped unless {@link SmugglerOptions#isIncludeSystemDocuments()} is set.
+ * Import parses documents one by one and stores them using several bulk inserts running in parallel.
+ */
+public class DatabaseSmuggler {
+
+  private static final ILog logger = LogManager.getCurrentClassLogger();
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final int DEFINITIONS_PAGE_SIZE = 128;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final List<RavenJObject> END_OF_DOCUMENTS = Collections.emptyList();
+  private static final String SYSTEM_DOCUMENTS_PREFIX = "Raven/";
+  private static final String HILO_DOCUMENTS_PREFIX = "Raven/Hilo/";
+
+  static {
+    JSON_FACTORY.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    JSON_FACTORY.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+  }
+
+  private final IDocumentStore store;
+  private final String database;
+
+  public DatabaseSmuggler(IDocumentStore store) {
+    this(store, null);
+  }
+
+  /**
+   * @param database database to operate on or null for default database of store
+   */
+  public DatabaseSmuggler(IDocumentStore store, String database) {
+    this.store = store;
+    this.database = database;
+  }
+
+  private IDatabaseCommands getDatabaseCommands() {
+    return database != null ? store.getDatabaseCommands().forDatabase(database) : store.getDatabaseCommands();
+  }
+
+  /**
+   * Exports database to gzip compressed file.
+   * @param state state of previous export (updated by this export) or null to export all documents
+   */
+  public SmugglerStatistics exportDatabase(File file, SmugglerOptions options, OperationState state) throws IOException {
+    try (OutputStream output = new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE), BUFFER_SIZE)) {
+      SmugglerStatistics statistics = exportDatabase(output, options, state);
+      if (state != null) {
+        state.setFilePath(file.getAbsolutePath());
+      }
+      return statistics;
+    }
+  }
+
+  /**
+   * Exports database to given stream (which is not closed).
+   * @param state state of previous export (updated by this export) or null to export all documents
+   */
+  public SmugglerStatistics exportDatabase(OutputStream output, SmugglerOptions options, OperationState state) throws IOException {
+    SmugglerStatistics statistics = new SmugglerStatistics();
+    warnAboutAttachments(options);
+
+    CountingOutputStream countingOutput = new CountingOutputStream(output);
+    IDatabaseCommands commands = getDatabaseCommands();
+    try (JsonGenerator generator = JSON_FACTORY.createJsonGenerator(countingOutput, JsonEncoding.UTF8)) {
+      generator.writeStartObject();
+
+      generator.writeArrayFieldStart("Indexes");
+      if (options.getOperateOnTypes().contains(ItemType.INDEXES)) {
+        for (int start = 0;; start += DEFINITIONS_PAGE_SIZE) {
+          Collection<IndexDefinition> indexes = commands.getIndexes(start, DEFINITIONS_PAGE_SIZE);
+          for (IndexDefinition index : indexes) {
+            writeDefinition(generator, index.getName(), index);
+            statistics.indexProcessed();
+          }
+          if (indexes.size() < DEFINITIONS_PAGE_SIZE) {
+            break;
+          }
+        }
+      }
+      generator.writeEndArray();
+
+      generator.writeArrayFieldStart("Docs");
+      if (options.getOperateOnTypes().contains(ItemType.DOCUMENTS)) {
+        exportDocuments(commands, generator, options, state, statistics);
+      }
+      generator.writeEndArray();
+
+      generator.writeArrayFieldStart("Attachments");
+      generator.writeEndArray();
+
+      generator.writeArrayFieldStart("Transformers");
+      if (options.getOperateOnTypes().contains(ItemType.TRANSFORMERS)) {
+        for (int start = 0;; start += DEFINITIONS_PAGE_SIZE) {
+          List<TransformerDefinition> transformers = commands.getTransformers(start, DEFINITIONS_PAGE_SIZE);
+          for (TransformerDefinition transformer : transformers) {
+            writeDefinition(generator, transformer.getName(), transformer);
+            statistics.transformerProcessed();
+          }
+          if (transformers.size() < DEFINITIONS_PAGE_SIZE) {
+            break;
+          }
+        }
+      }
+      generator.writeEndArray();
+
+      generator.writeArrayFieldStart("DocsDeletions");
+      generator.writeEndArray();
+      generator.writeArrayFieldStart("AttachmentsDeletions");
+      generator.writeEndArray();
+      generator.writeArrayFieldStart("Identities");
+      generator.writeEndArray();
+
+      generator.writeEndObject();
+    }
+    statistics.setBytes(countingOutput.getByteCount());
+    statistics.complete();
+    logger.info("Exported %s", statistics);
+    return statistics;
+  }
+
+  private static void writeDefinition(JsonGenerator generator, String name, Object definition) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("name", name);
+    generator.writeFieldName("definition");
+    generator.writeRawValue(JsonConvert.serializeObject(definition));
+    generator.writeEndObject();
+  }
+
+  private static void exportDocuments(IDatabaseCommands commands, JsonGenerator generator, SmugglerOptions options,
+    OperationState state, SmugglerStatistics statistics) throws IOException {
+    if (!(commands instanceof ServerClient)) {
+      throw new IllegalStateException("Export of documents requires remote database commands, got: " + commands.getClass().getName());
+    }
+    // server streams documents in etag order only when etag is given, without it newest documents come first
+    Etag fromEtag = state != null && state.getLastDocsEtag() != null ? state.getLastDocsEtag() : Etag.empty();
+    try (CloseableHttpResponse response = ((ServerClient) commands).streamDocsResponse(fromEtag)) {
+      try (JsonParser parser = JSON_FACTORY.createJsonParser(response.getEntity().getContent())) {
+        long exported = statistics.getDocuments();
+        Etag lastEtag = copyDocuments(parser, generator, statistics, options.isIncludeSystemDocuments());
+        if (state != null) {
+          if (lastEtag != null) {
+            state.setLastDocsEtag(lastEtag);
+          }
+          state.setNumberOfExportedDocuments((int) (state.getNumberOfExportedDocuments() + statistics.getDocuments() - exported));
+        }
+      }
+    }
+  }
+
+  /**
+   * Copies documents from streaming response ({ "Results": [ ... ] }) into array being written by generator.
+   * @return highest etag of streamed documents (including skipped system documents) or null if there were no documents
+   */
+  static Etag copyDocuments(JsonParser parser, JsonGenerator generator, SmugglerStatistics statistics,
+    boolean includeSystemDocuments) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new IllegalStateException("Unexpected data at start of stream");
+    }
+    if (parser.nextToken() != JsonToken.FIELD_NAME || !"Results".equals(parser.getCurrentName())) {
+      throw new IllegalStateException("Unexpected data at stream 'Results' property name");
+    }
+    if (parser.nextToken() != JsonToken.START_ARRAY) {
+      throw new IllegalStateException("Unexpected data at 'Results', could not find start results array");
+    }
+
+    Etag lastEtag = null;
+    JsonToken token;
+    while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+      // key may follow document body, so document is buffered as tokens until we know whether to write it
+      TokenBuffer buffer = new TokenBuffer(null);
+      CopiedDocument document = copyDocument(parser, buffer);
+      if (document.etag != null) {
+        Etag etag = Etag.parse(document.etag);
+        if (lastEtag == null || etag.compareTo(lastEtag) > 0) {
+          lastEtag = etag;
+        }
+      }
+      if (!includeSystemDocuments && isSystemDocument(document.key)) {
+        continue;
+      }
+      JsonParser bufferParser = buffer.asParser();
+      bufferParser.nextToken();
+      generator.copyCurrentStructure(bufferParser);
+      statistics.documentProcessed();
+    }
+    if (token != JsonToken.END_ARRAY) {
+      throw new IllegalStateException("Unexpected token in 'Results': " + token);
+    }
+    if (parser.nextToken() == JsonToken.FIELD_NAME && "Error".equals(parser.getCurrentName())) {
+      parser.nextToken();
+      throw new IllegalStateException("Server error\n" + parser.getText());
+    }
+    return lastEtag;
+  }
+
+  static boolean isSystemDocument(String key) {
+    return key != null && key.regionMatches(true, 0, SYSTEM_DOCUMENTS_PREFIX, 0, SYSTEM_DOCUMENTS_PREFIX.length())
+      && !key.regionMatches(true, 0, HILO_DOCUMENTS_PREFIX, 0, HILO_DOCUMENTS_PREFIX.length());
+  }
+
+  private static class CopiedDocument {
+    private String key;
+    private String etag;
+  }
+
+  /**
+   * Copies single document (parser is positioned at its start) and picks @id and @etag from its metadata on the way.
+   */
+  private static CopiedDocument copyDocument(JsonParser parser, JsonGenerator generator) throws IOException {
+    CopiedDocument document = new CopiedDocument();
+    int depth = 0;
+    boolean inMetadata = false;
+    JsonToken token = parser.getCurrentToken();
+    while (true) {
+      switch (token) {
+        case START_OBJECT:
+        case START_ARRAY:
+          depth++;
+          break;
+        case END_OBJECT:
+        case END_ARRAY:
+          depth--;
+          if (depth < 2) {
+            inMetadata = false;
+          }
+          break;
+        case FIELD_NAME:
+          if (depth == 1) {
+            inMetadata = Constants.METADATA.equals(parser.getCurrentName());
+          } else if (depth == 2 && inMetadata && ("@etag".equals(parser.getCurrentName()) || "@id".equals(parser.getCurrentName()))) {
+            String name = parser.getCurrentName();
+            generator.copyCurrentEvent(parser);
+            token = parser.nextToken();
+            if ("@etag".equals(name)) {
+              document.etag = parser.getText();
+            } else {
+              document.key = parser.getText();
+            }
+            continue;
+          }
+          break;
+        default:
+          break;
+      }
+      generator.copyCurrentEvent(parser);
+      if (depth == 0) {
+        return document;
+      }
+      token = parser.nextToken();
+      if (token == null) {
+        throw new IllegalStateException("Unexpected end of stream inside of document");
+      }
+    }
+  }
+
+  /**
+   * Imports gzip compressed dump.
+   */
+  public SmugglerStatistics importDatabase(File file, SmugglerOptions options) throws IOException, InterruptedException {
+    try (InputStream input = new GZIPInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE), BUFFER_SIZE)) {
+      return importDatabase(input, options);
+    }
+  }
+
+  /**
+   * Imports dump from given stream (which is not closed).
+   */
+  public SmugglerStatistics importDatabase(InputStream input, SmugglerOptions options) throws IOException, InterruptedException {
+    SmugglerStatistics statistics = new SmugglerStatistics();
+    warnAboutAttachments(options);
+
+    CountingInputStream countingInput = new CountingInputStream(input);
+    IDatabaseCommands commands = getDatabaseCommands();
+    try (JsonParser parser = JSON_FACTORY.createJsonParser(countingInput)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IllegalStateException("Unexpected data at start of dump");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String section = parser.getCurrentName();
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+          throw new IllegalStateException("Expected array in section " + section + " of dump");
+        }
+        if ("Indexes".equals(section) && options.getOperateOnTypes().contains(ItemType.INDEXES)) {
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            RavenJObject index = RavenJObject.load(parser);
+            commands.putIndex(index.value(String.class, "name"),
+              JsonConvert.deserializeObject(IndexDefinition.class, index.get("definition").toString()), true);
+            statistics.indexProcessed();
+          }
+        } else if ("Transformers".equals(section) && options.getOperateOnTypes().contains(ItemType.TRANSFORMERS)) {
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            RavenJObject transformer = RavenJObject.load(parser);
+            commands.putTransformer(transformer.value(String.class, "name"),
+              JsonConvert.deserializeObject(TransformerDefinition.class, transformer.get("definition").toString()));
+            statistics.transformerProcessed();
+          }
+        } else if ("Docs".equals(section) && options.getOperateOnTypes().contains(ItemType.DOCUMENTS)) {
+          importDocuments(parser, options, statistics);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    statistics.setBytes(countingInput.getByteCount());
+    statistics.complete();
+    logger.info("Imported %s", statistics);
+    return statistics;
+  }
+
+  private void importDocuments(JsonParser parser, SmugglerOptions options, final SmugglerStatistics statistics) throws IOException, InterruptedException {
+    final BlockingQueue<List<RavenJObject>> queue = new ArrayBlockingQueue<>(options.getImportParallelism() * 2);
+    ExecutorService executor = Executors.newFixedThreadPool(options.getImportParallelism(), new ThreadFactory() {
+      private final AtomicInteger counter = new AtomicInteger();
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "Smuggler import " + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    try {
+      List<Future<Void>> workers = new ArrayList<>();
+      for (int i = 0; i < options.getImportParallelism(); i++) {
+        final BulkInsertOperation bulkInsert = store.bulkInsert(database, options.getBulkInsertOptions());
+        workers.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            try {
+              List<RavenJObject> batch;
+              while ((batch = queue.take()) != END_OF_DOCUMENTS) {
+                for (RavenJObject document : batch) {
+                  RavenJObject metadata = (RavenJObject) document.get(Constants.METADATA);
+                  document.remove(Constants.METADATA);
+                  String key = metadata.value(String.class, "@id");
+                  metadata.remove("@id");
+                  metadata.remove("@etag");
+                  bulkInsert.store(document, metadata, key);
+                  statistics.documentProcessed();
+                }
+              }
+            } finally {
+              bulkInsert.close();
+            }
+            return null;
+          }
+        }));
+      }
+
+      List<RavenJObject> batch = new ArrayList<>(options.getImportBatchSize());
+      JsonToken token;
+      while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+        RavenJObject document = RavenJObject.load(parser);
+        RavenJObject metadata = (RavenJObject) document.get(Constants.METADATA);
+        if (!options.isIncludeSystemDocuments() && isSystemDocument(metadata.value(String.class, "@id"))) {
+          continue;
+        }
+        batch.add(document);
+        if (batch.size() == options.getImportBatchSize()) {
+          enqueue(queue, batch, workers);
+          batch = new ArrayList<>(options.getImportBatchSize());
+        }
+      }
+      if (token != JsonToken.END_ARRAY) {
+        throw new IllegalStateException("Unexpected token in 'Docs': " + token);
+      }
+      if (!batch.isEmpty()) {
+        enqueue(queue, batch, workers);
+      }
+      for (int i = 0; i < workers.size(); i++) {
+        enqueue(queue, END_OF_DOCUMENTS, workers);
+      }
+      for (Future<Void> worker : workers) {
+        waitFor(worker);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Puts batch into queue, but doesn't wait forever if bulk inserts failed and queue isn't drained anymore.
+   */
+  private static void enqueue(BlockingQueue<List<RavenJObject>> queue, List<RavenJObject> batch, List<Future<Void>> workers) throws InterruptedException {
+    while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+      for (Future<Void> worker : workers) {
+        if (worker.isDone()) {
+          waitFor(worker);
+        }
+      }
+    }
+  }
+
+  private static void waitFor(Future<Void> worker) throws InterruptedException {
+    try {
+      worker.get();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Import of documents failed", e.getCause());
+    }
+  }
+
+  private static void warnAboutAttachments(SmugglerOptions options) {
+    if (options.getOperateOnTypes().contains(ItemType.ATTACHMENTS)) {
+      logger.warn("Attachments are not supported by smuggler and will be skipped");
+    }
+  }
+}
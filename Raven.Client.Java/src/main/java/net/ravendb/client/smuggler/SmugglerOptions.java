@@ -0,0 +1,107 @@
+package net.ravendb.client.smuggler;
+
+import net.ravendb.abstractions.data.BulkInsertOptions;
+import net.ravendb.abstractions.smuggler.ItemType;
+import net.ravendb.abstractions.smuggler.ItemTypeSet;
+
+/**
+ * Options used by {@link DatabaseSmuggler} during export and import.
+ */
+public class SmugglerOptions {
+  private ItemTypeSet operateOnTypes;
+  private int importParallelism;
+  private int importBatchSize;
+  private BulkInsertOptions bulkInsertOptions;
+  private boolean includeSystemDocuments;
+
+  public SmugglerOptions() {
+    operateOnTypes = ItemTypeSet.of(ItemType.DOCUMENTS, ItemType.INDEXES, ItemType.TRANSFORMERS);
+    importParallelism = 4;
+    importBatchSize = 512;
+    bulkInsertOptions = new BulkInsertOptions();
+    bulkInsertOptions.setOverwriteExisting(true);
+  }
+
+  /**
+   * Types of items to export or import. Attachments are not supported.
+   */
+  public ItemTypeSet getOperateOnTypes() {
+    return operateOnTypes;
+  }
+
+  /**
+   * Types of items to export or import. Attachments are not supported.
+   * @param operateOnTypes
+   */
+  public void setOperateOnTypes(ItemTypeSet operateOnTypes) {
+    this.operateOnTypes = operateOnTypes;
+  }
+
+  /**
+   * Number of bulk insert operations importing documents in parallel.
+   */
+  public int getImportParallelism() {
+    return importParallelism;
+  }
+
+  /**
+   * Number of bulk insert operations importing documents in parallel.
+   * @param importParallelism
+   */
+  public void setImportParallelism(int importParallelism) {
+    if (importParallelism < 1) {
+      throw new IllegalArgumentException("importParallelism must be positive");
+    }
+    this.importParallelism = importParallelism;
+  }
+
+  /**
+   * Number of documents handed to single bulk insert at once.
+   */
+  public int getImportBatchSize() {
+    return importBatchSize;
+  }
+
+  /**
+   * Number of documents handed to single bulk insert at once.
+   * @param importBatchSize
+   */
+  public void setImportBatchSize(int importBatchSize) {
+    if (importBatchSize < 1) {
+      throw new IllegalArgumentException("importBatchSize must be positive");
+    }
+    this.importBatchSize = importBatchSize;
+  }
+
+  /**
+   * Options of bulk inserts used by import. By default existing documents are overwritten.
+   */
+  public BulkInsertOptions getBulkInsertOptions() {
+    return bulkInsertOptions;
+  }
+
+  /**
+   * Options of bulk inserts used by import. By default existing documents are overwritten.
+   * @param bulkInsertOptions
+   */
+  public void setBulkInsertOptions(BulkInsertOptions bulkInsertOptions) {
+    this.bulkInsertOptions = bulkInsertOptions;
+  }
+
+  /**
+   * Whether system documents (Raven/..., e.g. replication destinations) are exported and imported.
+   * HiLo documents are always included. Defaults to false.
+   */
+  public boolean isIncludeSystemDocuments() {
+    return includeSystemDocuments;
+  }
+
+  /**
+   * Whether system documents (Raven/..., e.g. replication destinations) are exported and imported.
+   * HiLo documents are always included. Defaults to false.
+   * @param includeSystemDocuments
+   */
+  public void setIncludeSystemDocuments(boolean includeSystemDocuments) {
+    this.includeSystemDocuments = includeSystemDocuments;
+  }
+}
@@ -0,0 +1,91 @@
+package net.ravendb.client.smuggler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of single export or import, updated while operation is running.
+ */
+public class SmugglerStatistics {
+
+  private final long startTime = System.nanoTime();
+  private volatile long endTime;
+  private final AtomicLong documents = new AtomicLong();
+  private final AtomicLong indexes = new AtomicLong();
+  private final AtomicLong transformers = new AtomicLong();
+  private volatile long bytes;
+
+  /**
+   * Number of exported or imported documents.
+   */
+  public long getDocuments() {
+    return documents.get();
+  }
+
+  public long getIndexes() {
+    return indexes.get();
+  }
+
+  public long getTransformers() {
+    return transformers.get();
+  }
+
+  /**
+   * Number of bytes of (uncompressed) dump written or read.
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  public boolean isCompleted() {
+    return endTime != 0;
+  }
+
+  /**
+   * Duration of operation (so far, if it is still running).
+   */
+  public long getElapsedMillis() {
+    long end = endTime != 0 ? endTime : System.nanoTime();
+    return TimeUnit.NANOSECONDS.toMillis(end - startTime);
+  }
+
+  public double getDocumentsPerSecond() {
+    return perSecond(getDocuments());
+  }
+
+  public double getBytesPerSecond() {
+    return perSecond(getBytes());
+  }
+
+  private double perSecond(long value) {
+    long elapsed = getElapsedMillis();
+    return elapsed == 0 ? 0 : value * 1000.0 / elapsed;
+  }
+
+  void documentProcessed() {
+    documents.incrementAndGet();
+  }
+
+  void indexProcessed() {
+    indexes.incrementAndGet();
+  }
+
+  void transformerProcessed() {
+    transformers.incrementAndGet();
+  }
+
+  void setBytes(long bytes) {
+    this.bytes = bytes;
+  }
+
+  void complete() {
+    endTime = System.nanoTime();
+  }
+
+  @SuppressWarnings("boxing")
+  @Override
+  public String toString() {
+    return String.format("%d documents, %d indexes, %d transformers, %d bytes in %d ms (%.0f docs/s)",
+      getDocuments(), getIndexes(), getTransformers(), getBytes(), getElapsedMillis(), getDocumentsPerSecond());
+  }
+}
@@ -1,6 +1,7 @@
 package net.ravendb.client.util;
 
 import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.basic.EventHandler;
 import net.ravendb.abstractions.closure.Action1;
 import net.ravendb.abstractions.data.DocumentChangeNotification;
 import net.ravendb.abstractions.data.DocumentChangeTypes;
@@ -8,6 +9,7 @@ import net.ravendb.abstractions.data.IndexChangeNotification;
 import net.ravendb.abstractions.data.IndexChangeTypes;
 import net.ravendb.client.changes.IDatabaseChanges;
 import net.ravendb.client.changes.IObservable;
+import net.ravendb.client.changes.MissedChangesEventArgs;
 import net.ravendb.client.changes.ObserverAdapter;
 import net.ravendb.client.changes.RemoteDatabaseChanges;
 
@@ -19,6 +21,7 @@ public class EvictItemsFromCacheBasedOnChanges implements CleanCloseable {
   protected final Action1<String> evictCacheOldItems;
   protected final CleanCloseable documentsSubscription;
   protected final CleanCloseable indexesSubscriptions;
+  protected final EventHandler<MissedChangesEventArgs> missedChangesHandler;
 
   protected class DocumentChangeObserver extends ObserverAdapter<DocumentChangeNotification> {
     @Override
@@ -38,6 +41,12 @@ public class EvictItemsFromCacheBasedOnChanges implements CleanCloseable {
       }
     }
   }
+  protected class MissedChangesHandler implements EventHandler<MissedChangesEventArgs> {
+    @Override
+    public void handle(Object sender, MissedChangesEventArgs event) {
+      evictCacheOldItems.apply(databaseName);
+    }
+  }
 
 
   public EvictItemsFromCacheBasedOnChanges(String databaseName, IDatabaseChanges changes, Action1<String> evictCacheOldItems) {
@@ -48,11 +57,14 @@ public class EvictItemsFromCacheBasedOnChanges implements CleanCloseable {
     documentsSubscription = docSub.subscribe(new DocumentChangeObserver());
     IObservable<IndexChangeNotification> indexSub = changes.forAllIndexes();
     indexesSubscriptions = indexSub.subscribe(new IndexChangeObserver());
+    missedChangesHandler = new MissedChangesHandler();
+    changes.addMissedChanges(missedChangesHandler);
   }
 
   @SuppressWarnings("hiding")
   @Override
   public void close() {
+    changes.removeMissedChanges(missedChangesHandler);
     documentsSubscription.close();
     indexesSubscriptions.close();
 
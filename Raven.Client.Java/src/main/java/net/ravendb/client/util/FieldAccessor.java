@@ -0,0 +1,95 @@
+package net.ravendb.client.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+
+/**
+ * Reads and writes single field using method handles resolved once (access checks are not repeated on each call).
+ * Handles are resolved on first read or write, so listing fields of type doesn't require access to them.
+ * Obtain instances from {@link TypeAccessor}.
+ */
+public class FieldAccessor {
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  private final Field field;
+  private MethodHandle getter;
+  private MethodHandle setter;
+  private volatile boolean resolved;
+
+  FieldAccessor(Field field) {
+    this.field = field;
+  }
+
+  public Field getField() {
+    return field;
+  }
+
+  public String getName() {
+    return field.getName();
+  }
+
+  public Class<?> getType() {
+    return field.getType();
+  }
+
+  public Object get(Object target) {
+    if (!resolved) {
+      resolve();
+    }
+    try {
+      return getter.invokeExact(target);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public void set(Object target, Object value) {
+    if (!resolved) {
+      resolve();
+    }
+    if (setter == null) {
+      throw new IllegalStateException("Field " + field + " can't be written");
+    }
+    try {
+      setter.invokeExact(target, value);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private synchronized void resolve() {
+    if (resolved) {
+      return;
+    }
+    makeAccessible(field);
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    try {
+      getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Field " + field + " can't be read", e);
+    }
+    try {
+      setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+    } catch (IllegalAccessException e) {
+      setter = null; // i.e. static final field
+    }
+    resolved = true;
+  }
+
+  static void makeAccessible(AccessibleObject member) {
+    try {
+      member.setAccessible(true);
+    } catch (RuntimeException e) {
+      // i.e. member of class from module which isn't open (java 9+), public members are accessible anyway
+    }
+  }
+}
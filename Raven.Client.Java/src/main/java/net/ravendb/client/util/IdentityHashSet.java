@@ -7,7 +7,18 @@ import java.util.Set;
 
 public class IdentityHashSet<T> implements Set<T> {
 
-  private IdentityHashMap<T, Void> inner = new IdentityHashMap<>();
+  private IdentityHashMap<T, Void> inner;
+
+  public IdentityHashSet() {
+    inner = new IdentityHashMap<>();
+  }
+
+  /**
+   * @param expectedMaxSize expected maximum size of the set, used to size the backing table
+   */
+  public IdentityHashSet(int expectedMaxSize) {
+    inner = new IdentityHashMap<>(expectedMaxSize);
+  }
 
   @Override
   public int size() {
@@ -0,0 +1,81 @@
+package net.ravendb.client.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Reads and writes bean property (with both getter and setter) using method handles resolved once,
+ * on first read or write. Obtain instances from {@link TypeAccessor}.
+ */
+public class PropertyAccessor {
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  private final String name;
+  private final Class<?> type;
+  private final Method readMethod;
+  private final Method writeMethod;
+  private MethodHandle getter;
+  private MethodHandle setter;
+  private volatile boolean resolved;
+
+  PropertyAccessor(String name, Class<?> type, Method readMethod, Method writeMethod) {
+    this.name = name;
+    this.type = type;
+    this.readMethod = readMethod;
+    this.writeMethod = writeMethod;
+  }
+
+  private synchronized void resolve() {
+    if (resolved) {
+      return;
+    }
+    FieldAccessor.makeAccessible(readMethod);
+    FieldAccessor.makeAccessible(writeMethod);
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      getter = lookup.unreflect(readMethod).asType(GETTER_TYPE);
+      setter = lookup.unreflect(writeMethod).asType(SETTER_TYPE);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Property " + name + " of " + readMethod.getDeclaringClass().getName() + " can't be accessed", e);
+    }
+    resolved = true;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Class<?> getType() {
+    return type;
+  }
+
+  public Object get(Object target) {
+    if (!resolved) {
+      resolve();
+    }
+    try {
+      return getter.invokeExact(target);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public void set(Object target, Object value) {
+    if (!resolved) {
+      resolve();
+    }
+    try {
+      setter.invokeExact(target, value);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
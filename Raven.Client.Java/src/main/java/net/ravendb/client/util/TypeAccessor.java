@@ -0,0 +1,129 @@
+package net.ravendb.client.util;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-type property access layer: fields and bean properties of class are discovered once
+ * and read/written using method handles afterwards.
+ *
+ * Instances are cached in class, but only softly referenced: cached value doesn't keep class (or class loader
+ * of this library, when type comes from parent class loader) alive and is recreated if it was released
+ * under memory pressure.
+ */
+public class TypeAccessor {
+
+  private static final ClassValue<SoftReference<TypeAccessor>> CACHE = new ClassValue<SoftReference<TypeAccessor>>() {
+    @Override
+    protected SoftReference<TypeAccessor> computeValue(Class<?> type) {
+      return new SoftReference<>(new TypeAccessor(type));
+    }
+  };
+
+  private final Class<?> type;
+  private final List<FieldAccessor> fields;
+  private final Map<String, FieldAccessor> fieldsByName;
+  private volatile List<PropertyAccessor> readWriteProperties;
+
+  public static TypeAccessor of(Class<?> type) {
+    TypeAccessor accessor = CACHE.get(type).get();
+    if (accessor == null) {
+      // released under memory pressure
+      CACHE.remove(type);
+      accessor = CACHE.get(type).get();
+      if (accessor == null) {
+        accessor = new TypeAccessor(type);
+      }
+    }
+    return accessor;
+  }
+
+  private TypeAccessor(Class<?> type) {
+    this.type = type;
+
+    List<FieldAccessor> fieldList = new ArrayList<>();
+    Map<String, FieldAccessor> fieldMap = new HashMap<>();
+    Class<?> current = type;
+    do {
+      for (Field field : current.getDeclaredFields()) {
+        if (field.isSynthetic() || Modifier.isStatic(field.getModifiers())) {
+          continue;
+        }
+        FieldAccessor accessor = new FieldAccessor(field);
+        fieldList.add(accessor);
+        if (!fieldMap.containsKey(field.getName())) {
+          // field from subclass hides field from superclass
+          fieldMap.put(field.getName(), accessor);
+        }
+      }
+      current = current.getSuperclass();
+    } while (current != null && !Object.class.equals(current));
+
+    this.fields = Collections.unmodifiableList(fieldList);
+    this.fieldsByName = fieldMap;
+  }
+
+  public Class<?> getType() {
+    return type;
+  }
+
+  /**
+   * @return instance fields declared by type and its superclasses (excluding static and synthetic fields)
+   */
+  public List<FieldAccessor> getFields() {
+    return fields;
+  }
+
+  /**
+   * @return instance field with given name or null
+   */
+  public FieldAccessor getField(String name) {
+    return fieldsByName.get(name);
+  }
+
+  /**
+   * @return accessor of given instance field or null if field is static or synthetic
+   */
+  public static FieldAccessor of(Field field) {
+    return of(field.getDeclaringClass()).getField(field.getName());
+  }
+
+  /**
+   * @return bean properties which have both getter and setter
+   */
+  public List<PropertyAccessor> getReadWriteProperties() {
+    List<PropertyAccessor> result = readWriteProperties;
+    if (result == null) {
+      // benign race: introspection result is the same for each thread
+      result = introspectReadWriteProperties();
+      readWriteProperties = result;
+    }
+    return result;
+  }
+
+  private List<PropertyAccessor> introspectReadWriteProperties() {
+    try {
+      List<PropertyAccessor> result = new ArrayList<>();
+      for (PropertyDescriptor propertyDescriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+        if (propertyDescriptor.getWriteMethod() == null || propertyDescriptor.getReadMethod() == null) {
+          continue;
+        }
+        result.add(new PropertyAccessor(propertyDescriptor.getName(), propertyDescriptor.getPropertyType(),
+          propertyDescriptor.getReadMethod(), propertyDescriptor.getWriteMethod()));
+      }
+      return Collections.unmodifiableList(result);
+    } catch (IntrospectionException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+}
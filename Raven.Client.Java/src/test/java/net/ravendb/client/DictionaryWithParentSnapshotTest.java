@@ -8,6 +8,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -183,4 +184,100 @@ public class DictionaryWithParentSnapshotTest {
     assertEquals(expectedKeys, keys);
 
   }
+
+  @SuppressWarnings("static-access")
+  @Test
+  public void testIterationSkipsOverriddenAndRemoved() {
+    DictionaryWithParentSnapshot map = new DictionaryWithParentSnapshot(String.CASE_INSENSITIVE_ORDER);
+    map.put("p1", RavenJValue.parse("1"));
+    map.put("p2", RavenJValue.parse("2"));
+    map.put("p3", RavenJValue.parse("3"));
+    map.ensureSnapshot();
+
+    DictionaryWithParentSnapshot snapshot = map.createSnapshot();
+    snapshot.put("P1", RavenJValue.parse("10"));
+    snapshot.remove("p2");
+
+    Map<String, RavenJToken> entries = new HashMap<>();
+    for (Entry<String, RavenJToken> entry: snapshot) {
+      assertNull("duplicated key: " + entry.getKey(), entries.put(entry.getKey().toLowerCase(), entry.getValue()));
+    }
+    assertEquals(2, entries.size());
+    assertEquals(10, entries.get("p1").value(Integer.class).intValue());
+    assertEquals(3, entries.get("p3").value(Integer.class).intValue());
+    assertEquals(2, snapshot.size());
+    assertEquals(2, snapshot.values().size());
+    assertEquals(3, map.size());
+  }
+
+  @SuppressWarnings("static-access")
+  @Test
+  public void testCaseSensitivity() {
+    DictionaryWithParentSnapshot insensitive = new DictionaryWithParentSnapshot(String.CASE_INSENSITIVE_ORDER);
+    insensitive.put("Raven-Entity-Name", RavenJValue.parse("1"));
+    insensitive.put("raven-entity-name", RavenJValue.parse("2"));
+    assertEquals(1, insensitive.size());
+    assertTrue(insensitive.containsKey("RAVEN-ENTITY-NAME"));
+    assertEquals(new HashSet<>(Arrays.asList("Raven-Entity-Name")), insensitive.keySet());
+
+    DictionaryWithParentSnapshot sensitive = new DictionaryWithParentSnapshot((Comparator<String>) null);
+    sensitive.put("Name", RavenJValue.parse("1"));
+    sensitive.put("name", RavenJValue.parse("2"));
+    assertEquals(2, sensitive.size());
+    assertFalse(sensitive.containsKey("NAME"));
+  }
+
+  @SuppressWarnings("static-access")
+  @Test
+  public void testDeepSnapshotChains() {
+    DictionaryWithParentSnapshot map = new DictionaryWithParentSnapshot(String.CASE_INSENSITIVE_ORDER);
+    for (int i = 0; i < 10; i++) {
+      map.put("p" + i, RavenJValue.parse(String.valueOf(i)));
+    }
+    for (int depth = 0; depth < 50; depth++) {
+      map.ensureSnapshot();
+      map = map.createSnapshot();
+      map.put("p" + (depth % 10), RavenJValue.parse(String.valueOf(100 + depth)));
+      if (depth % 7 == 3) {
+        // restored on next level
+        map.remove("p" + ((depth + 1) % 10));
+      }
+      // snapshots without changes don't make chain longer
+      map.ensureSnapshot();
+      map = map.createSnapshot();
+    }
+
+    assertEquals(10, map.size());
+    assertEquals(10, map.keySet().size());
+    for (int i = 0; i < 10; i++) {
+      assertTrue(map.containsKey("P" + i));
+      assertEquals(140 + i, map.get("p" + i).value(Integer.class).intValue());
+    }
+  }
+
+  @SuppressWarnings("static-access")
+  @Test
+  public void testGrowingBeyondCompactSize() {
+    DictionaryWithParentSnapshot map = new DictionaryWithParentSnapshot(String.CASE_INSENSITIVE_ORDER);
+    for (int i = 0; i < 5; i++) {
+      map.put("p" + i, RavenJValue.parse(String.valueOf(i)));
+    }
+    map.ensureSnapshot();
+
+    DictionaryWithParentSnapshot snapshot = map.createSnapshot();
+    for (int i = 0; i < 5; i++) {
+      snapshot.remove("P" + i);
+    }
+    for (int i = 5; i < 20; i++) {
+      snapshot.put("p" + i, RavenJValue.parse(String.valueOf(i)));
+    }
+    snapshot.put("P19", RavenJValue.parse("100"));
+
+    assertEquals(15, snapshot.size());
+    assertEquals(15, snapshot.keySet().size());
+    assertFalse(snapshot.containsKey("p0"));
+    assertTrue(snapshot.containsKey("P5"));
+    assertEquals(100, snapshot.get("p19").value(Integer.class).intValue());
+    assertEquals(5, map.size());
+  }
 }
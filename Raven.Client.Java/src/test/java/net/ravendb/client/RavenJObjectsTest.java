@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
@@ -733,4 +734,40 @@ public class RavenJObjectsTest {
     assertNotNull(ravenJObject);
 
   }
+
+  @Test
+  public void testPropertyNamesAreShared() {
+    RavenJObject first = RavenJObject.parse("{ \"Name\": \"a\", \"Address\": { \"City\": \"x\" } }");
+    RavenJObject second = RavenJObject.parse("{ \"Address\": { \"City\": \"y\" }, \"Name\": \"b\" }");
+
+    assertSame(getKey(first, "Name"), getKey(second, "Name"));
+    assertSame(getKey(first.value(RavenJObject.class, "Address"), "City"), getKey(second.value(RavenJObject.class, "Address"), "City"));
+  }
+
+  private static String getKey(RavenJObject object, String key) {
+    for (String name : object.getKeys()) {
+      if (name.equals(key)) {
+        return name;
+      }
+    }
+    return null;
+  }
+
+  @Test
+  public void testLargeObjects() {
+    StringBuilder json = new StringBuilder("{");
+    for (int i = 0; i < 20; i++) {
+      if (i > 0) {
+        json.append(",");
+      }
+      json.append("\"P").append(i).append("\":").append(i);
+    }
+    json.append("}");
+    RavenJObject object = RavenJObject.parse(json.toString());
+    assertEquals(20, object.getCount());
+    for (int i = 0; i < 20; i++) {
+      assertEquals(i, object.value(Integer.class, "P" + i).intValue());
+    }
+    assertEquals(json.toString(), object.toString().replaceAll("\\s", ""));
+  }
 }
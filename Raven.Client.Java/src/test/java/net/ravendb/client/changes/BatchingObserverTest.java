@@ -0,0 +1,168 @@
+package net.ravendb.client.changes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+
+public class BatchingObserverTest {
+
+  private static class RecordingBatchObserver implements IBatchObserver<Integer> {
+    private final List<List<Integer>> batches = new ArrayList<>();
+    private final List<Exception> errors = new CopyOnWriteArrayList<>();
+    private volatile Future<?> result;
+    private final CountDownLatch completed = new CountDownLatch(1);
+
+    @Override
+    public synchronized Future<?> onNext(List<Integer> batch) {
+      batches.add(new ArrayList<>(batch));
+      return result;
+    }
+
+    @Override
+    public void onError(Exception error) {
+      errors.add(error);
+    }
+
+    @Override
+    public void onCompleted() {
+      completed.countDown();
+    }
+
+    public synchronized List<List<Integer>> getBatches() {
+      return new ArrayList<>(batches);
+    }
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void groupsItemsBySizeAndDelay() throws Exception {
+    RecordingBatchObserver target = new RecordingBatchObserver();
+    BatchingObserver<Integer> observer = new BatchingObserver<>(target, 3, 10 * 1000);
+    for (int i = 1; i <= 7; i++) {
+      observer.onNext(i);
+    }
+    observer.onCompleted();
+
+    // items which didn't fill the batch are delivered on completion, without waiting for delay
+    assertEquals(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6), Arrays.asList(7)), target.getBatches());
+    assertTrue(target.completed.await(0, TimeUnit.MILLISECONDS));
+
+    RecordingBatchObserver delayed = new RecordingBatchObserver();
+    BatchingObserver<Integer> delayedObserver = new BatchingObserver<>(delayed, 100, 50);
+    delayedObserver.onNext(1);
+    delayedObserver.onNext(2);
+    Thread.sleep(500);
+    assertEquals(Arrays.asList(Arrays.asList(1, 2)), delayed.getBatches());
+    delayedObserver.close();
+  }
+
+  @SuppressWarnings("boxing")
+  @Test(timeout = 10000)
+  public void dropsItemsWhenBufferIsFull() throws Exception {
+    RecordingBatchObserver target = new RecordingBatchObserver();
+    FutureTask<Void> handled = new FutureTask<>(new Runnable() {
+      @Override
+      public void run() {
+        // batch written
+      }
+    }, null);
+    target.result = handled;
+    BatchingObserver<Integer> observer = new BatchingObserver<>(target, 2, 0, 2, BatchOverflowPolicy.DROP);
+
+    // first batch is delivered and waits for handling, next one fills the buffer
+    observer.onNext(0);
+    observer.onNext(1);
+    while (target.getBatches().isEmpty()) {
+      Thread.sleep(1);
+    }
+    for (int i = 2; i < 6; i++) {
+      observer.onNext(i);
+    }
+    assertEquals("producer isn't blocked by slow observer", 2, observer.getDroppedItemsCount());
+    assertTrue(target.errors.isEmpty());
+
+    handled.run();
+    observer.close();
+    assertEquals(Arrays.asList(Arrays.asList(0, 1), Arrays.asList(2, 3)), target.getBatches());
+    assertEquals(1, target.errors.size());
+    assertEquals("Batch observer is slower than producer, 2 items were dropped", target.errors.get(0).getMessage());
+  }
+
+  @SuppressWarnings("boxing")
+  @Test(timeout = 10000)
+  public void buffersItemsWithoutLimitByDefault() throws Exception {
+    RecordingBatchObserver target = new RecordingBatchObserver();
+    FutureTask<Void> handled = new FutureTask<>(new Runnable() {
+      @Override
+      public void run() {
+        // batch written
+      }
+    }, null);
+    target.result = handled;
+    BatchingObserver<Integer> observer = new BatchingObserver<>(target, 2, 0);
+
+    observer.onNext(0);
+    while (target.getBatches().isEmpty()) {
+      Thread.sleep(1);
+    }
+    for (int i = 1; i < 100; i++) {
+      observer.onNext(i);
+    }
+    assertEquals(99, observer.getPendingItemsCount());
+
+    handled.run();
+    observer.close();
+    int delivered = 0;
+    for (List<Integer> batch : target.getBatches()) {
+      delivered += batch.size();
+    }
+    assertEquals(100, delivered);
+    assertEquals(0, observer.getDroppedItemsCount());
+    assertTrue(target.errors.isEmpty());
+  }
+
+  @SuppressWarnings("boxing")
+  @Test(timeout = 10000)
+  public void blocksProducerWhenBufferIsFull() throws Exception {
+    RecordingBatchObserver target = new RecordingBatchObserver();
+    final FutureTask<Void> handled = new FutureTask<>(new Runnable() {
+      @Override
+      public void run() {
+        // batch written
+      }
+    }, null);
+    target.result = handled;
+    final BatchingObserver<Integer> observer = new BatchingObserver<>(target, 1, 0, 1, BatchOverflowPolicy.BLOCK);
+
+    observer.onNext(0);
+    while (target.getBatches().isEmpty()) {
+      Thread.sleep(1);
+    }
+    observer.onNext(1);
+    Thread producer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        observer.onNext(2);
+      }
+    });
+    producer.start();
+    producer.join(200);
+    assertTrue("producer waits for space in buffer", producer.isAlive());
+
+    handled.run();
+    producer.join();
+    observer.close();
+    assertEquals(Arrays.asList(Arrays.asList(0), Arrays.asList(1), Arrays.asList(2)), target.getBatches());
+  }
+}
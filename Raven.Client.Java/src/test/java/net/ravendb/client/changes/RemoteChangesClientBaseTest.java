@@ -0,0 +1,183 @@
+package net.ravendb.client.changes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import net.ravendb.abstractions.basic.Tuple;
+import net.ravendb.abstractions.closure.Action0;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.client.connection.CreateHttpJsonRequestParams;
+import net.ravendb.client.connection.IReplicationInformerBase;
+import net.ravendb.client.connection.implementation.HttpJsonRequest;
+import net.ravendb.client.connection.implementation.HttpJsonRequestFactory;
+import net.ravendb.client.document.Convention;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+
+public class RemoteChangesClientBaseTest {
+
+  private static final int SUBSCRIPTIONS = 4;
+
+  private static final String DISCONNECT = "{\"Type\":\"Disconnect\"}";
+
+  /**
+   * Server connections in order they were opened
+   */
+  private final List<ServerEvents> connections = new CopyOnWriteArrayList<>();
+
+  /**
+   * Threads which sent subscriptions to server
+   */
+  private final Set<Thread> senders = Collections.synchronizedSet(new HashSet<Thread>());
+
+  private HttpJsonRequestFactory requestFactory;
+  private Convention convention;
+  private TestChanges changes;
+
+  public static abstract class ServerEvents implements IObservable<String>, Closeable {
+    // mocked
+  }
+
+  private static class TestChanges extends RemoteChangesClientBase<IConnectableChanges, IChangesConnectionState> {
+
+    @SuppressWarnings("rawtypes")
+    public TestChanges(HttpJsonRequestFactory jsonRequestFactory, Convention conventions, IReplicationInformerBase replicationInformer) {
+      super("http://localhost:8080", null, jsonRequestFactory, conventions, replicationInformer, new Action0() {
+        @Override
+        public void apply() {
+          // nothing to dispose
+        }
+      });
+    }
+
+    @Override
+    public void waitForAllPendingSubscriptions() {
+      // subscriptions are sent synchronously
+    }
+
+    @Override
+    protected void notifySubscribers(String type, RavenJObject value, List<DatabaseConnectionState> connections) {
+      // not observed
+    }
+
+    @Override
+    protected void subscribeOnServer() {
+      List<Tuple<String, String>> commands = new ArrayList<>();
+      for (int i = 0; i < SUBSCRIPTIONS; i++) {
+        commands.add(Tuple.<String, String> create("watch-doc", "users/" + i));
+      }
+      sendAll(commands);
+    }
+  }
+
+  @Before
+  public void setUp() {
+    convention = new Convention();
+    convention.setChangesReconnectMinDelay(1);
+    convention.setChangesReconnectMaxDelay(1);
+    convention.setChangesRestoreParallelism(2);
+
+    requestFactory = mock(HttpJsonRequestFactory.class);
+    when(requestFactory.createHttpJsonRequest(any(CreateHttpJsonRequestParams.class))).thenAnswer(new Answer<HttpJsonRequest>() {
+      @Override
+      public HttpJsonRequest answer(InvocationOnMock invocation) throws Throwable {
+        String url = ((CreateHttpJsonRequestParams) invocation.getArguments()[0]).getUrl();
+        HttpJsonRequest request = mock(HttpJsonRequest.class);
+        if (url.contains("/changes/events")) {
+          ServerEvents serverEvents = mock(ServerEvents.class);
+          connections.add(serverEvents);
+          when(request.serverPull()).thenReturn(serverEvents);
+        } else if (url.contains("command=watch-doc")) {
+          senders.add(Thread.currentThread());
+        }
+        return request;
+      }
+    });
+    changes = new TestChanges(requestFactory, convention, mock(IReplicationInformerBase.class));
+  }
+
+  @After
+  public void cleanUp() {
+    changes.close();
+  }
+
+  @SuppressWarnings("unchecked")
+  private IObserver<String> observerOf(ServerEvents serverEvents) {
+    ArgumentCaptor<IObserver> observer = ArgumentCaptor.forClass(IObserver.class);
+    verify(serverEvents).subscribe(observer.capture());
+    return observer.getValue();
+  }
+
+  @Test
+  public void testReconnectDelayBackoff() {
+    for (int i = 0; i < 100; i++) {
+      long first = RemoteChangesClientBase.getReconnectDelay(0, 1000, 30000);
+      assertTrue(first >= 500 && first <= 1000);
+
+      long third = RemoteChangesClientBase.getReconnectDelay(2, 1000, 30000);
+      assertTrue(third >= 2000 && third <= 4000);
+
+      long capped = RemoteChangesClientBase.getReconnectDelay(100, 1000, 30000);
+      assertTrue(capped >= 15000 && capped <= 30000);
+
+      long minAboveMax = RemoteChangesClientBase.getReconnectDelay(0, 5000, 2000);
+      assertTrue(minAboveMax >= 1000 && minAboveMax <= 2000);
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void callbacksOfReplacedConnectionAreIgnored() throws IOException {
+    assertEquals(1, connections.size());
+    IObserver<String> first = observerOf(connections.get(0));
+
+    first.onError(new IOException("Connection reset"));
+    assertEquals(2, connections.size());
+    verify(connections.get(0)).close();
+    assertTrue(changes.isConnected());
+
+    // reader thread of closed connection reports its failure late
+    first.onError(new IOException("Socket closed"));
+    first.onNext(DISCONNECT);
+    assertEquals(2, connections.size());
+    verify(connections.get(1), never()).close();
+    assertTrue(changes.isConnected());
+
+    observerOf(connections.get(1)).onNext(DISCONNECT);
+    assertEquals(3, connections.size());
+    verify(connections.get(1)).close();
+  }
+
+  @Test(timeout = 10000)
+  public void resubscribeReusesSenderThreads() {
+    observerOf(connections.get(0)).onError(new IOException("Connection reset"));
+    observerOf(connections.get(1)).onError(new IOException("Connection reset"));
+    assertEquals(3, connections.size());
+    verify(requestFactory, times(3 * (SUBSCRIPTIONS + 1))).createHttpJsonRequest(any(CreateHttpJsonRequestParams.class));
+
+    assertTrue("subscriptions were sent by " + senders, senders.size() <= convention.getChangesRestoreParallelism());
+    for (Thread sender : senders) {
+      assertTrue(sender.isDaemon());
+    }
+  }
+}
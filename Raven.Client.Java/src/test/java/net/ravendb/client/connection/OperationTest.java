@@ -0,0 +1,223 @@
+package net.ravendb.client.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.ravendb.abstractions.closure.Action1;
+import net.ravendb.abstractions.closure.Function1;
+import net.ravendb.abstractions.json.linq.RavenJArray;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+
+import org.junit.After;
+import org.junit.Test;
+
+
+public class OperationTest {
+
+  private final OperationStatusPoller poller = new OperationStatusPoller(1);
+
+  @After
+  public void cleanUp() {
+    poller.close();
+  }
+
+  private static RavenJObject status(boolean completed, boolean faulted, RavenJObject state) {
+    RavenJObject status = new RavenJObject();
+    status.add("Completed", completed);
+    status.add("Faulted", faulted);
+    status.add("State", state);
+    return status;
+  }
+
+  private static RavenJObject progress(int processed) {
+    RavenJObject state = new RavenJObject();
+    state.add("Processed", processed);
+    return state;
+  }
+
+  /**
+   * Operation which completes after given number of polls, reporting progress on each poll.
+   */
+  private Operation operation(long id, final int pollsToComplete, final AtomicInteger polls) {
+    Operation operation = new Operation(new Function1<Long, RavenJToken>() {
+      @Override
+      public RavenJToken apply(Long input) {
+        int poll = polls.incrementAndGet();
+        return status(poll >= pollsToComplete, false, progress(poll));
+      }
+    }, id);
+    operation.setPoller(poller);
+    operation.setPollDelays(1, 5);
+    return operation;
+  }
+
+  /**
+   * Poller stops tracking operation after its completion was signalled
+   */
+  private void awaitNoTrackedOperations() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (poller.getTrackedOperationsCount() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(1);
+    }
+    assertEquals(0, poller.getTrackedOperationsCount());
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void tracksManyOperationsWithSharedPoller() throws Exception {
+    List<Future<RavenJToken>> futures = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      futures.add(operation(i, 5, new AtomicInteger()).waitForCompletionAsync());
+    }
+    for (Future<RavenJToken> future : futures) {
+      assertEquals(5, (int) future.get(10, TimeUnit.SECONDS).value(Integer.class, "Processed"));
+    }
+    awaitNoTrackedOperations();
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void reportsProgressAndCompletion() throws Exception {
+    final List<Integer> progress = new CopyOnWriteArrayList<>();
+    final AtomicReference<RavenJToken> result = new AtomicReference<>();
+    final CountDownLatch completed = new CountDownLatch(2);
+
+    Operation operation = operation(1, 3, new AtomicInteger()).onProgress(new Action1<RavenJToken>() {
+      @Override
+      public void apply(RavenJToken state) {
+        progress.add(state.value(Integer.class, "Processed"));
+      }
+    });
+    Action1<RavenJToken> onCompleted = new Action1<RavenJToken>() {
+      @Override
+      public void apply(RavenJToken state) {
+        result.set(state);
+        completed.countDown();
+      }
+    };
+    operation.whenCompleted(onCompleted, null);
+    operation.whenCompleted(onCompleted, null);
+
+    assertTrue(completed.await(10, TimeUnit.SECONDS));
+    assertEquals(3, (int) result.get().value(Integer.class, "Processed"));
+    assertEquals(2, progress.size());
+    assertEquals(3, (int) operation.waitForCompletion().value(Integer.class, "Processed"));
+  }
+
+  @Test
+  public void failsWhenOperationFaulted() throws Exception {
+    Operation operation = new Operation(new Function1<Long, RavenJToken>() {
+      @Override
+      public RavenJToken apply(Long input) {
+        RavenJObject error = new RavenJObject();
+        error.add("Error", "Index is corrupted");
+        return status(true, true, error);
+      }
+    }, 1);
+    operation.setPoller(poller);
+
+    final AtomicReference<Exception> failure = new AtomicReference<>();
+    final CountDownLatch failed = new CountDownLatch(1);
+    operation.whenCompleted(null, new Action1<Exception>() {
+      @Override
+      public void apply(Exception e) {
+        failure.set(e);
+        failed.countDown();
+      }
+    });
+    assertTrue(failed.await(10, TimeUnit.SECONDS));
+    assertTrue(failure.get().getMessage().contains("Index is corrupted"));
+
+    try {
+      operation.waitForCompletion();
+      fail("operation faulted");
+    } catch (IllegalStateException e) {
+      assertTrue(e.getMessage().contains("Index is corrupted"));
+    }
+  }
+
+  @Test
+  public void completesWhenOperationIsNotKnown() {
+    Operation operation = new Operation(new Function1<Long, RavenJToken>() {
+      @Override
+      public RavenJToken apply(Long input) {
+        return null;
+      }
+    }, 1);
+    operation.setPoller(poller);
+    assertNull(operation.waitForCompletion());
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void progressHandlerFailureDoesNotStopTracking() throws InterruptedException {
+    Operation operation = operation(1, 3, new AtomicInteger()).onProgress(new Action1<RavenJToken>() {
+      @Override
+      public void apply(RavenJToken state) {
+        throw new IllegalStateException("Handler failed");
+      }
+    });
+    assertEquals(3, (int) operation.waitForCompletion().value(Integer.class, "Processed"));
+    awaitNoTrackedOperations();
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void keepsPollingWhenCompletionIsNotReported() {
+    final AtomicInteger polls = new AtomicInteger();
+    Operation operation = new Operation(new Function1<Long, RavenJToken>() {
+      @Override
+      public RavenJToken apply(Long input) {
+        if (polls.incrementAndGet() < 3) {
+          RavenJObject status = new RavenJObject();
+          status.add("State", progress(polls.get()));
+          return status;
+        }
+        return status(true, false, progress(polls.get()));
+      }
+    }, 1);
+    operation.setPoller(poller);
+    operation.setPollDelays(1, 5);
+    assertEquals(3, (int) operation.waitForCompletion().value(Integer.class, "Processed"));
+  }
+
+  @Test
+  public void failsWhenStatusCannotBeProcessed() throws Exception {
+    Operation operation = new Operation(new Function1<Long, RavenJToken>() {
+      @Override
+      public RavenJToken apply(Long input) {
+        return new RavenJArray();
+      }
+    }, 1);
+    operation.setPoller(poller);
+
+    final CountDownLatch failed = new CountDownLatch(1);
+    operation.whenCompleted(null, new Action1<Exception>() {
+      @Override
+      public void apply(Exception e) {
+        failed.countDown();
+      }
+    });
+    assertTrue(failed.await(10, TimeUnit.SECONDS));
+    try {
+      operation.waitForCompletionAsync().get(10, TimeUnit.SECONDS);
+      fail("status is invalid");
+    } catch (ExecutionException e) {
+      // expected
+    }
+    awaitNoTrackedOperations();
+  }
+}
@@ -0,0 +1,207 @@
+package net.ravendb.client.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.closure.Function0;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.IndexChangeNotification;
+import net.ravendb.abstractions.data.IndexQuery;
+import net.ravendb.abstractions.data.QueryResult;
+import net.ravendb.abstractions.data.UuidType;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.client.changes.IDatabaseChanges;
+import net.ravendb.client.changes.IObservable;
+import net.ravendb.client.changes.IObserver;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+
+public class QueryResultCacheTest {
+
+  private static final String INDEX = "Orders/ByFreight";
+
+  private IDatabaseChanges changes;
+  private IObservable<IndexChangeNotification> indexChanges;
+  private CleanCloseable subscription;
+  private QueryResultCache cache;
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setUp() {
+    changes = mock(IDatabaseChanges.class);
+    indexChanges = mock(IObservable.class);
+    subscription = mock(CleanCloseable.class);
+    when(changes.forIndex(INDEX)).thenReturn(indexChanges);
+    when(indexChanges.subscribe(any(IObserver.class))).thenReturn(subscription);
+    cache = new QueryResultCache(10, new Function0<IDatabaseChanges>() {
+      @Override
+      public IDatabaseChanges apply() {
+        return changes;
+      }
+    });
+    assertTrue(cache.watchIndex(INDEX));
+  }
+
+  @After
+  public void cleanUp() {
+    cache.close();
+  }
+
+  private static List<Object> key(String query) {
+    IndexQuery indexQuery = new IndexQuery(query);
+    return QueryResultCache.createKey(INDEX, indexQuery, false);
+  }
+
+  private static QueryResult result(long indexChanges, boolean stale) {
+    QueryResult result = new QueryResult();
+    result.setIndexName(INDEX);
+    result.setIndexEtag(new Etag(UuidType.DOCUMENTS, 1, indexChanges));
+    result.setStale(stale);
+    List<RavenJObject> results = new ArrayList<>();
+    RavenJObject order = new RavenJObject();
+    order.add("Freight", 600.0);
+    results.add(order);
+    result.setResults(results);
+    result.setTotalResults(1);
+    return result;
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void returnsSnapshotOfCachedResult() {
+    List<Object> key = key("Freight:{500 TO NULL}");
+    assertNull(cache.get(key));
+    cache.put(key, result(1, false), cache.getGeneration());
+
+    QueryResult cached = cache.get(key);
+    assertNotNull(cached);
+    assertEquals(1, cached.getTotalResults());
+    assertEquals(600.0, cached.getResults().get(0).value(Double.class, "Freight"), 0.001);
+    assertNotSame(cached, cache.get(key));
+    assertEquals(2, cache.getHitsCount());
+    assertEquals(1, cache.getMissesCount());
+  }
+
+  @Test
+  public void newerIndexEtagInvalidatesCachedResults() {
+    List<Object> first = key("Freight:{500 TO NULL}");
+    List<Object> second = key("Freight:{100 TO NULL}");
+    cache.put(first, result(1, false), cache.getGeneration());
+    cache.put(second, result(2, false), cache.getGeneration());
+
+    assertNull(cache.get(first));
+    assertNotNull(cache.get(second));
+
+    // result computed for older etag isn't cached
+    cache.put(first, result(1, false), cache.getGeneration());
+    assertNull(cache.get(first));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void indexChangeNotificationInvalidatesCachedResults() {
+    List<Object> key = key("Freight:{500 TO NULL}");
+    cache.put(key, result(1, false), cache.getGeneration());
+    assertNotNull(cache.get(key));
+
+    ArgumentCaptor<IObserver> observer = ArgumentCaptor.forClass(IObserver.class);
+    verify(indexChanges).subscribe(observer.capture());
+    observer.getValue().onNext(new IndexChangeNotification());
+    assertNull(cache.get(key));
+
+    cache.close();
+    verify(subscription).close();
+  }
+
+  @Test
+  public void staleResultsAreNotCached() {
+    List<Object> key = key("Freight:{500 TO NULL}");
+    cache.put(key, result(1, true), cache.getGeneration());
+    assertNull(cache.get(key));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void resultComputedBeforeInvalidationIsNotCached() {
+    List<Object> key = key("Freight:{500 TO NULL}");
+    long generation = cache.getGeneration();
+    cache.invalidateIndex(INDEX);
+    cache.put(key, result(1, false), generation);
+    assertNull(cache.get(key));
+
+    cache.put(key, result(1, false), cache.getGeneration());
+    assertNotNull(cache.get(key));
+  }
+
+  @Test
+  public void resultComputedBeforeSubscriptionIsNotCached() {
+    String resolvedIndex = "Auto/Orders/ByFreight";
+    when(changes.forIndex(resolvedIndex)).thenReturn(indexChanges);
+    List<Object> key = QueryResultCache.createKey("dynamic/Orders", new IndexQuery("Freight:{500 TO NULL}"), false);
+
+    assertTrue(cache.watchIndex("dynamic/Orders"));
+    verify(changes, never()).forIndex("dynamic/Orders");
+    QueryResult result = result(1, false);
+    result.setIndexName(resolvedIndex);
+    cache.put(key, result, cache.getGeneration());
+    assertNull("changes of resolved index weren't observed while result was computed", cache.get(key));
+    verify(changes).forIndex(resolvedIndex);
+
+    cache.put(key, result, cache.getGeneration());
+    assertNotNull(cache.get(key));
+  }
+
+  @Test
+  public void subscriptionStartsNewGeneration() {
+    String otherIndex = "Orders/ByCompany";
+    when(changes.forIndex(otherIndex)).thenReturn(indexChanges);
+    List<Object> key = key("Freight:{500 TO NULL}");
+
+    long generation = cache.getGeneration();
+    assertTrue(cache.watchIndex(otherIndex));
+    cache.put(key, result(1, false), generation);
+    assertNull(cache.get(key));
+  }
+
+  @Test
+  public void indexWhichCantBeWatchedIsNotCached() {
+    when(changes.forIndex("Orders/Failing")).thenThrow(new IllegalStateException("Connection refused"));
+    assertFalse(cache.watchIndex("Orders/Failing"));
+
+    cache.close();
+    assertFalse(cache.watchIndex(INDEX));
+  }
+
+  @Test
+  public void onlyPlainQueriesAreCacheable() {
+    assertTrue(QueryResultCache.isCacheable(new IndexQuery("Freight:{500 TO NULL}"), null, false));
+
+    IndexQuery nonStale = new IndexQuery("Freight:{500 TO NULL}");
+    nonStale.setWaitForNonStaleResultsAsOfNow(true);
+    assertFalse(QueryResultCache.isCacheable(nonStale, null, false));
+
+    IndexQuery transformed = new IndexQuery("Freight:{500 TO NULL}");
+    transformed.setResultsTransformer("OrderSummary");
+    assertFalse(QueryResultCache.isCacheable(transformed, null, false));
+
+    assertFalse(QueryResultCache.isCacheable(new IndexQuery("Freight:{500 TO NULL}"), new String[] { "Company" }, false));
+    assertFalse(QueryResultCache.isCacheable(new IndexQuery("Freight:{500 TO NULL}"), null, true));
+  }
+}
@@ -0,0 +1,161 @@
+package net.ravendb.client.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.abstractions.basic.EventHandler;
+import net.ravendb.abstractions.closure.Function1;
+import net.ravendb.abstractions.connection.OperationCredentials;
+import net.ravendb.abstractions.data.HttpMethods;
+import net.ravendb.client.connection.ReplicaHealthChecker.CircuitState;
+import net.ravendb.client.connection.ReplicationInformer.FailoverStatusChangedEventArgs;
+import net.ravendb.client.connection.implementation.HttpJsonRequestFactory;
+import net.ravendb.client.document.DocumentConvention;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+
+public class ReplicaHealthCheckerTest {
+
+  private static final String REPLICA_URL = "http://replica:8080";
+
+  private HttpServer server;
+  private volatile boolean primaryUp;
+  private final AtomicInteger probes = new AtomicInteger();
+  private final AtomicInteger primaryRequests = new AtomicInteger();
+
+  private String primaryUrl;
+  private HttpJsonRequestFactory requestFactory;
+  private ReplicationInformer informer;
+  private final List<FailoverStatusChangedEventArgs> informerEvents = new CopyOnWriteArrayList<>();
+  private final List<FailoverStatusChangedEventArgs> storeEvents = new CopyOnWriteArrayList<>();
+
+  @Before
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        probes.incrementAndGet();
+        byte[] body = "{}".getBytes("UTF-8");
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(primaryUp ? 200 : 503, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+          output.write(body);
+        }
+      }
+    });
+    server.start();
+    primaryUrl = "http://localhost:" + server.getAddress().getPort();
+
+    requestFactory = new HttpJsonRequestFactory(10);
+    informer = new ReplicationInformer(new DocumentConvention(), requestFactory);
+    informer.setDelayTimeInMiliSec(20);
+    informer.replicationDestinations = Collections.singletonList(new OperationMetadata(REPLICA_URL, new OperationCredentials()));
+    informer.addFailoverStatusChanged(new EventHandler<FailoverStatusChangedEventArgs>() {
+      @Override
+      public void handle(Object sender, FailoverStatusChangedEventArgs event) {
+        informerEvents.add(event);
+      }
+    });
+    requestFactory.getReplicaHealthChecker().addNodeStatusChanged(new EventHandler<FailoverStatusChangedEventArgs>() {
+      @Override
+      public void handle(Object sender, FailoverStatusChangedEventArgs event) {
+        storeEvents.add(event);
+      }
+    });
+  }
+
+  @After
+  public void cleanUp() {
+    informer.close();
+    requestFactory.close();
+    server.stop(0);
+  }
+
+  private String execute() {
+    return informer.executeWithReplication(HttpMethods.GET, primaryUrl, new OperationCredentials(), 1, 0, new Function1<OperationMetadata, String>() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public String apply(OperationMetadata operationMetadata) {
+        if (REPLICA_URL.equals(operationMetadata.getUrl())) {
+          return "replica";
+        }
+        primaryRequests.incrementAndGet();
+        if (!primaryUp) {
+          throw new IllegalStateException(new SocketException("Connection refused"));
+        }
+        return "primary";
+      }
+    });
+  }
+
+  private void waitForCircuit(CircuitState expected) throws InterruptedException {
+    for (int i = 0; i < 500 && informer.getCircuitState(primaryUrl) != expected; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(expected, informer.getCircuitState(primaryUrl));
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void failingNodeIsSkippedUntilProbeSucceeds() throws InterruptedException {
+    assertEquals("replica", execute());
+    assertEquals(CircuitState.OPEN, informer.getCircuitState(primaryUrl));
+    assertEquals(1, informerEvents.size());
+    assertTrue(informerEvents.get(0).getFailing());
+    assertEquals(1, storeEvents.size());
+
+    // requests neither wait for nor touch failing node
+    int requestsBefore = primaryRequests.get();
+    for (int i = 0; i < 100; i++) {
+      assertEquals("replica", execute());
+    }
+    assertEquals(requestsBefore, primaryRequests.get());
+    assertTrue(requestFactory.getReplicaHealthChecker().getScheduledProbesCount() <= 1);
+
+    int probesBefore = probes.get();
+    Thread.sleep(100);
+    assertTrue("node should be probed in background", probes.get() > probesBefore);
+    assertEquals(CircuitState.OPEN, informer.getCircuitState(primaryUrl));
+
+    primaryUp = true;
+    waitForCircuit(CircuitState.CLOSED);
+    assertEquals("primary", execute());
+    assertEquals(2, informerEvents.size());
+    assertFalse(informerEvents.get(1).getFailing());
+    assertEquals(2, storeEvents.size());
+
+    // healthy node isn't probed
+    probesBefore = probes.get();
+    Thread.sleep(100);
+    assertEquals(probesBefore, probes.get());
+  }
+
+  @Test
+  public void probesStopWhenInformerIsClosed() throws InterruptedException {
+    execute();
+    informer.close();
+    Thread.sleep(60);
+    int probesAfterClose = probes.get();
+    Thread.sleep(100);
+    assertEquals(probesAfterClose, probes.get());
+    assertEquals(CircuitState.OPEN, informer.getCircuitState(primaryUrl));
+  }
+}
@@ -0,0 +1,182 @@
+package net.ravendb.client.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.abstractions.closure.Functions;
+import net.ravendb.abstractions.connection.OperationCredentials;
+import net.ravendb.client.connection.implementation.HttpJsonRequestFactory;
+import net.ravendb.client.document.DocumentConvention;
+import net.ravendb.client.listeners.IDocumentConflictListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+
+public class ReplicationInformerTest {
+
+  private HttpServer server;
+  private final AtomicInteger topologyRequests = new AtomicInteger();
+  private volatile CountDownLatch topologyReleased = new CountDownLatch(0);
+  private volatile String topology;
+  private volatile boolean serverFailing;
+
+  private String url;
+  private DocumentConvention convention;
+  private HttpJsonRequestFactory requestFactory;
+  private ReplicationInformer informer;
+  private File localCacheFile;
+
+  @Before
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/replication/topology", new HttpHandler() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        topologyRequests.incrementAndGet();
+        try {
+          topologyReleased.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+        if (serverFailing) {
+          exchange.sendResponseHeaders(500, -1);
+          exchange.close();
+          return;
+        }
+        byte[] body = topology.getBytes("UTF-8");
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+          output.write(body);
+        }
+      }
+    });
+    server.start();
+    url = "http://localhost:" + server.getAddress().getPort();
+    topology = topologyOf("http://replica1:8080", "http://replica3:8080");
+
+    convention = new DocumentConvention();
+    requestFactory = new HttpJsonRequestFactory(10);
+    informer = new ReplicationInformer(convention, requestFactory);
+    localCacheFile = new File(System.getProperty("java.io.tmpdir"), "RavenDB Replication Information For - " + ServerHash.getServerHash(url));
+    ReplicationInformerLocalCache.clearReplicationInformationFromLocalCache(ServerHash.getServerHash(url));
+  }
+
+  @After
+  public void cleanUp() {
+    topologyReleased.countDown();
+    informer.close();
+    requestFactory.close();
+    server.stop(0);
+    ReplicationInformerLocalCache.clearReplicationInformationFromLocalCache(ServerHash.getServerHash(url));
+  }
+
+  private static String topologyOf(String... urls) {
+    StringBuilder sb = new StringBuilder("{\"Destinations\":[{\"Url\":\"http://disabled:8080\",\"Disabled\":true}");
+    for (String destination : urls) {
+      sb.append(",{\"Url\":\"").append(destination).append("\"}");
+    }
+    return sb.append("]}").toString();
+  }
+
+  private ServerClient createServerClient() {
+    return new ServerClient(url, convention, new OperationCredentials(), requestFactory, UUID.randomUUID(),
+      new Functions.StaticFunction1<String, IDocumentStoreReplicationInformer>(informer), null, new IDocumentConflictListener[0], false);
+  }
+
+  private List<String> destinationUrls() {
+    List<String> result = new ArrayList<>();
+    for (OperationMetadata destination : informer.getReplicationDestinations()) {
+      result.add(destination.getUrl());
+    }
+    return result;
+  }
+
+  @Test
+  public void topologyIsRefreshedInBackground() throws InterruptedException {
+    topologyReleased = new CountDownLatch(1);
+
+    // clients don't wait for refresh, and only single refresh is running
+    long start = System.nanoTime();
+    ServerClient serverClient = createServerClient();
+    for (int i = 0; i < 10; i++) {
+      createServerClient();
+    }
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    assertTrue(informer.getReplicationDestinations().isEmpty());
+
+    topologyReleased.countDown();
+    for (int i = 0; i < 500 && informer.getReplicationDestinations().isEmpty(); i++) {
+      Thread.sleep(10);
+    }
+    // disabled destination is skipped, following ones are used
+    List<String> expected = new ArrayList<>();
+    expected.add("http://replica1:8080");
+    expected.add("http://replica3:8080");
+    assertEquals(expected, destinationUrls());
+    assertEquals(1, topologyRequests.get());
+    assertTrue(localCacheFile.exists());
+
+    // unchanged topology isn't persisted again
+    assertTrue(localCacheFile.delete());
+    informer.refreshReplicationInformation(serverClient);
+    assertEquals(expected, destinationUrls());
+    assertFalse(localCacheFile.exists());
+
+    topology = topologyOf("http://replica2:8080");
+    informer.refreshReplicationInformation(serverClient);
+    expected.clear();
+    expected.add("http://replica2:8080");
+    assertEquals(expected, destinationUrls());
+    assertTrue(localCacheFile.exists());
+
+    // topology is loaded from local cache on startup
+    ReplicationInformer restarted = new ReplicationInformer(convention, requestFactory);
+    topologyReleased = new CountDownLatch(1);
+    restarted.updateReplicationInformationIfNeeded(serverClient);
+    assertEquals(1, restarted.getReplicationDestinations().size());
+    assertEquals("http://replica2:8080", restarted.getReplicationDestinations().get(0).getUrl());
+    restarted.close();
+  }
+
+  @Test
+  public void failedRefreshUsesTopologyReadAtStartup() throws InterruptedException {
+    ServerClient serverClient = createServerClient();
+    informer.refreshReplicationInformation(serverClient);
+    assertTrue(localCacheFile.exists());
+
+    serverFailing = true;
+    ReplicationInformer restarted = new ReplicationInformer(convention, requestFactory);
+    try {
+      restarted.refreshReplicationInformation(serverClient);
+      assertEquals(2, restarted.getReplicationDestinations().size());
+
+      // local cache isn't read again
+      assertTrue(localCacheFile.delete());
+      restarted.refreshReplicationInformation(serverClient);
+      assertEquals(2, restarted.getReplicationDestinations().size());
+      assertEquals("http://replica1:8080", restarted.getReplicationDestinations().get(0).getUrl());
+    } finally {
+      restarted.dispose();
+    }
+  }
+}
@@ -0,0 +1,223 @@
+package net.ravendb.client.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import net.ravendb.abstractions.basic.CloseableIterator;
+import net.ravendb.abstractions.closure.Function1;
+import net.ravendb.abstractions.closure.Functions;
+import net.ravendb.abstractions.connection.OperationCredentials;
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.HttpMethods;
+import net.ravendb.abstractions.exceptions.JsonReaderException;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.client.RavenPagingInformation;
+import net.ravendb.client.connection.implementation.HttpJsonRequestFactory;
+import net.ravendb.client.document.DocumentConvention;
+import net.ravendb.client.listeners.IDocumentConflictListener;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.junit.Test;
+
+
+public class ResumableStreamIteratorTest {
+
+  private static final int DOCUMENTS_COUNT = 10;
+
+  private static Etag etag(int changes) {
+    return Etag.parse("01000000-0000-0001-0000-" + String.format("%012d", changes));
+  }
+
+  private static RavenJObject document(int index) {
+    RavenJObject metadata = new RavenJObject();
+    metadata.add("@id", "users/" + index);
+    metadata.add("@etag", etag(index + 1).toString());
+    RavenJObject document = new RavenJObject();
+    document.add(Constants.METADATA, metadata);
+    return document;
+  }
+
+  /**
+   * Streams documents after the checkpoint, first opened stream fails after given number of documents.
+   */
+  private static class FailingSource implements Function1<StreamCheckpoint, CloseableIterator<RavenJObject>> {
+    private final int failAfter;
+    private final RuntimeException failure;
+    private int opened;
+
+    public FailingSource(int failAfter, RuntimeException failure) {
+      this.failAfter = failAfter;
+      this.failure = failure;
+    }
+
+    @Override
+    public CloseableIterator<RavenJObject> apply(StreamCheckpoint checkpoint) {
+      final int start = checkpoint.getLastKey() != null ? Integer.parseInt(checkpoint.getLastKey().substring("users/".length())) + 1 : 0;
+      final boolean fail = opened++ == 0;
+      return new CloseableIterator<RavenJObject>() {
+        private int position = start;
+
+        @Override
+        public boolean hasNext() {
+          if (fail && position - start == failAfter) {
+            throw failure;
+          }
+          return position < DOCUMENTS_COUNT;
+        }
+
+        @Override
+        public RavenJObject next() {
+          return document(position++);
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+          // nothing to release
+        }
+      };
+    }
+  }
+
+  @Test
+  public void resumesAfterCheckpointOnConnectionFailure() {
+    FailingSource source = new FailingSource(4, new JsonReaderException("Unable to read object", new IOException("Connection reset")));
+    List<String> keys = new ArrayList<>();
+    try (ResumableStreamIterator iterator = new ResumableStreamIterator(source, new StreamCheckpoint(), 3)) {
+      while (iterator.hasNext()) {
+        keys.add(iterator.next().value(RavenJObject.class, Constants.METADATA).value(String.class, "@id"));
+      }
+      assertEquals(2, source.opened);
+      assertEquals(DOCUMENTS_COUNT, iterator.getCheckpoint().getDelivered());
+      assertEquals("users/9", iterator.getCheckpoint().getLastKey());
+      assertEquals(etag(DOCUMENTS_COUNT), iterator.getCheckpoint().getLastEtag());
+    }
+
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < DOCUMENTS_COUNT; i++) {
+      expected.add("users/" + i);
+    }
+    assertEquals(expected, keys);
+  }
+
+  @Test
+  public void continuesFromPersistedCheckpoint() {
+    FailingSource source = new FailingSource(Integer.MAX_VALUE, null);
+    try (ResumableStreamIterator iterator = new ResumableStreamIterator(source, new StreamCheckpoint(etag(8), "users/7", 8), 3)) {
+      assertEquals("users/8", iterator.next().value(RavenJObject.class, Constants.METADATA).value(String.class, "@id"));
+      assertEquals("users/9", iterator.next().value(RavenJObject.class, Constants.METADATA).value(String.class, "@id"));
+      assertFalse(iterator.hasNext());
+      assertEquals(DOCUMENTS_COUNT, iterator.getCheckpoint().getDelivered());
+    }
+  }
+
+  @Test
+  public void rethrowsFailureNotCausedByConnection() {
+    IllegalStateException failure = new IllegalStateException("Invalid document");
+    FailingSource source = new FailingSource(2, failure);
+    try (ResumableStreamIterator iterator = new ResumableStreamIterator(source, new StreamCheckpoint(), 3)) {
+      iterator.next();
+      iterator.next();
+      iterator.hasNext();
+      fail("Expected failure");
+    } catch (IllegalStateException e) {
+      assertEquals(failure, e);
+    }
+    assertEquals(1, source.opened);
+  }
+
+  /**
+   * Streams documents like RavenDB does: after given etag in etag order, most recently modified first when there is
+   * no etag. First opened stream breaks after given number of documents.
+   */
+  private static class StreamingServerClient extends ServerClient {
+    private final int failAfter;
+    private int opened;
+
+    public StreamingServerClient(int failAfter) {
+      super("http://localhost:8080", new DocumentConvention(), new OperationCredentials(), mock(HttpJsonRequestFactory.class),
+        UUID.randomUUID(), new Functions.StaticFunction1<String, IDocumentStoreReplicationInformer>(mock(IDocumentStoreReplicationInformer.class)),
+        null, new IDocumentConflictListener[0], false);
+      this.failAfter = failAfter;
+    }
+
+    @Override
+    public <S> S executeWithReplication(HttpMethods method, Function1<OperationMetadata, S> operation) {
+      return operation.apply(new OperationMetadata(url));
+    }
+
+    @Override
+    protected CloseableHttpResponse directStreamDocsResponse(OperationMetadata operationMetadata, Etag fromEtag, String startsWith,
+      String matches, int start, int pageSize, String exclude, RavenPagingInformation pagingInformation, String skipAfter) {
+      List<RavenJObject> documents = new ArrayList<>();
+      for (int i = 0; i < DOCUMENTS_COUNT; i++) {
+        if (fromEtag == null) {
+          documents.add(document(DOCUMENTS_COUNT - 1 - i));
+        } else if (etag(i + 1).compareTo(fromEtag) > 0) {
+          documents.add(document(i));
+        }
+      }
+      boolean fail = opened++ == 0;
+      StringBuilder body = new StringBuilder("{\"Results\":[");
+      for (int i = 0; i < documents.size() && (!fail || i < failAfter); i++) {
+        body.append(documents.get(i)).append(",");
+      }
+      try {
+        InputStream content;
+        if (fail) {
+          content = new SequenceInputStream(new ByteArrayInputStream(body.toString().getBytes("UTF-8")), new InputStream() {
+            @Override
+            public int read() throws IOException {
+              throw new IOException("Connection reset");
+            }
+          });
+        } else {
+          body.setLength(body.length() - (documents.isEmpty() ? 0 : 1));
+          content = new ByteArrayInputStream(body.append("]}").toString().getBytes("UTF-8"));
+        }
+        HttpEntity entity = mock(HttpEntity.class);
+        when(entity.getContent()).thenReturn(content);
+        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        when(response.getEntity()).thenReturn(entity);
+        return response;
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  @Test
+  public void resumesStreamOfAllDocumentsWithoutDuplicates() {
+    StreamingServerClient client = new StreamingServerClient(4);
+    List<String> keys = new ArrayList<>();
+    try (ResumableStreamIterator iterator = client.streamDocsResumable(null, null, null, 0, Integer.MAX_VALUE, null, null)) {
+      while (iterator.hasNext()) {
+        keys.add(iterator.next().value(RavenJObject.class, Constants.METADATA).value(String.class, "@id"));
+      }
+    }
+
+    assertEquals(2, client.opened);
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < DOCUMENTS_COUNT; i++) {
+      expected.add("users/" + i);
+    }
+    assertEquals(expected, keys);
+  }
+}
@@ -0,0 +1,166 @@
+package net.ravendb.client.connection.implementation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.abstractions.closure.Function0;
+import net.ravendb.abstractions.data.HttpMethods;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.client.connection.CreateHttpJsonRequestParams;
+import net.ravendb.client.document.DocumentConvention;
+
+import org.junit.After;
+import org.junit.Test;
+
+
+public class RequestCoalescerTest {
+
+  private final HttpJsonRequestFactory factory = new HttpJsonRequestFactory(10);
+  private final RequestCoalescer coalescer = new RequestCoalescer();
+  private final ExecutorService executor = Executors.newFixedThreadPool(10);
+
+  @After
+  public void cleanUp() {
+    executor.shutdownNow();
+    factory.close();
+  }
+
+  private HttpJsonRequest createRequest() {
+    return factory.createHttpJsonRequest(new CreateHttpJsonRequestParams(null, "http://fake/docs?id=users/1",
+      HttpMethods.GET, null, null, new DocumentConvention()));
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void concurrentIdenticalRequestsShareSingleResponse() throws Exception {
+    final List<Object> key = Arrays.<Object>asList("http://fake/docs?id=users/1");
+    final AtomicInteger sentRequests = new AtomicInteger();
+    final CountDownLatch release = new CountDownLatch(1);
+
+    List<Future<RavenJToken>> results = new ArrayList<>();
+    final List<HttpJsonRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      final HttpJsonRequest request = createRequest();
+      requests.add(request);
+      results.add(executor.submit(new Callable<RavenJToken>() {
+        @Override
+        public RavenJToken call() throws Exception {
+          return coalescer.execute(key, request, new Function0<RavenJToken>() {
+            @Override
+            public RavenJToken apply() {
+              sentRequests.incrementAndGet();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+              }
+              Map<String, String> headers = new HashMap<>();
+              headers.put("ETag", "01000000-0000-0001-0000-000000000001");
+              request.setResponseHeaders(headers);
+              request.setResponseStatusCode(200);
+              RavenJObject document = new RavenJObject();
+              document.add("Name", "John");
+              return document;
+            }
+          });
+        }
+      }));
+    }
+
+    long deadline = System.currentTimeMillis() + 10000;
+    while (coalescer.getNumOfCoalescedRequests() < 9 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    release.countDown();
+
+    List<RavenJToken> tokens = new ArrayList<>();
+    for (Future<RavenJToken> result : results) {
+      RavenJToken token = result.get(10, TimeUnit.SECONDS);
+      assertEquals("John", token.value(String.class, "Name"));
+      for (RavenJToken other : tokens) {
+        assertNotSame(other, token);
+      }
+      tokens.add(token);
+    }
+    assertEquals(1, sentRequests.get());
+    assertEquals(9, coalescer.getNumOfCoalescedRequests());
+    for (HttpJsonRequest request : requests) {
+      assertEquals(200, request.getResponseStatusCode());
+      assertEquals("01000000-0000-0001-0000-000000000001", request.getResponseHeaders().get("ETag"));
+    }
+  }
+
+  @Test
+  public void followersGetErrorOfSharedRequest() throws Exception {
+    final List<Object> key = Arrays.<Object>asList("http://fake/docs?id=users/1");
+    final CountDownLatch release = new CountDownLatch(1);
+
+    List<Future<RavenJToken>> results = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      final HttpJsonRequest request = createRequest();
+      results.add(executor.submit(new Callable<RavenJToken>() {
+        @Override
+        public RavenJToken call() throws Exception {
+          return coalescer.execute(key, request, new Function0<RavenJToken>() {
+            @Override
+            public RavenJToken apply() {
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+              }
+              throw new IllegalStateException("Server is down");
+            }
+          });
+        }
+      }));
+    }
+    long deadline = System.currentTimeMillis() + 10000;
+    while (coalescer.getNumOfCoalescedRequests() < 2 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    release.countDown();
+
+    Set<Throwable> errors = Collections.newSetFromMap(new IdentityHashMap<Throwable, Boolean>());
+    for (Future<RavenJToken> result : results) {
+      try {
+        result.get(10, TimeUnit.SECONDS);
+        fail("shared request failed");
+      } catch (ExecutionException e) {
+        assertEquals(IllegalStateException.class, e.getCause().getClass());
+        assertTrue(e.getCause().getMessage().contains("Server is down"));
+        errors.add(e.getCause());
+      }
+    }
+    // each caller gets its own instance, followers have leader's error as cause
+    assertEquals(3, errors.size());
+    int followers = 0;
+    for (Throwable error : errors) {
+      if (error.getCause() != null) {
+        assertTrue(errors.contains(error.getCause()));
+        followers++;
+      }
+    }
+    assertEquals(2, followers);
+  }
+}
@@ -0,0 +1,97 @@
+package net.ravendb.client.connection.implementation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.ravendb.abstractions.closure.Action2;
+import net.ravendb.abstractions.data.HttpMethods;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.client.connection.CachedRequest;
+import net.ravendb.client.connection.CreateHttpJsonRequestParams;
+import net.ravendb.client.document.DocumentConvention;
+
+import org.junit.After;
+import org.junit.Test;
+
+
+public class StaleWhileRevalidateTest {
+
+  // nothing listens on this port, so background refresh fails fast
+  private static final String URL = "http://localhost:1/docs?id=users/1";
+
+  private final HttpJsonRequestFactory factory = new HttpJsonRequestFactory(10);
+
+  @After
+  public void cleanUp() {
+    factory.close();
+  }
+
+  private CachedRequest cacheDocument() {
+    Map<String, String> headers = new HashMap<>();
+    headers.put("ETag", "01000000-0000-0001-0000-000000000001");
+    RavenJObject document = new RavenJObject();
+    document.add("Name", "John");
+    factory.cacheResponse(URL, document, headers);
+    return factory.configureCaching(URL, new Action2<String, String>() {
+      @Override
+      public void apply(String first, String second) {
+        // headers are not needed
+      }
+    }).getCachedRequest();
+  }
+
+  private HttpJsonRequest createRequest() {
+    return factory.createHttpJsonRequest(new CreateHttpJsonRequestParams(null, URL, HttpMethods.GET, null, null, new DocumentConvention()));
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void servesStaleResponseAndRefreshesInBackground() throws Exception {
+    CachedRequest cachedRequest = cacheDocument();
+    factory.setAggressiveCacheDuration(1000L);
+    factory.setAggressiveCacheMaxStaleness(60000L);
+
+    HttpJsonRequest fresh = createRequest();
+    assertTrue(fresh.isSkipServerCheck());
+    assertEquals(0, factory.getNumOfStaleResponses());
+
+    cachedRequest.setTime(new Date(System.currentTimeMillis() - 5000));
+    HttpJsonRequest stale = createRequest();
+    assertTrue(stale.isSkipServerCheck());
+    assertEquals("John", stale.readResponseJson().value(String.class, "Name"));
+    assertEquals(1, factory.getNumOfStaleResponses());
+
+    long deadline = System.currentTimeMillis() + 10000;
+    while (factory.getNumOfFailedRevalidations() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, factory.getNumOfFailedRevalidations());
+    assertEquals(0, factory.getNumOfRevalidations());
+
+    cachedRequest.setForceServerCheck(true);
+    cachedRequest.setTime(new Date());
+    assertTrue(createRequest().isSkipServerCheck());
+    assertEquals(2, factory.getNumOfStaleResponses());
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void goesToServerWhenResponseIsTooStale() {
+    CachedRequest cachedRequest = cacheDocument();
+    factory.setAggressiveCacheDuration(1000L);
+    factory.setAggressiveCacheMaxStaleness(1000L);
+
+    cachedRequest.setTime(new Date(System.currentTimeMillis() - 5000));
+    assertFalse(createRequest().isSkipServerCheck());
+
+    factory.setAggressiveCacheMaxStaleness(null);
+    cachedRequest.setTime(new Date(System.currentTimeMillis() - 1500));
+    assertFalse(createRequest().isSkipServerCheck());
+    assertEquals(0, factory.getNumOfStaleResponses());
+  }
+}
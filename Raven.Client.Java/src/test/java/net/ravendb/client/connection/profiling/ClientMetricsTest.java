@@ -0,0 +1,200 @@
+package net.ravendb.client.connection.profiling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import net.ravendb.abstractions.closure.Action1;
+import net.ravendb.abstractions.connection.OperationCredentials;
+import net.ravendb.abstractions.data.HttpMethods;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.client.connection.CreateHttpJsonRequestParams;
+import net.ravendb.client.connection.implementation.HttpJsonRequest;
+import net.ravendb.client.connection.implementation.HttpJsonRequestFactory;
+import net.ravendb.client.delegates.HttpResponseWithMetaHandler;
+import net.ravendb.client.document.DocumentConvention;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+
+public class ClientMetricsTest {
+
+  @Test
+  public void testHistogramPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 10000; i++) {
+      histogram.recordValue(i);
+    }
+    assertEquals(10000, histogram.getCount());
+    assertEquals(10000, histogram.getMaxMicros());
+    assertEquals(5000.5, histogram.getMeanMicros(), 0.001);
+    assertEquals(5000, histogram.getP50Micros(), 5000 / 64);
+    assertEquals(9900, histogram.getP99Micros(), 9900 / 64);
+    assertEquals(100, histogram.getValueAtPercentile(1));
+
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getP99Micros());
+  }
+
+  @Test
+  public void testHistogramBuckets() {
+    long[] values = new long[] { 0, 1, 127, 128, 129, 255, 256, 1000, 123456789L, LatencyHistogram.MAX_VALUE };
+    for (long value : values) {
+      int index = LatencyHistogram.indexOf(value);
+      long highest = LatencyHistogram.highestEquivalentValue(index);
+      assertTrue(highest >= value);
+      assertTrue(highest - value <= Math.max(value / 64, 0) + 1);
+      if (index > 0) {
+        assertTrue(LatencyHistogram.highestEquivalentValue(index - 1) < value);
+      }
+    }
+  }
+
+  @Test
+  public void testOperationTypes() {
+    assertEquals(OperationType.LOAD, OperationType.fromRequest(HttpMethods.GET, "http://localhost:8080/databases/Db1/docs?&id=users%2F1"));
+    assertEquals(OperationType.BATCH, OperationType.fromRequest(HttpMethods.PUT, "http://localhost:8080/docs/users/1"));
+    assertEquals(OperationType.LOAD, OperationType.fromRequest(HttpMethods.POST, "http://localhost:8080/databases/Db1/queries/?"));
+    assertEquals(OperationType.QUERY, OperationType.fromRequest(HttpMethods.GET, "http://localhost:8080/databases/Db1/indexes/dynamic/Users?query="));
+    assertEquals(OperationType.BATCH, OperationType.fromRequest(HttpMethods.POST, "http://localhost:8080/databases/Db1/bulk_docs"));
+    assertEquals(OperationType.MULTI_GET, OperationType.fromRequest(HttpMethods.POST, "http://localhost:8080/databases/Db1/multi_get/"));
+    assertEquals(OperationType.STREAM, OperationType.fromRequest(HttpMethods.GET, "http://localhost:8080/streams/query/Raven/DocumentsByEntityName"));
+    assertEquals(OperationType.BULK_INSERT, OperationType.fromRequest(HttpMethods.POST, "http://localhost:8080/databases/Db1/bulkInsert?operationId=1"));
+    assertEquals(OperationType.OTHER, OperationType.fromRequest(HttpMethods.GET, "http://localhost:8080/databases/docs/replication/topology"));
+
+    assertEquals("http://localhost:8080/databases/Db1", OperationType.getReplicaUrl("http://localhost:8080/databases/Db1/docs?id=1"));
+    assertEquals("http://localhost:8080/databases/Db1", OperationType.getReplicaUrl("http://localhost:8080/databases/Db1?x=1"));
+    assertEquals("http://localhost:8080", OperationType.getReplicaUrl("http://localhost:8080/docs?id=1"));
+  }
+
+  @Test
+  public void testRecordRequests() {
+    ClientMetrics metrics = new ClientMetrics();
+    String url = "http://localhost:8080/databases/Db1/docs?id=users/1";
+    metrics.recordRequest(HttpMethods.GET, url, TimeUnit.MILLISECONDS.toNanos(2), RequestStatus.SEND_TO_SERVER, 0, 100);
+    metrics.recordRequest(HttpMethods.GET, url, TimeUnit.MILLISECONDS.toNanos(1), RequestStatus.CACHED, 0, 0);
+    metrics.recordRequest(HttpMethods.GET, url, 1000, RequestStatus.AGGRESSIVELY_CACHED, 0, 0);
+    metrics.recordRequest(HttpMethods.POST, "http://localhost:8080/databases/Db1/bulk_docs", TimeUnit.MILLISECONDS.toNanos(5),
+      RequestStatus.ERROR_ON_SERVER, 50, 10);
+    metrics.recordFailure(HttpMethods.GET, "http://localhost:8081/databases/Db1/docs?id=users/1", TimeUnit.SECONDS.toNanos(1));
+    metrics.recordReplicaFailure("http://localhost:8081/databases/Db1");
+    metrics.recordFailover();
+
+    assertEquals(5, metrics.getRequestsCount());
+    assertEquals(2, metrics.getFailedRequestsCount());
+    assertEquals(50, metrics.getBytesSent());
+    assertEquals(110, metrics.getBytesReceived());
+    assertEquals(2, metrics.getCacheHitsCount());
+    assertEquals(1, metrics.getCacheMissesCount());
+    assertEquals(2.0 / 3, metrics.getCacheHitRatio(), 0.0001);
+    assertEquals(1, metrics.getFailoversCount());
+    assertEquals(Long.valueOf(1), metrics.getReplicaFailuresCount().get("http://localhost:8081/databases/Db1"));
+
+    assertEquals(4, metrics.getOperationLatency(OperationType.LOAD).getCount());
+    assertEquals(1, metrics.getOperationLatency(OperationType.BATCH).getCount());
+    assertEquals(2, metrics.getReplicaLatencies().size());
+    assertEquals(3, metrics.getReplicaLatencies().get("http://localhost:8080/databases/Db1").getCount());
+
+    metrics.reset();
+    assertEquals(0, metrics.getRequestsCount());
+    assertEquals(0, metrics.getOperationLatency(OperationType.LOAD).getCount());
+  }
+
+  @Test
+  public void testRecordRequestSentToServer() throws Exception {
+    final AtomicInteger requests = new AtomicInteger();
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/docs", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        IOUtils.toByteArray(exchange.getRequestBody());
+        // first request has to authenticate
+        int status = requests.incrementAndGet() == 1 ? HttpStatus.SC_UNAUTHORIZED : HttpStatus.SC_OK;
+        byte[] body = "{}".getBytes("UTF-8");
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+          output.write(body);
+        }
+      }
+    });
+    server.start();
+    DocumentConvention convention = new DocumentConvention();
+    convention.setHandleUnauthorizedResponse(new HttpResponseWithMetaHandler() {
+      @Override
+      public Action1<HttpRequest> handle(HttpResponse httpResponse, OperationCredentials credentials) {
+        return new Action1<HttpRequest>() {
+          @Override
+          public void apply(HttpRequest request) {
+            // authenticated
+          }
+        };
+      }
+    });
+    try (HttpJsonRequestFactory factory = new HttpJsonRequestFactory(10)) {
+      String data = "{\"Name\":\"Łódź\"}";
+      CreateHttpJsonRequestParams params = new CreateHttpJsonRequestParams(null, "http://localhost:" + server.getAddress().getPort() + "/docs",
+        HttpMethods.POST, new RavenJObject(), new OperationCredentials(), convention);
+      try (HttpJsonRequest request = factory.createHttpJsonRequest(params)) {
+        request.write(data);
+        request.readResponseJson();
+      }
+
+      assertEquals(2, requests.get());
+      assertEquals("request which succeeded after authentication is recorded once", 1, factory.getMetrics().getRequestsCount());
+      assertEquals(0, factory.getMetrics().getFailedRequestsCount());
+      assertEquals(data.getBytes("UTF-8").length, factory.getMetrics().getBytesSent());
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  @Test
+  public void testRegisterMBeans() throws Exception {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ClientMetrics first = new ClientMetrics();
+    ClientMetrics second = new ClientMetrics();
+    try {
+      assertEquals("http://localhost:8080", first.registerMBeans("http://localhost:8080"));
+      assertEquals("http://localhost:8080 #2", second.registerMBeans("http://localhost:8080"));
+
+      first.recordRequest(HttpMethods.GET, "http://localhost:8080/docs?id=1", 1000, RequestStatus.SEND_TO_SERVER, 0, 0);
+
+      ObjectName storeName = new ObjectName("net.ravendb.client:type=DocumentStore,store=" + ObjectName.quote("http://localhost:8080"));
+      assertEquals(Long.valueOf(1), server.getAttribute(storeName, "RequestsCount"));
+
+      ObjectName loadName = new ObjectName("net.ravendb.client:type=OperationLatency,operation=load,store=" + ObjectName.quote("http://localhost:8080"));
+      assertEquals(Long.valueOf(1), server.getAttribute(loadName, "Count"));
+
+      ObjectName replicaName = new ObjectName("net.ravendb.client:type=ReplicaLatency,store=" + ObjectName.quote("http://localhost:8080")
+        + ",replica=" + ObjectName.quote("http://localhost:8080"));
+      assertTrue(server.isRegistered(replicaName));
+
+      first.unregisterMBeans();
+      assertFalse(server.isRegistered(storeName));
+      assertFalse(server.isRegistered(replicaName));
+    } finally {
+      first.unregisterMBeans();
+      second.unregisterMBeans();
+    }
+  }
+}
@@ -0,0 +1,225 @@
+package net.ravendb.client.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.ref.WeakReference;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import net.ravendb.abstractions.commands.ICommandData;
+import net.ravendb.abstractions.commands.PutCommandData;
+import net.ravendb.abstractions.data.BatchResult;
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.JsonDocument;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJValue;
+import net.ravendb.client.connection.IDatabaseCommands;
+import net.ravendb.client.document.ReadOnlySessionTest.User;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+
+public class BoundedSessionTest {
+
+  private static JsonDocument createDocument(String id) {
+    RavenJObject data = new RavenJObject();
+    data.add("Id", new RavenJValue(id));
+    data.add("Name", new RavenJValue("John"));
+    RavenJObject metadata = new RavenJObject();
+    metadata.add(Constants.RAVEN_ENTITY_NAME, new RavenJValue("Users"));
+    metadata.add(Constants.RAVEN_JAVA_CLASS, new RavenJValue(User.class.getName()));
+    return new JsonDocument(data, metadata, id, false, Etag.empty(), new Date());
+  }
+
+  private static DocumentSession createSession(DocumentStore store, int maxNumberOfEntities) {
+    return createSession(store, maxNumberOfEntities, mock(IDatabaseCommands.class));
+  }
+
+  private static DocumentSession createSession(DocumentStore store, int maxNumberOfEntities, IDatabaseCommands commands) {
+    when(commands.get(anyString())).thenAnswer(new Answer<JsonDocument>() {
+      @Override
+      public JsonDocument answer(InvocationOnMock invocation) throws Throwable {
+        return createDocument((String) invocation.getArguments()[0]);
+      }
+    });
+    DocumentSession session = new DocumentSession("Db1", store, store.getListeners(), UUID.randomUUID(), commands);
+    session.setMaxNumberOfRequestsPerSession(1000);
+    session.setMaxNumberOfEntitiesInUnitOfWork(maxNumberOfEntities);
+    return session;
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedUnmodifiedEntities() {
+    try (DocumentStore store = new DocumentStore("http://localhost:8080")) {
+      try (DocumentSession session = createSession(store, 8)) {
+        User modified = session.load(User.class, "users/0");
+        modified.setName("Changed");
+        User recentlyUsed = session.load(User.class, "users/1");
+        User stored = new User();
+        session.store(stored, "users/new");
+
+        for (int i = 2; i < 100; i++) {
+          session.load(User.class, "users/" + i);
+          assertSame(recentlyUsed, session.load(User.class, "users/1"));
+          assertTrue(session.getNumberOfEntitiesInUnitOfWork() <= 9);
+        }
+
+        assertTrue(session.getNumberOfEvictedEntities() > 0);
+        assertTrue(session.isLoaded("users/0"));
+        assertTrue(session.isLoaded("users/new"));
+        assertTrue(session.hasChanged(modified));
+        assertSame(modified, session.load(User.class, "users/0"));
+        assertFalse(session.isLoaded("users/2"));
+        assertEquals(2, session.whatChanged().size());
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void savesChangesOfEvictedEntityHeldByCaller() {
+    IDatabaseCommands commands = mock(IDatabaseCommands.class);
+    when(commands.batch(anyList())).thenAnswer(new Answer<BatchResult[]>() {
+      @Override
+      public BatchResult[] answer(InvocationOnMock invocation) throws Throwable {
+        List<ICommandData> commandDatas = (List<ICommandData>) invocation.getArguments()[0];
+        BatchResult[] results = new BatchResult[commandDatas.size()];
+        for (int i = 0; i < results.length; i++) {
+          results[i] = new BatchResult();
+          results[i].setMethod("PUT");
+          results[i].setKey(commandDatas.get(i).getKey());
+          results[i].setEtag(Etag.empty());
+          results[i].setMetadata(new RavenJObject());
+        }
+        return results;
+      }
+    });
+    ArgumentCaptor<List> batch = ArgumentCaptor.forClass(List.class);
+
+    try (DocumentStore store = new DocumentStore("http://localhost:8080")) {
+      try (DocumentSession session = createSession(store, 8, commands)) {
+        User held = session.load(User.class, "users/0");
+        for (int i = 1; i < 20; i++) {
+          session.load(User.class, "users/" + i);
+        }
+        assertFalse(session.isLoaded("users/0"));
+
+        held.setName("Changed");
+        assertTrue(session.hasChanges());
+        assertTrue(session.whatChanged().containsKey("users/0"));
+        session.saveChanges();
+      }
+    }
+
+    verify(commands).batch(batch.capture());
+    assertEquals(1, batch.getValue().size());
+    PutCommandData put = (PutCommandData) batch.getValue().get(0);
+    assertEquals("users/0", put.getKey());
+    assertEquals("Changed", put.getDocument().value(String.class, "Name"));
+  }
+
+  @Test
+  public void returnsEvictedEntityHeldByCaller() {
+    try (DocumentStore store = new DocumentStore("http://localhost:8080")) {
+      try (DocumentSession session = createSession(store, 8)) {
+        User held = session.load(User.class, "users/0");
+        for (int i = 1; i < 20; i++) {
+          session.load(User.class, "users/" + i);
+        }
+        assertFalse(session.isLoaded("users/0"));
+
+        assertSame(held, session.load(User.class, "users/0"));
+        assertTrue(session.isLoaded("users/0"));
+        held.setName("Changed");
+        assertTrue(session.hasChanged(held));
+      }
+    }
+  }
+
+  @Test
+  public void evictsUnusedIncludedDocumentsFirst() {
+    try (DocumentStore store = new DocumentStore("http://localhost:8080")) {
+      try (DocumentSession session = createSession(store, 4)) {
+        User user = session.load(User.class, "users/1");
+        for (int i = 0; i < 10; i++) {
+          session.trackIncludedDocument(createDocument("companies/" + i));
+        }
+        session.load(User.class, "companies/9");
+        session.load(User.class, "users/2");
+
+        assertEquals(8, session.getNumberOfEvictedIncludedDocuments());
+        assertEquals(0, session.getNumberOfEvictedEntities());
+        assertSame(user, session.load(User.class, "users/1"));
+        assertFalse(session.isLoaded("companies/0"));
+        assertTrue(session.isLoaded("companies/9"));
+      }
+    }
+  }
+
+  @Test
+  public void doesNotEvictWhenUnbounded() {
+    try (DocumentStore store = new DocumentStore("http://localhost:8080")) {
+      try (DocumentSession session = createSession(store, 0)) {
+        for (int i = 0; i < 50; i++) {
+          session.load(User.class, "users/" + i);
+        }
+        assertEquals(50, session.getNumberOfEntitiesInUnitOfWork());
+        assertEquals(0, session.getNumberOfEvictedEntities());
+      }
+    }
+  }
+
+  @Test
+  public void releasesEvictedEntitiesOfSessionWhichIsNeverSaved() throws InterruptedException {
+    try (DocumentStore store = new DocumentStore("http://localhost:8080")) {
+      try (DocumentSession session = createSession(store, 8)) {
+        User user = session.load(User.class, "users/0");
+        WeakReference<DocumentMetadata> metadata = new WeakReference<>(session.entitiesAndMetadata.get(user));
+        user = null;
+
+        for (int i = 1; i < 1000 && metadata.get() != null; i++) {
+          session.load(User.class, "users/" + i);
+          System.gc();
+          Thread.sleep(1);
+        }
+        assertTrue(session.getNumberOfEvictedEntities() > 0);
+        assertNull(metadata.get());
+      }
+    }
+  }
+
+  @Test
+  public void deletesAndStoresEvictedEntityHeldByCaller() {
+    try (DocumentStore store = new DocumentStore("http://localhost:8080")) {
+      try (DocumentSession session = createSession(store, 8)) {
+        User deleted = session.load(User.class, "users/0");
+        User stored = session.load(User.class, "users/1");
+        for (int i = 2; i < 20; i++) {
+          session.load(User.class, "users/" + i);
+        }
+        assertFalse(session.isLoaded("users/0"));
+        assertFalse(session.isLoaded("users/1"));
+
+        session.delete(deleted);
+        session.store(stored);
+        assertTrue(session.isLoaded("users/1"));
+        assertEquals(1, session.whatChanged().size());
+        assertFalse(session.hasChanged(stored));
+      }
+    }
+  }
+}
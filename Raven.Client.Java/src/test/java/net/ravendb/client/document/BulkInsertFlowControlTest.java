@@ -0,0 +1,86 @@
+package net.ravendb.client.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+
+public class BulkInsertFlowControlTest {
+
+  @Test
+  public void limitsBytesAndDocumentsInFlight() {
+    BulkInsertFlowControl flowControl = new BulkInsertFlowControl(3, 1000, 512);
+
+    assertTrue("document bigger than window is admitted when nothing is in flight", flowControl.tryAcquire(5000));
+    assertFalse(flowControl.tryAcquire(1));
+    flowControl.batchWritten(1, 5000, TimeUnit.MILLISECONDS.toNanos(1));
+
+    assertTrue(flowControl.tryAcquire(600));
+    assertFalse(flowControl.tryAcquire(600));
+    assertTrue(flowControl.tryAcquire(200));
+    assertTrue(flowControl.tryAcquire(200));
+    assertFalse("documents window is full", flowControl.tryAcquire(0));
+    assertEquals(3, flowControl.getDocumentsInFlight());
+    assertEquals(1000, flowControl.getBytesInFlight());
+  }
+
+  @Test
+  public void waitsWhileServerMakesProgress() throws InterruptedException {
+    final BulkInsertFlowControl flowControl = new BulkInsertFlowControl(10, 100, 512);
+    assertTrue(flowControl.tryAcquire(60));
+    assertTrue(flowControl.tryAcquire(40));
+
+    Thread server = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          // each batch is written before stall timeout elapses, but all of them take longer than the timeout
+          Thread.sleep(150);
+          flowControl.batchWritten(1, 60, TimeUnit.MILLISECONDS.toNanos(150));
+          Thread.sleep(150);
+          flowControl.batchWritten(1, 40, TimeUnit.MILLISECONDS.toNanos(150));
+        } catch (InterruptedException e) {
+          // test ends
+        }
+      }
+    });
+    server.start();
+
+    assertTrue(flowControl.acquire(100, 250));
+    server.join();
+    assertEquals(100, flowControl.getBytesInFlight());
+
+    assertFalse("server doesn't accept any batch", flowControl.acquire(10, 100));
+
+    flowControl.close();
+    assertFalse(flowControl.acquire(10, 10000));
+  }
+
+  @Test
+  public void adaptsBatchSizeToServerRate() {
+    BulkInsertFlowControl flowControl = new BulkInsertFlowControl(1000, 1000000, 512);
+    assertEquals(512, flowControl.getBatchSize());
+
+    // 100 documents per second
+    for (int i = 0; i < 20; i++) {
+      flowControl.batchWritten(100, 0, TimeUnit.SECONDS.toNanos(1));
+    }
+    assertEquals(100 * BulkInsertFlowControl.TARGET_BATCH_MILLIS / 1000, flowControl.getBatchSize(), 1);
+
+    // 1 document per second
+    for (int i = 0; i < 20; i++) {
+      flowControl.batchWritten(1, 0, TimeUnit.SECONDS.toNanos(1));
+    }
+    assertEquals(BulkInsertFlowControl.MIN_BATCH_SIZE, flowControl.getBatchSize());
+
+    // 1 000 000 documents per second
+    for (int i = 0; i < 20; i++) {
+      flowControl.batchWritten(1000, 0, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+    assertEquals(512, flowControl.getBatchSize());
+  }
+}
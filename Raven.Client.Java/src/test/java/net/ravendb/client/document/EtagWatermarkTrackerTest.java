@@ -0,0 +1,37 @@
+package net.ravendb.client.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import net.ravendb.abstractions.data.Etag;
+
+import org.junit.Test;
+
+
+public class EtagWatermarkTrackerTest {
+
+  private static Etag etag(int changes) {
+    return Etag.parse("01000000-0000-0001-0000-" + String.format("%012d", changes));
+  }
+
+  @Test
+  public void watermarkAdvancesOnlyOverProcessedPrefix() {
+    EtagWatermarkTracker tracker = new EtagWatermarkTracker();
+    int first = tracker.add(etag(1));
+    int second = tracker.add(etag(5));
+    int third = tracker.add(etag(7));
+    int fourth = tracker.add(etag(9));
+
+    tracker.markProcessed(second);
+    tracker.markProcessed(fourth);
+    assertNull(tracker.getWatermark());
+    assertEquals(2, tracker.getProcessedCount());
+
+    tracker.markProcessed(first);
+    assertEquals(etag(5), tracker.getWatermark());
+
+    tracker.markProcessed(third);
+    assertEquals(etag(9), tracker.getWatermark());
+    assertEquals(4, tracker.getProcessedCount());
+  }
+}
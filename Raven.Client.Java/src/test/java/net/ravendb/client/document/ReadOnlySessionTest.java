@@ -0,0 +1,130 @@
+package net.ravendb.client.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.UUID;
+
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.JsonDocument;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJValue;
+import net.ravendb.client.connection.IDatabaseCommands;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+
+public class ReadOnlySessionTest {
+
+  public static class User {
+    private String id;
+    private String name;
+
+    public String getId() {
+      return id;
+    }
+
+    public void setId(String id) {
+      this.id = id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+  private static DocumentSession createSession(DocumentStore store, boolean readOnly) {
+    IDatabaseCommands commands = mock(IDatabaseCommands.class);
+    when(commands.get("users/1")).thenAnswer(new Answer<JsonDocument>() {
+      @Override
+      public JsonDocument answer(InvocationOnMock invocation) throws Throwable {
+        RavenJObject data = new RavenJObject();
+        data.add("Name", new RavenJValue("John"));
+        RavenJObject metadata = new RavenJObject();
+        metadata.add(Constants.RAVEN_ENTITY_NAME, new RavenJValue("Users"));
+        return new JsonDocument(data, metadata, "users/1", false, Etag.empty(), new Date());
+      }
+    });
+    DocumentSession session = new DocumentSession("Db1", store, store.getListeners(), UUID.randomUUID(), commands);
+    session.setReadOnly(readOnly);
+    return session;
+  }
+
+  @Test
+  public void testReadOnlySessionDoesNotTrackEntities() {
+    try (DocumentStore store = new DocumentStore("http://localhost:8080")) {
+      try (DocumentSession session = createSession(store, false)) {
+        User first = session.load(User.class, "users/1");
+        assertSame(first, session.load(User.class, "users/1"));
+        assertEquals(1, session.getNumberOfRequests());
+        assertTrue(session.isLoaded("users/1"));
+      }
+
+      try (DocumentSession session = createSession(store, true)) {
+        assertTrue(session.isReadOnly());
+        User first = session.load(User.class, "users/1");
+        User second = session.load(User.class, "users/1");
+        assertEquals("John", first.getName());
+        assertEquals("users/1", first.getId());
+        assertNotSame(first, second);
+        assertEquals(2, session.getNumberOfRequests());
+        assertFalse(session.isLoaded("users/1"));
+        assertEquals(0, session.getNumberOfEntitiesInUnitOfWork());
+
+        first.setName("Changed");
+        assertFalse(session.hasChanges());
+      }
+    }
+  }
+
+  @Test
+  public void testReadOnlySessionRejectsWrites() {
+    try (DocumentStore store = new DocumentStore("http://localhost:8080")) {
+      try (DocumentSession session = createSession(store, true)) {
+        try {
+          session.store(new User());
+          fail("store should fail in read only session");
+        } catch (IllegalStateException e) {
+          // expected
+        }
+        try {
+          session.delete("users/1");
+          fail("delete should fail in read only session");
+        } catch (IllegalStateException e) {
+          // expected
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testReadOnlySessionEnforcesMaxNumberOfRequests() {
+    try (DocumentStore store = new DocumentStore("http://localhost:8080")) {
+      try (DocumentSession session = createSession(store, true)) {
+        session.setMaxNumberOfRequestsPerSession(2);
+        session.load(User.class, "users/1");
+        session.load(User.class, "users/1");
+        try {
+          session.load(User.class, "users/1");
+          fail("third request should exceed the limit");
+        } catch (IllegalStateException e) {
+          assertTrue(e.getMessage().contains("maximum number of requests"));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,225 @@
+package net.ravendb.client.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.abstractions.closure.Action0;
+import net.ravendb.abstractions.data.BulkInsertChangeNotification;
+import net.ravendb.abstractions.data.BulkInsertOptions;
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.HttpMethods;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.client.changes.IDatabaseChanges;
+import net.ravendb.client.changes.IObservable;
+import net.ravendb.client.connection.ServerClient;
+import net.ravendb.client.connection.implementation.HttpJsonRequest;
+import net.ravendb.client.document.RemoteBulkInsertOperation.BulkInsertEntity;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+
+public class RemoteBulkInsertOperationTest {
+
+  /**
+   * Server doesn't read bulk insert stream until it is released
+   */
+  private final CountDownLatch serverAccepting = new CountDownLatch(1);
+
+  private ServerClient client;
+  private IDatabaseChanges changes;
+  private BulkInsertOptions options;
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setUp() throws Exception {
+    options = new BulkInsertOptions();
+    options.setMaxBytesInFlight(100);
+
+    RavenJObject token = new RavenJObject();
+    token.add("Token", "token");
+    HttpJsonRequest request = mock(HttpJsonRequest.class);
+    when(request.readResponseJson()).thenReturn(token);
+    when(request.executeRawRequest(any(BulkInsertEntity.class))).thenAnswer(new Answer<CloseableHttpResponse>() {
+      @Override
+      public CloseableHttpResponse answer(InvocationOnMock invocation) throws Throwable {
+        ((BulkInsertEntity) invocation.getArguments()[0]).writeTo(new StalledStream());
+        return okResponse();
+      }
+    });
+
+    client = mock(ServerClient.class);
+    when(client.createRequest(any(HttpMethods.class), anyString(), anyBoolean(), anyBoolean(), any(Long.class))).thenReturn(request);
+    when(client.getOperationStatus(anyLong())).thenReturn(null);
+
+    IObservable<BulkInsertChangeNotification> bulkInsertChanges = mock(IObservable.class);
+    changes = mock(IDatabaseChanges.class);
+    when(changes.forBulkInsert(any(UUID.class))).thenReturn(bulkInsertChanges);
+  }
+
+  @After
+  public void cleanUp() {
+    serverAccepting.countDown();
+  }
+
+  private class StalledStream extends OutputStream {
+    @Override
+    public void write(int b) throws IOException {
+      await();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      await();
+    }
+
+    private void await() throws InterruptedIOException {
+      try {
+        serverAccepting.await();
+      } catch (InterruptedException e) {
+        throw new InterruptedIOException();
+      }
+    }
+  }
+
+  @SuppressWarnings("boxing")
+  private static CloseableHttpResponse okResponse() throws IOException {
+    StatusLine statusLine = mock(StatusLine.class);
+    when(statusLine.getStatusCode()).thenReturn(200);
+    ByteArrayInputStream content = new ByteArrayInputStream("{\"OperationId\":1}".getBytes("UTF-8"));
+    HttpEntity entity = mock(HttpEntity.class);
+    when(entity.getContent()).thenReturn(content);
+    CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+    when(response.getStatusLine()).thenReturn(statusLine);
+    when(response.getEntity()).thenReturn(entity);
+    return response;
+  }
+
+  private static RavenJObject document(int index) {
+    RavenJObject document = new RavenJObject();
+    document.add("Name", "user " + index);
+    return document;
+  }
+
+  /**
+   * Writes documents until window is full
+   * @return number of written documents
+   */
+  private static int fillWindow(ILowLevelBulkInsertOperation operation, Action0 beforeWrite) throws InterruptedException {
+    int written = 0;
+    while (operation.tryWrite("users/" + written, new RavenJObject(), document(written), null, beforeWrite)) {
+      written++;
+      assertTrue("window should be full", written < 100);
+    }
+    return written;
+  }
+
+  @Test(timeout = 10000)
+  public void rejectedDocumentIsNotModified() throws InterruptedException {
+    RemoteBulkInsertOperation operation = new RemoteBulkInsertOperation(options, client, changes);
+    try {
+      final AtomicInteger beforeWriteCalls = new AtomicInteger();
+      Action0 beforeWrite = new Action0() {
+        @Override
+        public void apply() {
+          beforeWriteCalls.incrementAndGet();
+        }
+      };
+      int written = fillWindow(operation, beforeWrite);
+      assertTrue(written > 0);
+      assertEquals(written, beforeWriteCalls.get());
+
+      RavenJObject metadata = new RavenJObject();
+      RavenJObject data = document(written);
+      assertFalse(operation.tryWrite("users/" + written, metadata, data, null, beforeWrite));
+      assertFalse(metadata.containsKey("@id"));
+      assertFalse(data.containsKey(Constants.METADATA));
+      assertEquals(written, beforeWriteCalls.get());
+    } finally {
+      serverAccepting.countDown();
+      operation.close();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void admitsDocumentsOnceServerAcceptsBatch() throws InterruptedException {
+    RemoteBulkInsertOperation operation = new RemoteBulkInsertOperation(options, client, changes);
+    try {
+      int written = fillWindow(operation, null);
+      serverAccepting.countDown();
+      while (!operation.tryWrite("users/" + written, new RavenJObject(), document(written), null)) {
+        Thread.sleep(1);
+      }
+    } finally {
+      serverAccepting.countDown();
+      operation.close();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void writeFailsWhenServerDoesNotAcceptAnyBatch() throws InterruptedException {
+    options.setWriteTimeoutMiliseconds(200);
+    RemoteBulkInsertOperation operation = new RemoteBulkInsertOperation(options, client, changes);
+    try {
+      int written = fillWindow(operation, null);
+      long start = System.nanoTime();
+      try {
+        operation.write("users/" + written, new RavenJObject(), document(written));
+        fail("Expected stall timeout");
+      } catch (IllegalStateException e) {
+        assertTrue(e.getMessage().startsWith("Could not flush in the specified timeout"));
+      }
+      assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+    } finally {
+      serverAccepting.countDown();
+      operation.close();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void chunkIsRolledOverWithoutWaitingForServer() throws InterruptedException {
+    options.getChunkedBulkInsertOptions().setMaxDocumentsPerChunk(2);
+    ChunkedRemoteBulkInsertOperation operation = new ChunkedRemoteBulkInsertOperation(options, client, changes);
+    try {
+      assertTrue(operation.tryWrite("users/0", new RavenJObject(), document(0), null));
+      assertTrue(operation.tryWrite("users/1", new RavenJObject(), document(1), null));
+
+      // full chunk can't be finished while server doesn't accept its documents
+      RavenJObject data = document(2);
+      assertFalse(operation.tryWrite("users/2", new RavenJObject(), data, null));
+      assertFalse(operation.tryWrite("users/2", new RavenJObject(), data, null));
+      assertFalse(data.containsKey(Constants.METADATA));
+
+      serverAccepting.countDown();
+      while (!operation.tryWrite("users/2", new RavenJObject(), data, null)) {
+        Thread.sleep(1);
+      }
+    } finally {
+      serverAccepting.countDown();
+      operation.close();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package net.ravendb.client.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.UUID;
+
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.FailoverServers;
+import net.ravendb.abstractions.replication.ReplicationDestination;
+import net.ravendb.client.connection.ServerClient;
+
+import org.junit.Test;
+
+
+public class SessionConstructionTest {
+
+  @Test
+  public void testCommandsAreCreatedDirectlyForDatabase() {
+    try (DocumentStore store = new DocumentStore("http://localhost:8080", "Db1")) {
+      store.getConventions().setFailoverBehavior(new FailoverBehaviorSet(FailoverBehavior.FAIL_IMMEDIATELY));
+      store.getSharedOperationsHeaders().put("Custom-Header", "value");
+      store.initialize();
+
+      try (DocumentSession session = (DocumentSession) store.openSession()) {
+        ServerClient commands = (ServerClient) session.getDatabaseCommands();
+        assertEquals("http://localhost:8080/databases/Db1", commands.getUrl());
+        assertEquals("value", commands.getOperationsHeaders().get("Custom-Header"));
+        assertEquals("Db1", session.getDatabaseName());
+      }
+
+      try (DocumentSession first = (DocumentSession) store.openSession("Db2");
+        DocumentSession second = (DocumentSession) store.openSession("db2")) {
+        ServerClient firstCommands = (ServerClient) first.getDatabaseCommands();
+        ServerClient secondCommands = (ServerClient) second.getDatabaseCommands();
+        assertEquals("http://localhost:8080/databases/Db2", firstCommands.getUrl());
+        assertEquals("value", firstCommands.getOperationsHeaders().get("Custom-Header"));
+        assertSame(firstCommands.getReplicationInformer(), secondCommands.getReplicationInformer());
+        assertSame(store.getReplicationInformerForDatabase("Db2"), firstCommands.getReplicationInformer());
+        assertNotEquals(first.getId(), second.getId());
+      }
+
+      try (DocumentSession session = (DocumentSession) store.openSession(Constants.SYSTEM_DATABASE)) {
+        assertEquals("http://localhost:8080", ((ServerClient) session.getDatabaseCommands()).getUrl());
+      }
+    }
+  }
+
+  @Test
+  public void testFailoverServersSetAfterSessionWasOpenedAreUsed() {
+    try (DocumentStore store = new DocumentStore("http://localhost:8080", "Db1")) {
+      store.getConventions().setFailoverBehavior(new FailoverBehaviorSet(FailoverBehavior.FAIL_IMMEDIATELY));
+      store.initialize();
+
+      try (DocumentSession session = (DocumentSession) store.openSession("Db2")) {
+        assertNull(((ServerClient) session.getDatabaseCommands()).getReplicationInformer().getFailoverServers());
+      }
+
+      ReplicationDestination destination = new ReplicationDestination();
+      destination.setUrl("http://localhost:8081");
+      destination.setDatabase("Db2");
+      FailoverServers failoverServers = new FailoverServers();
+      failoverServers.addForDatabase("Db2", destination);
+      store.setFailoverServers(failoverServers);
+
+      try (DocumentSession session = (DocumentSession) store.openSession("Db2")) {
+        ReplicationDestination[] servers = ((ServerClient) session.getDatabaseCommands()).getReplicationInformer().getFailoverServers();
+        assertEquals(1, servers.length);
+        assertSame(destination, servers[0]);
+      }
+    }
+  }
+
+  @Test
+  public void testSessionIdIsRandomUuid() {
+    try (DocumentStore store = new DocumentStore("http://localhost:8080")) {
+      store.getConventions().setFailoverBehavior(new FailoverBehaviorSet(FailoverBehavior.FAIL_IMMEDIATELY));
+      store.initialize();
+      try (DocumentSession session = (DocumentSession) store.openSession()) {
+        UUID sessionId = session.getId();
+        assertEquals(4, sessionId.version());
+        assertEquals(2, sessionId.variant());
+        assertEquals(sessionId, UUID.fromString(sessionId.toString()));
+      }
+    }
+  }
+}
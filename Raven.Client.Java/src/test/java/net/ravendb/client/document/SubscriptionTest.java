@@ -0,0 +1,298 @@
+package net.ravendb.client.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.abstractions.closure.Action0;
+import net.ravendb.abstractions.closure.Function1;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.HttpMethods;
+import net.ravendb.abstractions.data.SubscriptionConnectionOptions;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.client.changes.IDatabaseChanges;
+import net.ravendb.client.changes.IObservable;
+import net.ravendb.client.changes.ObserverAdapter;
+import net.ravendb.client.connection.IDatabaseCommands;
+import net.ravendb.client.connection.implementation.HttpJsonRequest;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+
+public class SubscriptionTest {
+
+  /**
+   * Bodies of pull responses, empty batch is returned when there are no more
+   */
+  private final Queue<String> batches = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Etags sent to server in acknowledgments
+   */
+  private final List<Etag> acknowledged = new CopyOnWriteArrayList<>();
+
+  private final CountDownLatch closed = new CountDownLatch(1);
+
+  private IDatabaseCommands commands;
+  private IDatabaseChanges changes;
+  private SubscriptionConnectionOptions options;
+  private Subscription<RavenJObject> subscription;
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setUp() {
+    commands = mock(IDatabaseCommands.class);
+    when(commands.createRequest(any(HttpMethods.class), anyString())).thenAnswer(new Answer<HttpJsonRequest>() {
+      @Override
+      public HttpJsonRequest answer(InvocationOnMock invocation) throws Throwable {
+        String url = (String) invocation.getArguments()[1];
+        if (url.startsWith("/subscriptions/acknowledgeBatch")) {
+          acknowledged.add(Etag.parse(url.replaceAll(".*lastEtag=([^&]*).*", "$1")));
+        } else if (url.startsWith("/subscriptions/close")) {
+          closed.countDown();
+        }
+        return mock(HttpJsonRequest.class);
+      }
+    });
+    when(commands.createRequest(any(HttpMethods.class), anyString(), anyBoolean(), anyBoolean(), any(Long.class))).thenAnswer(new Answer<HttpJsonRequest>() {
+      @Override
+      public HttpJsonRequest answer(InvocationOnMock invocation) throws Throwable {
+        String batch = batches.poll();
+        CloseableHttpResponse response = response(batch != null ? batch : "{\"Results\":[]}");
+        HttpJsonRequest request = mock(HttpJsonRequest.class);
+        when(request.executeRawResponse()).thenReturn(response);
+        return request;
+      }
+    });
+
+    changes = mock(IDatabaseChanges.class);
+    IObservable<?> observable = mock(IObservable.class);
+    when(changes.forAllDocuments()).thenReturn((IObservable) observable);
+    when(changes.forBulkInsert()).thenReturn((IObservable) observable);
+
+    options = new SubscriptionConnectionOptions();
+    options.setMaxDegreeOfParallelism(4);
+  }
+
+  @After
+  public void cleanUp() {
+    if (subscription != null) {
+      subscription.close();
+    }
+  }
+
+  @SuppressWarnings("boxing")
+  private static CloseableHttpResponse response(String body) throws Exception {
+    StatusLine statusLine = mock(StatusLine.class);
+    when(statusLine.getStatusCode()).thenReturn(200);
+    HttpEntity entity = mock(HttpEntity.class);
+    when(entity.getContent()).thenReturn(new ByteArrayInputStream(body.getBytes("UTF-8")));
+    CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+    when(response.getStatusLine()).thenReturn(statusLine);
+    when(response.getEntity()).thenReturn(entity);
+    return response;
+  }
+
+  private static Etag etag(int changes) {
+    return Etag.parse("01000000-0000-0001-0000-" + String.format("%012d", changes));
+  }
+
+  /**
+   * @param groups partition key of each document, documents get etags 1..n
+   */
+  @SuppressWarnings("boxing")
+  private static String batch(int... groups) {
+    StringBuilder sb = new StringBuilder("{\"Results\":[");
+    for (int i = 1; i <= groups.length; i++) {
+      if (i > 1) {
+        sb.append(",");
+      }
+      sb.append(String.format("{\"Number\":%d,\"Group\":%d,\"@metadata\":{\"@id\":\"docs/%d\",\"@etag\":\"%s\"}}",
+        i, groups[i - 1], i, etag(i)));
+    }
+    return sb.append("],\"LastProcessedEtag\":\"").append(etag(groups.length)).append("\"}").toString();
+  }
+
+  private void open() {
+    subscription = new Subscription<>(RavenJObject.class, 1, "db", options, commands, changes, new DocumentConvention(), true, new Action0() {
+      @Override
+      public void apply() {
+        // subscription is open
+      }
+    });
+  }
+
+  private void partitionByGroup() {
+    subscription.setPartitionKeySelector(new Function1<RavenJObject, Object>() {
+      @Override
+      public Object apply(RavenJObject document) {
+        return document.value(Integer.class, "Group");
+      }
+    });
+  }
+
+  private static int numberOf(RavenJObject document) {
+    return document.value(Integer.class, "Number");
+  }
+
+  private void awaitAcknowledgment(Etag etag) throws InterruptedException {
+    for (int i = 0; i < 1000 && !acknowledged.contains(etag); i++) {
+      Thread.sleep(10);
+    }
+    assertTrue("acknowledged " + acknowledged, acknowledged.contains(etag));
+  }
+
+  @Test(timeout = 20000)
+  public void processesBatchConcurrently() throws InterruptedException {
+    batches.add(batch(0, 0, 0, 0, 0, 0, 0, 0));
+    open();
+
+    final CountDownLatch concurrent = new CountDownLatch(options.getMaxDegreeOfParallelism());
+    final Set<Integer> processed = Collections.synchronizedSet(new HashSet<Integer>());
+    subscription.subscribe(new ObserverAdapter<RavenJObject>() {
+      @SuppressWarnings("boxing")
+      @Override
+      public void onNext(RavenJObject document) {
+        concurrent.countDown();
+        try {
+          // each worker waits for others, so batch is processed only when documents are passed concurrently
+          assertTrue(concurrent.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        processed.add(numberOf(document));
+      }
+    });
+
+    awaitAcknowledgment(etag(8));
+    assertEquals(8, processed.size());
+    assertFalse(subscription.isErroredBecauseOfSubscriber());
+  }
+
+  @SuppressWarnings("boxing")
+  @Test(timeout = 20000)
+  public void keepsEtagOrderWithinPartition() throws InterruptedException {
+    batches.add(batch(0, 1, 2, 0, 1, 2, 0, 1, 2, 3));
+    open();
+    partitionByGroup();
+
+    final List<List<Integer>> processed = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      processed.add(new CopyOnWriteArrayList<Integer>());
+    }
+    subscription.subscribe(new ObserverAdapter<RavenJObject>() {
+      @Override
+      public void onNext(RavenJObject document) {
+        processed.get(document.value(Integer.class, "Group")).add(numberOf(document));
+      }
+    });
+
+    awaitAcknowledgment(etag(10));
+    assertEquals("[[1, 4, 7], [2, 5, 8], [3, 6, 9], [10]]", processed.toString());
+  }
+
+  @Test(timeout = 20000)
+  public void retriesFailingSubscriber() throws InterruptedException {
+    options.setMaxDocumentRetries(2);
+    batches.add(batch(0, 1, 2, 3));
+    open();
+
+    final AtomicInteger attempts = new AtomicInteger();
+    subscription.subscribe(new ObserverAdapter<RavenJObject>() {
+      @Override
+      public void onNext(RavenJObject document) {
+        if (numberOf(document) == 2 && attempts.incrementAndGet() <= 2) {
+          throw new IllegalStateException("Sink is not available");
+        }
+      }
+    });
+
+    awaitAcknowledgment(etag(4));
+    assertEquals(3, attempts.get());
+    assertFalse(subscription.isErroredBecauseOfSubscriber());
+  }
+
+  @Test(timeout = 20000)
+  public void acknowledgesProcessedPrefixWhenSubscriberFails() throws InterruptedException {
+    options.setMaxDocumentRetries(1);
+    // documents 1 - 3 are processed in order by the same worker, following ones by other workers
+    batches.add(batch(0, 0, 0, 1, 2, 3));
+    open();
+    partitionByGroup();
+
+    final AtomicInteger attempts = new AtomicInteger();
+    subscription.subscribe(new ObserverAdapter<RavenJObject>() {
+      @Override
+      public void onNext(RavenJObject document) {
+        if (numberOf(document) == 3) {
+          attempts.incrementAndGet();
+          throw new IllegalStateException("Invalid document");
+        }
+      }
+    });
+
+    assertTrue(closed.await(10, TimeUnit.SECONDS));
+    assertTrue(subscription.isErroredBecauseOfSubscriber());
+    assertEquals(2, attempts.get());
+    // documents after failed one are redelivered, although some of them were processed
+    assertEquals(Collections.singletonList(etag(2)), acknowledged);
+  }
+
+  @Test(timeout = 20000)
+  public void acknowledgesProgressOfLongBatch() throws InterruptedException {
+    options.getBatchOptions().setAcknowledgmentTimeout(100L);
+    batches.add(batch(0, 0, 1));
+    open();
+    partitionByGroup();
+
+    final CountDownLatch progressAcknowledged = new CountDownLatch(1);
+    subscription.subscribe(new ObserverAdapter<RavenJObject>() {
+      @Override
+      public void onNext(RavenJObject document) {
+        if (numberOf(document) == 2) {
+          // document takes longer than acknowledgment timeout, server has to see progress meanwhile
+          try {
+            for (int i = 0; i < 500 && !acknowledged.contains(etag(1)); i++) {
+              Thread.sleep(10);
+            }
+          } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+          if (acknowledged.contains(etag(1))) {
+            progressAcknowledged.countDown();
+          }
+        }
+      }
+    });
+
+    awaitAcknowledgment(etag(3));
+    assertTrue(progressAcknowledged.await(0, TimeUnit.MILLISECONDS));
+    assertEquals(etag(1), acknowledged.get(0));
+    assertEquals(etag(3), acknowledged.get(acknowledged.size() - 1));
+  }
+}
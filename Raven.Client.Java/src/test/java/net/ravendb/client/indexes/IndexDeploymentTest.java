@@ -0,0 +1,170 @@
+package net.ravendb.client.indexes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+
+import net.ravendb.abstractions.data.DatabaseStatistics;
+import net.ravendb.abstractions.data.IndexStats;
+import net.ravendb.abstractions.data.IndexStats.IndexingPriority;
+import net.ravendb.abstractions.data.IndexToAdd;
+import net.ravendb.abstractions.indexing.FieldIndexing;
+import net.ravendb.abstractions.indexing.FieldStorage;
+import net.ravendb.abstractions.indexing.IndexDefinition;
+import net.ravendb.abstractions.indexing.TransformerDefinition;
+import net.ravendb.client.connection.IDatabaseCommands;
+import net.ravendb.client.document.DocumentConvention;
+import net.ravendb.client.document.IndexAndTransformerReplicationMode;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+
+public class IndexDeploymentTest {
+
+  public static class Users_ByName extends AbstractIndexCreationTask {
+    public Users_ByName() {
+      map = "from user in docs.Users select new { user.Name }";
+      index("Name", FieldIndexing.ANALYZED);
+    }
+  }
+
+  public static class Users_ByAge extends AbstractIndexCreationTask {
+    public Users_ByAge() {
+      map = "from user in docs.Users select new { user.Age }";
+    }
+  }
+
+  public static class Users_ByEmail extends AbstractIndexCreationTask {
+    public Users_ByEmail() {
+      map = "from user in docs.Users select new { user.Email }";
+      setPriority(IndexingPriority.IDLE);
+    }
+  }
+
+  public static class UserNames extends AbstractTransformerCreationTask {
+    public UserNames() {
+      transformResults = "from user in results select new { user.Name }";
+    }
+  }
+
+  @Test
+  public void testIgnoresDefaultsAndFormatting() {
+    IndexDefinition local = new IndexDefinition("from user in docs.Users\n    select new { user.Name }");
+    local.getStores().put("Age", FieldStorage.NO);
+    local.getIndexes().put("Name", FieldIndexing.ANALYZED);
+
+    IndexDefinition server = new IndexDefinition("from user in docs.Users select new { user.Name }");
+    server.setName("Users/ByName");
+    server.setIndexId(5);
+    server.getIndexes().put("Name", FieldIndexing.ANALYZED);
+
+    assertTrue(server.equals(local, true));
+    assertFalse(server.equals(local, false));
+
+    server.getIndexes().put("Name", FieldIndexing.NOT_ANALYZED);
+    assertFalse(server.equals(local, true));
+  }
+
+  @Test
+  public void testWhitespaceInLiteralsIsNotFormatting() {
+    IndexDefinition server = new IndexDefinition("from user in docs.Users select new { Name = user.Name + \"a  b\" }");
+    assertTrue(server.equals(new IndexDefinition("from user in docs.Users\n select new { Name = user.Name + \"a  b\" }"), true));
+    assertFalse(server.equals(new IndexDefinition("from user in docs.Users select new { Name = user.Name + \"a b\" }"), true));
+
+    server = new IndexDefinition("from user in docs.Users select new { Name = user.Name + @\"\"\"a  \" + ' ' + \"\\\"  \" }");
+    assertTrue(server.equals(new IndexDefinition("from user in docs.Users  select new { Name = user.Name + @\"\"\"a  \" + ' ' + \"\\\"  \" }"), true));
+    assertFalse(server.equals(new IndexDefinition("from user in docs.Users select new { Name = user.Name + @\"\"\"a \" + ' ' + \"\\\"  \" }"), true));
+    assertFalse(server.equals(new IndexDefinition("from user in docs.Users select new { Name = user.Name + @\"\"\"a  \" + '  ' + \"\\\"  \" }"), true));
+    assertFalse(server.equals(new IndexDefinition("from user in docs.Users select new { Name = user.Name + @\"\"\"a  \" + ' ' + \"\\\" \" }"), true));
+  }
+
+  @Test
+  public void testDeploysOnlyChangedDefinitions() {
+    DocumentConvention conventions = new DocumentConvention();
+    conventions.setIndexAndTransformerReplicationMode(EnumSet.noneOf(IndexAndTransformerReplicationMode.class));
+
+    List<AbstractIndexCreationTask> indexes = Arrays.<AbstractIndexCreationTask> asList(new Users_ByName(), new Users_ByAge(), new Users_ByEmail());
+    List<AbstractTransformerCreationTask> transformers = Arrays.<AbstractTransformerCreationTask> asList(new UserNames());
+    IndexDeployment deployment = new IndexDeployment(indexes, transformers, conventions, 4);
+
+    IndexDefinition byName = new Users_ByName().createIndexDefinition();
+    byName.setName("users/byname");
+    IndexDefinition byAge = new IndexDefinition("from user in docs.Users select new { user.Age, user.Name }");
+    byAge.setName("Users/ByAge");
+    IndexDefinition byEmail = new Users_ByEmail().createIndexDefinition();
+    byEmail.setName("Users/ByEmail");
+    Collection<IndexDefinition> serverIndexes = new ArrayList<>(Arrays.asList(byName, byAge, byEmail));
+
+    TransformerDefinition userNames = new UserNames().createTransformerDefinition();
+
+    IndexStats byNameStats = new IndexStats();
+    byNameStats.setName("Users/ByName");
+    byNameStats.setPriority(IndexingPriority.NORMAL);
+    IndexStats byEmailStats = new IndexStats();
+    byEmailStats.setName("Users/ByEmail");
+    byEmailStats.setPriority(IndexingPriority.NORMAL);
+    DatabaseStatistics statistics = new DatabaseStatistics();
+    statistics.setIndexes(new IndexStats[] { byNameStats, byEmailStats });
+
+    IDatabaseCommands commands = mock(IDatabaseCommands.class);
+    when(commands.getIndexes(anyInt(), anyInt())).thenReturn(serverIndexes);
+    when(commands.getTransformers(anyInt(), anyInt())).thenReturn(Arrays.asList(userNames));
+    when(commands.getStatistics()).thenReturn(statistics);
+
+    IndexDeploymentReport report = deployment.deploy("Db1", commands);
+
+    assertFalse(report.hasErrors());
+    assertEquals(Arrays.asList("Users/ByAge"), report.getPutIndexes());
+    assertEquals(Arrays.asList("Users/ByName", "Users/ByEmail"), report.getUnchangedIndexes());
+    assertEquals(Arrays.asList("Users/ByEmail"), report.getPrioritizedIndexes());
+    assertEquals(Arrays.asList("UserNames"), report.getUnchangedTransformers());
+
+    ArgumentCaptor<IndexToAdd[]> captor = ArgumentCaptor.forClass(IndexToAdd[].class);
+    verify(commands).putIndexes(captor.capture());
+    assertEquals(1, captor.getValue().length);
+    assertEquals("Users/ByAge", captor.getValue()[0].getName());
+    verify(commands).setIndexPriority("Users/ByEmail", IndexingPriority.IDLE);
+    verify(commands, never()).putTransformer(anyString(), any(TransformerDefinition.class));
+  }
+
+  @Test
+  public void testSingleIndexIsPutOnlyWhenChanged() {
+    DocumentConvention conventions = new DocumentConvention();
+    conventions.setIndexAndTransformerReplicationMode(EnumSet.noneOf(IndexAndTransformerReplicationMode.class));
+
+    IndexDefinition byName = new Users_ByName().createIndexDefinition();
+    byName.setName("Users/ByName");
+    IndexDefinition byAge = new IndexDefinition("from user in docs.Users select new { user.Age, user.Name }");
+    byAge.setName("Users/ByAge");
+
+    IDatabaseCommands commands = mock(IDatabaseCommands.class);
+    when(commands.getIndex("Users/ByName")).thenReturn(byName);
+    when(commands.getIndex("Users/ByAge")).thenReturn(byAge);
+
+    new Users_ByName().execute(commands, conventions);
+    verify(commands, never()).putIndex(anyString(), any(IndexDefinition.class), anyBoolean());
+
+    new Users_ByAge().execute(commands, conventions);
+    verify(commands).putIndex(eq("Users/ByAge"), any(IndexDefinition.class), eq(true));
+
+    new Users_ByEmail().execute(commands, conventions);
+    verify(commands).putIndex(eq("Users/ByEmail"), any(IndexDefinition.class), eq(true));
+    verify(commands).setIndexPriority("Users/ByEmail", IndexingPriority.IDLE);
+  }
+}
@@ -0,0 +1,186 @@
+package net.ravendb.client.shard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import net.ravendb.abstractions.data.IndexQuery;
+import net.ravendb.abstractions.data.QueryOperator;
+import net.ravendb.client.IDocumentStore;
+import net.ravendb.client.document.DocumentStore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mysema.query.types.path.PathBuilder;
+
+
+public class RoutingShardResolutionStrategyTest {
+
+  public static class Order {
+    private String id;
+    private String customer;
+    private Long number;
+
+    public Order() {
+    }
+
+    public Order(String customer, Long number) {
+      this.customer = customer;
+      this.number = number;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public void setId(String id) {
+      this.id = id;
+    }
+
+    public String getCustomer() {
+      return customer;
+    }
+
+    public void setCustomer(String customer) {
+      this.customer = customer;
+    }
+
+    public Long getNumber() {
+      return number;
+    }
+
+    public void setNumber(Long number) {
+      this.number = number;
+    }
+  }
+
+  private final List<IDocumentStore> stores = new ArrayList<>();
+
+  private final PathBuilder<Order> order = new PathBuilder<>(Order.class, "o");
+
+  @Before
+  public void setUp() {
+    for (int i = 0; i < 5; i++) {
+      stores.add(new DocumentStore("http://localhost:8080"));
+    }
+  }
+
+  @After
+  public void cleanUp() {
+    for (IDocumentStore store : stores) {
+      store.close();
+    }
+  }
+
+  private ShardStrategy createShardStrategy(int shards) {
+    Map<String, IDocumentStore> shardStores = new LinkedHashMap<>();
+    for (int i = 0; i < shards; i++) {
+      shardStores.put("shard" + i, stores.get(i));
+    }
+    return new ShardStrategy(shardStores);
+  }
+
+  private static List<String> shardsForQuery(IShardResolutionStrategy strategy, String query) {
+    return shardsForQuery(strategy, query, QueryOperator.OR);
+  }
+
+  private static List<String> shardsForQuery(IShardResolutionStrategy strategy, String query, QueryOperator defaultOperator) {
+    ShardRequestData requestData = new ShardRequestData();
+    requestData.setEntityType(Order.class);
+    IndexQuery indexQuery = new IndexQuery(query);
+    indexQuery.setDefaultOperator(defaultOperator);
+    requestData.setQuery(indexQuery);
+    return strategy.potentialShardsFor(requestData);
+  }
+
+  @Test
+  public void consistentHashingMovesOnlyKeysTakenOverByNewShard() {
+    ShardStrategy fourShards = createShardStrategy(4);
+    ConsistentHashShardResolutionStrategy before = new ConsistentHashShardResolutionStrategy(fourShards.getShards().keySet(), fourShards)
+      .shardingOn(order.get("customer"));
+    ShardStrategy fiveShards = createShardStrategy(5);
+    ConsistentHashShardResolutionStrategy after = new ConsistentHashShardResolutionStrategy(fiveShards.getShards().keySet(), fiveShards)
+      .shardingOn(order.get("customer"));
+
+    int keys = 10000;
+    int moved = 0;
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < keys; i++) {
+      Order entity = new Order("customers/" + i, null);
+      String oldShard = before.generateShardIdFor(entity, null);
+      String newShard = after.generateShardIdFor(entity, null);
+      if (!oldShard.equals(newShard)) {
+        assertEquals("shard4", newShard);
+        moved++;
+      }
+      Integer count = counts.get(newShard);
+      counts.put(newShard, count == null ? 1 : count + 1);
+    }
+    assertTrue("moved " + moved, moved > keys / 10 && moved < keys * 3 / 10);
+    for (Integer count : counts.values()) {
+      assertTrue("unbalanced " + counts, count > keys / 10);
+    }
+  }
+
+  @Test
+  public void consistentHashingPrunesEqualityAndInPredicates() {
+    ShardStrategy shardStrategy = createShardStrategy(4);
+    ConsistentHashShardResolutionStrategy strategy = new ConsistentHashShardResolutionStrategy(shardStrategy.getShards().keySet(), shardStrategy)
+      .shardingOn(order.get("customer"));
+
+    String first = strategy.generateShardIdFor(new Order("customers/1", null), null);
+    String second = strategy.generateShardIdFor(new Order("customers/2", null), null);
+
+    assertEquals(Arrays.asList(first), shardsForQuery(strategy, "Customer:customers/1"));
+    assertEquals(Arrays.asList(first), shardsForQuery(strategy, "Customer:CUSTOMERS/1"));
+    assertEquals(Arrays.asList(first), shardsForQuery(strategy, "Customer:customers/1 AND Number_Range:{Lx5 TO NULL}"));
+    assertEquals(Arrays.asList(first), shardsForQuery(strategy, "(Number:5 OR Number:6) AND Customer:customers/1"));
+    assertEquals(Arrays.asList(first), shardsForQuery(strategy, "Customer:customers/1 Number:5", QueryOperator.AND));
+    assertEquals(new ArrayList<>(new TreeSet<>(Arrays.asList(first, second))),
+      shardsForQuery(strategy, "@in<Customer>:(customers/1,customers/2) "));
+
+    // other predicate may match documents on any shard
+    assertNull(shardsForQuery(strategy, "Customer:customers/1 OR Number:5"));
+    assertNull(shardsForQuery(strategy, "Customer:customers/1 Number:5"));
+    assertNull(shardsForQuery(strategy, "-Customer:customers/1"));
+    assertNull(shardsForQuery(strategy, "Customer:customers/1*"));
+    assertNull(shardsForQuery(strategy, "Customer:{customers/1 TO customers/5}"));
+  }
+
+  @Test
+  public void rangesPruneRangePredicates() {
+    ShardStrategy shardStrategy = createShardStrategy(3);
+    Map<String, Long> lowerBounds = new LinkedHashMap<>();
+    lowerBounds.put("shard2", 1000L);
+    lowerBounds.put("shard0", null);
+    lowerBounds.put("shard1", 100L);
+    RangeShardResolutionStrategy strategy = new RangeShardResolutionStrategy(lowerBounds, shardStrategy)
+      .shardingOn(order.get("number"));
+
+    assertEquals("shard0", strategy.generateShardIdFor(new Order("customers/1", 99L), null));
+    assertEquals("shard1", strategy.generateShardIdFor(new Order("customers/1", 100L), null));
+    assertEquals("shard2", strategy.generateShardIdFor(new Order("customers/1", 5000L), null));
+
+    assertEquals(Arrays.asList("shard1"), shardsForQuery(strategy, "Number_Range:[Lx100 TO Lx500]"));
+    assertEquals(Arrays.asList("shard0"), shardsForQuery(strategy, "Number_Range:{Lx50 TO Lx100}"));
+    assertEquals(Arrays.asList("shard0", "shard1"), shardsForQuery(strategy, "Number_Range:[Lx50 TO Lx100]"));
+    assertEquals(Arrays.asList("shard1", "shard2"), shardsForQuery(strategy, "Number_Range:{Lx500 TO NULL}"));
+    assertEquals(Arrays.asList("shard0", "shard2"), shardsForQuery(strategy, "@in<Number>:(5,2000)"));
+    assertEquals(Arrays.asList("shard1"), shardsForQuery(strategy, "Number_Range:{Lx500 TO NULL} AND Number_Range:{* TO Lx900}"));
+    assertEquals(Arrays.asList("shard0", "shard2"), shardsForQuery(strategy, "Number:5 OR Number:2000"));
+    assertNull(shardsForQuery(strategy, "Customer:customers/1"));
+
+    ShardRequestData load = new ShardRequestData(Arrays.asList("shard1/orders/1", "shard2/orders/2", "shard1/orders/3"), Order.class);
+    assertEquals(Arrays.asList("shard1", "shard2"), strategy.potentialShardsFor(load));
+  }
+}
@@ -0,0 +1,116 @@
+package net.ravendb.client.shard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.abstractions.closure.Function0;
+import net.ravendb.client.connection.implementation.HttpJsonRequestFactory;
+
+import org.junit.After;
+import org.junit.Test;
+
+
+public class ShardRequestsExecutorTest {
+
+  private final ShardRequestsExecutor executor = new ShardRequestsExecutor(4);
+
+  @After
+  public void cleanUp() {
+    executor.close();
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void executesRequestsConcurrently() {
+    final CountDownLatch allStarted = new CountDownLatch(4);
+    List<Function0<Integer>> requests = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      final int shard = i;
+      requests.add(new Function0<Integer>() {
+        @Override
+        public Integer apply() {
+          allStarted.countDown();
+          try {
+            // would time out if requests were executed one by one
+            if (!allStarted.await(10, TimeUnit.SECONDS)) {
+              throw new IllegalStateException("Requests are not executed concurrently");
+            }
+          } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+          return shard;
+        }
+      });
+    }
+    assertEquals(Arrays.asList(0, 1, 2, 3), executor.executeAll(requests));
+  }
+
+  @Test
+  public void waitsForAllRequestsAndMergesErrors() {
+    final AtomicInteger completed = new AtomicInteger();
+    List<Function0<String>> requests = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      final int shard = i;
+      requests.add(new Function0<String>() {
+        @Override
+        public String apply() {
+          if (shard > 0) {
+            throw new IllegalStateException("Shard " + shard + " is down");
+          }
+          try {
+            Thread.sleep(50);
+          } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+          completed.incrementAndGet();
+          return "ok";
+        }
+      });
+    }
+    try {
+      executor.executeAll(requests);
+      fail("shards 1 and 2 failed");
+    } catch (IllegalStateException e) {
+      assertEquals("Shard 1 is down", e.getMessage());
+      assertEquals(1, e.getSuppressed().length);
+      assertTrue(e.getSuppressed()[0].getMessage().contains("Shard 2"));
+    }
+    assertEquals(1, completed.get());
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void appliesThreadSettingsOfCallerToAllRequests() {
+    try (HttpJsonRequestFactory factory = new HttpJsonRequestFactory(16);
+      ShardRequestsExecutor scopedExecutor = new ShardRequestsExecutor(2, Arrays.asList(factory))) {
+      final HttpJsonRequestFactory requestFactory = factory;
+      List<Function0<Long>> requests = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        requests.add(new Function0<Long>() {
+          @Override
+          public Long apply() {
+            return requestFactory.getAggressiveCacheDuration();
+          }
+        });
+      }
+      factory.setAggressiveCacheDuration(1000L);
+      try {
+        assertEquals(Arrays.asList(1000L, 1000L, 1000L), scopedExecutor.executeAll(requests));
+      } finally {
+        factory.setAggressiveCacheDuration(null);
+      }
+
+      // settings don't leak to executing threads
+      List<Long> withoutScope = scopedExecutor.executeAll(requests);
+      assertEquals(Arrays.asList((Long) null, null, null), withoutScope);
+    }
+  }
+}
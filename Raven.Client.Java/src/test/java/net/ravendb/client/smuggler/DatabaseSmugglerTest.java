@@ -0,0 +1,135 @@
+package net.ravendb.client.smuggler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.json.linq.RavenJArray;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.abstractions.smuggler.ItemType;
+import net.ravendb.abstractions.smuggler.ItemTypeSet;
+import net.ravendb.client.IDocumentStore;
+import net.ravendb.client.connection.ServerClient;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParser;
+import org.junit.Test;
+
+
+public class DatabaseSmugglerTest {
+
+  private static final String ETAG_1 = "01000000-0000-0001-0000-000000000001";
+  private static final String ETAG_2 = "01000000-0000-0001-0000-000000000002";
+  private static final String ETAG_3 = "01000000-0000-0001-0000-000000000003";
+
+  private final JsonFactory jsonFactory = new JsonFactory();
+
+  private Etag copy(String response, StringWriter output, SmugglerStatistics statistics) throws Exception {
+    return copy(response, output, statistics, false);
+  }
+
+  private Etag copy(String response, StringWriter output, SmugglerStatistics statistics, boolean includeSystemDocuments) throws Exception {
+    try (JsonParser parser = jsonFactory.createJsonParser(response);
+      JsonGenerator generator = jsonFactory.createJsonGenerator(output)) {
+      generator.writeStartArray();
+      Etag etag = DatabaseSmuggler.copyDocuments(parser, generator, statistics, includeSystemDocuments);
+      generator.writeEndArray();
+      return etag;
+    }
+  }
+
+  @Test
+  public void copiesDocumentsAndPicksEtagFromMetadata() throws Exception {
+    String first = "{\"Name\":\"first\",\"Lines\":[{\"@etag\":\"not-an-etag\"}],\"@metadata\":{\"@id\":\"orders/1\",\"@etag\":\"" + ETAG_1 + "\"}}";
+    String second = "{\"@metadata\":{\"Nested\":{\"@etag\":\"not-an-etag\"},\"@etag\":\"" + ETAG_2 + "\",\"@id\":\"orders/2\"},\"Name\":\"second\"}";
+
+    StringWriter output = new StringWriter();
+    SmugglerStatistics statistics = new SmugglerStatistics();
+    Etag etag = copy("{\"Results\":[" + first + "," + second + "]}", output, statistics);
+
+    assertEquals(Etag.parse(ETAG_2), etag);
+    assertEquals(2, statistics.getDocuments());
+    assertTrue(RavenJToken.deepEquals(RavenJArray.parse("[" + first + "," + second + "]"), RavenJArray.parse(output.toString())));
+  }
+
+  @Test
+  public void emptyResultsHaveNoEtag() throws Exception {
+    StringWriter output = new StringWriter();
+    SmugglerStatistics statistics = new SmugglerStatistics();
+    assertNull(copy("{\"Results\":[]}", output, statistics));
+    assertEquals(0, statistics.getDocuments());
+    assertEquals("[]", output.toString());
+  }
+
+  @Test
+  public void serverErrorAfterResultsFailsExport() throws Exception {
+    try {
+      copy("{\"Results\":[{\"@metadata\":{\"@etag\":\"" + ETAG_1 + "\"}}],\"Error\":\"disk full\"}", new StringWriter(), new SmugglerStatistics());
+      fail();
+    } catch (IllegalStateException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("disk full"));
+    }
+  }
+
+  @Test
+  public void picksHighestEtagWhenDocumentsAreNotInEtagOrder() throws Exception {
+    String response = "{\"Results\":[{\"@metadata\":{\"@id\":\"orders/3\",\"@etag\":\"" + ETAG_3 + "\"}},"
+      + "{\"@metadata\":{\"@id\":\"orders/1\",\"@etag\":\"" + ETAG_1 + "\"}}]}";
+    assertEquals(Etag.parse(ETAG_3), copy(response, new StringWriter(), new SmugglerStatistics()));
+  }
+
+  @Test
+  public void skipsSystemDocumentsButKeepsTheirEtag() throws Exception {
+    String order = "{\"Name\":\"first\",\"@metadata\":{\"@id\":\"orders/1\",\"@etag\":\"" + ETAG_1 + "\"}}";
+    String hilo = "{\"Max\":32,\"@metadata\":{\"@etag\":\"" + ETAG_2 + "\",\"@id\":\"Raven/Hilo/orders\"}}";
+    String destinations = "{\"Destinations\":[],\"@metadata\":{\"@etag\":\"" + ETAG_3 + "\",\"@id\":\"Raven/Replication/Destinations\"}}";
+    String response = "{\"Results\":[" + order + "," + hilo + "," + destinations + "]}";
+
+    StringWriter output = new StringWriter();
+    SmugglerStatistics statistics = new SmugglerStatistics();
+    assertEquals(Etag.parse(ETAG_3), copy(response, output, statistics));
+    assertEquals(2, statistics.getDocuments());
+    assertTrue(RavenJToken.deepEquals(RavenJArray.parse("[" + order + "," + hilo + "]"), RavenJArray.parse(output.toString())));
+
+    output = new StringWriter();
+    statistics = new SmugglerStatistics();
+    copy(response, output, statistics, true);
+    assertEquals(3, statistics.getDocuments());
+  }
+
+  @Test
+  public void fullExportStreamsDocumentsInEtagOrder() throws Exception {
+    String response = "{\"Results\":[{\"@metadata\":{\"@id\":\"orders/1\",\"@etag\":\"" + ETAG_1 + "\"}}]}";
+    HttpEntity entity = mock(HttpEntity.class);
+    when(entity.getContent()).thenReturn(new ByteArrayInputStream(response.getBytes("UTF-8")));
+    CloseableHttpResponse httpResponse = mock(CloseableHttpResponse.class);
+    when(httpResponse.getEntity()).thenReturn(entity);
+    ServerClient commands = mock(ServerClient.class);
+    // without etag server streams newest documents first
+    when(commands.streamDocsResponse(Etag.empty())).thenReturn(httpResponse);
+    IDocumentStore store = mock(IDocumentStore.class);
+    when(store.getDatabaseCommands()).thenReturn(commands);
+
+    SmugglerOptions options = new SmugglerOptions();
+    options.setOperateOnTypes(ItemTypeSet.of(ItemType.DOCUMENTS));
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    SmugglerStatistics statistics = new DatabaseSmuggler(store).exportDatabase(output, options, null);
+
+    verify(commands).streamDocsResponse(Etag.empty());
+    assertEquals(1, statistics.getDocuments());
+    assertEquals(1, RavenJObject.parse(output.toString("UTF-8")).value(RavenJArray.class, "Docs").size());
+  }
+}
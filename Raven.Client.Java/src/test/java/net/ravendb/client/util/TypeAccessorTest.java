@@ -0,0 +1,117 @@
+package net.ravendb.client.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import net.ravendb.client.document.DocumentConvention;
+
+import org.junit.Test;
+
+
+public class TypeAccessorTest {
+
+  public static class Base {
+    private String id;
+    private int version;
+
+    public String getId() {
+      return id;
+    }
+
+    public void setId(String id) {
+      this.id = id;
+    }
+
+    public int getVersion() {
+      return version;
+    }
+  }
+
+  public static class Person extends Base {
+    public static final String COLLECTION = "People";
+
+    private String name;
+    private int age;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public int getAge() {
+      return age;
+    }
+
+    public void setAge(int age) {
+      this.age = age;
+    }
+  }
+
+  @Test
+  public void discoversFieldsAndPropertiesOnce() {
+    TypeAccessor accessor = TypeAccessor.of(Person.class);
+    assertSame(accessor, TypeAccessor.of(Person.class));
+    assertSame(accessor.getReadWriteProperties(), accessor.getReadWriteProperties());
+
+    List<String> fields = new ArrayList<>();
+    for (FieldAccessor field : accessor.getFields()) {
+      fields.add(field.getName());
+    }
+    assertEquals(4, fields.size());
+    assertEquals("name", fields.get(0));
+    assertEquals("age", fields.get(1));
+    assertNull(accessor.getField("COLLECTION"));
+
+    List<String> properties = new ArrayList<>();
+    for (PropertyAccessor property : accessor.getReadWriteProperties()) {
+      properties.add(property.getName());
+    }
+    // version has no setter, class has no setter
+    assertEquals(3, properties.size());
+    assertEquals(true, properties.contains("age") && properties.contains("id") && properties.contains("name"));
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void readsAndWritesValues() {
+    Person person = new Person();
+    TypeAccessor accessor = TypeAccessor.of(Person.class);
+
+    FieldAccessor id = accessor.getField("id");
+    id.set(person, "people/1");
+    assertEquals("people/1", person.getId());
+    assertEquals("people/1", id.get(person));
+    assertSame(TypeAccessor.of(Base.class).getField("id"), TypeAccessor.of(id.getField()));
+
+    accessor.getField("version").set(person, 5);
+    assertEquals(5, person.getVersion());
+
+    Person copy = new Person();
+    person.setName("John");
+    person.setAge(42);
+    for (PropertyAccessor property : accessor.getReadWriteProperties()) {
+      property.set(copy, property.get(person));
+    }
+    assertEquals("people/1", copy.getId());
+    assertEquals("John", copy.getName());
+    assertEquals(42, copy.getAge());
+  }
+
+  @Test
+  public void listsFieldsOfTypesWhichAreNotAccessible() {
+    // fields of JDK classes can't be made accessible on java 9+, only fields which are used are resolved
+    assertFalse(TypeAccessor.of(HashMap.class).getFields().isEmpty());
+    assertNotNull(TypeAccessor.of(HashMap.class).getReadWriteProperties());
+    assertNull(new DocumentConvention().getIdentityPropertyAccessor(HashMap.class));
+  }
+}
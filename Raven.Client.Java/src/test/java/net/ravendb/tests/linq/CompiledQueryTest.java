@@ -0,0 +1,126 @@
+package net.ravendb.tests.linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import net.ravendb.client.IDocumentSession;
+import net.ravendb.client.document.DocumentStore;
+import net.ravendb.client.linq.CompiledQuery;
+import net.ravendb.client.linq.IRavenQueryable;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.mysema.query.annotations.QueryEntity;
+import com.mysema.query.types.expr.Param;
+
+
+public class CompiledQueryTest {
+
+  private final DocumentStore store;
+  private final IDocumentSession session;
+
+  public CompiledQueryTest() {
+    store = new DocumentStore("http://fake");
+    store.initialize();
+    session = store.openSession();
+  }
+
+  @After
+  public void cleanUp() {
+    session.close();
+    store.close();
+  }
+
+  public static enum Gender {
+    MALE, FEMALE
+  }
+
+  @QueryEntity
+  public static class User {
+    private String name;
+    private int age;
+    private Gender gender;
+
+    public String getName() {
+      return name;
+    }
+    public void setName(String name) {
+      this.name = name;
+    }
+    public int getAge() {
+      return age;
+    }
+    public void setAge(int age) {
+      this.age = age;
+    }
+    public Gender getGender() {
+      return gender;
+    }
+    public void setGender(Gender gender) {
+      this.gender = gender;
+    }
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void bindsParametersWithoutTranslatingAgain() {
+    QCompiledQueryTest_User x = QCompiledQueryTest_User.user;
+    Param<String> name = new Param<>(String.class, "name");
+    Param<Integer> age = new Param<>(Integer.class, "age");
+    Param<Gender> gender = new Param<>(Gender.class, "gender");
+
+    CompiledQuery<User> query = session.query(User.class)
+      .where(x.name.startsWith(name).and(x.age.gt(age)).and(x.gender.eq(gender)))
+      .compile();
+    assertEquals("(Name:{name}* AND Age_Range:{{age} TO NULL}) AND Gender:{gender}", query.toString());
+
+    try (IDocumentSession otherSession = store.openSession()) {
+      assertEquals("(Name:John* AND Age_Range:{Ix30 TO NULL}) AND Gender:MALE",
+        query.bind(otherSession).set(name, "John").set(age, 30).set(gender, Gender.MALE).toDocumentQuery().toString());
+      assertEquals("(Name:\"Mary Ann*\" AND Age_Range:{Ix5 TO NULL}) AND Gender:FEMALE",
+        query.bind(otherSession).set(name, "Mary Ann").set(age, 5).set(gender, Gender.FEMALE).toDocumentQuery().toString());
+    }
+
+    IRavenQueryable<User> constantQuery = session.query(User.class)
+      .where(x.name.startsWith("John").and(x.age.gt(30)).and(x.gender.eq(Gender.MALE)));
+    assertEquals(constantQuery.toString(), query.bind(session).set(name, "John").set(age, 30).set(gender, Gender.MALE).toDocumentQuery().toString());
+  }
+
+  @Test
+  public void cachesCompiledQueriesByShape() {
+    QCompiledQueryTest_User x = QCompiledQueryTest_User.user;
+    Param<String> name = new Param<>(String.class, "name");
+
+    CompiledQuery<User> first = session.query(User.class).where(x.name.eq(name)).compile();
+    CompiledQuery<User> second = store.openSession().query(User.class).where(x.name.eq(name)).compile();
+    CompiledQuery<User> otherIndex = session.query(User.class, "Users/ByName").where(x.name.eq(name)).compile();
+    assertSame(first, second);
+    assertNotSame(first, otherIndex);
+    assertEquals(2, store.getCompiledQueryCache().size());
+  }
+
+  @Test
+  public void requiresValuesOfAllParameters() {
+    QCompiledQueryTest_User x = QCompiledQueryTest_User.user;
+    Param<String> name = new Param<>(String.class, "name");
+    IRavenQueryable<User> query = session.query(User.class).where(x.name.eq(name));
+
+    try {
+      query.compile().bind(session).toDocumentQuery();
+      fail("parameter value is missing");
+    } catch (IllegalStateException e) {
+      assertTrue(e.getMessage().contains("name"));
+    }
+
+    try {
+      query.toList();
+      fail("query with parameters must be compiled");
+    } catch (IllegalStateException e) {
+      assertTrue(e.getMessage().contains("compiled query"));
+    }
+  }
+}
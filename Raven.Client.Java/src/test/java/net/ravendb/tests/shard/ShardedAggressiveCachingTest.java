@@ -0,0 +1,87 @@
+package net.ravendb.tests.shard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.basic.EventHandler;
+import net.ravendb.client.IDocumentSession;
+import net.ravendb.client.IDocumentStore;
+import net.ravendb.client.connection.profiling.RequestResultArgs;
+import net.ravendb.client.connection.profiling.RequestStatus;
+import net.ravendb.client.shard.RangeShardResolutionStrategy;
+import net.ravendb.client.shard.ShardStrategy;
+import net.ravendb.client.shard.ShardedDocumentStore;
+import net.ravendb.tests.bugs.QUser;
+import net.ravendb.tests.bugs.User;
+import net.ravendb.tests.bundles.replication.ReplicationBase;
+
+import org.junit.Test;
+
+
+public class ShardedAggressiveCachingTest extends ReplicationBase {
+
+  private static AtomicInteger countAggressivelyCachedRequests(IDocumentStore store) {
+    final AtomicInteger count = new AtomicInteger();
+    store.getJsonRequestFactory().addLogRequestEventHandler(new EventHandler<RequestResultArgs>() {
+      @Override
+      public void handle(Object sender, RequestResultArgs event) {
+        if (event.getStatus() == RequestStatus.AGGRESSIVELY_CACHED) {
+          count.incrementAndGet();
+        }
+      }
+    });
+    return count;
+  }
+
+  @Test
+  public void loadsFromAllShardsAreAggressivelyCached() {
+    try (IDocumentStore store1 = createStore();
+      IDocumentStore store2 = createStore()) {
+      Map<String, IDocumentStore> shardMap = new LinkedHashMap<>();
+      shardMap.put("1", store1);
+      shardMap.put("2", store2);
+      ShardStrategy shardStrategy = new ShardStrategy(shardMap);
+      Map<String, Integer> lowerBounds = new LinkedHashMap<>();
+      lowerBounds.put("1", null);
+      lowerBounds.put("2", 100);
+      shardStrategy.setShardResolutionStrategy(new RangeShardResolutionStrategy(lowerBounds, shardStrategy).shardingOn(QUser.user.age));
+      try (ShardedDocumentStore documentStore = new ShardedDocumentStore(shardStrategy)) {
+        documentStore.initialize();
+        AtomicInteger cachedByShard1 = countAggressivelyCachedRequests(store1);
+        AtomicInteger cachedByShard2 = countAggressivelyCachedRequests(store2);
+
+        String[] ids = new String[2];
+        try (IDocumentSession session = documentStore.openSession()) {
+          for (int i = 0; i < ids.length; i++) {
+            User user = new User();
+            user.setAge(i * 100);
+            session.store(user);
+            ids[i] = user.getId();
+          }
+          session.saveChanges();
+        }
+        assertTrue(ids[0].startsWith("1/"));
+        assertTrue(ids[1].startsWith("2/"));
+
+        for (int i = 0; i < 2; i++) {
+          try (CleanCloseable scope = documentStore.aggressivelyCacheFor(5 * 60 * 1000);
+            IDocumentSession session = documentStore.openSession()) {
+            User[] users = session.load(User.class, ids);
+            assertNotNull(users[0]);
+            assertNotNull(users[1]);
+          }
+        }
+
+        // the second load from each shard is served from cache, regardless of thread which sent it
+        assertEquals(1, cachedByShard1.get());
+        assertEquals(1, cachedByShard2.get());
+      }
+    }
+  }
+}